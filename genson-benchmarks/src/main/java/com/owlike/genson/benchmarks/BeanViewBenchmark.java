@@ -0,0 +1,126 @@
+package com.owlike.genson.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.owlike.genson.BeanView;
+import com.owlike.genson.Context;
+import com.owlike.genson.GenericType;
+import com.owlike.genson.Genson;
+import com.owlike.genson.GensonBuilder;
+import com.owlike.genson.reflect.BeanDescriptor;
+import com.owlike.genson.reflect.BeanViewDescriptorProvider;
+import com.owlike.genson.reflect.TypeUtil;
+import com.owlike.genson.stream.ObjectWriter;
+
+/**
+ * Measures the serialization of a List&lt;Person&gt; without view and with a BeanView applying to
+ * Person. The previous resolution, that was walking the generic types of the views and looking up
+ * the descriptor for each object, is reproduced by serializing the elements the same way.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BeanViewBenchmark {
+  private final static GenericType<List<Person>> PERSONS_TYPE = new GenericType<List<Person>>() {
+  };
+
+  private final ViewsBuilder builder = new ViewsBuilder();
+  private final Genson genson = builder.useBeanViews(true).create();
+  private final List<Person> persons = new ArrayList<Person>();
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+  @Setup
+  public void setUp() {
+    for (int i = 0; i < 100; i++) persons.add(new Person("first" + i, "last" + i, 20 + i % 50));
+  }
+
+  @Benchmark
+  public int withoutView() {
+    out.reset();
+    genson.serialize(persons, PERSONS_TYPE.getType(), genson.createWriter(out), new Context(genson));
+    return out.size();
+  }
+
+  @Benchmark
+  public int cachedView() {
+    out.reset();
+    genson.serialize(persons, PERSONS_TYPE.getType(), genson.createWriter(out),
+      new Context(genson).withView(PersonView.class));
+    return out.size();
+  }
+
+  @SuppressWarnings("unchecked")
+  @Benchmark
+  public int previousViewPerObject() {
+    out.reset();
+    ObjectWriter writer = genson.createWriter(out);
+    Context ctx = new Context(genson).withView(PersonView.class);
+    BeanViewDescriptorProvider provider = builder.beanViewDescriptorProvider();
+    writer.beginArray();
+    for (Person person : persons) {
+      for (Class<? extends BeanView<?>> v : ctx.views()) {
+        Type searchedType = TypeUtil.lookupGenericType(BeanView.class, v);
+        searchedType = TypeUtil.expandType(searchedType, v);
+        searchedType = TypeUtil.typeOf(0, searchedType);
+        if (TypeUtil.match(Person.class, searchedType, false)) {
+          Type viewForType = TypeUtil.expandType(BeanView.class.getTypeParameters()[0], v);
+          Class<Person> viewForClass = (Class<Person>) TypeUtil.getRawClass(viewForType);
+          BeanDescriptor<Person> descriptor = provider.provide(viewForClass,
+            (Class<? extends BeanView<Person>>) v, genson);
+          descriptor.serialize(person, writer, ctx);
+          break;
+        }
+      }
+    }
+    writer.endArray();
+    writer.flush();
+    return out.size();
+  }
+
+  // gives access to the provider of the view descriptors used by the Genson instance
+  private static class ViewsBuilder extends GensonBuilder {
+    BeanViewDescriptorProvider beanViewDescriptorProvider() {
+      return getBeanViewDescriptorProvider();
+    }
+  }
+
+  public static class Person {
+    public String firstName;
+    public String lastName;
+    public int age;
+
+    Person(String firstName, String lastName, int age) {
+      this.firstName = firstName;
+      this.lastName = lastName;
+      this.age = age;
+    }
+  }
+
+  public static class PersonView implements BeanView<Person> {
+    public String getFullName(Person p) {
+      return p.firstName + " " + p.lastName;
+    }
+
+    public boolean isAdult(Person p) {
+      return p.age >= 18;
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package com.owlike.genson.benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ProfilerConfig;
+
+/**
+ * Main class of benchmarks.jar, it accepts the usual JMH options and by default adds the gc
+ * profiler, reporting the allocations of each benchmark, and writes the results as json to
+ * jmh-result.json. Two result files can be compared with {@link CompareResults}.
+ * <pre>
+ * java -jar genson-benchmarks/target/benchmarks.jar Deserialization -p dataset=TWEETS -rff baseline.json
+ * </pre>
+ */
+public class BenchmarkRunner {
+  public final static String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+  public static void main(String[] args) throws Exception {
+    CommandLineOptions cmdOptions = new CommandLineOptions(args);
+    if (cmdOptions.shouldHelp() || cmdOptions.shouldList() || cmdOptions.shouldListProfilers()
+      || cmdOptions.shouldListResultFormats() || cmdOptions.shouldListWithParams()) {
+      Main.main(args);
+      return;
+    }
+
+    ChainedOptionsBuilder options = new OptionsBuilder().parent(cmdOptions);
+    boolean gcProfiler = false;
+    for (ProfilerConfig profiler : cmdOptions.getProfilers()) {
+      gcProfiler |= profiler.getKlass().equals("gc") || profiler.getKlass().equals(GCProfiler.class.getName());
+    }
+    if (!gcProfiler) options.addProfiler(GCProfiler.class);
+    if (!cmdOptions.getResultFormat().hasValue()) {
+      options.resultFormat(ResultFormatType.JSON);
+      if (!cmdOptions.getResult().hasValue()) options.result(DEFAULT_RESULT_FILE);
+    }
+
+    new Runner(options.build()).run();
+  }
+}
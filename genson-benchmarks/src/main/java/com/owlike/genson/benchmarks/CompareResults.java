@@ -0,0 +1,112 @@
+package com.owlike.genson.benchmarks;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.owlike.genson.GenericType;
+import com.owlike.genson.Genson;
+
+/**
+ * Compares two JMH json result files and prints the score and allocation change of each benchmark.
+ * It exits with status 1 when a benchmark is slower than the baseline by more than the threshold
+ * (5% by default) and by more than the error of both scores.
+ * <pre>
+ * java -cp genson-benchmarks/target/benchmarks.jar com.owlike.genson.benchmarks.CompareResults \
+ *   baseline.json jmh-result.json [threshold%]
+ * </pre>
+ */
+public class CompareResults {
+  private final static String ALLOC_RATE_NORM = "\u00b7gc.alloc.rate.norm";
+  private final static GenericType<List<Map<String, Object>>> RESULTS_TYPE =
+    new GenericType<List<Map<String, Object>>>() {
+    };
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 2) {
+      System.err.println("Usage: CompareResults <baseline.json> <current.json> [threshold%]");
+      System.exit(2);
+    }
+    double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 5;
+    Map<String, Map<String, Object>> baseline = read(args[0]);
+    Map<String, Map<String, Object>> current = read(args[1]);
+
+    int regressions = 0;
+    for (Map.Entry<String, Map<String, Object>> entry : current.entrySet()) {
+      Map<String, Object> previous = baseline.get(entry.getKey());
+      if (previous == null) {
+        System.out.println(entry.getKey() + ": no baseline");
+        continue;
+      }
+      Map<String, Object> before = metric(previous, "primaryMetric");
+      Map<String, Object> after = metric(entry.getValue(), "primaryMetric");
+      // the throughput should increase, the time per operation decrease
+      boolean higherIsBetter = "thrpt".equals(entry.getValue().get("mode"));
+      double change = percent(score(before), score(after));
+      double slowdown = higherIsBetter ? -change : change;
+      boolean regression = slowdown > threshold
+        && Math.abs(score(after) - score(before)) > error(before) + error(after);
+      if (regression) regressions++;
+
+      StringBuilder line = new StringBuilder(String.format(Locale.US, "%s: %.3f -> %.3f %s (%+.1f%%)",
+        entry.getKey(), score(before), score(after), after.get("scoreUnit"), change));
+      Map<String, Object> allocBefore = secondaryMetric(previous, ALLOC_RATE_NORM);
+      Map<String, Object> allocAfter = secondaryMetric(entry.getValue(), ALLOC_RATE_NORM);
+      if (allocBefore != null && allocAfter != null) {
+        line.append(String.format(Locale.US, ", allocated %.0f -> %.0f B/op (%+.1f%%)", score(allocBefore),
+          score(allocAfter), percent(score(allocBefore), score(allocAfter))));
+      }
+      if (regression) line.append(" REGRESSION");
+      System.out.println(line);
+    }
+
+    if (regressions > 0) {
+      System.out.println(regressions + " benchmark(s) slower than the baseline by more than " + threshold + "%");
+      System.exit(1);
+    }
+  }
+
+  // the results by benchmark and parameters
+  private static Map<String, Map<String, Object>> read(String file) throws Exception {
+    InputStream in = new FileInputStream(file);
+    try {
+      Map<String, Map<String, Object>> results = new LinkedHashMap<String, Map<String, Object>>();
+      for (Map<String, Object> result : new Genson().deserialize(in, RESULTS_TYPE)) {
+        String key = (String) result.get("benchmark");
+        if (result.get("params") != null) key += " " + result.get("params");
+        results.put(key, result);
+      }
+      return results;
+    } finally {
+      in.close();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> metric(Map<String, Object> result, String name) {
+    return (Map<String, Object>) result.get(name);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> secondaryMetric(Map<String, Object> result, String name) {
+    Map<String, Object> metrics = metric(result, "secondaryMetrics");
+    return metrics != null ? (Map<String, Object>) metrics.get(name) : null;
+  }
+
+  private static double score(Map<String, Object> metric) {
+    return ((Number) metric.get("score")).doubleValue();
+  }
+
+  private static double error(Map<String, Object> metric) {
+    Object error = metric.get("scoreError");
+    // NaN is written as a string when there are not enough iterations
+    return error instanceof Number ? ((Number) error).doubleValue() : 0;
+  }
+
+  private static double percent(double before, double after) {
+    return before == 0 ? 0 : (after - before) * 100 / before;
+  }
+}
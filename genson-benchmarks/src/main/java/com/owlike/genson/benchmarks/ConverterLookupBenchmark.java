@@ -0,0 +1,79 @@
+package com.owlike.genson.benchmarks;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.owlike.genson.Converter;
+import com.owlike.genson.Genson;
+import com.owlike.genson.ThreadLocalHolder;
+import com.owlike.genson.bean.Primitives;
+
+/**
+ * Measures the converter lookups done for each value of a polymorphic List&lt;Object&gt; of 10k
+ * values, once with Genson.provideConverter and once with the lookup that was done before: a
+ * ThreadLocalHolder check followed by a ConcurrentHashMap lookup. The serialization of the whole
+ * list is also measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ConverterLookupBenchmark {
+  private final Genson genson = new Genson();
+  private final List<Object> values = new ArrayList<Object>();
+  private final ConcurrentHashMap<Type, Converter<?>> previousCache = new ConcurrentHashMap<Type, Converter<?>>();
+
+  @Setup
+  public void setUp() {
+    for (int i = 0; i < 10000; i++) {
+      switch (i % 7) {
+        case 0: values.add(i); break;
+        case 1: values.add((long) i); break;
+        case 2: values.add(i / 3d); break;
+        case 3: values.add("value" + i); break;
+        case 4: values.add(i % 2 == 0); break;
+        case 5: values.add(new Date(i)); break;
+        default: values.add(new Primitives(i, i, i, (double) i, "text", true, false));
+      }
+    }
+    for (Object value : values) previousCache.put(value.getClass(), genson.provideConverter(value.getClass()));
+  }
+
+  @Benchmark
+  public void lookup(Blackhole blackhole) {
+    for (Object value : values) blackhole.consume(genson.provideConverter(value.getClass()));
+  }
+
+  @Benchmark
+  public void previousLookup(Blackhole blackhole) {
+    for (Object value : values) {
+      if (Boolean.TRUE.equals(ThreadLocalHolder.get("__GENSON$DO_NOT_CACHE_CONVERTER", Boolean.class))) {
+        throw new IllegalStateException();
+      }
+      blackhole.consume(previousCache.get(value.getClass()));
+    }
+  }
+
+  @Benchmark
+  public String serialize() {
+    return genson.serialize(values);
+  }
+}
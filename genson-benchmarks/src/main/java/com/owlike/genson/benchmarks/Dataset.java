@@ -0,0 +1,52 @@
+package com.owlike.genson.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import com.owlike.genson.GenericType;
+import com.owlike.genson.bean.Feed;
+import com.owlike.genson.bean.MediaContent;
+import com.owlike.genson.bean.Tweet;
+
+/**
+ * The json documents used by the benchmarks, they are the resources of the genson tests also used
+ * by the previous benchmarks, with the type they are bound to.
+ */
+public enum Dataset {
+  TWEETS("/TWEETS.json", new GenericType<List<Tweet>>() {
+  }),
+  READER_SHORT("/READER_SHORT.json", GenericType.of(Feed.class)),
+  READER_LONG("/READER_LONG.json", GenericType.of(Feed.class)),
+  MEDIA_CONTENT("/MEDIA_CONTENT.json", GenericType.of(MediaContent.class));
+
+  private final String resource;
+  private final GenericType<?> type;
+
+  Dataset(String resource, GenericType<?> type) {
+    this.resource = resource;
+    this.type = type;
+  }
+
+  public GenericType<?> type() {
+    return type;
+  }
+
+  /**
+   * Returns the UTF-8 encoded content of the document.
+   */
+  public byte[] bytes() throws IOException {
+    InputStream in = Dataset.class.getResourceAsStream(resource);
+    if (in == null) throw new IllegalStateException("No such resource " + resource
+      + ", the genson test-jar must be in the classpath");
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      for (int count; (count = in.read(buffer)) != -1; ) out.write(buffer, 0, count);
+      return out.toByteArray();
+    } finally {
+      in.close();
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package com.owlike.genson.benchmarks;
+
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.owlike.genson.Genson;
+import com.owlike.genson.GensonBuilder;
+
+/**
+ * Base class of the benchmarks run on each {@link Dataset}. It loads the document, binds it to its
+ * type once and exposes them to the benchmark methods.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public abstract class DatasetBenchmark {
+  @Param({"TWEETS", "READER_SHORT", "READER_LONG", "MEDIA_CONTENT"})
+  public Dataset dataset;
+
+  protected Genson genson;
+  protected byte[] bytes;
+  protected String json;
+  protected Object value;
+
+  @Setup
+  public final void setUp() throws Exception {
+    genson = configure(new GensonBuilder()
+      .useDateFormat(new SimpleDateFormat("EEE MMM dd HH:mm:ss Z yyyy", Locale.US))).create();
+    bytes = dataset.bytes();
+    json = new String(bytes, "UTF-8");
+    value = genson.deserialize(json, dataset.type());
+    prepare();
+  }
+
+  /**
+   * Called once the dataset is loaded, override to prepare the values used by the benchmark.
+   */
+  protected void prepare() {
+  }
+
+  /**
+   * Override to enable the features measured by the benchmark, the builder already uses the date
+   * format of the datasets.
+   */
+  protected GensonBuilder configure(GensonBuilder builder) {
+    return builder;
+  }
+}
@@ -0,0 +1,115 @@
+package com.owlike.genson.benchmarks;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.owlike.genson.Genson;
+import com.owlike.genson.GensonBuilder;
+import com.owlike.genson.convert.DefaultConverters.DateConverter;
+
+/**
+ * Measures the serialization and deserialization of beans with a few date properties from 16
+ * threads sharing the same Genson instance. The previous date converter, that was synchronizing the
+ * access to a single DateFormat, is reproduced below for the ISO 8601 and the other patterns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(16)
+public class DateBenchmark {
+  public enum Format {
+    ISO_PATTERN, OTHER_PATTERN, ISO_INSTANT, SYNCHRONIZED_ISO_PATTERN, SYNCHRONIZED_OTHER_PATTERN
+  }
+
+  @Param({"ISO_PATTERN", "OTHER_PATTERN", "ISO_INSTANT", "SYNCHRONIZED_ISO_PATTERN", "SYNCHRONIZED_OTHER_PATTERN"})
+  public Format format;
+
+  private Genson genson;
+  private final Event event = new Event();
+  private String json;
+
+  @Setup
+  public void setUp() {
+    GensonBuilder builder = new GensonBuilder().useDateAsTimestamp(false);
+    switch (format) {
+      case ISO_PATTERN: builder.useDateFormat(isoDateFormat()); break;
+      case OTHER_PATTERN: builder.useDateFormat(otherDateFormat()); break;
+      case ISO_INSTANT: builder.useDateTimeFormatter(DateTimeFormatter.ISO_INSTANT); break;
+      case SYNCHRONIZED_ISO_PATTERN:
+        builder.withConverter(new PreviousDateConverter(isoDateFormat()), Date.class);
+        break;
+      default: builder.withConverter(new PreviousDateConverter(otherDateFormat()), Date.class);
+    }
+    genson = builder.create();
+    json = genson.serialize(event);
+  }
+
+  private static DateFormat isoDateFormat() {
+    SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX", Locale.US);
+    dateFormat.setTimeZone(TimeZone.getTimeZone("Europe/Paris"));
+    return dateFormat;
+  }
+
+  private static DateFormat otherDateFormat() {
+    return new SimpleDateFormat("EEE MMM dd HH:mm:ss Z yyyy", Locale.US);
+  }
+
+  @Benchmark
+  public String serialize() {
+    return genson.serialize(event);
+  }
+
+  @Benchmark
+  public Event deserialize() {
+    return genson.deserialize(json, Event.class);
+  }
+
+  public static class Event {
+    public String name = "order.created";
+    public Date created = new Date(1500000000123L);
+    public Date updated = new Date(1500000360456L);
+    public Date expires = new Date(1531536000789L);
+  }
+
+  // the date converter as it was before
+  public static class PreviousDateConverter extends DateConverter {
+    private final DateFormat dateFormat;
+
+    public PreviousDateConverter(DateFormat dateFormat) {
+      super(dateFormat, false);
+      this.dateFormat = dateFormat;
+    }
+
+    @Override
+    protected synchronized String format(Date date) {
+      return dateFormat.format(date);
+    }
+
+    @Override
+    protected synchronized Date read(String dateString) throws ParseException {
+      return dateFormat.parse(dateString);
+    }
+  }
+}
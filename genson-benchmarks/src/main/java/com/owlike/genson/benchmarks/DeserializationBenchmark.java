@@ -0,0 +1,40 @@
+package com.owlike.genson.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import com.owlike.genson.Context;
+import com.owlike.genson.stream.JsonReader;
+
+/**
+ * Deserialization of the datasets to their beans, from a String, from UTF-8 bytes and from an
+ * InputStream. The bytes and streams are parsed directly by the Utf8JsonReader, deserializeDecodedStream
+ * measures the previous way of reading them: decoding them to chars with an InputStreamReader first.
+ */
+public class DeserializationBenchmark extends DatasetBenchmark {
+
+  @Benchmark
+  public Object deserializeString() {
+    return genson.deserialize(json, dataset.type());
+  }
+
+  @Benchmark
+  public Object deserializeBytes() {
+    return genson.deserialize(bytes, dataset.type());
+  }
+
+  @Benchmark
+  public Object deserializeStream() {
+    return genson.deserialize(new ByteArrayInputStream(bytes), dataset.type());
+  }
+
+  @Benchmark
+  public Object deserializeDecodedStream() {
+    JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(bytes),
+      StandardCharsets.UTF_8), false, false);
+    return genson.deserialize(dataset.type(), reader, new Context(genson));
+  }
+}
@@ -0,0 +1,162 @@
+package com.owlike.genson.benchmarks;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.owlike.genson.stream.JsonReader;
+
+/**
+ * Compares the exact double parsing done by the readers to the two previous modes: the default
+ * approximation (reproduced below as it is not part of Genson anymore) and the strict mode that was
+ * using Double.parseDouble. The decimal numbers of the datasets are not numerous enough to be
+ * measured alone, so they are completed with generated prices, coordinates and random doubles, each
+ * operation parsing 100k doubles.
+ * <p/>
+ * The previous modes are measured on the number tokens only while the reader also tokenizes the
+ * surrounding array, so their scores are an upper bound.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DoubleParsingBenchmark {
+  private final static double[] POWS = new double[309];
+
+  static {
+    for (int i = 0; i < POWS.length; i++)
+      POWS[i] = Math.pow(10, i);
+  }
+
+  private String json;
+  private char[] numbers;
+  private int[] starts;
+  private int[] ends;
+
+  @Setup
+  public void setUp() throws Exception {
+    List<String> values = new ArrayList<String>();
+    Pattern decimal = Pattern.compile("-?[0-9]+\\.[0-9]+([eE][-+]?[0-9]+)?");
+    for (Dataset dataset : new Dataset[]{Dataset.READER_LONG, Dataset.TWEETS}) {
+      Matcher matcher = decimal.matcher(new String(dataset.bytes(), StandardCharsets.UTF_8));
+      while (matcher.find()) values.add(matcher.group());
+    }
+    Random random = new Random(1);
+    while (values.size() < 100000) {
+      values.add(String.valueOf(random.nextInt(100000) / 100d));
+      values.add(String.valueOf(random.nextDouble() * 180 - 90));
+      values.add(String.valueOf(Double.longBitsToDouble(random.nextLong() & 0x7FEFFFFFFFFFFFFFL)));
+    }
+
+    StringBuilder sb = new StringBuilder("[");
+    starts = new int[values.size()];
+    ends = new int[values.size()];
+    for (int i = 0; i < values.size(); i++) {
+      if (i > 0) sb.append(',');
+      starts[i] = sb.length();
+      sb.append(values.get(i));
+      ends[i] = sb.length();
+    }
+    json = sb.append(']').toString();
+    numbers = json.toCharArray();
+  }
+
+  @Benchmark
+  public double exact() {
+    double sum = 0;
+    JsonReader reader = new JsonReader(new StringReader(json), false, false);
+    reader.beginArray();
+    while (reader.hasNext()) {
+      reader.next();
+      sum += reader.valueAsDouble();
+    }
+    reader.endArray();
+    return sum;
+  }
+
+  @Benchmark
+  public double previousStrict() {
+    double sum = 0;
+    for (int i = 0; i < starts.length; i++)
+      sum += Double.parseDouble(new String(numbers, starts[i], ends[i] - starts[i]));
+    return sum;
+  }
+
+  @Benchmark
+  public double previousApproximation() {
+    double sum = 0;
+    for (int i = 0; i < starts.length; i++)
+      sum += approximate(numbers, starts[i], ends[i]);
+    return sum;
+  }
+
+  // the algorithm used by default before the readers parsed doubles exactly
+  private static double approximate(char[] buffer, int cur, int end) {
+    boolean negative = buffer[cur] == '-';
+    if (negative) cur++;
+    for (; cur < end && buffer[cur] == '0'; cur++) ;
+    int begin = cur;
+
+    long longValue = 0;
+    for (int len = Math.min(end, cur + 18); cur < len && buffer[cur] >= '0' && buffer[cur] <= '9'; cur++)
+      longValue = 10L * longValue + (buffer[cur] - '0');
+    int valueDigits = longValue > 0 ? cur - begin : 0;
+    int intDigits = cur - begin;
+    if (intDigits > 17) {
+      for (; cur < end && buffer[cur] >= '0' && buffer[cur] <= '9'; cur++) ;
+      if (intDigits != (cur - begin)) intDigits = (cur - begin) - intDigits;
+    } else intDigits = 0;
+
+    int decimalDigits = 0;
+    if (cur < end && buffer[cur] == '.') {
+      int start = ++cur;
+      if (longValue == 0) {
+        intDigits = 0;
+        for (; cur < end && buffer[cur] == '0'; cur++) ;
+      }
+      for (int len = Math.min(end, cur + (18 - valueDigits)); cur < len && buffer[cur] >= '0' && buffer[cur] <= '9'; cur++)
+        longValue = 10L * longValue + (buffer[cur] - '0');
+      decimalDigits = cur - start;
+      for (; cur < end && buffer[cur] >= '0' && buffer[cur] <= '9'; cur++) ;
+    }
+
+    if (cur + 1 < end && (buffer[cur] == 'e' || buffer[cur] == 'E')) {
+      boolean negativeExp = buffer[++cur] == '-';
+      if (negativeExp || buffer[cur] == '+') cur++;
+      int powValue = 0;
+      for (; cur < end && buffer[cur] >= '0' && buffer[cur] <= '9'; cur++)
+        powValue = 10 * powValue + (buffer[cur] - '0');
+      if (negativeExp) decimalDigits += powValue;
+      else intDigits += powValue;
+    }
+
+    decimalDigits = intDigits - decimalDigits;
+    double value;
+    if (decimalDigits < 0) {
+      if (decimalDigits < -325) value = 0;
+      else if (decimalDigits < -308) value = longValue / POWS[-decimalDigits - 308] / POWS[308];
+      else value = longValue / POWS[-decimalDigits];
+    } else {
+      value = decimalDigits > 308 ? Double.POSITIVE_INFINITY : longValue * POWS[decimalDigits];
+    }
+    return negative ? -value : value;
+  }
+}
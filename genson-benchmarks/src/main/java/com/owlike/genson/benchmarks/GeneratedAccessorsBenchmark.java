@@ -0,0 +1,40 @@
+package com.owlike.genson.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+import com.owlike.genson.GensonBuilder;
+
+/**
+ * Serialization and deserialization of the datasets with the reflection based properties, with the
+ * properties generated by ASMBeanPropertyFactory and with the whole bean codecs generated by
+ * ASMBeanDescriptorProvider.
+ * <p/>
+ * The tweet and feed beans have package private fields, they still use reflection when generated
+ * accessors are enabled and show the cost of the fallback. The media content beans have public
+ * fields and use only generated classes.
+ */
+public class GeneratedAccessorsBenchmark extends DatasetBenchmark {
+  public enum Properties {
+    REFLECTION, GENERATED_ACCESSORS, GENERATED_CODECS
+  }
+
+  @Param({"REFLECTION", "GENERATED_ACCESSORS", "GENERATED_CODECS"})
+  public Properties properties;
+
+  @Override
+  protected GensonBuilder configure(GensonBuilder builder) {
+    return builder.useGeneratedAccessors(properties != Properties.REFLECTION)
+      .useGeneratedBeanCodecs(properties == Properties.GENERATED_CODECS);
+  }
+
+  @Benchmark
+  public Object deserialize() {
+    return genson.deserialize(bytes, dataset.type());
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    return genson.serializeBytes(value);
+  }
+}
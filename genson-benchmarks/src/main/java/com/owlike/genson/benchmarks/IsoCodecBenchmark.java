@@ -0,0 +1,81 @@
+package com.owlike.genson.benchmarks;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.owlike.genson.Genson;
+import com.owlike.genson.GensonBuilder;
+import com.owlike.genson.ext.javadatetime.JavaDateTimeBundle;
+
+/**
+ * Measures the serialization and deserialization of records with several ISO formatted java.time
+ * fields, with the specialized ISO codecs of the genson-java-datetime module and with the same
+ * formats built by hand as DateTimeFormatter patterns, which the codecs don't detect.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class IsoCodecBenchmark {
+  @Param({"true", "false"})
+  public boolean isoCodecs;
+
+  private Genson genson;
+  private final Record record = new Record();
+  private String json;
+
+  @Setup
+  public void setUp() {
+    genson = isoCodecs
+      ? createGenson(DateTimeFormatter.ISO_INSTANT, DateTimeFormatter.ISO_OFFSET_DATE_TIME,
+      DateTimeFormatter.ISO_LOCAL_DATE)
+      : createGenson(DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSSX"),
+      DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSSXXX"), DateTimeFormatter.ofPattern("uuuu-MM-dd"));
+    json = genson.serialize(record);
+  }
+
+  private static Genson createGenson(DateTimeFormatter instant, DateTimeFormatter offsetDateTime,
+                                     DateTimeFormatter localDate) {
+    JavaDateTimeBundle bundle = new JavaDateTimeBundle().setZoneId(ZoneId.of("Europe/Paris"))
+      .setFormatter(Instant.class, instant)
+      .setFormatter(OffsetDateTime.class, offsetDateTime)
+      .setFormatter(LocalDate.class, localDate);
+    return new GensonBuilder().useDateAsTimestamp(false).withBundle(bundle).create();
+  }
+
+  @Benchmark
+  public String serialize() {
+    return genson.serialize(record);
+  }
+
+  @Benchmark
+  public Record deserialize() {
+    return genson.deserialize(json, Record.class);
+  }
+
+  public static class Record {
+    public Instant received = Instant.ofEpochMilli(1500000000123L);
+    public Instant processed = Instant.ofEpochMilli(1500000000456L);
+    public OffsetDateTime created = OffsetDateTime.ofInstant(Instant.ofEpochMilli(1499990000789L),
+      ZoneId.of("Europe/Paris"));
+    public LocalDate day = LocalDate.of(2017, 7, 14);
+  }
+}
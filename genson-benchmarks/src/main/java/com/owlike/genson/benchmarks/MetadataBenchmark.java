@@ -0,0 +1,33 @@
+package com.owlike.genson.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import com.owlike.genson.GensonBuilder;
+
+/**
+ * Serialization and deserialization of the datasets with the class metadata enabled, each bean
+ * being written with its @class.
+ */
+public class MetadataBenchmark extends DatasetBenchmark {
+  private byte[] metadataBytes;
+
+  @Override
+  protected GensonBuilder configure(GensonBuilder builder) {
+    return builder.useClassMetadata(true);
+  }
+
+  @Override
+  protected void prepare() {
+    metadataBytes = genson.serializeBytes(value);
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    return genson.serializeBytes(value);
+  }
+
+  @Benchmark
+  public Object deserialize() {
+    return genson.deserialize(metadataBytes, dataset.type());
+  }
+}
@@ -0,0 +1,65 @@
+package com.owlike.genson.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.owlike.genson.Context;
+import com.owlike.genson.Converter;
+import com.owlike.genson.DefaultGensonMetrics;
+import com.owlike.genson.GenericType;
+import com.owlike.genson.Genson;
+import com.owlike.genson.GensonBuilder;
+import com.owlike.genson.bean.Primitives;
+import com.owlike.genson.stream.ObjectReader;
+import com.owlike.genson.stream.Utf8JsonWriter;
+
+/**
+ * Measures the overhead of the metrics on the round trip of a small bean, where it is the most
+ * visible. Genson without metrics is compared to the same work done by calling the converter
+ * directly, with the same converter lookup and streams, and to Genson with DefaultGensonMetrics.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MetricsBenchmark {
+  private final Genson disabled = new Genson();
+  private final Genson enabled = new GensonBuilder().useMetrics(new DefaultGensonMetrics()).create();
+  private final Primitives value = new Primitives(1, 2, 3.5, 4.25, "some text", true, false);
+  private final byte[] json = disabled.serializeBytes(value);
+
+  @Benchmark
+  public Primitives direct() throws Exception {
+    Utf8JsonWriter writer = new Utf8JsonWriter(false, false, false);
+    Converter<Object> ser = disabled.provideConverter(Primitives.class);
+    ser.serialize(value, writer, new Context(disabled));
+    writer.flush();
+    writer.toByteArray();
+    ObjectReader reader = disabled.createReader(json);
+    Converter<Primitives> deser = disabled.provideConverter(GenericType.of(Primitives.class).getType());
+    return deser.deserialize(reader, new Context(disabled));
+  }
+
+  @Benchmark
+  public Primitives metricsDisabled() {
+    disabled.serializeBytes(value);
+    return disabled.deserialize(json, Primitives.class);
+  }
+
+  @Benchmark
+  public Primitives metricsEnabled() {
+    enabled.serializeBytes(value);
+    return enabled.deserialize(json, Primitives.class);
+  }
+}
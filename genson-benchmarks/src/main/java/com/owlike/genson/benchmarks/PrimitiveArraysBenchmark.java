@@ -0,0 +1,102 @@
+package com.owlike.genson.benchmarks;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.owlike.genson.Context;
+import com.owlike.genson.Converter;
+import com.owlike.genson.Genson;
+import com.owlike.genson.convert.DefaultConverters;
+import com.owlike.genson.stream.ObjectWriter;
+
+/**
+ * Compares the primitive array converters to the generic ArrayConverter, that was used for all the
+ * arrays before and boxes each element through java.lang.reflect.Array, on arrays of one million
+ * ints, longs and doubles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PrimitiveArraysBenchmark {
+  private final static int SIZE = 1000000;
+
+  @Param({"int", "long", "double"})
+  public String componentType;
+
+  private final Genson genson = new Genson();
+  private Object array;
+  private String json;
+  private Converter<Object> primitive;
+  private Converter<Object> generic;
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  @Setup
+  public void setUp() {
+    Random random = new Random(1);
+    Class<?> clazz;
+    if ("int".equals(componentType)) {
+      int[] ints = new int[SIZE];
+      for (int i = 0; i < SIZE; i++) ints[i] = random.nextInt();
+      array = ints;
+      clazz = int.class;
+    } else if ("long".equals(componentType)) {
+      long[] longs = new long[SIZE];
+      for (int i = 0; i < SIZE; i++) longs[i] = 1500000000000L - random.nextInt(1000000000);
+      array = longs;
+      clazz = long.class;
+    } else {
+      double[] doubles = new double[SIZE];
+      for (int i = 0; i < SIZE; i++) doubles[i] = random.nextGaussian();
+      array = doubles;
+      clazz = double.class;
+    }
+    primitive = genson.provideConverter(array.getClass());
+    generic = new DefaultConverters.ArrayConverter(clazz, genson.provideConverter(clazz));
+    json = genson.serialize(array);
+  }
+
+  @Benchmark
+  public String serializePrimitive() throws Exception {
+    return serialize(primitive);
+  }
+
+  @Benchmark
+  public String serializeGeneric() throws Exception {
+    return serialize(generic);
+  }
+
+  @Benchmark
+  public Object deserializePrimitive() throws Exception {
+    return primitive.deserialize(genson.createReader(new StringReader(json)), new Context(genson));
+  }
+
+  @Benchmark
+  public Object deserializeGeneric() throws Exception {
+    return generic.deserialize(genson.createReader(new StringReader(json)), new Context(genson));
+  }
+
+  private String serialize(Converter<Object> converter) throws Exception {
+    StringWriter sw = new StringWriter();
+    ObjectWriter writer = genson.createWriter(sw);
+    converter.serialize(array, writer, new Context(genson));
+    writer.flush();
+    return sw.toString();
+  }
+}
@@ -0,0 +1,136 @@
+package com.owlike.genson.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.owlike.genson.Context;
+import com.owlike.genson.GenericType;
+import com.owlike.genson.Genson;
+import com.owlike.genson.GensonBuilder;
+import com.owlike.genson.stream.ObjectWriter;
+
+/**
+ * Measures the serialization of a List&lt;Animal&gt; containing several subclasses with the runtime
+ * type enabled. The previous dispatch, that was serializing each value through Genson.serialize and
+ * flushing the writer after it, is reproduced by serializing the elements one by one the same way.
+ * The output is written to a stream counting the flushes, as each flush would be a write to the
+ * socket when writing a http response, they are reported as the flushes secondary result.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RuntimeTypeBenchmark {
+  private final Genson genson = new GensonBuilder().useRuntimeType(true).create();
+  private final GenericType<List<Animal>> animalsType = new GenericType<List<Animal>>() {
+  };
+  private final List<Animal> animals = new ArrayList<Animal>();
+
+  @Setup
+  public void setUp() {
+    for (int i = 0; i < 100; i++) {
+      switch (i % 4) {
+        case 0: animals.add(new Dog("dog" + i, i % 3 == 0)); break;
+        case 1: animals.add(new Cat("cat" + i, i % 9)); break;
+        case 2: animals.add(new Bird("bird" + i, i * 1.5)); break;
+        default: animals.add(new Fish("fish" + i, "sea"));
+      }
+    }
+  }
+
+  @Benchmark
+  public int serialize(CountingOutputStream out) {
+    out.reset();
+    genson.serialize(animals, animalsType.getType(), genson.createWriter(out), new Context(genson));
+    return out.size();
+  }
+
+  @Benchmark
+  public int previousSerialize(CountingOutputStream out) {
+    out.reset();
+    ObjectWriter writer = genson.createWriter(out);
+    Context ctx = new Context(genson);
+    writer.beginArray();
+    for (Animal animal : animals) genson.serialize(animal, animal.getClass(), writer, ctx);
+    writer.endArray();
+    writer.flush();
+    return out.size();
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class CountingOutputStream extends ByteArrayOutputStream {
+    public long flushes;
+
+    @Setup(Level.Iteration)
+    public void clear() {
+      flushes = 0;
+    }
+
+    @Override
+    public void flush() {
+      flushes++;
+    }
+  }
+
+  public static class Animal {
+    public String name;
+
+    Animal(String name) {
+      this.name = name;
+    }
+  }
+
+  public static class Dog extends Animal {
+    public boolean barks;
+
+    Dog(String name, boolean barks) {
+      super(name);
+      this.barks = barks;
+    }
+  }
+
+  public static class Cat extends Animal {
+    public int lives;
+
+    Cat(String name, int lives) {
+      super(name);
+      this.lives = lives;
+    }
+  }
+
+  public static class Bird extends Animal {
+    public double wingspan;
+
+    Bird(String name, double wingspan) {
+      super(name);
+      this.wingspan = wingspan;
+    }
+  }
+
+  public static class Fish extends Animal {
+    public String water;
+
+    Fish(String name, String water) {
+      super(name);
+      this.water = water;
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package com.owlike.genson.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Serialization of the datasets bound to their beans, to a String and to UTF-8 bytes.
+ */
+public class SerializationBenchmark extends DatasetBenchmark {
+
+  @Benchmark
+  public String serializeString() {
+    return genson.serialize(value);
+  }
+
+  @Benchmark
+  public byte[] serializeBytes() {
+    return genson.serializeBytes(value);
+  }
+}
@@ -0,0 +1,113 @@
+package com.owlike.genson.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.owlike.genson.stream.JsonType;
+import com.owlike.genson.stream.ObjectReader;
+import com.owlike.genson.stream.ObjectWriter;
+import com.owlike.genson.stream.ValueType;
+
+/**
+ * The streaming api without databinding, reading all the tokens of the datasets and copying them to
+ * a writer.
+ */
+public class StreamingBenchmark extends DatasetBenchmark {
+
+  @Benchmark
+  public void read(Blackhole blackhole) {
+    ObjectReader reader = genson.createReader(bytes);
+    reader.next();
+    read(reader, blackhole);
+  }
+
+  @Benchmark
+  public byte[] copy() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+    ObjectReader reader = genson.createReader(bytes);
+    ObjectWriter writer = genson.createWriter(out);
+    reader.next();
+    copy(reader, writer);
+    writer.flush();
+    return out.toByteArray();
+  }
+
+  private void read(ObjectReader reader, Blackhole blackhole) {
+    switch (reader.getValueType()) {
+      case OBJECT:
+        reader.beginObject();
+        while (reader.hasNext()) {
+          reader.next();
+          blackhole.consume(reader.name());
+          read(reader, blackhole);
+        }
+        reader.endObject();
+        break;
+      case ARRAY:
+        reader.beginArray();
+        while (reader.hasNext()) {
+          reader.next();
+          read(reader, blackhole);
+        }
+        reader.endArray();
+        break;
+      case STRING:
+        blackhole.consume(reader.valueAsString());
+        break;
+      case INTEGER:
+        blackhole.consume(reader.valueAsLong());
+        break;
+      case DOUBLE:
+        blackhole.consume(reader.valueAsDouble());
+        break;
+      case BOOLEAN:
+        blackhole.consume(reader.valueAsBoolean());
+        break;
+      default:
+        blackhole.consume(reader.getValueType());
+    }
+  }
+
+  private void copy(ObjectReader reader, ObjectWriter writer) {
+    ValueType type = reader.getValueType();
+    if (reader.enclosingType() == JsonType.OBJECT) writer.writeName(reader.name());
+    switch (type) {
+      case OBJECT:
+        reader.beginObject();
+        writer.beginObject();
+        while (reader.hasNext()) {
+          reader.next();
+          copy(reader, writer);
+        }
+        reader.endObject();
+        writer.endObject();
+        break;
+      case ARRAY:
+        reader.beginArray();
+        writer.beginArray();
+        while (reader.hasNext()) {
+          reader.next();
+          copy(reader, writer);
+        }
+        reader.endArray();
+        writer.endArray();
+        break;
+      case STRING:
+        writer.writeValue(reader.valueAsString());
+        break;
+      case INTEGER:
+        writer.writeValue(reader.valueAsLong());
+        break;
+      case DOUBLE:
+        writer.writeValue(reader.valueAsDouble());
+        break;
+      case BOOLEAN:
+        writer.writeValue(reader.valueAsBoolean());
+        break;
+      default:
+        writer.writeNull();
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package com.owlike.genson.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import com.owlike.genson.Genson;
+import com.owlike.genson.GensonBuilder;
+
+/**
+ * Deserialization of the datasets to maps and lists, with the default collections and with the
+ * compact read only ones, and serialization of the resulting untyped values.
+ */
+public class UntypedBenchmark extends DatasetBenchmark {
+  private Genson compact;
+  private Object untyped;
+
+  @Override
+  protected void prepare() {
+    compact = new GensonBuilder().useCompactUntypedCollections(true).create();
+    untyped = genson.deserialize(json, Object.class);
+  }
+
+  @Benchmark
+  public Object deserialize() {
+    return genson.deserialize(bytes, Object.class);
+  }
+
+  @Benchmark
+  public Object deserializeCompact() {
+    return compact.deserialize(bytes, Object.class);
+  }
+
+  @Benchmark
+  public String serialize() {
+    return genson.serialize(untyped);
+  }
+}
@@ -0,0 +1,99 @@
+package com.owlike.genson.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.owlike.genson.Context;
+import com.owlike.genson.Converter;
+import com.owlike.genson.GenericType;
+import com.owlike.genson.Genson;
+import com.owlike.genson.GensonBuilder;
+import com.owlike.genson.stream.ObjectReader;
+import com.owlike.genson.stream.ObjectWriter;
+
+/**
+ * Measures the serialization and deserialization of a Map&lt;String, Object&gt; event payload with
+ * the untyped converter and with the previous one, that was going back through Genson for each
+ * value and is reproduced below.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class UntypedEventBenchmark {
+  private final static GenericType<Map<String, Object>> MAP_TYPE = new GenericType<Map<String, Object>>() {
+  };
+
+  @Param({"true", "false"})
+  public boolean previousConverter;
+
+  private Genson genson;
+  private final Map<String, Object> event = new HashMap<String, Object>();
+  private String json;
+
+  @Setup
+  public void setUp() {
+    genson = previousConverter
+      ? new GensonBuilder().withConverter(new PreviousUntypedConverter(), Object.class).create()
+      : new Genson();
+
+    event.put("type", "order.created");
+    event.put("timestamp", 1500000000000L);
+    event.put("version", 3);
+    event.put("replayed", false);
+    List<Object> lines = new ArrayList<Object>();
+    for (int i = 0; i < 20; i++) {
+      Map<String, Object> line = new HashMap<String, Object>();
+      line.put("sku", "SKU-" + i);
+      line.put("quantity", (long) i);
+      line.put("price", i * 9.99);
+      line.put("gift", i % 5 == 0);
+      lines.add(line);
+    }
+    event.put("lines", lines);
+    Map<String, Object> customer = new HashMap<String, Object>();
+    customer.put("id", "c-42");
+    customer.put("tags", new ArrayList<Object>(Arrays.asList("vip", "eu")));
+    event.put("customer", customer);
+    json = genson.serialize(event);
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    return genson.serializeBytes(event);
+  }
+
+  @Benchmark
+  public Map<String, Object> deserialize() {
+    return genson.deserialize(json, MAP_TYPE);
+  }
+
+  // the untyped converter as it was before
+  public static class PreviousUntypedConverter implements Converter<Object> {
+    public Object deserialize(ObjectReader reader, Context ctx) {
+      return ctx.genson.deserialize(GenericType.of(reader.getValueType().toClass()), reader, ctx);
+    }
+
+    public void serialize(Object obj, ObjectWriter writer, Context ctx) {
+      ctx.genson.serialize(obj, obj.getClass(), writer, ctx);
+    }
+  }
+}
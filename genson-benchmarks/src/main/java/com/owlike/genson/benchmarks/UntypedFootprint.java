@@ -0,0 +1,47 @@
+package com.owlike.genson.benchmarks;
+
+import java.util.Locale;
+
+import org.openjdk.jol.info.GraphLayout;
+
+import com.owlike.genson.Genson;
+import com.owlike.genson.GensonBuilder;
+
+/**
+ * Prints the heap retained by the datasets deserialized to maps and lists, with the default
+ * HashMap and ArrayList and with the compact read only collections. The sizes are computed by JOL
+ * walking the object graph, so they do not depend on the garbage collector. Many copies of each
+ * document are measured together, the strings shared by the documents (the canonicalized property
+ * names) are counted once as they would be by an application retaining them.
+ * <pre>
+ * java -cp genson-benchmarks/target/benchmarks.jar com.owlike.genson.benchmarks.UntypedFootprint
+ * </pre>
+ */
+public class UntypedFootprint {
+  private final static int DOCUMENTS = 100;
+
+  public static void main(String[] args) throws Exception {
+    Genson genson = new Genson();
+    Genson compact = new GensonBuilder().useCompactUntypedCollections(true).create();
+
+    System.out.println(String.format(Locale.ROOT, "%-14s %10s %14s %14s %8s", "dataset", "json bytes",
+      "HashMap/List", "compact", "saved"));
+    for (Dataset dataset : Dataset.values()) {
+      byte[] json = dataset.bytes();
+      long defaults = retainedBytes(genson, json);
+      long compacts = retainedBytes(compact, json);
+      System.out.println(String.format(Locale.ROOT, "%-14s %10d %14d %14d %7.1f%%", dataset, json.length,
+        defaults, compacts, 100d * (defaults - compacts) / defaults));
+    }
+  }
+
+  /**
+   * @return the average number of bytes retained by one document.
+   */
+  static long retainedBytes(Genson genson, byte[] json) {
+    Object[] documents = new Object[DOCUMENTS];
+    for (int i = 0; i < documents.length; i++) documents[i] = genson.deserialize(json, Object.class);
+    // the documents are the roots of the graph, the array holding them is not counted
+    return GraphLayout.parseInstance(documents).totalSize() / DOCUMENTS;
+  }
+}
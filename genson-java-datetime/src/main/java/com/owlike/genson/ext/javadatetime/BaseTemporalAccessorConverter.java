@@ -20,11 +20,14 @@
 	private DateTimeConverterOptions options;
 	private TimestampHandler<T> timestampHandler;
 	private TemporalQuery<T> query;
+	private IsoCodec<T> isoCodec;
 
+	@SuppressWarnings("unchecked")
 	BaseTemporalAccessorConverter(DateTimeConverterOptions options, TimestampHandler<T> timestampHandler, TemporalQuery<T> query) {
 		this.options = options;
 		this.timestampHandler = timestampHandler;
 		this.query = query;
+		this.isoCodec = (IsoCodec<T>) options.getIsoCodec();
 	}
 
 	@Override
@@ -45,7 +48,13 @@ public void serialize(T object, ObjectWriter writer, Context ctx) {
 			}
 		}
 		else{
-			writer.writeValue(options.getDateTimeFormatter().format(object));
+			String value = isoCodec == null ? null : isoCodec.format(object);
+			if(value != null) {
+				writer.writeUnsafeValue(value);
+			}
+			else {
+				writer.writeValue(options.getDateTimeFormatter().format(object));
+			}
 		}
 	}
 
@@ -68,9 +77,13 @@ public T deserialize(ObjectReader reader, Context ctx) {
 			}
 		}
 		else{
-			obj = options.getDateTimeFormatter().parse(reader.valueAsString(), query);
-			if(obj instanceof OffsetDateTime){
-				obj = (T) DateTimeUtil.correctOffset((OffsetDateTime) obj, options.getZoneId());
+			String value = reader.valueAsString();
+			obj = isoCodec == null ? null : isoCodec.parse(value);
+			if(obj == null) {
+				obj = options.getDateTimeFormatter().parse(value, query);
+				if(obj instanceof OffsetDateTime){
+					obj = (T) DateTimeUtil.correctOffset((OffsetDateTime) obj, options.getZoneId());
+				}
 			}
 		}
 
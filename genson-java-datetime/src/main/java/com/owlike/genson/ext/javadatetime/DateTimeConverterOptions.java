@@ -9,6 +9,7 @@ class DateTimeConverterOptions {
 	private final boolean asTimestamp;
 	private final TimestampFormat timestampFormat;
 	private final ZoneId zoneId;
+	private final IsoCodec<?> isoCodec;
 
 	/**
 	 * Options to use when creating a {@link com.owlike.genson.Converter} for a {@link java.time.temporal.TemporalAccessor} type
@@ -24,6 +25,7 @@ class DateTimeConverterOptions {
 		this.timestampFormat = timestampFormat;
 		// Instant should always be in UTC timezone
 		this.zoneId = clazz == Instant.class ? ZoneId.of("UTC") : zoneId;
+		this.isoCodec = dateTimeFormatter == null ? null : IsoCodec.of(clazz, dateTimeFormatter, zoneId);
 	}
 
 	public DateTimeFormatter getDateTimeFormatter() {
@@ -41,4 +43,11 @@ public TimestampFormat getTimestampFormat() {
 	public ZoneId getZoneId() {
 		return zoneId;
 	}
+
+	/**
+	 * The codec replacing the formatter when it is one of the standard ISO formatters, null otherwise
+	 */
+	IsoCodec<?> getIsoCodec() {
+		return isoCodec;
+	}
 }
@@ -0,0 +1,321 @@
+package com.owlike.genson.ext.javadatetime;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Formats and parses the values of the standard ISO formatters by hand, instead of going through the
+ * {@link DateTimeFormatter} machinery.
+ *
+ * <p>The results are the same as with the formatter configured by the bundle, which applies the default
+ * zone of the converter. The values it doesn't handle (years outside of 0000-9999, lower case letters,
+ * missing seconds, ambiguous local times, etc) are left to the formatter.</p>
+ */
+abstract class IsoCodec<T extends TemporalAccessor> {
+	private static final int MAX_CACHED_ZONES = 256;
+	private static final Map<String, ZoneId> ZONES = new ConcurrentHashMap<>();
+
+	/**
+	 * @return the codec for the values of clazz formatted with formatter, null if there is none
+	 */
+	static IsoCodec<?> of(Class<?> clazz, DateTimeFormatter formatter, ZoneId zoneId) {
+		if(clazz == Instant.class && formatter == DateTimeFormatter.ISO_INSTANT) return new InstantCodec();
+		if(clazz == LocalDate.class && formatter == DateTimeFormatter.ISO_LOCAL_DATE) return new LocalDateCodec();
+		if(clazz == LocalDateTime.class && formatter == DateTimeFormatter.ISO_LOCAL_DATE_TIME) return new LocalDateTimeCodec();
+		if(clazz == OffsetDateTime.class && formatter == DateTimeFormatter.ISO_OFFSET_DATE_TIME) return new OffsetDateTimeCodec(zoneId);
+		if(clazz == ZonedDateTime.class && formatter == DateTimeFormatter.ISO_ZONED_DATE_TIME) return new ZonedDateTimeCodec(zoneId);
+		return null;
+	}
+
+	/**
+	 * @return the formatted value or null if it must be formatted with the formatter
+	 */
+	abstract String format(T value);
+
+	/**
+	 * @return the parsed value or null if it must be parsed with the formatter
+	 */
+	abstract T parse(String value);
+
+	private static class InstantCodec extends IsoCodec<Instant> {
+		@Override
+		String format(Instant value) {
+			long epochSecond = value.getEpochSecond();
+			LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(epochSecond, 86400));
+			if(date.getYear() < 0 || date.getYear() > 9999) return null;
+
+			int nano = value.getNano();
+			int fractionDigits = nano == 0 ? 0 : nano % 1000_000 == 0 ? 3 : nano % 1000 == 0 ? 6 : 9;
+			char[] chars = new char[20 + (fractionDigits == 0 ? 0 : fractionDigits + 1)];
+			int pos = writeDate(chars, 0, date);
+			chars[pos++] = 'T';
+			int secondOfDay = (int) Math.floorMod(epochSecond, 86400);
+			pos = writeTime(chars, pos, secondOfDay / 3600, secondOfDay / 60 % 60, secondOfDay % 60);
+			pos = writeFraction(chars, pos, nano, fractionDigits);
+			chars[pos] = 'Z';
+			return new String(chars);
+		}
+
+		@Override
+		Instant parse(String value) {
+			int length = value.length();
+			if(length < 20 || value.charAt(length - 1) != 'Z') return null;
+			LocalDateTime dateTime = readDateTime(value, length - 1);
+			return dateTime == null ? null : dateTime.toInstant(ZoneOffset.UTC);
+		}
+	}
+
+	private static class LocalDateCodec extends IsoCodec<LocalDate> {
+		@Override
+		String format(LocalDate value) {
+			if(value.getYear() < 0 || value.getYear() > 9999) return null;
+			char[] chars = new char[10];
+			writeDate(chars, 0, value);
+			return new String(chars);
+		}
+
+		@Override
+		LocalDate parse(String value) {
+			return value.length() == 10 ? readDate(value) : null;
+		}
+	}
+
+	private static class LocalDateTimeCodec extends IsoCodec<LocalDateTime> {
+		@Override
+		String format(LocalDateTime value) {
+			if(value.getYear() < 0 || value.getYear() > 9999) return null;
+			char[] chars = new char[29];
+			int length = writeDateTime(chars, value);
+			return new String(chars, 0, length);
+		}
+
+		@Override
+		LocalDateTime parse(String value) {
+			return readDateTime(value, value.length());
+		}
+	}
+
+	/*
+	 * The values are formatted in the zone of the converter and, like with the formatter, the offset of
+	 * the parsed values is replaced by the one of the zone.
+	 */
+	private static class OffsetDateTimeCodec extends IsoCodec<OffsetDateTime> {
+		private final ZoneId zoneId;
+
+		OffsetDateTimeCodec(ZoneId zoneId) {
+			this.zoneId = zoneId;
+		}
+
+		@Override
+		String format(OffsetDateTime value) {
+			ZoneOffset offset = zoneId.getRules().getOffset(value.toInstant());
+			if(!offset.equals(value.getOffset())) value = value.withOffsetSameInstant(offset);
+			if(value.getYear() < 0 || value.getYear() > 9999) return null;
+
+			char[] chars = new char[29];
+			int length = writeDateTime(chars, value.toLocalDateTime());
+			return new StringBuilder(length + 9).append(chars, 0, length).append(offset.getId()).toString();
+		}
+
+		@Override
+		OffsetDateTime parse(String value) {
+			int offsetStart = offsetStart(value);
+			if(offsetStart < 0 || readOffset(value, offsetStart, value.length()) == null) return null;
+			LocalDateTime dateTime = readDateTime(value, offsetStart);
+			return dateTime == null ? null : DateTimeUtil.correctOffset(dateTime.atOffset(ZoneOffset.UTC), zoneId);
+		}
+	}
+
+	/*
+	 * The values are formatted in the zone of the converter, the parsed values are in their zone or in the
+	 * zone of the converter when they have none.
+	 */
+	private static class ZonedDateTimeCodec extends IsoCodec<ZonedDateTime> {
+		private final ZoneId zoneId;
+
+		ZonedDateTimeCodec(ZoneId zoneId) {
+			this.zoneId = zoneId;
+		}
+
+		@Override
+		String format(ZonedDateTime value) {
+			if(!value.getZone().equals(zoneId)) value = value.withZoneSameInstant(zoneId);
+			if(value.getYear() < 0 || value.getYear() > 9999) return null;
+
+			char[] chars = new char[29];
+			int length = writeDateTime(chars, value.toLocalDateTime());
+			StringBuilder sb = new StringBuilder(length + 40).append(chars, 0, length).append(value.getOffset().getId());
+			if(!(zoneId instanceof ZoneOffset)) sb.append('[').append(zoneId.getId()).append(']');
+			return sb.toString();
+		}
+
+		@Override
+		ZonedDateTime parse(String value) {
+			int length = value.length();
+			ZoneId zone = zoneId;
+			if(length > 0 && value.charAt(length - 1) == ']') {
+				int zoneStart = value.lastIndexOf('[');
+				if(zoneStart < 0) return null;
+				zone = region(value.substring(zoneStart + 1, length - 1));
+				length = zoneStart;
+			}
+			if(zone == null) return null;
+
+			int offsetStart = offsetStart(value, length);
+			if(offsetStart < 0) return null;
+			ZoneOffset offset = readOffset(value, offsetStart, length);
+			LocalDateTime dateTime = readDateTime(value, offsetStart);
+			if(offset == null || dateTime == null) return null;
+
+			// the formatter resolves the local time in the zone or with the offset depending on the jdk,
+			// both give the same result only when the offset is the offset of the local time in the zone
+			List<ZoneOffset> validOffsets = zone.getRules().getValidOffsets(dateTime);
+			if(validOffsets.size() != 1 || !validOffsets.get(0).equals(offset)) return null;
+			return ZonedDateTime.ofLocal(dateTime, zone, offset);
+		}
+	}
+
+	/**
+	 * Zone regions, like Europe/Paris, are cached as ZoneId.of looks them up and creates a new instance
+	 * each time.
+	 */
+	static ZoneId region(String id) {
+		ZoneId zone = ZONES.get(id);
+		if(zone == null) {
+			if(id.indexOf('/') < 0) return null;
+			try {
+				zone = ZoneId.of(id);
+			} catch (DateTimeException e) {
+				return null;
+			}
+			if(zone instanceof ZoneOffset || !zone.getId().equals(id)) return null;
+			if(ZONES.size() < MAX_CACHED_ZONES) ZONES.put(id, zone);
+		}
+		return zone;
+	}
+
+	private static int offsetStart(String value) {
+		return offsetStart(value, value.length());
+	}
+
+	// the offset is Z, +HH:MM or +HH:MM:SS
+	private static int offsetStart(String value, int end) {
+		if(end < 20) return -1;
+		if(value.charAt(end - 1) == 'Z') return end - 1;
+		for(int start : new int[]{end - 6, end - 9}) {
+			if(start >= 19 && (value.charAt(start) == '+' || value.charAt(start) == '-')) return start;
+		}
+		return -1;
+	}
+
+	private static ZoneOffset readOffset(String value, int start, int end) {
+		if(end - start == 1) return value.charAt(start) == 'Z' ? ZoneOffset.UTC : null;
+		int hours = read2(value, start + 1);
+		int minutes = read2(value, start + 4);
+		int seconds = end - start == 9 && value.charAt(start + 6) == ':' ? read2(value, start + 7) : end - start == 6 ? 0 : -1;
+		if(hours < 0 || hours > 18 || minutes < 0 || minutes > 59 || seconds < 0 || seconds > 59
+				|| value.charAt(start + 3) != ':' || (hours == 18 && (minutes > 0 || seconds > 0)))
+			return null;
+		int totalSeconds = hours * 3600 + minutes * 60 + seconds;
+		return ZoneOffset.ofTotalSeconds(value.charAt(start) == '-' ? -totalSeconds : totalSeconds);
+	}
+
+	private static int writeDateTime(char[] chars, LocalDateTime value) {
+		int pos = writeDate(chars, 0, value.toLocalDate());
+		chars[pos++] = 'T';
+		LocalTime time = value.toLocalTime();
+		pos = writeTime(chars, pos, time.getHour(), time.getMinute(), time.getSecond());
+		int nano = time.getNano();
+		if(nano == 0) return pos;
+		int fractionDigits = 9;
+		for(; nano % 10 == 0; nano /= 10) fractionDigits--;
+		return writeFraction(chars, pos, time.getNano(), fractionDigits);
+	}
+
+	private static int writeDate(char[] chars, int pos, LocalDate date) {
+		int year = date.getYear();
+		write2(chars, pos, year / 100);
+		write2(chars, pos + 2, year % 100);
+		chars[pos + 4] = '-';
+		write2(chars, pos + 5, date.getMonthValue());
+		chars[pos + 7] = '-';
+		write2(chars, pos + 8, date.getDayOfMonth());
+		return pos + 10;
+	}
+
+	private static int writeTime(char[] chars, int pos, int hour, int minute, int second) {
+		write2(chars, pos, hour);
+		chars[pos + 2] = ':';
+		write2(chars, pos + 3, minute);
+		chars[pos + 5] = ':';
+		write2(chars, pos + 6, second);
+		return pos + 8;
+	}
+
+	// writes the first digits of the nanos
+	private static int writeFraction(char[] chars, int pos, int nano, int digits) {
+		if(digits == 0) return pos;
+		chars[pos++] = '.';
+		for(int i = 0, divisor = 100_000_000; i < digits; i++, divisor /= 10) {
+			chars[pos++] = (char) ('0' + nano / divisor % 10);
+		}
+		return pos;
+	}
+
+	private static void write2(char[] chars, int pos, int value) {
+		chars[pos] = (char) ('0' + value / 10);
+		chars[pos + 1] = (char) ('0' + value % 10);
+	}
+
+	private static LocalDate readDate(String value) {
+		int year = read2(value, 0) * 100 + read2(value, 2);
+		int month = read2(value, 5);
+		int day = read2(value, 8);
+		if(year < 0 || read2(value, 0) < 0 || read2(value, 2) < 0 || month < 1 || month > 12 || day < 1
+				|| value.charAt(4) != '-' || value.charAt(7) != '-')
+			return null;
+		if(day > 28 && day > java.time.YearMonth.of(year, month).lengthOfMonth()) return null;
+		return LocalDate.of(year, month, day);
+	}
+
+	// reads yyyy-MM-ddTHH:mm:ss with an optional fraction, end is the end of the fraction
+	private static LocalDateTime readDateTime(String value, int end) {
+		if(end < 19 || value.charAt(10) != 'T') return null;
+		LocalDate date = readDate(value);
+		int hour = read2(value, 11);
+		int minute = read2(value, 14);
+		int second = read2(value, 17);
+		if(date == null || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59
+				|| value.charAt(13) != ':' || value.charAt(16) != ':')
+			return null;
+
+		int nano = 0;
+		if(end > 19) {
+			if(end == 20 || end > 29 || value.charAt(19) != '.') return null;
+			for(int i = 20; i < 29; i++) {
+				char c = i < end ? value.charAt(i) : '0';
+				if(c < '0' || c > '9') return null;
+				nano = nano * 10 + c - '0';
+			}
+		}
+		return LocalDateTime.of(date, LocalTime.of(hour, minute, second, nano));
+	}
+
+	private static int read2(String value, int pos) {
+		char c0 = value.charAt(pos), c1 = value.charAt(pos + 1);
+		if(c0 < '0' || c0 > '9' || c1 < '0' || c1 > '9') return -1;
+		return (c0 - '0') * 10 + c1 - '0';
+	}
+}
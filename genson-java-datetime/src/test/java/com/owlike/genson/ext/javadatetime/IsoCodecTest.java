@@ -0,0 +1,136 @@
+package com.owlike.genson.ext.javadatetime;
+
+import com.owlike.genson.Genson;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQuery;
+import java.util.Random;
+import java.util.function.Function;
+
+@SuppressWarnings("unchecked")
+public class IsoCodecTest extends JavaDateTimeTestBase {
+	private static final ZoneId[] ZONES = {ZoneOffset.UTC, ZoneId.of("Europe/Paris"), ZoneId.of("America/Toronto"),
+			ZoneId.of("Asia/Kolkata"), ZoneId.of("Australia/Lord_Howe"), ZoneOffset.ofHoursMinutes(-3, -30)};
+	// from year 1000 to 9999
+	private static final long MIN_SECOND = -30610224000L;
+	private static final long MAX_SECOND = 253402300799L;
+
+	@Test
+	public void testInstantMatchesTheFormatter(){
+		assertSameAsFormatter(Instant.class, DateTimeFormatter.ISO_INSTANT, ZoneOffset.UTC, Instant::from, instant -> instant);
+	}
+
+	@Test
+	public void testLocalDateMatchesTheFormatter(){
+		for(ZoneId zoneId : ZONES) {
+			assertSameAsFormatter(LocalDate.class, DateTimeFormatter.ISO_LOCAL_DATE, zoneId, LocalDate::from,
+					instant -> LocalDate.from(instant.atZone(zoneId)));
+		}
+	}
+
+	@Test
+	public void testLocalDateTimeMatchesTheFormatter(){
+		for(ZoneId zoneId : ZONES) {
+			assertSameAsFormatter(LocalDateTime.class, DateTimeFormatter.ISO_LOCAL_DATE_TIME, zoneId, LocalDateTime::from,
+					instant -> LocalDateTime.ofInstant(instant, zoneId));
+		}
+	}
+
+	@Test
+	public void testOffsetDateTimeMatchesTheFormatter(){
+		for(ZoneId zoneId : ZONES) {
+			for(ZoneId valueZoneId : ZONES) {
+				assertSameAsFormatter(OffsetDateTime.class, DateTimeFormatter.ISO_OFFSET_DATE_TIME, zoneId,
+						temporal -> DateTimeUtil.correctOffset(OffsetDateTime.from(temporal), zoneId),
+						instant -> OffsetDateTime.ofInstant(instant, valueZoneId));
+			}
+		}
+	}
+
+	@Test
+	public void testZonedDateTimeMatchesTheFormatter(){
+		for(ZoneId zoneId : ZONES) {
+			for(ZoneId valueZoneId : ZONES) {
+				assertSameAsFormatter(ZonedDateTime.class, DateTimeFormatter.ISO_ZONED_DATE_TIME, zoneId, ZonedDateTime::from,
+						instant -> ZonedDateTime.ofInstant(instant, valueZoneId));
+			}
+		}
+	}
+
+	@Test
+	public void testValuesFromOtherSourcesMatchTheFormatter(){
+		ZoneId paris = ZoneId.of("Europe/Paris");
+		assertParsedLikeTheFormatter(ZonedDateTime.class, DateTimeFormatter.ISO_ZONED_DATE_TIME, paris, ZonedDateTime::from,
+				"2011-12-03T10:15:30+01:00[Europe/Paris]", "2011-12-03T10:15:30-05:00[America/Toronto]",
+				"2011-12-03T10:15:30Z[UTC]", "2011-12-03T10:15:30+01:00", "2011-12-03T10:15:30.5Z",
+				"2011-10-30T02:30:00+01:00[Europe/Paris]", "2011-10-30T02:30:00+02:00[Europe/Paris]",
+				"2011-03-27T02:30:00+01:00[Europe/Paris]", "2011-12-03T10:15:30+01:00:30");
+		assertParsedLikeTheFormatter(OffsetDateTime.class, DateTimeFormatter.ISO_OFFSET_DATE_TIME, paris,
+				temporal -> DateTimeUtil.correctOffset(OffsetDateTime.from(temporal), paris),
+				"2011-12-03T10:15:30+01:00", "2011-12-03T10:15:30.123456-08:00", "2011-12-03T10:15:30Z",
+				"2011-10-30T02:30:00+01:00", "2011-03-27T02:30:00Z", "2011-12-03T10:15:30+01:00:30");
+		assertParsedLikeTheFormatter(Instant.class, DateTimeFormatter.ISO_INSTANT, ZoneOffset.UTC, Instant::from,
+				"2011-12-03T10:15:30Z", "2011-12-03T10:15:30.000000001Z", "0000-01-01T00:00:00Z", "2012-02-29T23:59:59.9Z");
+		assertParsedLikeTheFormatter(LocalDate.class, DateTimeFormatter.ISO_LOCAL_DATE, paris, LocalDate::from,
+				"2011-12-03", "2012-02-29", "0000-01-01");
+	}
+
+	@Test
+	public void testInvalidValuesAreLeftToTheFormatter(){
+		Assert.assertNull(IsoCodec.of(LocalDate.class, DateTimeFormatter.ISO_LOCAL_DATE, ZoneOffset.UTC).parse("2011-02-29"));
+		Assert.assertNull(IsoCodec.of(LocalDateTime.class, DateTimeFormatter.ISO_LOCAL_DATE_TIME, ZoneOffset.UTC)
+				.parse("2011-12-03t10:15:30"));
+		Assert.assertNull(IsoCodec.of(LocalDateTime.class, DateTimeFormatter.ISO_LOCAL_DATE_TIME, ZoneOffset.UTC)
+				.parse("2011-12-03T10:15"));
+		Assert.assertNull(IsoCodec.of(Instant.class, DateTimeFormatter.ISO_INSTANT, ZoneOffset.UTC)
+				.parse("2011-12-03T24:00:00Z"));
+		Assert.assertNull(IsoCodec.of(ZonedDateTime.class, DateTimeFormatter.ISO_ZONED_DATE_TIME, ZoneOffset.UTC)
+				.parse("2011-12-03T10:15:30+01:00[Nowhere/Unknown]"));
+		Assert.assertNull(IsoCodec.of(LocalDate.class, DateTimeFormatter.ofPattern("uuuu-MM-dd"), ZoneOffset.UTC));
+
+		// the formatters of the bundle resolve the invalid dates to the last day of the month
+		Genson genson = createFormatterGenson();
+		Assert.assertEquals(LocalDate.of(2011, 2, 28), genson.deserialize("\"2011-02-29\"", LocalDate.class));
+		Assert.assertEquals(LocalDate.of(12011, 2, 3), genson.deserialize(genson.serialize(LocalDate.of(12011, 2, 3)),
+				LocalDate.class));
+	}
+
+	private <T extends TemporalAccessor> void assertSameAsFormatter(Class<T> clazz, DateTimeFormatter isoFormatter, ZoneId zoneId,
+																	TemporalQuery<T> query, Function<Instant, T> valueFactory){
+		DateTimeFormatter formatter = DateTimeUtil.createFormatterWithDefaults(isoFormatter, zoneId);
+		IsoCodec<T> codec = (IsoCodec<T>) IsoCodec.of(clazz, isoFormatter, zoneId);
+		Random random = new Random(42);
+		for(int i = 0; i < 2000; i++){
+			long second = MIN_SECOND + (long) (random.nextDouble() * (MAX_SECOND - MIN_SECOND));
+			int nano = i % 4 == 0 ? 0 : i % 4 == 1 ? random.nextInt(1000) * 1000_000 : random.nextInt(1000_000_000);
+			T value = valueFactory.apply(Instant.ofEpochSecond(second, nano));
+			String expected = formatter.format(value);
+			Assert.assertEquals(expected, codec.format(value));
+			Assert.assertEquals(expected, formatter.parse(expected, query), parse(codec, formatter, query, expected));
+		}
+	}
+
+	private <T extends TemporalAccessor> void assertParsedLikeTheFormatter(Class<T> clazz, DateTimeFormatter isoFormatter, ZoneId zoneId,
+																		   TemporalQuery<T> query, String... values){
+		DateTimeFormatter formatter = DateTimeUtil.createFormatterWithDefaults(isoFormatter, zoneId);
+		IsoCodec<T> codec = (IsoCodec<T>) IsoCodec.of(clazz, isoFormatter, zoneId);
+		for(String value : values){
+			Assert.assertEquals(value, formatter.parse(value, query), parse(codec, formatter, query, value));
+		}
+	}
+
+	private <T extends TemporalAccessor> T parse(IsoCodec<T> codec, DateTimeFormatter formatter, TemporalQuery<T> query, String value){
+		T parsed = codec.parse(value);
+		return parsed != null ? parsed : formatter.parse(value, query);
+	}
+}
@@ -0,0 +1,23 @@
+package com.owlike.genson.ext.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A BeanDescriptor has been built by the BeanDescriptorProvider.
+ */
+@Name("com.owlike.genson.BeanDescriptorCreated")
+@Label("Bean Descriptor Created")
+@Category("Genson")
+@Description("A BeanDescriptor has been built by introspecting a class")
+public final class BeanDescriptorCreatedEvent extends jdk.jfr.Event {
+  @Label("Type")
+  String type;
+
+  @Label("Build Time")
+  @Timespan(Timespan.NANOSECONDS)
+  long buildTime;
+}
@@ -0,0 +1,24 @@
+package com.owlike.genson.ext.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A thread waited for the converter of a type referencing itself to be built by another thread,
+ * see CircularClassReferenceConverterFactory.
+ */
+@Name("com.owlike.genson.ConverterAwaited")
+@Label("Converter Awaited")
+@Category("Genson")
+@Description("A thread waited for the converter of a circular type being built by another thread")
+public final class ConverterAwaitedEvent extends jdk.jfr.Event {
+  @Label("Type")
+  String type;
+
+  @Label("Wait Time")
+  @Timespan(Timespan.NANOSECONDS)
+  long waitTime;
+}
@@ -0,0 +1,25 @@
+package com.owlike.genson.ext.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A converter has been built because it was not in the cache of Genson, the thread and the stack
+ * trace of the event show what triggered it.
+ */
+@Name("com.owlike.genson.ConverterCreated")
+@Label("Converter Created")
+@Category("Genson")
+@Description("A converter has been built and stored in the converter cache")
+public final class ConverterCreatedEvent extends jdk.jfr.Event {
+  @Label("Type")
+  String type;
+
+  @Label("Build Time")
+  @Description("Includes the construction of the converters and bean descriptors it depends on")
+  @Timespan(Timespan.NANOSECONDS)
+  long buildTime;
+}
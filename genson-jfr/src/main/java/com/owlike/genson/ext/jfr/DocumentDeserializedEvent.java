@@ -0,0 +1,34 @@
+package com.owlike.genson.ext.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A root value has been deserialized, it is recorded only for the documents larger or slower than the
+ * thresholds of JfrGensonMetrics.
+ */
+@Name("com.owlike.genson.DocumentDeserialized")
+@Label("Document Deserialized")
+@Category("Genson")
+@Description("A document larger or slower than the configured thresholds has been deserialized")
+public final class DocumentDeserializedEvent extends jdk.jfr.Event {
+  @Label("Root Type")
+  String type;
+
+  @Label("Bytes")
+  @Description("0 when the document was not deserialized as UTF-8 bytes")
+  @DataAmount
+  long bytes;
+
+  @Label("Chars")
+  @Description("0 when the document was not deserialized as chars")
+  long chars;
+
+  @Label("Binding Time")
+  @Timespan(Timespan.NANOSECONDS)
+  long bindingTime;
+}
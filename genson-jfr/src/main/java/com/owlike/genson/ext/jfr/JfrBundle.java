@@ -0,0 +1,54 @@
+package com.owlike.genson.ext.jfr;
+
+import java.time.Duration;
+
+import com.owlike.genson.GensonBuilder;
+import com.owlike.genson.GensonMetrics;
+import com.owlike.genson.ext.GensonBundle;
+
+/**
+ * Registers a {@link JfrGensonMetrics} emitting JDK Flight Recorder events for the converters and
+ * bean descriptors being built and for the large or slow documents.
+ *
+ * <pre>
+ * Genson genson = new GensonBuilder().withBundle(new JfrBundle()).create();
+ * </pre>
+ *
+ * As the bundle registers the metrics of the builder, use {@link #setDelegate(GensonMetrics)} to keep
+ * other metrics, for example a DefaultGensonMetrics. The bundle must be configured before being
+ * registered.
+ */
+public class JfrBundle extends GensonBundle {
+  private GensonMetrics delegate = GensonMetrics.NONE;
+  private long documentSizeThreshold = JfrGensonMetrics.DEFAULT_DOCUMENT_SIZE_THRESHOLD;
+  private Duration documentDurationThreshold = JfrGensonMetrics.DEFAULT_DOCUMENT_DURATION_THRESHOLD;
+
+  @Override
+  public void configure(GensonBuilder builder) {
+    builder.useMetrics(new JfrGensonMetrics(delegate, documentSizeThreshold, documentDurationThreshold));
+  }
+
+  /**
+   * The metrics also receiving all the events.
+   */
+  public JfrBundle setDelegate(GensonMetrics delegate) {
+    this.delegate = delegate;
+    return this;
+  }
+
+  /**
+   * The documents of at least this number of bytes or chars are recorded, 1MB by default.
+   */
+  public JfrBundle setDocumentSizeThreshold(long documentSizeThreshold) {
+    this.documentSizeThreshold = documentSizeThreshold;
+    return this;
+  }
+
+  /**
+   * The documents taking at least this time to serialize or deserialize are recorded, 20ms by default.
+   */
+  public JfrBundle setDocumentDurationThreshold(Duration documentDurationThreshold) {
+    this.documentDurationThreshold = documentDurationThreshold;
+    return this;
+  }
+}
@@ -0,0 +1,124 @@
+package com.owlike.genson.ext.jfr;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+
+import com.owlike.genson.GensonMetrics;
+
+/**
+ * GensonMetrics emitting JDK Flight Recorder events, so the activity of Genson can be correlated
+ * with the latency spikes visible in a recording:
+ * <ul>
+ *   <li>{@link ConverterCreatedEvent} and {@link BeanDescriptorCreatedEvent} when a converter or a
+ *   BeanDescriptor is built, the thread and stack trace of the event tell what triggered it,</li>
+ *   <li>{@link ConverterAwaitedEvent} when a thread waits for the converter of a circular type being
+ *   built by another thread,</li>
+ *   <li>{@link DocumentSerializedEvent} and {@link DocumentDeserializedEvent} for the documents whose
+ *   size (in bytes or chars) or binding time reaches the thresholds.</li>
+ * </ul>
+ * The events are enabled by default, they can be disabled in the JFR settings like any other event.
+ * When no recording is running the events are not even filled, the cost left is the one of the
+ * Genson measures.
+ * <p/>
+ * The events are sent to a delegate as well, for example a DefaultGensonMetrics, so both can be
+ * used at the same time. Use {@link JfrBundle} to register it with a GensonBuilder.
+ */
+public class JfrGensonMetrics implements GensonMetrics {
+  public final static long DEFAULT_DOCUMENT_SIZE_THRESHOLD = 1024 * 1024;
+  public final static Duration DEFAULT_DOCUMENT_DURATION_THRESHOLD = Duration.ofMillis(20);
+
+  private final GensonMetrics delegate;
+  private final long documentSizeThreshold;
+  private final long documentDurationThreshold;
+
+  public JfrGensonMetrics() {
+    this(GensonMetrics.NONE, DEFAULT_DOCUMENT_SIZE_THRESHOLD, DEFAULT_DOCUMENT_DURATION_THRESHOLD);
+  }
+
+  /**
+   * @param delegate                  also receives all the events, GensonMetrics.NONE if none.
+   * @param documentSizeThreshold     the documents of at least this number of bytes or chars are recorded.
+   * @param documentDurationThreshold the documents taking at least this time to serialize or
+   *                                  deserialize are recorded.
+   */
+  public JfrGensonMetrics(GensonMetrics delegate, long documentSizeThreshold, Duration documentDurationThreshold) {
+    if (delegate == null) throw new IllegalArgumentException("delegate can not be null, use GensonMetrics.NONE");
+    this.delegate = delegate;
+    this.documentSizeThreshold = documentSizeThreshold;
+    this.documentDurationThreshold = documentDurationThreshold.toNanos();
+  }
+
+  public void serialized(Type type, long nanos, long bytes, long chars) {
+    delegate.serialized(type, nanos, bytes, chars);
+    if (isLargeOrSlow(nanos, bytes, chars)) {
+      DocumentSerializedEvent event = new DocumentSerializedEvent();
+      if (event.isEnabled()) {
+        event.type = type.getTypeName();
+        event.bytes = bytes;
+        event.chars = chars;
+        event.bindingTime = nanos;
+        event.commit();
+      }
+    }
+  }
+
+  public void deserialized(Type type, long nanos, long bytes, long chars) {
+    delegate.deserialized(type, nanos, bytes, chars);
+    if (isLargeOrSlow(nanos, bytes, chars)) {
+      DocumentDeserializedEvent event = new DocumentDeserializedEvent();
+      if (event.isEnabled()) {
+        event.type = type.getTypeName();
+        event.bytes = bytes;
+        event.chars = chars;
+        event.bindingTime = nanos;
+        event.commit();
+      }
+    }
+  }
+
+  public void serializationFailed(Type type, Throwable error) {
+    delegate.serializationFailed(type, error);
+  }
+
+  public void deserializationFailed(Type type, Throwable error) {
+    delegate.deserializationFailed(type, error);
+  }
+
+  public void converterCacheHit(Type type) {
+    delegate.converterCacheHit(type);
+  }
+
+  public void converterCreated(Type type, long nanos) {
+    delegate.converterCreated(type, nanos);
+    ConverterCreatedEvent event = new ConverterCreatedEvent();
+    if (event.isEnabled()) {
+      event.type = type.getTypeName();
+      event.buildTime = nanos;
+      event.commit();
+    }
+  }
+
+  public void descriptorCreated(Type type, long nanos) {
+    delegate.descriptorCreated(type, nanos);
+    BeanDescriptorCreatedEvent event = new BeanDescriptorCreatedEvent();
+    if (event.isEnabled()) {
+      event.type = type.getTypeName();
+      event.buildTime = nanos;
+      event.commit();
+    }
+  }
+
+  public void converterAwaited(Type type, long nanos) {
+    delegate.converterAwaited(type, nanos);
+    ConverterAwaitedEvent event = new ConverterAwaitedEvent();
+    if (event.isEnabled()) {
+      event.type = type.getTypeName();
+      event.waitTime = nanos;
+      event.commit();
+    }
+  }
+
+  private boolean isLargeOrSlow(long nanos, long bytes, long chars) {
+    return nanos >= documentDurationThreshold || bytes >= documentSizeThreshold || chars >= documentSizeThreshold;
+  }
+}
@@ -0,0 +1,120 @@
+package com.owlike.genson.ext.jfr;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import com.owlike.genson.DefaultGensonMetrics;
+import com.owlike.genson.GenericType;
+import com.owlike.genson.Genson;
+import com.owlike.genson.GensonBuilder;
+
+import static org.junit.Assert.*;
+
+public class JfrGensonMetricsTest {
+  private final static String[] EVENTS = {"com.owlike.genson.ConverterCreated",
+    "com.owlike.genson.BeanDescriptorCreated", "com.owlike.genson.ConverterAwaited",
+    "com.owlike.genson.DocumentSerialized", "com.owlike.genson.DocumentDeserialized"};
+
+  @Test public void testConverterAndDescriptorCreationsAreRecorded() throws Exception {
+    Genson genson = new GensonBuilder().withBundle(new JfrBundle()).create();
+    List<RecordedEvent> events = record(() -> genson.serialize(new Point(1, 2)));
+
+    RecordedEvent converter = find(events, "com.owlike.genson.ConverterCreated", Point.class.getName());
+    assertTrue(converter.getLong("buildTime") > 0);
+    assertNotNull(converter.getThread());
+    assertEquals(Thread.currentThread().getName(), converter.getThread().getJavaName());
+    RecordedEvent descriptor = find(events, "com.owlike.genson.BeanDescriptorCreated", Point.class.getName());
+    assertTrue(descriptor.getLong("buildTime") > 0);
+  }
+
+  @Test public void testOnlyLargeDocumentsAreRecorded() throws Exception {
+    Genson genson = new GensonBuilder()
+      .withBundle(new JfrBundle().setDocumentSizeThreshold(1000).setDocumentDurationThreshold(Duration.ofHours(1)))
+      .create();
+    List<Point> points = new ArrayList<>();
+    for (int i = 0; i < 100; i++) points.add(new Point(i, i));
+    GenericType<List<Point>> type = new GenericType<List<Point>>() {
+    };
+    byte[][] json = new byte[1][];
+
+    List<RecordedEvent> events = record(() -> {
+      genson.serializeBytes(new Point(1, 2));
+      json[0] = genson.serializeBytes(points);
+      genson.deserialize(json[0], type);
+    });
+
+    assertEquals(0, count(events, "com.owlike.genson.DocumentSerialized", Point.class.getName()));
+    RecordedEvent serialized = find(events, "com.owlike.genson.DocumentSerialized", ArrayList.class.getName());
+    assertEquals(json[0].length, serialized.getLong("bytes"));
+    assertEquals(0, serialized.getLong("chars"));
+    RecordedEvent deserialized = find(events, "com.owlike.genson.DocumentDeserialized",
+      type.getType().getTypeName());
+    assertEquals(json[0].length, deserialized.getLong("bytes"));
+  }
+
+  @Test public void testConverterWaitsAreRecorded() throws Exception {
+    List<RecordedEvent> events = record(() -> new JfrGensonMetrics().converterAwaited(Point.class, 1234));
+    assertEquals(1234, find(events, "com.owlike.genson.ConverterAwaited", Point.class.getName()).getLong("waitTime"));
+  }
+
+  @Test public void testEventsAreSentToTheDelegate() {
+    DefaultGensonMetrics metrics = new DefaultGensonMetrics();
+    Genson genson = new GensonBuilder().withBundle(new JfrBundle().setDelegate(metrics)).create();
+    String json = genson.serialize(new Point(1, 2));
+
+    assertEquals(json.length(), metrics.serializations().get(Point.class.getName()).chars());
+    assertTrue(metrics.converterCacheMisses() > 0);
+    assertTrue(metrics.descriptorBuilds().count() > 0);
+  }
+
+  private List<RecordedEvent> record(Runnable work) throws Exception {
+    Path file = Files.createTempFile("genson", ".jfr");
+    try (Recording recording = new Recording()) {
+      for (String event : EVENTS) recording.enable(event).withThreshold(Duration.ZERO);
+      recording.start();
+      work.run();
+      recording.stop();
+      recording.dump(file);
+      return RecordingFile.readAllEvents(file);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  private RecordedEvent find(List<RecordedEvent> events, String name, String type) {
+    for (RecordedEvent event : events) {
+      if (event.getEventType().getName().equals(name) && type.equals(event.getString("type"))) return event;
+    }
+    fail("No " + name + " event for " + type + " in " + events);
+    return null;
+  }
+
+  private int count(List<RecordedEvent> events, String name, String type) {
+    int count = 0;
+    for (RecordedEvent event : events) {
+      if (event.getEventType().getName().equals(name) && type.equals(event.getString("type"))) count++;
+    }
+    return count;
+  }
+
+  public static class Point {
+    public int x;
+    public int y;
+
+    public Point() {
+    }
+
+    public Point(int x, int y) {
+      this.x = x;
+      this.y = y;
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.owlike.genson;
+
+/**
+ * Snapshot of the state of one of the caches used by Genson, see {@link Genson#cacheStats()}.
+ * <p/>
+ * The entries of a cache are split between the types Genson's class loader can see and the types
+ * loaded by other class loaders, for example the ones of a plugin or of a redeployed web
+ * application. The first ones are kept in a bounded cache, the oldest entries being evicted when
+ * it is full. The others are attached to the class that owns them and are released with its class
+ * loader, so Genson never prevents a class loader from being garbage collected.
+ */
+public final class CacheStats {
+  private final String name;
+  private final long size;
+  private final long maxSize;
+  private final long evictions;
+  private final long foreignClasses;
+  private final long releasedClasses;
+
+  public CacheStats(String name, long size, long maxSize, long evictions, long foreignClasses,
+                    long releasedClasses) {
+    this.name = name;
+    this.size = size;
+    this.maxSize = maxSize;
+    this.evictions = evictions;
+    this.foreignClasses = foreignClasses;
+    this.releasedClasses = releasedClasses;
+  }
+
+  /**
+   * @return the name of the cache, for example "converters".
+   */
+  public String name() {
+    return name;
+  }
+
+  /**
+   * @return the number of entries currently in the cache.
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * @return the maximum number of entries kept for the types visible to Genson's class loader, and
+   * for each class loaded by another class loader.
+   */
+  public long maxSize() {
+    return maxSize;
+  }
+
+  /**
+   * @return the number of entries evicted because the cache was full.
+   */
+  public long evictions() {
+    return evictions;
+  }
+
+  /**
+   * @return the number of classes loaded by other class loaders that currently own entries.
+   */
+  public long foreignClasses() {
+    return foreignClasses;
+  }
+
+  /**
+   * @return the number of classes loaded by other class loaders whose entries have been released
+   * because their class loader was garbage collected.
+   */
+  public long releasedClasses() {
+    return releasedClasses;
+  }
+
+  @Override
+  public String toString() {
+    return name + "{size=" + size + ", maxSize=" + maxSize + ", evictions=" + evictions + ", foreignClasses="
+      + foreignClasses + ", releasedClasses=" + releasedClasses + "}";
+  }
+}
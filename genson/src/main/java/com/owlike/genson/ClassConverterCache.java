@@ -0,0 +1,76 @@
+package com.owlike.genson;
+
+/**
+ * Converters of the raw classes provided by a Genson instance. This is the lookup done for each
+ * value whose type is only known at runtime (runtime type serialization, untyped values, class
+ * metadata), the classes are compared by identity in an open addressing table.
+ * <p/>
+ * Additions are rare and publish a new array, so lookups don't need any synchronization.
+ * A {@link ClassValue} is not used as the converters are specific to a Genson instance and the
+ * values of a ClassValue stay reachable from the class, with the Genson instance that created them.
+ * <p/>
+ * Only the classes visible to the class loader of Genson are added, and at most MAX_SIZE of them.
+ * The other ones go to the converter cache of Genson that does not keep their class loader alive.
+ */
+final class ClassConverterCache {
+  final static int MAX_SIZE = 1024;
+
+  // the classes at even indexes followed by their converter
+  private volatile Object[] _table = new Object[64];
+  private int _size = 0;
+
+  Converter<?> get(Class<?> clazz) {
+    final Object[] table = _table;
+    final int mask = table.length - 2;
+    for (int i = index(clazz, mask); ; i = (i + 2) & mask) {
+      Object candidate = table[i];
+      if (candidate == clazz) return (Converter<?>) table[i + 1];
+      if (candidate == null) return null;
+    }
+  }
+
+  boolean hasCapacity() {
+    return _size < MAX_SIZE;
+  }
+
+  int size() {
+    return _size;
+  }
+
+  /**
+   * @return the converter already associated to clazz or the converter if there was none.
+   */
+  synchronized Converter<?> putIfAbsent(Class<?> clazz, Converter<?> converter) {
+    Converter<?> existing = get(clazz);
+    if (existing != null) return existing;
+
+    Object[] table = _table;
+    if ((_size + 1) * 4 > table.length) table = rehash(table, table.length * 2);
+    else table = table.clone();
+    insert(table, clazz, converter);
+    _size++;
+    _table = table;
+    return converter;
+  }
+
+  private static Object[] rehash(Object[] table, int length) {
+    Object[] newTable = new Object[length];
+    for (int i = 0; i < table.length; i += 2) {
+      if (table[i] != null) insert(newTable, (Class<?>) table[i], table[i + 1]);
+    }
+    return newTable;
+  }
+
+  private static void insert(Object[] table, Class<?> clazz, Object converter) {
+    final int mask = table.length - 2;
+    int i = index(clazz, mask);
+    while (table[i] != null) i = (i + 2) & mask;
+    table[i] = clazz;
+    table[i + 1] = converter;
+  }
+
+  private static int index(Class<?> clazz, int mask) {
+    int h = System.identityHashCode(clazz);
+    return ((h ^ (h >>> 16)) << 1) & mask;
+  }
+}
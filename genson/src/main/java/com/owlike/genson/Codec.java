@@ -0,0 +1,172 @@
+package com.owlike.genson;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import com.owlike.genson.stream.ObjectReader;
+import com.owlike.genson.stream.ObjectWriter;
+import com.owlike.genson.stream.Utf8JsonWriter;
+
+/**
+ * Serializes and deserializes values of type T with a converter resolved once, use
+ * {@link Genson#codecFor(Class)} or {@link Genson#codecFor(GenericType)} to obtain one. Codecs are
+ * immutable and thread safe, they are meant to be created once and kept by the code serializing or
+ * deserializing many values of the same type:
+ *
+ * <pre>
+ * private final static Codec&lt;Order&gt; ORDERS = genson.codecFor(Order.class);
+ *
+ * ORDERS.write(order, outputStream);
+ * Order order = ORDERS.read(bytes);
+ * </pre>
+ * <p/>
+ * The values are serialized using T and not their runtime type. The write(T, OutputStream, byte[])
+ * and read(byte[], int, int) variants let the callers reuse their buffers between calls. As with
+ * Genson, the streams and readers passed to a Codec are not closed.
+ *
+ * @param <T> the type of the values handled by this codec.
+ */
+public final class Codec<T> {
+  private final Genson genson;
+  private final GenericType<T> type;
+  private final Converter<T> converter;
+
+  Codec(Genson genson, GenericType<T> type, Converter<T> converter) {
+    this.genson = genson;
+    this.type = type;
+    this.converter = converter;
+  }
+
+  public GenericType<T> getType() {
+    return type;
+  }
+
+  public Genson getGenson() {
+    return genson;
+  }
+
+  /**
+   * Serializes value as UTF-8 to output.
+   */
+  public void write(T value, OutputStream output) {
+    write(value, genson.createWriter(output), new Context(genson));
+  }
+
+  /**
+   * Serializes value as UTF-8 to output, using buffer to accumulate the bytes before writing them to
+   * output. The buffer can be reused once this method returned.
+   */
+  public void write(T value, OutputStream output, byte[] buffer) {
+    write(value, genson.createWriter(output, buffer), new Context(genson));
+  }
+
+  public void write(T value, Writer writer) {
+    write(value, genson.createWriter(writer), new Context(genson));
+  }
+
+  /**
+   * @return value serialized as UTF-8 bytes.
+   */
+  public byte[] writeBytes(T value) {
+    Utf8JsonWriter writer = (Utf8JsonWriter) genson.createWriter(null, new byte[1024]);
+    write(value, writer, new Context(genson));
+    return writer.toByteArray();
+  }
+
+  public String writeString(T value) {
+    StringWriter sw = new StringWriter();
+    write(value, genson.createWriter(sw), new Context(genson));
+    return sw.toString();
+  }
+
+  /**
+   * Serializes value to writer and flushes it.
+   *
+   * @throws com.owlike.genson.JsonBindingException if there was any kind of error during serialization.
+   */
+  public void write(T value, ObjectWriter writer, Context ctx) {
+    GensonMetrics metrics = genson.metrics();
+    if (metrics == GensonMetrics.NONE) {
+      serialize(value, writer, ctx);
+      return;
+    }
+    long start = System.nanoTime();
+    long bytes = Genson.bytesWritten(writer);
+    long chars = Genson.charsWritten(writer);
+    try {
+      serialize(value, writer, ctx);
+    } catch (RuntimeException e) {
+      metrics.serializationFailed(type.getType(), e);
+      throw e;
+    }
+    metrics.serialized(type.getType(), System.nanoTime() - start, Genson.bytesWritten(writer) - bytes,
+      Genson.charsWritten(writer) - chars);
+  }
+
+  private void serialize(T value, ObjectWriter writer, Context ctx) {
+    try {
+      converter.serialize(value, writer, ctx);
+      writer.flush();
+    } catch (Exception e) {
+      throw new JsonBindingException("Failed to serialize object of type " + type.getType(), e);
+    }
+  }
+
+  public T read(byte[] input) {
+    return read(genson.createReader(input), new Context(genson));
+  }
+
+  /**
+   * Deserializes the length bytes of input starting at offset, UTF-8 content is read in place.
+   */
+  public T read(byte[] input, int offset, int length) {
+    return read(genson.createReader(input, offset, length), new Context(genson));
+  }
+
+  public T read(InputStream input) {
+    return read(genson.createReader(input), new Context(genson));
+  }
+
+  public T read(Reader reader) {
+    return read(genson.createReader(reader), new Context(genson));
+  }
+
+  public T read(String json) {
+    return read(genson.createReader(new StringReader(json)), new Context(genson));
+  }
+
+  /**
+   * Deserializes the next value of reader.
+   *
+   * @throws com.owlike.genson.JsonBindingException if there was any kind of error during deserialization.
+   */
+  public T read(ObjectReader reader, Context ctx) {
+    GensonMetrics metrics = genson.metrics();
+    if (metrics == GensonMetrics.NONE) return deserialize(reader, ctx);
+    long start = System.nanoTime();
+    long bytes = Genson.bytesRead(reader);
+    long chars = Genson.charsRead(reader);
+    T value;
+    try {
+      value = deserialize(reader, ctx);
+    } catch (RuntimeException e) {
+      metrics.deserializationFailed(type.getType(), e);
+      throw e;
+    }
+    metrics.deserialized(type.getType(), System.nanoTime() - start, Genson.bytesRead(reader) - bytes,
+      Genson.charsRead(reader) - chars);
+    return value;
+  }
+
+  private T deserialize(ObjectReader reader, Context ctx) {
+    try {
+      return converter.deserialize(reader, ctx);
+    } catch (Exception e) {
+      throw new JsonBindingException("Could not deserialize to type " + type.getRawClass(), e);
+    }
+  }
+}
@@ -35,7 +35,8 @@
 public class Context {
   public final Genson genson;
   private List<Class<? extends BeanView<?>>> views;
-  private Map<String, Object> _ctxData = new HashMap<String, Object>();
+  // created on the first store, most serializations and deserializations don't use it
+  private Map<String, Object> _ctxData;
 
   public Context(Genson genson) {
     this(genson, null);
@@ -70,9 +71,8 @@ public List<Class<? extends BeanView<?>>> views() {
    */
   public Object store(String key, Object o) {
     checkNotNull(key);
-    Object old = _ctxData.get(key);
-    _ctxData.put(key, o);
-    return old;
+    if (_ctxData == null) _ctxData = new HashMap<String, Object>();
+    return _ctxData.put(key, o);
   }
 
   /**
@@ -86,7 +86,7 @@ public Object store(String key, Object o) {
    */
   public <T> T get(String key, Class<T> valueType) {
     checkNotNull(key, valueType);
-    return valueType.cast(_ctxData.get(key));
+    return _ctxData != null ? valueType.cast(_ctxData.get(key)) : null;
   }
 
   /**
@@ -102,6 +102,7 @@ public <T> T get(String key, Class<T> valueType) {
    */
   public <T> T remove(String key, Class<T> valueType) {
     checkNotNull(key, valueType);
+    if (_ctxData == null) return null;
     T value = valueType.cast(_ctxData.get(key));
     _ctxData.remove(key);
     return value;
@@ -0,0 +1,265 @@
+package com.owlike.genson;
+
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.owlike.genson.reflect.LoaderAwareCache;
+
+/**
+ * Aggregates the events of Genson in counters and latency histograms, per root type for the
+ * serializations and deserializations and globally for the converters and bean descriptors being
+ * built. The values are accumulated in LongAdders, so the threads using Genson concurrently do not
+ * contend on the same counters, and can be read at any time, for example by a scheduled task
+ * exporting them to a monitoring system:
+ *
+ * <pre>
+ * DefaultGensonMetrics metrics = new DefaultGensonMetrics();
+ * Genson genson = new GensonBuilder().useMetrics(metrics).create();
+ * ...
+ * for (Map.Entry&lt;String, DefaultGensonMetrics.Stats&gt; e : metrics.serializations().entrySet()) {
+ *   DefaultGensonMetrics.Stats stats = e.getValue();
+ *   report(e.getKey(), stats.count(), stats.latency().percentile(0.99), stats.bytes());
+ * }
+ * </pre>
+ * <p/>
+ * A Stats instance is kept for each root type, so the number of distinct root types should stay
+ * bounded, which is the case of most applications. The stats are keyed by the name of the types and
+ * do not reference them: the classes of a redeployed application are not kept alive and their stats
+ * are merged with the ones of the new deployment.
+ */
+public class DefaultGensonMetrics implements GensonMetrics {
+  private final static int MAX_CACHED_TYPES = 1024;
+
+  private final ConcurrentHashMap<String, Stats> serializations = new ConcurrentHashMap<String, Stats>();
+  private final ConcurrentHashMap<String, Stats> deserializations = new ConcurrentHashMap<String, Stats>();
+  // the stats of the types met so far, so the type names are not built for each value
+  private final LoaderAwareCache<Type, Stats> serializationsByType =
+    LoaderAwareCache.ofTypes("serializationMetrics", MAX_CACHED_TYPES);
+  private final LoaderAwareCache<Type, Stats> deserializationsByType =
+    LoaderAwareCache.ofTypes("deserializationMetrics", MAX_CACHED_TYPES);
+  private final LongAdder converterCacheHits = new LongAdder();
+  private final Histogram converterBuilds = new Histogram();
+  private final Histogram descriptorBuilds = new Histogram();
+  private final Histogram converterWaits = new Histogram();
+
+  public void serialized(Type type, long nanos, long bytes, long chars) {
+    stats(serializations, serializationsByType, type).record(nanos, bytes, chars);
+  }
+
+  public void deserialized(Type type, long nanos, long bytes, long chars) {
+    stats(deserializations, deserializationsByType, type).record(nanos, bytes, chars);
+  }
+
+  public void serializationFailed(Type type, Throwable error) {
+    stats(serializations, serializationsByType, type).errors.increment();
+  }
+
+  public void deserializationFailed(Type type, Throwable error) {
+    stats(deserializations, deserializationsByType, type).errors.increment();
+  }
+
+  public void converterCacheHit(Type type) {
+    converterCacheHits.increment();
+  }
+
+  public void converterCreated(Type type, long nanos) {
+    converterBuilds.record(nanos);
+  }
+
+  public void descriptorCreated(Type type, long nanos) {
+    descriptorBuilds.record(nanos);
+  }
+
+  public void converterAwaited(Type type, long nanos) {
+    converterWaits.record(nanos);
+  }
+
+  private Stats stats(ConcurrentHashMap<String, Stats> statsByName, LoaderAwareCache<Type, Stats> statsByType,
+                      Type type) {
+    Stats stats = statsByType.get(type);
+    if (stats != null) return stats;
+
+    String name = type.getTypeName();
+    stats = statsByName.get(name);
+    if (stats == null) {
+      stats = new Stats();
+      Stats previous = statsByName.putIfAbsent(name, stats);
+      if (previous != null) stats = previous;
+    }
+    return statsByType.putIfAbsent(type, stats);
+  }
+
+  /**
+   * @return a read only view of the serialization stats of each root type, by type name.
+   */
+  public Map<String, Stats> serializations() {
+    return Collections.unmodifiableMap(serializations);
+  }
+
+  /**
+   * @return a read only view of the deserialization stats of each root type, by type name.
+   */
+  public Map<String, Stats> deserializations() {
+    return Collections.unmodifiableMap(deserializations);
+  }
+
+  public long converterCacheHits() {
+    return converterCacheHits.sum();
+  }
+
+  /**
+   * @return the number of lookups that did not find the converter in the cache.
+   */
+  public long converterCacheMisses() {
+    return converterBuilds.count();
+  }
+
+  /**
+   * @return the time spent building the converters that were not in the cache.
+   */
+  public Histogram converterBuilds() {
+    return converterBuilds;
+  }
+
+  public Histogram descriptorBuilds() {
+    return descriptorBuilds;
+  }
+
+  /**
+   * @return the time threads spent waiting for the converters of circular types built by other threads.
+   */
+  public Histogram converterWaits() {
+    return converterWaits;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("DefaultGensonMetrics{converters: ")
+      .append(converterCacheHits()).append(" hits, ")
+      .append(converterCacheMisses()).append(" misses built in ").append(converterBuilds.totalNanos())
+      .append("ns, descriptors: ").append(descriptorBuilds.count()).append(" built in ")
+      .append(descriptorBuilds.totalNanos()).append("ns, converter waits: ").append(converterWaits.count())
+      .append(" in ").append(converterWaits.totalNanos()).append("ns");
+    append(sb, "serialized", serializations);
+    append(sb, "deserialized", deserializations);
+    return sb.append('}').toString();
+  }
+
+  private static void append(StringBuilder sb, String operation, Map<String, Stats> statsByName) {
+    for (Map.Entry<String, Stats> entry : statsByName.entrySet()) {
+      sb.append(", ").append(operation).append(' ').append(entry.getKey()).append(": ").append(entry.getValue());
+    }
+  }
+
+  /**
+   * The serializations or deserializations of a root type.
+   */
+  public static final class Stats {
+    private final Histogram latency = new Histogram();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder chars = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    void record(long nanos, long bytes, long chars) {
+      latency.record(nanos);
+      if (bytes > 0) this.bytes.add(bytes);
+      if (chars > 0) this.chars.add(chars);
+    }
+
+    /**
+     * @return the number of values that have been successfully serialized or deserialized.
+     */
+    public long count() {
+      return latency.count();
+    }
+
+    public long errors() {
+      return errors.sum();
+    }
+
+    public long bytes() {
+      return bytes.sum();
+    }
+
+    public long chars() {
+      return chars.sum();
+    }
+
+    public Histogram latency() {
+      return latency;
+    }
+
+    @Override
+    public String toString() {
+      return count() + " in " + latency.totalNanos() + "ns (p50 " + latency.percentile(0.5) + "ns, p99 "
+        + latency.percentile(0.99) + "ns), " + bytes() + " bytes, " + chars() + " chars, " + errors() + " errors";
+    }
+  }
+
+  /**
+   * Histogram of durations in nanoseconds with power of two buckets: bucket i counts the durations
+   * between 2^(i-1) and 2^i - 1, so the percentiles are approximated by at most a factor of 2 while
+   * recording a value costs only an increment.
+   */
+  public static final class Histogram {
+    private final LongAdder[] buckets = new LongAdder[64];
+    private final LongAdder totalNanos = new LongAdder();
+
+    Histogram() {
+      for (int i = 0; i < buckets.length; i++) buckets[i] = new LongAdder();
+    }
+
+    void record(long nanos) {
+      if (nanos < 0) nanos = 0;
+      buckets[64 - Long.numberOfLeadingZeros(nanos)].increment();
+      totalNanos.add(nanos);
+    }
+
+    public long count() {
+      long count = 0;
+      for (LongAdder bucket : buckets) count += bucket.sum();
+      return count;
+    }
+
+    public long totalNanos() {
+      return totalNanos.sum();
+    }
+
+    /**
+     * @return the number of durations recorded in each bucket, see the class documentation.
+     */
+    public long[] buckets() {
+      long[] counts = new long[buckets.length];
+      for (int i = 0; i < buckets.length; i++) counts[i] = buckets[i].sum();
+      return counts;
+    }
+
+    /**
+     * @param p between 0 and 1, for example 0.99 for the 99th percentile.
+     * @return the upper bound of the bucket containing the percentile p of the recorded durations,
+     * 0 if nothing has been recorded.
+     */
+    public long percentile(double p) {
+      if (p < 0 || p > 1) throw new IllegalArgumentException("Expected a percentile between 0 and 1 but got " + p);
+      long[] counts = buckets();
+      long count = 0;
+      for (long c : counts) count += c;
+      if (count == 0) return 0;
+
+      long rank = Math.max(1, (long) Math.ceil(p * count));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) return upperBound(i);
+      }
+      return upperBound(counts.length - 1);
+    }
+
+    private static long upperBound(int bucket) {
+      return bucket == 63 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+  }
+}
@@ -1,12 +1,30 @@
 package com.owlike.genson;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+
+import com.owlike.genson.stream.JsonReader;
+import com.owlike.genson.stream.ObjectReader;
+import com.owlike.genson.stream.PropertyNameTable;
+import com.owlike.genson.stream.Utf8JsonReader;
 
 /**
  * This is an internal class that might evolve in the future into a JsonReader Factory and be moved
  * to the stream package.
  */
 public final class EncodingAwareReaderFactory {
+  private final PropertyNameTable names;
+
+  public EncodingAwareReaderFactory() {
+    this(null);
+  }
+
+  /**
+   * @param names table of known property names given to the created ObjectReaders, can be null.
+   */
+  public EncodingAwareReaderFactory(PropertyNameTable names) {
+    this.names = names;
+  }
 
   static enum UTFEncoding {
     UTF_32BE(4), UTF_32LE(4), UTF_16BE(2), UTF_16LE(2), UTF_8(1), UNKNOWN(-1);
@@ -39,41 +57,119 @@ public Reader createReader(InputStream is) throws IOException {
 
     if (len < 1) return new InputStreamReader(is);
 
-    // read first 4 bytes if available
-    int bits_32 = (bytes[0] & 0xFF) << 24
-      | (bytes[1] & 0xFF) << 16
-      | (bytes[2] & 0xFF) << 8
-      | (bytes[3] & 0xFF);
+    UTFEncoding encoding = detectEncoding(bytes, len);
+    return new InputStreamReader(unread(is, bytes, len, encoding), encoding.encoding());
+  }
 
+  /**
+   * Creates an ObjectReader for the detected encoding. UTF-8 content is read directly from the bytes
+   * by a {@link Utf8JsonReader}, the other encodings are decoded to chars and read by a
+   * {@link JsonReader}.
+   */
+  public ObjectReader createReader(InputStream is, boolean strictDoubleParse, boolean readMetadata)
+    throws IOException {
+    byte[] bytes = new byte[4];
+    int len = fetchBytes(bytes, is);
+
+    if (len < 1) return new Utf8JsonReader(is, strictDoubleParse, readMetadata, names);
+
+    UTFEncoding encoding = detectEncoding(bytes, len);
+    InputStream input = unread(is, bytes, len, encoding);
+    if (encoding == UTFEncoding.UTF_8) return new Utf8JsonReader(input, strictDoubleParse, readMetadata, names);
+    else return new JsonReader(new InputStreamReader(input, encoding.encoding()), strictDoubleParse, readMetadata,
+      names);
+  }
+
+  /**
+   * Same as {@link #createReader(java.io.InputStream, boolean, boolean)}, but when the content is UTF-8
+   * the array is read in place without any copy.
+   */
+  public ObjectReader createReader(byte[] in, boolean strictDoubleParse, boolean readMetadata)
+    throws IOException {
+    return createReader(in, 0, in.length, strictDoubleParse, readMetadata);
+  }
+
+  /**
+   * Same as {@link #createReader(byte[], boolean, boolean)} but reads only length bytes starting at offset.
+   */
+  public ObjectReader createReader(byte[] in, int offset, int length, boolean strictDoubleParse,
+                                   boolean readMetadata) throws IOException {
+    int len = Math.min(4, length);
+    if (len < 1) return new Utf8JsonReader(in, offset, 0, strictDoubleParse, readMetadata, names);
+
+    byte[] bytes = new byte[4];
+    System.arraycopy(in, offset, bytes, 0, len);
+    UTFEncoding encoding = detectEncoding(bytes, len);
+    int usedBOMBytes = usedBOMBytes(bytes, len, encoding);
+
+    if (encoding == UTFEncoding.UTF_8)
+      return new Utf8JsonReader(in, offset + usedBOMBytes, length - usedBOMBytes, strictDoubleParse,
+        readMetadata, names);
+    else return new JsonReader(new InputStreamReader(
+      new ByteArrayInputStream(in, offset + usedBOMBytes, length - usedBOMBytes), encoding.encoding()),
+      strictDoubleParse, readMetadata, names);
+  }
+
+  /**
+   * Creates an ObjectReader for the bytes between the position and the limit of the buffer, the buffer
+   * position is left unchanged. Heap buffers are read in place, the content of direct and mapped buffers
+   * is transferred chunk by chunk to the reader.
+   */
+  public ObjectReader createReader(ByteBuffer in, boolean strictDoubleParse, boolean readMetadata)
+    throws IOException {
+    if (in.hasArray())
+      return createReader(in.array(), in.arrayOffset() + in.position(), in.remaining(), strictDoubleParse,
+        readMetadata);
+    else return createReader(new ByteBufferInputStream(in.duplicate()), strictDoubleParse, readMetadata);
+  }
+
+  private UTFEncoding detectEncoding(byte[] bytes, int len) throws UnsupportedEncodingException {
+    int bits_32 = toBits32(bytes);
     UTFEncoding encoding = UTFEncoding.UNKNOWN;
-    boolean hasBOM = false;
 
     // try to detect the encoding from those 4 bytes if BOM is used
     if (len == 4) encoding = detectEncodingFromBOM(bits_32);
 
     // no BOM then fall back to JSON spec
     if (encoding == UTFEncoding.UNKNOWN) {
-      encoding = detectEncodingUsingJSONSpec(bits_32);
-    } else hasBOM = true;
+      encoding = detectEncodingUsingJSONSpec(bits_32, len);
+    }
 
     // should not happen as we default to UTF-8
     if (encoding == UTFEncoding.UNKNOWN) {
       throw new UnsupportedEncodingException("The encoding could not be detected from the stream.");
     }
 
-    int usedBOMBytes = hasBOM ? len - (4 - encoding.bytes) : 0;
+    return encoding;
+  }
+
+  private int usedBOMBytes(byte[] bytes, int len, UTFEncoding encoding) {
+    boolean hasBOM = len == 4 && detectEncodingFromBOM(toBits32(bytes)) == encoding;
+    return hasBOM ? len - (4 - encoding.bytes) : 0;
+  }
+
+  private InputStream unread(InputStream is, byte[] bytes, int len, UTFEncoding encoding) throws IOException {
+    int usedBOMBytes = usedBOMBytes(bytes, len, encoding);
     int bytesToUnread = len - usedBOMBytes;
 
     // small optimization to avoid encapsulation when there is nothing to unread
     if (bytesToUnread == 0) {
-      return new InputStreamReader(is, encoding.encoding());
+      return is;
     } else {
       PushbackInputStream pis = new PushbackInputStream(is, bytesToUnread);
       pis.unread(bytes, usedBOMBytes, bytesToUnread);
-      return new InputStreamReader(pis, encoding.encoding());
+      return pis;
     }
   }
 
+  // read first 4 bytes if available
+  private int toBits32(byte[] bytes) {
+    return (bytes[0] & 0xFF) << 24
+      | (bytes[1] & 0xFF) << 16
+      | (bytes[2] & 0xFF) << 8
+      | (bytes[3] & 0xFF);
+  }
+
   private UTFEncoding detectEncodingFromBOM(int bits_32) {
     int bits_16  = bits_32 >>> 16;
 
@@ -85,13 +181,14 @@ private UTFEncoding detectEncodingFromBOM(int bits_32) {
     else return UTFEncoding.UNKNOWN;
   }
 
-  private UTFEncoding detectEncodingUsingJSONSpec(int bits_32) {
+  private UTFEncoding detectEncodingUsingJSONSpec(int bits_32, int len) {
     int bits_16  = bits_32 >>> 16;
 
-    if (bits_32 >>> 8 == 0) return UTFEncoding.UTF_32BE;
-    else if ((bits_32 & 0x00FFFFFF) == 0) return UTFEncoding.UTF_32LE;
-    else if ((bits_16 & 0xFF00) == 0) return UTFEncoding.UTF_16BE;
-    else if ((bits_16 & 0x00FF) == 0) return UTFEncoding.UTF_16LE;
+    // the missing bytes are zeros, so we can check only the encodings that fit in the readen bytes
+    if (len == 4 && bits_32 >>> 8 == 0) return UTFEncoding.UTF_32BE;
+    else if (len == 4 && (bits_32 & 0x00FFFFFF) == 0) return UTFEncoding.UTF_32LE;
+    else if (len > 1 && (bits_16 & 0xFF00) == 0) return UTFEncoding.UTF_16BE;
+    else if (len > 1 && (bits_16 & 0x00FF) == 0) return UTFEncoding.UTF_16LE;
     else return UTFEncoding.UTF_8;
   }
 
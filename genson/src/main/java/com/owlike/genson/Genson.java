@@ -2,13 +2,17 @@
 
 import java.io.*;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
+import com.owlike.genson.reflect.ASMCreatorParameterNameResolver;
 import com.owlike.genson.reflect.BeanDescriptor;
 import com.owlike.genson.reflect.BeanDescriptorProvider;
+import com.owlike.genson.reflect.LoaderAwareCache;
 import com.owlike.genson.reflect.RuntimePropertyFilter;
+import com.owlike.genson.reflect.TypeUtil;
 import com.owlike.genson.stream.*;
 
 /**
@@ -57,7 +61,11 @@ public final class Genson {
   private final static Genson _default = new GensonBuilder().create();
   private final static Charset UTF8_CHARSET = Charset.forName("UTF-8");
 
-  private final ConcurrentHashMap<Type, Converter<?>> converterCache = new ConcurrentHashMap<Type, Converter<?>>();
+  private final static int MAX_CACHED_CONVERTERS = 4096;
+
+  private final LoaderAwareCache<Type, Converter<?>> converterCache =
+    LoaderAwareCache.ofTypes("converters", MAX_CACHED_CONVERTERS);
+  private final ClassConverterCache classConverterCache = new ClassConverterCache();
   private final Factory<Converter<?>> converterFactory;
   private final BeanDescriptorProvider beanDescriptorFactory;
   private final Map<Class<?>, String> classAliasMap;
@@ -69,9 +77,11 @@ public final class Genson {
   private final boolean strictDoubleParse;
   private final boolean indent;
   private final boolean failOnMissingProperty;
-  private final EncodingAwareReaderFactory readerFactory = new EncodingAwareReaderFactory();
+  private final PropertyNameTable propertyNames = new PropertyNameTable();
+  private final EncodingAwareReaderFactory readerFactory = new EncodingAwareReaderFactory(propertyNames);
   private final Map<Class<?>, Object> defaultValues;
   private final RuntimePropertyFilter runtimePropertyFilter;
+  private final GensonMetrics metrics;
 
   /**
    * The default constructor will use the default configuration provided by the {@link GensonBuilder}.
@@ -81,7 +91,8 @@ public Genson() {
     this(_default.converterFactory, _default.beanDescriptorFactory,
       _default.skipNull, _default.htmlSafe, _default.aliasClassMap,
       _default.withClassMetadata, _default.strictDoubleParse, _default.indent,
-      _default.withMetadata, _default.failOnMissingProperty, _default.defaultValues, _default.runtimePropertyFilter);
+      _default.withMetadata, _default.failOnMissingProperty, _default.defaultValues, _default.runtimePropertyFilter,
+      _default.metrics);
   }
 
   /**
@@ -97,11 +108,8 @@ public Genson() {
 *                          true.
    * @param withClassMetadata indicates whether class name should be serialized and used during deserialization
 *                          to determine the type. False by default.
-   * @param strictDoubleParse indicates whether to use or not double approximation. If false (by default) it
-*                          enables Genson custom double parsing algorithm, that is an approximation of
-*                          Double.parse but is a lot faster. If true, Double.parse method will be usead
-*                          instead. In most cases you should be fine with Genson algorithm, but if for some
-*                          reason you need to have 100% match with Double.parse, then enable strict parsing.
+   * @param strictDoubleParse has no effect anymore, doubles are always parsed to the same value as
+*                          Double.parse would return, using a faster algorithm. Kept for compatibility.
    * @param indent            true if outputed json must be indented (pretty printed).
    * @param withMetadata      true if ObjectReader instances must be configured with metadata feature enabled.
 *                          if withClassMetadata is true withMetadata will be automatically true.
@@ -113,6 +121,23 @@ public Genson(Factory<Converter<?>> converterFactory, BeanDescriptorProvider bea
                 boolean skipNull, boolean htmlSafe, Map<String, Class<?>> classAliases, boolean withClassMetadata,
                 boolean strictDoubleParse, boolean indent, boolean withMetadata, boolean failOnMissingProperty,
                 Map<Class<?>, Object> defaultValues, RuntimePropertyFilter runtimePropertyFilter) {
+    this(converterFactory, beanDescProvider, skipNull, htmlSafe, classAliases, withClassMetadata, strictDoubleParse,
+      indent, withMetadata, failOnMissingProperty, defaultValues, runtimePropertyFilter, GensonMetrics.NONE);
+  }
+
+  /**
+   * Instead of using this constructor you should use {@link GensonBuilder}.
+   *
+   * @param metrics is notified of the serializations, deserializations and of the converters being built,
+   *                GensonMetrics.NONE disables the measures.
+   * @see #Genson(Factory, BeanDescriptorProvider, boolean, boolean, Map, boolean, boolean, boolean, boolean,
+   * boolean, Map, RuntimePropertyFilter)
+   */
+  public Genson(Factory<Converter<?>> converterFactory, BeanDescriptorProvider beanDescProvider,
+                boolean skipNull, boolean htmlSafe, Map<String, Class<?>> classAliases, boolean withClassMetadata,
+                boolean strictDoubleParse, boolean indent, boolean withMetadata, boolean failOnMissingProperty,
+                Map<Class<?>, Object> defaultValues, RuntimePropertyFilter runtimePropertyFilter,
+                GensonMetrics metrics) {
     this.converterFactory = converterFactory;
     this.beanDescriptorFactory = beanDescProvider;
     this.skipNull = skipNull;
@@ -121,6 +146,7 @@ public Genson(Factory<Converter<?>> converterFactory, BeanDescriptorProvider bea
     this.withClassMetadata = withClassMetadata;
     this.defaultValues = defaultValues;
     this.runtimePropertyFilter = runtimePropertyFilter;
+    this.metrics = metrics;
     this.classAliasMap = new HashMap<Class<?>, String>(classAliases.size());
     for (Map.Entry<String, Class<?>> entry : classAliases.entrySet()) {
       classAliasMap.put(entry.getValue(), entry.getKey());
@@ -140,18 +166,70 @@ public Genson(Factory<Converter<?>> converterFactory, BeanDescriptorProvider bea
    */
   @SuppressWarnings("unchecked")
   public <T> Converter<T> provideConverter(Type forType) {
-    if (Boolean.TRUE.equals(ThreadLocalHolder.get("__GENSON$DO_NOT_CACHE_CONVERTER", Boolean.class))) {
-      return (Converter<T>) converterFactory.create(forType, this);
-    } else {
-      Converter<T> converter = (Converter<T>) converterCache.get(forType);
-      if (converter == null) {
-        converter = (Converter<T>) converterFactory.create(forType, this);
-        if (converter == null)
-          throw new JsonBindingException("No converter found for type " + forType);
-        converterCache.putIfAbsent(forType, converter);
+    if (forType instanceof Class) {
+      Class<?> clazz = (Class<?>) forType;
+      Converter<T> converter = (Converter<T>) classConverterCache.get(clazz);
+      if (converter != null) {
+        if (metrics != GensonMetrics.NONE) metrics.converterCacheHit(clazz);
+        return converter;
       }
-      return converter;
+      // the classes of other class loaders must not be kept alive by the identity table
+      if (LoaderAwareCache.isVisible(clazz) && classConverterCache.hasCapacity())
+        return (Converter<T>) classConverterCache.putIfAbsent(clazz, buildConverter(clazz));
     }
+
+    Converter<T> converter = (Converter<T>) converterCache.get(forType);
+    if (converter == null) {
+      converter = buildConverter(forType);
+      converterCache.putIfAbsent(forType, converter);
+    } else if (metrics != GensonMetrics.NONE) metrics.converterCacheHit(forType);
+    return converter;
+  }
+
+  private <T> Converter<T> buildConverter(Type forType) {
+    if (metrics == GensonMetrics.NONE) return createConverter(forType);
+    long start = System.nanoTime();
+    Converter<T> converter = createConverter(forType);
+    metrics.converterCreated(forType, System.nanoTime() - start);
+    return converter;
+  }
+
+  /**
+   * Creates a new instance of Converter capable of handling objects of type forType, without
+   * looking it up in the cache nor storing it in the cache. This is used for the converters that
+   * depend on the context, for example on the annotations of a property.
+   *
+   * @param forType the type for which a converter is needed.
+   * @return the converter instance.
+   * @throws com.owlike.genson.JsonBindingException if a problem occurs during converters construction.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> Converter<T> createConverter(Type forType) {
+    Converter<T> converter = (Converter<T>) converterFactory.create(forType, this);
+    if (converter == null)
+      throw new JsonBindingException("No converter found for type " + forType);
+    return converter;
+  }
+
+  /**
+   * Provides a Codec for objects of type forClass, its converter is resolved once so it can be used
+   * to serialize and deserialize many values with nothing more than the encoding work. Note that the
+   * values are serialized using forClass and not their runtime type.
+   *
+   * @see Codec
+   */
+  public <T> Codec<T> codecFor(Class<T> forClass) {
+    return codecFor(GenericType.of(forClass));
+  }
+
+  /**
+   * Provides a Codec for objects of type forType.
+   *
+   * @see #codecFor(Class)
+   */
+  public <T> Codec<T> codecFor(GenericType<T> forType) {
+    Converter<T> converter = provideConverter(forType.getType());
+    return new Codec<T>(this, forType, converter);
   }
 
   /**
@@ -241,13 +319,12 @@ public void serialize(Object object, OutputStream output) {
    * Serializes this object to its json form in a byte array.
    */
   public byte[] serializeBytes(Object object) {
-    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-    ObjectWriter objectWriter = createWriter(baos);
+    Utf8JsonWriter objectWriter = new Utf8JsonWriter(skipNull, htmlSafe, indent);
 
     if (object == null) serializeNull(objectWriter);
     else serialize(object, object.getClass(), objectWriter, new Context(this));
 
-    return baos.toByteArray();
+    return objectWriter.toByteArray();
   }
 
   /**
@@ -269,7 +346,15 @@ public void serialize(Object object, ObjectWriter writer, Context ctx) {
    * writer instance you also must ensure to call close on it when you are done.
    */
   public void serialize(Object object, Type type, ObjectWriter writer, Context ctx) {
+    if (metrics != GensonMetrics.NONE) {
+      measuredSerialize(object, type, writer, ctx);
+      return;
+    }
     Serializer<Object> ser = provideConverter(type);
+    serialize(object, type, ser, writer, ctx);
+  }
+
+  private void serialize(Object object, Type type, Serializer<Object> ser, ObjectWriter writer, Context ctx) {
     try {
       ser.serialize(object, writer, ctx);
       writer.flush();
@@ -278,6 +363,20 @@ public void serialize(Object object, Type type, ObjectWriter writer, Context ctx
     }
   }
 
+  private void measuredSerialize(Object object, Type type, ObjectWriter writer, Context ctx) {
+    long start = System.nanoTime();
+    long bytes = bytesWritten(writer);
+    long chars = charsWritten(writer);
+    try {
+      Serializer<Object> ser = provideConverter(type);
+      serialize(object, type, ser, writer, ctx);
+    } catch (RuntimeException e) {
+      metrics.serializationFailed(type, e);
+      throw e;
+    }
+    metrics.serialized(type, System.nanoTime() - start, bytesWritten(writer) - bytes, charsWritten(writer) - chars);
+  }
+
   private void serializeNull(ObjectWriter writer) {
     try {
       writer.writeNull();
@@ -377,7 +476,12 @@ public <T> T deserialize(GenericType<T> type, Reader reader, Class<? extends Bea
   }
 
   public <T> T deserialize(GenericType<T> type, ObjectReader reader, Context ctx) {
+    if (metrics != GensonMetrics.NONE) return measuredDeserialize(type, reader, ctx);
     Deserializer<T> deser = provideConverter(type.getType());
+    return deserialize(type, deser, reader, ctx);
+  }
+
+  private <T> T deserialize(GenericType<T> type, Deserializer<T> deser, ObjectReader reader, Context ctx) {
     try {
       return deser.deserialize(reader, ctx);
     } catch (Exception e) {
@@ -385,6 +489,23 @@ public <T> T deserialize(GenericType<T> type, ObjectReader reader, Context ctx)
     }
   }
 
+  private <T> T measuredDeserialize(GenericType<T> type, ObjectReader reader, Context ctx) {
+    long start = System.nanoTime();
+    long bytes = bytesRead(reader);
+    long chars = charsRead(reader);
+    T value;
+    try {
+      Deserializer<T> deser = provideConverter(type.getType());
+      value = deserialize(type, deser, reader, ctx);
+    } catch (RuntimeException e) {
+      metrics.deserializationFailed(type.getType(), e);
+      throw e;
+    }
+    metrics.deserialized(type.getType(), System.nanoTime() - start, bytesRead(reader) - bytes,
+      charsRead(reader) - chars);
+    return value;
+  }
+
   /**
    * @see #deserializeInto(com.owlike.genson.stream.ObjectReader, Object, Context)
    */
@@ -420,11 +541,29 @@ public <T> T deserializeInto(Reader reader, T object) {
    * @return the object enriched with the properties from the stream.
    */
   public <T> T deserializeInto(ObjectReader reader, T object, Context ctx) {
+    if (metrics != GensonMetrics.NONE) return measuredDeserializeInto(reader, object, ctx);
     BeanDescriptor<T> bd = (BeanDescriptor<T>) getBeanDescriptorProvider().provide(object.getClass(), this);
     bd.deserialize(object, reader, ctx);
     return object;
   }
 
+  @SuppressWarnings("unchecked")
+  private <T> T measuredDeserializeInto(ObjectReader reader, T object, Context ctx) {
+    Class<?> type = object.getClass();
+    long start = System.nanoTime();
+    long bytes = bytesRead(reader);
+    long chars = charsRead(reader);
+    try {
+      BeanDescriptor<T> bd = (BeanDescriptor<T>) getBeanDescriptorProvider().provide(type, this);
+      bd.deserialize(object, reader, ctx);
+    } catch (RuntimeException e) {
+      metrics.deserializationFailed(type, e);
+      throw e;
+    }
+    metrics.deserialized(type, System.nanoTime() - start, bytesRead(reader) - bytes, charsRead(reader) - chars);
+    return object;
+  }
+
   /**
    * @see #deserializeValues(com.owlike.genson.stream.ObjectReader, GenericType)
    */
@@ -432,6 +571,24 @@ public <T> Iterator<T> deserializeValues(final InputStream is, final Class<T> ty
     return deserializeValues(createReader(is), GenericType.of(type));
   }
 
+  /**
+   * @see #deserializeValues(com.owlike.genson.stream.ObjectReader, GenericType)
+   * @see #createReader(java.nio.ByteBuffer)
+   */
+  public <T> Iterator<T> deserializeValues(final ByteBuffer buffer, final Class<T> type) {
+    return deserializeValues(createReader(buffer), GenericType.of(type));
+  }
+
+  /**
+   * Deserializes the sequence of values contained in the file, which is memory mapped (see
+   * {@link #createReader(java.nio.file.Path)}). The file is closed once all the values have been read.
+   *
+   * @see #deserializeValues(com.owlike.genson.stream.ObjectReader, GenericType)
+   */
+  public <T> Iterator<T> deserializeValues(final Path path, final Class<T> type) {
+    return deserializeValues(createReader(path), GenericType.of(type), true);
+  }
+
   /**
    * This can be used to deserialize in an efficient streaming fashion a sequence of objects.
    * Note that you can use this method when your values are wrapped in an array (valid json) but also
@@ -454,6 +611,11 @@ public <T> Iterator<T> deserializeValues(final InputStream is, final Class<T> ty
    * @return an iterator of T
    */
   public <T> Iterator<T> deserializeValues(final ObjectReader reader, final GenericType<T> type) {
+    return deserializeValues(reader, type, false);
+  }
+
+  private <T> Iterator<T> deserializeValues(final ObjectReader reader, final GenericType<T> type,
+                                            final boolean closeAtEnd) {
     final boolean isArray = reader.getValueType() == ValueType.ARRAY;
     if (isArray == true) {
       reader.beginArray();
@@ -462,14 +624,28 @@ public <T> Iterator<T> deserializeValues(final ObjectReader reader, final Generi
     return new Iterator<T>() {
       final Converter<T> converter = provideConverter(type.getType());
       final Context ctx = new Context(Genson.this);
+      boolean closed = false;
 
       @Override
       public boolean hasNext() {
+        if (closed) return false;
         boolean hasMore = reader.hasNext();
-        if (isArray && !hasMore) reader.endArray();
+        if (!hasMore) {
+          if (isArray) reader.endArray();
+          if (closeAtEnd) close();
+        }
         return hasMore;
       }
 
+      private void close() {
+        closed = true;
+        try {
+          reader.close();
+        } catch (IOException e) {
+          throw new JsonStreamException(e);
+        }
+      }
+
       @Override
       public T next() {
         if (!hasNext()) throw new NoSuchElementException();
@@ -521,16 +697,25 @@ public Class<?> classFor(String alias) throws ClassNotFoundException {
 
   /**
    * Creates a new ObjectWriter with this Genson instance configuration and default encoding to
-   * UTF8.
+   * UTF8. The returned writer is a {@link com.owlike.genson.stream.Utf8JsonWriter} encoding directly
+   * to bytes.
    */
   public ObjectWriter createWriter(OutputStream os) {
-    return new JsonWriter(new OutputStreamWriter(os, UTF8_CHARSET), skipNull, htmlSafe, indent);
+    return new Utf8JsonWriter(os, skipNull, htmlSafe, indent);
+  }
+
+  /**
+   * Creates a new ObjectWriter that uses buffer instead of allocating its own.
+   */
+  ObjectWriter createWriter(OutputStream os, byte[] buffer) {
+    return new Utf8JsonWriter(os, buffer, skipNull, htmlSafe, indent);
   }
 
   /**
    * Creates a new ObjectWriter with this Genson instance configuration.
    */
   public ObjectWriter createWriter(OutputStream os, Charset charset) {
+    if (UTF8_CHARSET.equals(charset)) return createWriter(os);
     return createWriter(new OutputStreamWriter(os, charset));
   }
 
@@ -546,7 +731,21 @@ public ObjectWriter createWriter(Writer writer) {
    */
   public ObjectReader createReader(byte[] in) {
     try {
-      return createReader(readerFactory.createReader(new ByteArrayInputStream(in)));
+      return readerFactory.createReader(in, strictDoubleParse, withMetadata);
+    } catch (IOException e) {
+      throw new JsonStreamException("Failed to detect encoding.", e);
+    }
+  }
+
+  /**
+   * Creates a new ObjectReader reading length bytes of in starting at offset. UTF-8 content is read in
+   * place, without copying it.
+   *
+   * @see #createReader(java.io.InputStream)
+   */
+  public ObjectReader createReader(byte[] in, int offset, int length) {
+    try {
+      return readerFactory.createReader(in, offset, length, strictDoubleParse, withMetadata);
     } catch (IOException e) {
       throw new JsonStreamException("Failed to detect encoding.", e);
     }
@@ -554,12 +753,51 @@ public ObjectReader createReader(byte[] in) {
 
   /**
    * Creates a new ObjectReader with this Genson instance configuration and tries to detect the encoding
-   * from the stream content.
+   * from the stream content. UTF-8 content is parsed directly from the bytes with a
+   * {@link com.owlike.genson.stream.Utf8JsonReader Utf8JsonReader}.
    */
   public ObjectReader createReader(InputStream is) {
     try {
-      return createReader(readerFactory.createReader(is));
+      return readerFactory.createReader(is, strictDoubleParse, withMetadata);
+    } catch (IOException e) {
+      throw new JsonStreamException("Failed to detect encoding.", e);
+    }
+  }
+
+  /**
+   * Creates a new ObjectReader reading the bytes between the position and the limit of the buffer,
+   * the position of the buffer is not modified. Heap buffers are read in place, the content of direct
+   * and mapped buffers is transferred chunk by chunk to the reader without copying the whole input.
+   */
+  public ObjectReader createReader(ByteBuffer buffer) {
+    try {
+      return readerFactory.createReader(buffer, strictDoubleParse, withMetadata);
+    } catch (IOException e) {
+      throw new JsonStreamException("Failed to detect encoding.", e);
+    }
+  }
+
+  /**
+   * Creates a new ObjectReader reading the file using a memory mapping. Files larger than 2GB are
+   * mapped window by window while they are being read. You are responsible of closing the reader,
+   * which closes the file.
+   */
+  public ObjectReader createReader(Path path) {
+    InputStream is;
+    try {
+      is = new MappedFileInputStream(path);
+    } catch (IOException e) {
+      throw new JsonStreamException("Could not open file " + path, e);
+    }
+
+    try {
+      return readerFactory.createReader(is, strictDoubleParse, withMetadata);
     } catch (IOException e) {
+      try {
+        is.close();
+      } catch (IOException ioe) {
+        // ignore it, we are already failing
+      }
       throw new JsonStreamException("Failed to detect encoding.", e);
     }
   }
@@ -575,7 +813,7 @@ public ObjectReader createReader(InputStream is, Charset charset) {
    * Creates a new ObjectReader with this Genson instance configuration.
    */
   public ObjectReader createReader(Reader reader) {
-    return new JsonReader(reader, strictDoubleParse, withMetadata);
+    return new JsonReader(reader, strictDoubleParse, withMetadata, propertyNames);
   }
 
   public boolean isSkipNull() {
@@ -609,6 +847,57 @@ public RuntimePropertyFilter runtimePropertyFilter() {
     return runtimePropertyFilter;
   }
 
+  /**
+   * @return the listener notified of the work done by this Genson instance, GensonMetrics.NONE when
+   * the metrics are disabled.
+   */
+  public GensonMetrics metrics() {
+    return metrics;
+  }
+
+  /**
+   * @return the state of the caches used by this Genson instance: its converters, the
+   * BeanDescriptors and the caches shared by all the instances (the expanded generic types and the
+   * parameter names read from the class files). Useful to check that the caches are large enough
+   * (no evictions) and that the classes of a redeployed class loader have been released.
+   */
+  public List<CacheStats> cacheStats() {
+    List<CacheStats> stats = new ArrayList<CacheStats>();
+    stats.add(converterCache.stats());
+    stats.add(new CacheStats("classConverters", classConverterCache.size(), ClassConverterCache.MAX_SIZE, 0, 0, 0));
+    if (beanDescriptorFactory instanceof BeanDescriptorProvider.CompositeBeanDescriptorProvider)
+      stats.add(((BeanDescriptorProvider.CompositeBeanDescriptorProvider) beanDescriptorFactory).cacheStats());
+    stats.add(TypeUtil.cacheStats());
+    stats.addAll(ASMCreatorParameterNameResolver.cacheStats());
+    return stats;
+  }
+
+  // the number of bytes or chars processed by the Genson stream implementations, 0 for the others
+
+  static long bytesWritten(ObjectWriter writer) {
+    return writer instanceof Utf8JsonWriter ? ((Utf8JsonWriter) writer).bytesWritten() : 0;
+  }
+
+  static long charsWritten(ObjectWriter writer) {
+    return writer instanceof JsonWriter ? ((JsonWriter) writer).charsWritten() : 0;
+  }
+
+  static long bytesRead(ObjectReader reader) {
+    return reader instanceof Utf8JsonReader ? ((Utf8JsonReader) reader).bytesRead() : 0;
+  }
+
+  static long charsRead(ObjectReader reader) {
+    return reader instanceof JsonReader ? ((JsonReader) reader).charsRead() : 0;
+  }
+
+  /**
+   * @return the table of property names known by this Genson instance, it is filled with the names
+   * of the BeanDescriptors being created and used by the readers to avoid allocating known names.
+   */
+  public PropertyNameTable propertyNameTable() {
+    return propertyNames;
+  }
+
   /**
    * @deprecated use GensonBuilder
    */
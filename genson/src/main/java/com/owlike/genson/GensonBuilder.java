@@ -10,6 +10,7 @@
 import java.lang.reflect.Type;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 /**
@@ -47,6 +48,8 @@ public class GensonBuilder {
   private boolean withBeanViewConverter = false;
   private boolean useRuntimeTypeForSerialization = false;
   private boolean withDebugInfoPropertyNameResolver = false;
+  private boolean useGeneratedAccessors = false;
+  private boolean useGeneratedBeanCodecs = false;
   private boolean strictDoubleParse = false;
   private boolean indent = false;
   private boolean metadata = false;
@@ -63,6 +66,7 @@ public class GensonBuilder {
   private ClassLoader classLoader = getClass().getClassLoader();
   private BeanDescriptorProvider beanDescriptorProvider;
   private DateFormat dateFormat = SimpleDateFormat.getDateTimeInstance();
+  private DateTimeFormatter dateTimeFormatter;
   private boolean useDateAsTimestamp = true;
   private boolean classMetadataWithStaticType = true;
 
@@ -76,7 +80,9 @@ public class GensonBuilder {
 
   private final Map<Class<?>, Object> defaultValues = new HashMap<Class<?>, Object>();
   private boolean failOnNullPrimitive = false;
+  private boolean useCompactUntypedCollections = false;
   private RuntimePropertyFilter runtimePropertyFilter = RuntimePropertyFilter.noFilter;
+  private GensonMetrics metrics = GensonMetrics.NONE;
 
   public GensonBuilder() {
     defaultValues.put(int.class, 0);
@@ -513,6 +519,22 @@ public GensonBuilder useClassMetadata(boolean enabled) {
    */
   public GensonBuilder useDateFormat(DateFormat dateFormat) {
     this.dateFormat = dateFormat;
+    this.dateTimeFormatter = null;
+    return this;
+  }
+
+  /**
+   * Specifies the java.time formatter that should be used for java.util.Date and java.util.Calendar
+   * serialization and deserialization, instead of a DateFormat. The formatters are immutable so
+   * they are used without any locking or copy. When the formatter has no zone the dates are
+   * formatted and parsed in UTC. DateTimeFormatter.ISO_INSTANT and RFC_1123_DATE_TIME are
+   * handled by specialized code.
+   *
+   * @param formatter
+   * @return a reference to this builder.
+   */
+  public GensonBuilder useDateTimeFormatter(DateTimeFormatter formatter) {
+    this.dateTimeFormatter = formatter;
     return this;
   }
 
@@ -609,6 +631,51 @@ public GensonBuilder useConstructorWithArguments(boolean enabled) {
     return this;
   }
 
+  /**
+   * If true, the properties and creators of beans will use classes generated at runtime that access
+   * the fields and call the methods directly instead of using reflection. This is faster but works only
+   * for public members of public classes, the other ones still use reflection. By default it is false.
+   * It requires ASM, have a look at {@link com.owlike.genson.reflect.ASMBeanPropertyFactory
+   * ASMBeanPropertyFactory}.
+   *
+   * @param enabled
+   * @return a reference to this builder.
+   */
+  public GensonBuilder useGeneratedAccessors(boolean enabled) {
+    this.useGeneratedAccessors = enabled;
+    return this;
+  }
+
+  /**
+   * If true, a BeanDescriptor class will be generated at runtime for each bean. It serializes the
+   * properties one after the other and deserializes them with a switch on the property name, primitive
+   * and String properties are read and written without boxing. By default it is false. It requires ASM,
+   * have a look at {@link com.owlike.genson.reflect.ASMBeanDescriptorProvider ASMBeanDescriptorProvider}.
+   * It can be combined with {@link #useGeneratedAccessors(boolean)}.
+   *
+   * @param enabled
+   * @return a reference to this builder.
+   */
+  public GensonBuilder useGeneratedBeanCodecs(boolean enabled) {
+    this.useGeneratedBeanCodecs = enabled;
+    return this;
+  }
+
+  /**
+   * False by default. When enabled the json objects and arrays deserialized to Object (untyped
+   * values, the values of a Map&lt;String, Object&gt;, etc) are read as read only maps and lists
+   * backed by exactly sized arrays. They use less memory than HashMap and ArrayList, which is
+   * useful when many documents are kept in memory, but can not be modified. The maps keep the order
+   * of the properties in the json object.
+   *
+   * @param enabled
+   * @return a reference to this builder.
+   */
+  public GensonBuilder useCompactUntypedCollections(boolean enabled) {
+    this.useCompactUntypedCollections = enabled;
+    return this;
+  }
+
   public GensonBuilder setFieldFilter(VisibilityFilter propertyFilter) {
     this.propertyFilter = propertyFilter;
     return this;
@@ -624,6 +691,11 @@ public GensonBuilder setConstructorFilter(VisibilityFilter constructorFilter) {
     return this;
   }
 
+  /**
+   * Doubles used to be parsed by default with an approximation of Double.parse, strict parsing enabled
+   * the exact but slower Double.parse. Doubles are now always parsed exactly with a fast algorithm, so this
+   * option has no effect anymore. It is kept for compatibility.
+   */
   public GensonBuilder useStrictDoubleParse(boolean strictDoubleParse) {
     this.strictDoubleParse = strictDoubleParse;
     return this;
@@ -748,6 +820,17 @@ public GensonBuilder useRuntimePropertyFilter(RuntimePropertyFilter filter) {
     return this;
   }
 
+  /**
+   * Registers a listener notified of the serializations and deserializations done by Genson, of the
+   * bytes and chars they processed, of the errors and of the converters and bean descriptors being
+   * built. {@link DefaultGensonMetrics} aggregates them in counters and latency histograms.
+   * By default the metrics are disabled (GensonMetrics.NONE) and nothing is measured.
+   */
+  public GensonBuilder useMetrics(GensonMetrics metrics) {
+    this.metrics = metrics;
+    return this;
+  }
+
   /**
    * Creates an instance of Genson. You may use this method as many times you want. It wont
    * change the state of the builder, in sense that the returned instance will have always the
@@ -833,7 +916,7 @@ protected Genson create(Factory<Converter<?>> converterFactory,
                           Map<String, Class<?>> classAliases) {
     return new Genson(converterFactory, getBeanDescriptorProvider(),
       isSkipNull(), isHtmlSafe(), classAliases, withClassMetadata,
-      strictDoubleParse, indent, metadata, failOnMissingProperty, defaultValues, runtimePropertyFilter);
+      strictDoubleParse, indent, metadata, failOnMissingProperty, defaultValues, runtimePropertyFilter, metrics);
   }
 
   /**
@@ -909,7 +992,7 @@ protected List<Converter<?>> getDefaultConverters() {
     List<Converter<?>> converters = new ArrayList<Converter<?>>();
     converters.add(DefaultConverters.StringConverter.instance);
     converters.add(DefaultConverters.NumberConverter.instance);
-    converters.add(new DefaultConverters.DateConverter(dateFormat, useDateAsTimestamp));
+    converters.add(createDateConverter());
     converters.add(DefaultConverters.URLConverter.instance);
     converters.add(DefaultConverters.URIConverter.instance);
     converters.add(DefaultConverters.TimestampConverter.instance);
@@ -931,10 +1014,14 @@ protected void addDefaultConverterFactories(List<Factory<? extends Converter<?>>
     factories.add(DefaultConverters.MapConverterFactory.instance);
     factories.add(DefaultConverters.EnumConverterFactory.instance);
     factories.add(DefaultConverters.PrimitiveConverterFactory.instance);
-    factories.add(DefaultConverters.UntypedConverterFactory.instance);
-    factories.add(new DefaultConverters.CalendarConverterFactory(
-      new DefaultConverters.DateConverter(dateFormat, useDateAsTimestamp)
-    ));
+    factories.add(useCompactUntypedCollections ? new DefaultConverters.UntypedConverterFactory(true)
+      : DefaultConverters.UntypedConverterFactory.instance);
+    factories.add(new DefaultConverters.CalendarConverterFactory(createDateConverter()));
+  }
+
+  private DefaultConverters.DateConverter createDateConverter() {
+    return dateTimeFormatter != null ? new DefaultConverters.DateConverter(dateTimeFormatter, useDateAsTimestamp)
+      : new DefaultConverters.DateConverter(dateFormat, useDateAsTimestamp);
   }
 
   protected void addDefaultContextualFactories(List<ContextualFactory<?>> factories) {
@@ -981,11 +1068,19 @@ protected BeanDescriptorProvider createBeanDescriptorProvider() {
       if (provider != null) providers.add(provider);
     }
 
-    providers.add(new BaseBeanDescriptorProvider(
-      new AbstractBeanDescriptorProvider.ContextualConverterFactory(contextualFactories),
-      createBeanPropertyFactory(), getMutatorAccessorResolver(), getPropertyNameResolver(),
-      useGettersAndSetters, useFields, true
-    ));
+    if (useGeneratedBeanCodecs) {
+      providers.add(new ASMBeanDescriptorProvider(
+        new AbstractBeanDescriptorProvider.ContextualConverterFactory(contextualFactories),
+        createBeanPropertyFactory(), getMutatorAccessorResolver(), getPropertyNameResolver(),
+        useGettersAndSetters, useFields, true
+      ));
+    } else {
+      providers.add(new BaseBeanDescriptorProvider(
+        new AbstractBeanDescriptorProvider.ContextualConverterFactory(contextualFactories),
+        createBeanPropertyFactory(), getMutatorAccessorResolver(), getPropertyNameResolver(),
+        useGettersAndSetters, useFields, true
+      ));
+    }
 
     return new CompositeBeanDescriptorProvider(providers);
   }
@@ -994,6 +1089,8 @@ protected BeanPropertyFactory createBeanPropertyFactory() {
     if (withBeanViewConverter)
       beanPropertyFactories.add(new BeanViewDescriptorProvider.BeanViewPropertyFactory(
         registeredViews));
+    if (useGeneratedAccessors)
+      beanPropertyFactories.add(new ASMBeanPropertyFactory());
     beanPropertyFactories.add(new BeanPropertyFactory.StandardFactory());
     return new BeanPropertyFactory.CompositeFactory(beanPropertyFactories);
   }
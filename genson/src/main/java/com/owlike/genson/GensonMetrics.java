@@ -0,0 +1,98 @@
+package com.owlike.genson;
+
+import java.lang.reflect.Type;
+
+/**
+ * Listener notified by Genson of the work it does, so it can be exported to a monitoring system.
+ * It is registered with {@link GensonBuilder#useMetrics(GensonMetrics)}, by default {@link #NONE}
+ * is used and Genson does not measure anything.
+ * <p/>
+ * The methods are called from the threads doing the serialization and deserialization, so
+ * implementations must be thread safe and fast. {@link DefaultGensonMetrics} aggregates the values
+ * in counters and latency histograms. Extend {@link Adapter} to listen only to some of the events.
+ * <p/>
+ * The serialization and deserialization events are sent for the root values only, ie. the ones
+ * passed to the Genson serialize and deserialize methods, the nested values being part of their
+ * work. The bytes and chars are the ones written or read by the Genson stream implementations,
+ * they are 0 for other ObjectWriter and ObjectReader implementations.
+ *
+ * @see DefaultGensonMetrics
+ */
+public interface GensonMetrics {
+  /**
+   * Does not measure anything, it is the default.
+   */
+  GensonMetrics NONE = new Adapter();
+
+  /**
+   * @param type  the root type that has been serialized.
+   * @param nanos the time spent serializing the value, including the lookup of its converter.
+   * @param bytes the number of bytes written, for UTF-8 writers.
+   * @param chars the number of chars written, for writers of chars.
+   */
+  void serialized(Type type, long nanos, long bytes, long chars);
+
+  /**
+   * @param type  the root type that has been deserialized.
+   * @param nanos the time spent deserializing the value, including the lookup of its converter.
+   * @param bytes the number of bytes read, for UTF-8 readers.
+   * @param chars the number of chars read, for readers of chars.
+   */
+  void deserialized(Type type, long nanos, long bytes, long chars);
+
+  void serializationFailed(Type type, Throwable error);
+
+  void deserializationFailed(Type type, Throwable error);
+
+  /**
+   * The converter for type was already in the converter cache of Genson.
+   */
+  void converterCacheHit(Type type);
+
+  /**
+   * A converter for type has been built and stored in the cache. The time includes the construction
+   * of the converters and bean descriptors it depends on.
+   */
+  void converterCreated(Type type, long nanos);
+
+  /**
+   * A BeanDescriptor for type has been built by the BeanDescriptorProvider, the time includes the
+   * introspection of the class and the construction of its properties.
+   */
+  void descriptorCreated(Type type, long nanos);
+
+  /**
+   * A thread had to wait for the converter of a type referencing itself, being built by another
+   * thread, to be ready.
+   */
+  void converterAwaited(Type type, long nanos);
+
+  /**
+   * Ignores all the events.
+   */
+  class Adapter implements GensonMetrics {
+    public void serialized(Type type, long nanos, long bytes, long chars) {
+    }
+
+    public void deserialized(Type type, long nanos, long bytes, long chars) {
+    }
+
+    public void serializationFailed(Type type, Throwable error) {
+    }
+
+    public void deserializationFailed(Type type, Throwable error) {
+    }
+
+    public void converterCacheHit(Type type) {
+    }
+
+    public void converterCreated(Type type, long nanos) {
+    }
+
+    public void descriptorCreated(Type type, long nanos) {
+    }
+
+    public void converterAwaited(Type type, long nanos) {
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.owlike.genson;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An InputStream over a memory mapped file. A mapping can not be larger than Integer.MAX_VALUE bytes,
+ * so bigger files are mapped window by window, the next window being mapped once the current one
+ * has been consumed.
+ */
+final class MappedFileInputStream extends InputStream {
+  private final static long DEFAULT_WINDOW_SIZE = 1L << 30;
+
+  private final FileChannel channel;
+  private final long size;
+  private final long windowSize;
+  private long windowStart;
+  private MappedByteBuffer window;
+
+  MappedFileInputStream(Path path) throws IOException {
+    this(path, DEFAULT_WINDOW_SIZE);
+  }
+
+  MappedFileInputStream(Path path, long windowSize) throws IOException {
+    if (windowSize < 1 || windowSize > Integer.MAX_VALUE)
+      throw new IllegalArgumentException("The window size must be between 1 and Integer.MAX_VALUE.");
+    this.windowSize = windowSize;
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      this.size = channel.size();
+      map(0);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private void map(long position) throws IOException {
+    windowStart = position;
+    window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, size - position));
+  }
+
+  private boolean ensureRemaining() throws IOException {
+    if (window.hasRemaining()) return true;
+    long next = windowStart + window.capacity();
+    if (next >= size) return false;
+    map(next);
+    return true;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!ensureRemaining()) return -1;
+    return window.get() & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) return 0;
+    if (!ensureRemaining()) return -1;
+    int n = Math.min(len, window.remaining());
+    window.get(b, off, n);
+    return n;
+  }
+
+  @Override
+  public int available() {
+    return (int) Math.min(Integer.MAX_VALUE, size - windowStart - window.position());
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
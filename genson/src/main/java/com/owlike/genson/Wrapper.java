@@ -92,6 +92,19 @@ public static boolean isWrapped(Object object) {
     return object instanceof Wrapper;
   }
 
+  /**
+   * Removes the converters of the convert package decorating a converter (null handling, class
+   * metadata, runtime type, etc), they don't change how non null values are converted. Wrappers
+   * defined elsewhere are kept as they can change the conversion.
+   *
+   * @return the first object that is not a Wrapper of the convert package.
+   */
+  public static Object unwrapDecorators(Object converter) {
+    while (converter instanceof Wrapper && converter.getClass().getName().startsWith("com.owlike.genson.convert."))
+      converter = ((Wrapper<?>) converter).unwrap();
+    return converter;
+  }
+
   /**
    * @return true if this object or its wrapped object (if the object extends Wrapper) is of type clazz.
    */
@@ -1,6 +1,7 @@
 package com.owlike.genson.convert;
 
 import java.lang.reflect.Type;
+import java.util.Arrays;
 import java.util.List;
 
 import com.owlike.genson.BeanView;
@@ -44,8 +45,14 @@ protected Converter<?> create(Type type, Genson genson, Converter<?> nextConvert
     }
   }
 
+  final static int MAX_CACHED_VIEWS = 8;
+
   private final BeanViewDescriptorProvider provider;
   private final Type type;
+  // the lists of views at even indexes followed by the descriptor of the view applying to type, or
+  // NO_VIEW, a new array is published on each addition
+  private volatile Object[] _cache = new Object[0];
+  private final static Object NO_VIEW = new Object();
 
   public BeanViewConverter(Type type, BeanViewDescriptorProvider provider, Converter<T> next) {
     super(next);
@@ -68,37 +75,53 @@ protected Class<? extends BeanView<T>> findViewFor(Type type,
   }
 
   public void serialize(T obj, ObjectWriter writer, Context ctx) throws Exception {
-    boolean handled = false;
-    List<Class<? extends BeanView<?>>> views = ctx.views();
-    if (views != null && views.size() > 0) {
-      Class<? extends BeanView<T>> viewClass = findViewFor(type, views);
-      if (viewClass != null) {
-        Type viewForType = TypeUtil.expandType(BeanView.class.getTypeParameters()[0],
-          viewClass);
-        @SuppressWarnings("unchecked")
-        Class<T> viewForClass = (Class<T>) TypeUtil.getRawClass(viewForType);
-        BeanDescriptor<T> descriptor = provider
-          .provide(viewForClass, viewClass, ctx.genson);
-        descriptor.serialize(obj, writer, ctx);
-        handled = true;
-      }
-    }
-    if (!handled) wrapped.serialize(obj, writer, ctx);
+    BeanDescriptor<T> descriptor = ctx.hasViews() ? descriptorFor(ctx.views(), ctx) : null;
+    if (descriptor != null) descriptor.serialize(obj, writer, ctx);
+    else wrapped.serialize(obj, writer, ctx);
   }
 
   public T deserialize(ObjectReader reader, Context ctx) throws Exception {
-    if (ctx.hasViews()) {
-      Class<? extends BeanView<T>> viewClass = findViewFor(type, ctx.views());
-      if (viewClass != null) {
-        Type viewForType = TypeUtil.expandType(BeanView.class.getTypeParameters()[0],
-          viewClass);
-        @SuppressWarnings("unchecked")
-        Class<T> viewForClass = (Class<T>) TypeUtil.getRawClass(viewForType);
-        BeanDescriptor<T> descriptor = provider
-          .provide(viewForClass, viewClass, ctx.genson);
-        return descriptor.deserialize(reader, ctx);
-      }
-    }
+    BeanDescriptor<T> descriptor = ctx.hasViews() ? descriptorFor(ctx.views(), ctx) : null;
+    if (descriptor != null) return descriptor.deserialize(reader, ctx);
     return wrapped.deserialize(reader, ctx);
   }
+
+  @SuppressWarnings("unchecked")
+  private BeanDescriptor<T> descriptorFor(List<Class<? extends BeanView<?>>> views, Context ctx) {
+    final Object[] cache = _cache;
+    for (int i = 0; i < cache.length; i += 2) {
+      if (sameViews((Object[]) cache[i], views))
+        return cache[i + 1] == NO_VIEW ? null : (BeanDescriptor<T>) cache[i + 1];
+    }
+
+    BeanDescriptor<T> descriptor = null;
+    Class<? extends BeanView<T>> viewClass = findViewFor(type, views);
+    if (viewClass != null) {
+      Type viewForType = TypeUtil.expandType(BeanView.class.getTypeParameters()[0], viewClass);
+      Class<T> viewForClass = (Class<T>) TypeUtil.getRawClass(viewForType);
+      descriptor = provider.provide(viewForClass, viewClass, ctx.genson);
+    }
+
+    // concurrent additions may be lost, the views will just be added again later
+    if (cache.length < MAX_CACHED_VIEWS * 2) {
+      Object[] newCache = Arrays.copyOf(cache, cache.length + 2);
+      newCache[cache.length] = views.toArray();
+      newCache[cache.length + 1] = descriptor != null ? descriptor : NO_VIEW;
+      _cache = newCache;
+    }
+    return descriptor;
+  }
+
+  // the lists of the contexts can be modified, the cache keeps a copy of them
+  private static boolean sameViews(Object[] cachedViews, List<Class<? extends BeanView<?>>> views) {
+    if (cachedViews.length != views.size()) return false;
+    for (int i = 0; i < cachedViews.length; i++) {
+      if (cachedViews[i] != views.get(i)) return false;
+    }
+    return true;
+  }
+
+  int cachedViews() {
+    return _cache.length / 2;
+  }
 }
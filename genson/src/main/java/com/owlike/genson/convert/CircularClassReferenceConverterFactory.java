@@ -8,6 +8,7 @@
 import com.owlike.genson.Context;
 import com.owlike.genson.Converter;
 import com.owlike.genson.Genson;
+import com.owlike.genson.GensonMetrics;
 import com.owlike.genson.Wrapper;
 import com.owlike.genson.stream.ObjectReader;
 import com.owlike.genson.stream.ObjectWriter;
@@ -20,26 +21,40 @@
 public class CircularClassReferenceConverterFactory extends ChainedFactory {
   private final static class CircularConverter<T> extends Wrapper<Converter<T>> implements Converter<T> {
 
-    private CountDownLatch initLatch = new CountDownLatch(1);      
+    private CountDownLatch initLatch = new CountDownLatch(1);
+    private final Type type;
+    private final GensonMetrics metrics;
 
-    protected CircularConverter() {
+    protected CircularConverter(Type type, GensonMetrics metrics) {
       super();
+      this.type = type;
+      this.metrics = metrics;
     }
 
     public void serialize(T obj, ObjectWriter writer, Context ctx) throws Exception {
       if(wrapped == null) {
-        initLatch.await();
+        awaitInit();
       }
       wrapped.serialize(obj, writer, ctx);
     }
 
     public T deserialize(ObjectReader reader, Context ctx) throws Exception {
       if(wrapped == null) {
-        initLatch.await();
+        awaitInit();
       }
       return wrapped.deserialize(reader, ctx);
     }
 
+    private void awaitInit() throws InterruptedException {
+      if (metrics == GensonMetrics.NONE) {
+        initLatch.await();
+        return;
+      }
+      long start = System.nanoTime();
+      initLatch.await();
+      metrics.converterAwaited(type, System.nanoTime() - start);
+    }
+
     void setDelegateConverter(Converter<T> delegate) {
       decorate(delegate);
     }
@@ -60,7 +75,7 @@ public Converter<?> create(Type type, Genson genson) {
       return _circularConverters.get().get(type);
     } else {
       try {
-        CircularConverter circularConverter = new CircularConverter();
+        CircularConverter circularConverter = new CircularConverter(type, genson.metrics());
         try {
           _circularConverters.get().put(type, circularConverter);
           Converter converter = next().create(type, genson);
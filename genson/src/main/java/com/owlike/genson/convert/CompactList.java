@@ -0,0 +1,32 @@
+package com.owlike.genson.convert;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * A read only list of the values of an untyped json array, created when
+ * {@link com.owlike.genson.GensonBuilder#useCompactUntypedCollections(boolean)} is enabled. The array
+ * holding the values has exactly the size of the list.
+ */
+final class CompactList extends AbstractList<Object> implements RandomAccess {
+  private final Object[] _values;
+
+  CompactList(Object[] values) {
+    this._values = values;
+  }
+
+  @Override
+  public Object get(int index) {
+    return _values[index];
+  }
+
+  @Override
+  public int size() {
+    return _values.length;
+  }
+
+  @Override
+  public Object[] toArray() {
+    return _values.clone();
+  }
+}
@@ -0,0 +1,142 @@
+package com.owlike.genson.convert;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A read only map of the properties of an untyped json object, created when
+ * {@link com.owlike.genson.GensonBuilder#useCompactUntypedCollections(boolean)} is enabled. The keys
+ * and values are stored in a single array in the order of the json object. Small maps are searched
+ * linearly, larger ones use an open addressing table of the entry indexes.
+ */
+final class CompactMap extends AbstractMap<String, Object> {
+  final static int MAX_LINEAR_SIZE = 8;
+
+  // the keys at even indexes followed by their value
+  private final Object[] _entries;
+  // index + 1 of the entries, only for maps larger than MAX_LINEAR_SIZE
+  private final int[] _table;
+
+  private CompactMap(Object[] entries, int[] table) {
+    this._entries = entries;
+    this._table = table;
+  }
+
+  /**
+   * Creates a map of the first size keys and values of keysAndValues, for duplicate keys the last
+   * value is kept like with other maps.
+   */
+  static CompactMap of(Object[] keysAndValues, int size) {
+    Object[] entries = new Object[size * 2];
+    int[] table = size > MAX_LINEAR_SIZE ? new int[tableSize(size)] : null;
+    int len = 0;
+    for (int i = 0; i < size * 2; i += 2) {
+      String key = (String) keysAndValues[i];
+      int index = table != null ? put(table, entries, key, len) : indexOf(entries, len, key);
+      if (index < 0) {
+        entries[len] = key;
+        entries[len + 1] = keysAndValues[i + 1];
+        len += 2;
+      } else {
+        entries[index + 1] = keysAndValues[i + 1];
+      }
+    }
+    if (len < entries.length) {
+      Object[] trimmed = new Object[len];
+      System.arraycopy(entries, 0, trimmed, 0, len);
+      return new CompactMap(trimmed, len / 2 > MAX_LINEAR_SIZE ? table : null);
+    }
+    return new CompactMap(entries, table);
+  }
+
+  private static int tableSize(int size) {
+    int tableSize = Integer.highestOneBit(size) << 2;
+    return tableSize < 16 ? 16 : tableSize;
+  }
+
+  // returns the index of the existing entry or adds len to the table and returns -1
+  private static int put(int[] table, Object[] entries, String key, int len) {
+    final int mask = table.length - 1;
+    for (int i = key.hashCode() & mask; ; i = (i + 1) & mask) {
+      int index = table[i] - 1;
+      if (index < 0) {
+        table[i] = len + 1;
+        return -1;
+      }
+      if (key.equals(entries[index])) return index;
+    }
+  }
+
+  private static int indexOf(Object[] entries, int len, Object key) {
+    for (int i = 0; i < len; i += 2) {
+      if (key.equals(entries[i])) return i;
+    }
+    return -1;
+  }
+
+  private int indexOf(Object key) {
+    if (key == null) return -1;
+    if (_table == null) return indexOf(_entries, _entries.length, key);
+
+    final int mask = _table.length - 1;
+    for (int i = key.hashCode() & mask; ; i = (i + 1) & mask) {
+      int index = _table[i] - 1;
+      if (index < 0 || key.equals(_entries[index])) return index;
+    }
+  }
+
+  @Override
+  public Object get(Object key) {
+    int index = indexOf(key);
+    return index < 0 ? null : _entries[index + 1];
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return indexOf(key) >= 0;
+  }
+
+  @Override
+  public int size() {
+    return _entries.length / 2;
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    return new AbstractSet<Entry<String, Object>>() {
+      @Override
+      public Iterator<Entry<String, Object>> iterator() {
+        return new Iterator<Entry<String, Object>>() {
+          int i = 0;
+
+          @Override
+          public boolean hasNext() {
+            return i < _entries.length;
+          }
+
+          @Override
+          public Entry<String, Object> next() {
+            if (i >= _entries.length) throw new NoSuchElementException();
+            Entry<String, Object> entry = new SimpleImmutableEntry<String, Object>((String) _entries[i],
+              _entries[i + 1]);
+            i += 2;
+            return entry;
+          }
+
+          @Override
+          public void remove() {
+            throw new UnsupportedOperationException();
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return _entries.length / 2;
+      }
+    };
+  }
+}
@@ -0,0 +1,478 @@
+package com.owlike.genson.convert;
+
+import java.text.DateFormat;
+import java.text.DateFormatSymbols;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Formats and parses the dates of {@link DefaultConverters.DateConverter} without locking, the
+ * instances are thread safe.
+ * <p/>
+ * A DateFormat is cloned for each thread using it. When it is a SimpleDateFormat using one of the
+ * usual ISO 8601 or RFC 1123 patterns, the dates are formatted and parsed by hand instead. The hand
+ * written code is used only if it produces the same results as the DateFormat for a few sample
+ * dates, the values it doesn't handle (other layouts, years before the gregorian calendar or after
+ * 9999, etc) are still converted by the DateFormat.
+ * <p/>
+ * The java.time formatters are immutable and used directly, ISO_INSTANT and RFC_1123_DATE_TIME are
+ * handled by hand the same way.
+ */
+abstract class DateCodec {
+  final static long MILLIS_PER_DAY = 86400000L;
+  // the dates before are in the julian calendar for SimpleDateFormat
+  final static int MIN_YEAR = 1583;
+  final static int MAX_YEAR = 9999;
+  final static String ISO_MILLIS_OFFSET = "yyyy-MM-dd'T'HH:mm:ss.SSSXXX";
+  final static String ISO_OFFSET = "yyyy-MM-dd'T'HH:mm:ssXXX";
+  final static String ISO_MILLIS_UTC = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";
+  final static String ISO_UTC = "yyyy-MM-dd'T'HH:mm:ss'Z'";
+  final static String RFC_1123 = "EEE, dd MMM yyyy HH:mm:ss zzz";
+
+  private final static TimeZone UTC = TimeZone.getTimeZone("UTC");
+  private final static long[] SAMPLES = {0L, 1500000000123L, -1000000000000L, 951782400000L, 253402300799999L};
+
+  abstract String format(Date date);
+
+  abstract Date parse(String value) throws ParseException;
+
+  static DateCodec of(DateFormat dateFormat) {
+    DateCodec codec = new DateFormatCodec(dateFormat);
+    if (!(dateFormat instanceof SimpleDateFormat)) return codec;
+
+    SimpleDateFormat sdf = (SimpleDateFormat) dateFormat;
+    String pattern = sdf.toPattern();
+    TimeZone timeZone = (TimeZone) sdf.getTimeZone().clone();
+    boolean utc = UTC.hasSameRules(timeZone);
+    DateCodec fastCodec = null;
+    if (ISO_MILLIS_OFFSET.equals(pattern)) fastCodec = new IsoCodec(true, true, timeZone, codec);
+    else if (ISO_OFFSET.equals(pattern)) fastCodec = new IsoCodec(false, true, timeZone, codec);
+    else if (ISO_MILLIS_UTC.equals(pattern) && utc) fastCodec = new IsoCodec(true, false, timeZone, codec);
+    else if (ISO_UTC.equals(pattern) && utc) fastCodec = new IsoCodec(false, false, timeZone, codec);
+    else if (RFC_1123.equals(pattern) && utc) {
+      DateFormatSymbols symbols = sdf.getDateFormatSymbols();
+      String sample = codec.format(new Date(0));
+      fastCodec = new Rfc1123Codec(symbols.getShortWeekdays(), symbols.getShortMonths(), true,
+        sample.substring(sample.lastIndexOf(' ') + 1), codec);
+    }
+
+    return fastCodec != null && sameResults(fastCodec, codec) ? fastCodec : codec;
+  }
+
+  static DateCodec of(DateTimeFormatter formatter) {
+    DateCodec codec = new DateTimeFormatterCodec(formatter);
+    if (formatter == DateTimeFormatter.ISO_INSTANT) return new IsoInstantCodec(codec);
+    if (formatter == DateTimeFormatter.RFC_1123_DATE_TIME) {
+      String[] weekdays = new String[8];
+      for (java.time.DayOfWeek day : java.time.DayOfWeek.values())
+        weekdays[day.getValue() % 7 + 1] = day.getDisplayName(TextStyle.SHORT, Locale.US);
+      String[] months = new String[12];
+      for (java.time.Month month : java.time.Month.values())
+        months[month.ordinal()] = month.getDisplayName(TextStyle.SHORT, Locale.US);
+      return new Rfc1123Codec(weekdays, months, false, "GMT", codec);
+    }
+    return codec;
+  }
+
+  private static boolean sameResults(DateCodec fastCodec, DateCodec codec) {
+    try {
+      for (long sample : SAMPLES) {
+        Date date = new Date(sample);
+        String formatted = codec.format(date);
+        if (!formatted.equals(fastCodec.format(date))) return false;
+        if (!codec.parse(formatted).equals(fastCodec.parse(formatted))) return false;
+      }
+      return true;
+    } catch (ParseException e) {
+      return false;
+    } catch (RuntimeException e) {
+      return false;
+    }
+  }
+
+  // uses a clone of the date format in each thread
+  final static class DateFormatCodec extends DateCodec {
+    private final DateFormat dateFormat;
+    private final ThreadLocal<DateFormat> formats = new ThreadLocal<DateFormat>() {
+      @Override
+      protected DateFormat initialValue() {
+        return (DateFormat) dateFormat.clone();
+      }
+    };
+
+    DateFormatCodec(DateFormat dateFormat) {
+      this.dateFormat = (DateFormat) dateFormat.clone();
+    }
+
+    @Override
+    String format(Date date) {
+      return formats.get().format(date);
+    }
+
+    @Override
+    Date parse(String value) throws ParseException {
+      return formats.get().parse(value);
+    }
+  }
+
+  /*
+   * Without zone the dates are formatted and parsed in UTC, when the parsed value has no time it is
+   * the start of the day.
+   */
+  final static class DateTimeFormatterCodec extends DateCodec {
+    private final DateTimeFormatter formatter;
+    private final ZoneId zone;
+
+    DateTimeFormatterCodec(DateTimeFormatter formatter) {
+      this.formatter = formatter;
+      this.zone = formatter.getZone() != null ? formatter.getZone() : ZoneOffset.UTC;
+    }
+
+    @Override
+    String format(Date date) {
+      return formatter.format(ZonedDateTime.ofInstant(date.toInstant(), zone));
+    }
+
+    @Override
+    Date parse(String value) throws ParseException {
+      try {
+        TemporalAccessor parsed = formatter.parse(value);
+        if (parsed.isSupported(ChronoField.INSTANT_SECONDS)) return Date.from(Instant.from(parsed));
+
+        LocalDate date = parsed.query(TemporalQueries.localDate());
+        if (date == null) throw new ParseException("No date in " + value, 0);
+        LocalTime time = parsed.query(TemporalQueries.localTime());
+        ZoneId parsedZone = parsed.query(TemporalQueries.zone());
+        return Date.from(ZonedDateTime.of(date, time != null ? time : LocalTime.MIDNIGHT,
+          parsedZone != null ? parsedZone : zone).toInstant());
+      } catch (DateTimeParseException e) {
+        ParseException pe = new ParseException(e.getMessage(), e.getErrorIndex());
+        pe.initCause(e);
+        throw pe;
+      } catch (DateTimeException e) {
+        ParseException pe = new ParseException(e.getMessage(), 0);
+        pe.initCause(e);
+        throw pe;
+      }
+    }
+  }
+
+  /*
+   * yyyy-MM-dd'T'HH:mm:ss[.SSS] followed by the offset (XXX) or by 'Z' when the time zone is UTC.
+   */
+  final static class IsoCodec extends DateCodec {
+    private final boolean withMillis;
+    private final boolean withOffset;
+    private final TimeZone timeZone;
+    private final DateCodec fallback;
+
+    IsoCodec(boolean withMillis, boolean withOffset, TimeZone timeZone, DateCodec fallback) {
+      this.withMillis = withMillis;
+      this.withOffset = withOffset;
+      this.timeZone = timeZone;
+      this.fallback = fallback;
+    }
+
+    @Override
+    String format(Date date) {
+      long time = date.getTime();
+      int offset = withOffset ? timeZone.getOffset(time) : 0;
+      long local = time + offset;
+      LocalDate day = LocalDate.ofEpochDay(Math.floorDiv(local, MILLIS_PER_DAY));
+      if (day.getYear() < MIN_YEAR || day.getYear() > MAX_YEAR) return fallback.format(date);
+
+      char[] chars = new char[(withMillis ? 23 : 19) + (withOffset && offset != 0 ? 6 : 1)];
+      int pos = writeDate(chars, day);
+      chars[pos++] = 'T';
+      pos = writeTime(chars, pos, (int) Math.floorMod(local, MILLIS_PER_DAY), withMillis);
+      if (withOffset) writeOffset(chars, pos, offset);
+      else chars[pos] = 'Z';
+      return new String(chars);
+    }
+
+    @Override
+    Date parse(String value) throws ParseException {
+      long time = parseFast(value);
+      return time != Long.MIN_VALUE ? new Date(time) : fallback.parse(value);
+    }
+
+    private long parseFast(String value) {
+      int length = value.length();
+      int end = withMillis ? 23 : 19;
+      if (length < end + 1) return Long.MIN_VALUE;
+      long days = readDate(value);
+      if (days == Long.MIN_VALUE || value.charAt(10) != 'T') return Long.MIN_VALUE;
+      int millisOfDay = readTime(value, 11, withMillis);
+      if (millisOfDay < 0) return Long.MIN_VALUE;
+
+      int offset;
+      if (length == end + 1 && value.charAt(end) == 'Z') offset = 0;
+      else if (withOffset && length == end + 6) offset = readOffset(value, end);
+      else return Long.MIN_VALUE;
+      if (offset == Integer.MIN_VALUE) return Long.MIN_VALUE;
+      return days * MILLIS_PER_DAY + millisOfDay - offset;
+    }
+  }
+
+  /*
+   * 2011-12-03T10:15:30Z with the fraction of the second when there is one. The offset is always Z.
+   */
+  final static class IsoInstantCodec extends DateCodec {
+    private final DateCodec fallback;
+
+    IsoInstantCodec(DateCodec fallback) {
+      this.fallback = fallback;
+    }
+
+    @Override
+    String format(Date date) {
+      long time = date.getTime();
+      LocalDate day = LocalDate.ofEpochDay(Math.floorDiv(time, MILLIS_PER_DAY));
+      if (day.getYear() < 0 || day.getYear() > MAX_YEAR) return fallback.format(date);
+
+      int millisOfDay = (int) Math.floorMod(time, MILLIS_PER_DAY);
+      boolean withMillis = millisOfDay % 1000 != 0;
+      char[] chars = new char[withMillis ? 24 : 20];
+      int pos = writeDate(chars, day);
+      chars[pos++] = 'T';
+      pos = writeTime(chars, pos, millisOfDay, withMillis);
+      chars[pos] = 'Z';
+      return new String(chars);
+    }
+
+    @Override
+    Date parse(String value) throws ParseException {
+      int length = value.length();
+      if (length >= 20 && value.charAt(10) == 'T' && value.charAt(length - 1) == 'Z') {
+        long days = readDate(value);
+        int millisOfDay = readTime(value, 11, false);
+        int millis = length == 20 ? 0 : readFraction(value, 19, length - 1);
+        if (days != Long.MIN_VALUE && millisOfDay >= 0 && millis >= 0)
+          return new Date(days * MILLIS_PER_DAY + millisOfDay + millis);
+      }
+      return fallback.parse(value);
+    }
+  }
+
+  /*
+   * Tue, 03 Jun 2008 11:05:30 GMT, the day of the month has two digits for SimpleDateFormat and at
+   * least one for the java.time formatter. The dates are always in UTC.
+   */
+  final static class Rfc1123Codec extends DateCodec {
+    // indexed by Calendar.SUNDAY..SATURDAY and Calendar.JANUARY..DECEMBER
+    private final String[] weekdays;
+    private final String[] months;
+    private final boolean padDay;
+    private final String zone;
+    private final DateCodec fallback;
+
+    Rfc1123Codec(String[] weekdays, String[] months, boolean padDay, String zone, DateCodec fallback) {
+      this.weekdays = weekdays;
+      this.months = months;
+      this.padDay = padDay;
+      this.zone = zone;
+      this.fallback = fallback;
+    }
+
+    @Override
+    String format(Date date) {
+      long time = date.getTime();
+      LocalDate day = LocalDate.ofEpochDay(Math.floorDiv(time, MILLIS_PER_DAY));
+      if (day.getYear() < MIN_YEAR || day.getYear() > MAX_YEAR) return fallback.format(date);
+
+      StringBuilder sb = new StringBuilder(32);
+      sb.append(weekdays[day.getDayOfWeek().getValue() % 7 + 1]).append(", ");
+      int dayOfMonth = day.getDayOfMonth();
+      if (dayOfMonth < 10 && padDay) sb.append('0');
+      sb.append(dayOfMonth).append(' ').append(months[day.getMonthValue() - 1]).append(' ').append(day.getYear())
+        .append(' ');
+      char[] chars = new char[8];
+      writeTime(chars, 0, (int) Math.floorMod(time, MILLIS_PER_DAY), false);
+      return sb.append(chars).append(' ').append(zone).toString();
+    }
+
+    @Override
+    Date parse(String value) throws ParseException {
+      long time = parseFast(value);
+      return time != Long.MIN_VALUE ? new Date(time) : fallback.parse(value);
+    }
+
+    private long parseFast(String value) {
+      int pos = value.indexOf(", ");
+      if (pos < 0) return Long.MIN_VALUE;
+      String weekday = value.substring(0, pos);
+      pos += 2;
+
+      int dayOfMonth = 0;
+      int start = pos;
+      for (; pos < value.length() && pos - start < 2 && isDigit(value.charAt(pos)); pos++)
+        dayOfMonth = dayOfMonth * 10 + value.charAt(pos) - '0';
+      if (pos == start || (padDay && pos - start != 2) || pos >= value.length() || value.charAt(pos) != ' ')
+        return Long.MIN_VALUE;
+
+      int monthEnd = value.indexOf(' ', ++pos);
+      if (monthEnd < 0) return Long.MIN_VALUE;
+      int month = indexOf(months, value, pos, monthEnd) + 1;
+      pos = monthEnd + 1;
+      if (month == 0 || value.length() != pos + 4 + 1 + 8 + 1 + zone.length()
+        || !value.startsWith(zone, value.length() - zone.length()))
+        return Long.MIN_VALUE;
+
+      int year = read4(value, pos);
+      if (year < MIN_YEAR || value.charAt(pos + 4) != ' ' || value.charAt(pos + 13) != ' ') return Long.MIN_VALUE;
+      if (dayOfMonth < 1 || dayOfMonth > daysInMonth(year, month)) return Long.MIN_VALUE;
+      int millisOfDay = readTime(value, pos + 5, false);
+      if (millisOfDay < 0) return Long.MIN_VALUE;
+
+      LocalDate day = LocalDate.of(year, month, dayOfMonth);
+      if (!weekday.equals(weekdays[day.getDayOfWeek().getValue() % 7 + 1])) return Long.MIN_VALUE;
+      return day.toEpochDay() * MILLIS_PER_DAY + millisOfDay;
+    }
+
+    private static int indexOf(String[] names, String value, int start, int end) {
+      for (int i = 0; i < names.length; i++) {
+        String name = names[i];
+        if (name != null && name.length() == end - start && value.startsWith(name, start)) return i;
+      }
+      return -1;
+    }
+  }
+
+  // writes yyyy-MM-dd at the start of chars
+  static int writeDate(char[] chars, LocalDate day) {
+    int year = day.getYear();
+    write2(chars, 0, year / 100);
+    write2(chars, 2, year % 100);
+    chars[4] = '-';
+    write2(chars, 5, day.getMonthValue());
+    chars[7] = '-';
+    write2(chars, 8, day.getDayOfMonth());
+    return 10;
+  }
+
+  // writes HH:mm:ss[.SSS]
+  static int writeTime(char[] chars, int pos, int millisOfDay, boolean withMillis) {
+    int seconds = millisOfDay / 1000;
+    write2(chars, pos, seconds / 3600);
+    chars[pos + 2] = ':';
+    write2(chars, pos + 3, seconds / 60 % 60);
+    chars[pos + 5] = ':';
+    write2(chars, pos + 6, seconds % 60);
+    pos += 8;
+    if (withMillis) {
+      int millis = millisOfDay % 1000;
+      chars[pos] = '.';
+      chars[pos + 1] = (char) ('0' + millis / 100);
+      write2(chars, pos + 2, millis % 100);
+      pos += 4;
+    }
+    return pos;
+  }
+
+  // writes Z or +HH:mm like SimpleDateFormat, the seconds of the offset are ignored
+  static void writeOffset(char[] chars, int pos, int offset) {
+    if (offset == 0) {
+      chars[pos] = 'Z';
+      return;
+    }
+    int minutes = offset / 60000;
+    chars[pos] = minutes >= 0 ? '+' : '-';
+    minutes = Math.abs(minutes);
+    write2(chars, pos + 1, minutes / 60);
+    chars[pos + 3] = ':';
+    write2(chars, pos + 4, minutes % 60);
+  }
+
+  static void write2(char[] chars, int pos, int value) {
+    chars[pos] = (char) ('0' + value / 10);
+    chars[pos + 1] = (char) ('0' + value % 10);
+  }
+
+  // reads yyyy-MM-dd and returns the epoch day or Long.MIN_VALUE
+  static long readDate(String value) {
+    int year = read4(value, 0);
+    int month = read2(value, 5);
+    int day = read2(value, 8);
+    if (year < MIN_YEAR || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+      || value.charAt(4) != '-' || value.charAt(7) != '-')
+      return Long.MIN_VALUE;
+    return LocalDate.of(year, month, day).toEpochDay();
+  }
+
+  // reads HH:mm:ss[.SSS] and returns the millis of the day or -1
+  static int readTime(String value, int pos, boolean withMillis) {
+    int hours = read2(value, pos);
+    int minutes = read2(value, pos + 3);
+    int seconds = read2(value, pos + 6);
+    if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59 || seconds < 0 || seconds > 59
+      || value.charAt(pos + 2) != ':' || value.charAt(pos + 5) != ':')
+      return -1;
+    int millis = 0;
+    if (withMillis) {
+      millis = readFraction(value, pos + 8, pos + 12);
+      if (millis < 0) return -1;
+    }
+    return ((hours * 60 + minutes) * 60 + seconds) * 1000 + millis;
+  }
+
+  // reads .S to .SSSSSSSSS and returns the millis, the digits after the millis are ignored
+  static int readFraction(String value, int pos, int end) {
+    if (end - pos < 2 || end - pos > 10 || value.charAt(pos) != '.') return -1;
+    int millis = 0;
+    for (int i = pos + 1; i < end; i++) {
+      char c = value.charAt(i);
+      if (!isDigit(c)) return -1;
+      if (i < pos + 4) millis = millis * 10 + c - '0';
+    }
+    for (int i = end; i < pos + 4; i++) millis *= 10;
+    return millis;
+  }
+
+  // reads Z or +HH:mm and returns the offset in millis or Integer.MIN_VALUE
+  static int readOffset(String value, int pos) {
+    char sign = value.charAt(pos);
+    int hours = read2(value, pos + 1);
+    int minutes = read2(value, pos + 4);
+    if ((sign != '+' && sign != '-') || hours < 0 || hours > 23 || minutes < 0 || minutes > 59
+      || value.charAt(pos + 3) != ':')
+      return Integer.MIN_VALUE;
+    int offset = (hours * 60 + minutes) * 60000;
+    return sign == '-' ? -offset : offset;
+  }
+
+  static int read2(String value, int pos) {
+    char c0 = value.charAt(pos), c1 = value.charAt(pos + 1);
+    if (!isDigit(c0) || !isDigit(c1)) return -1;
+    return (c0 - '0') * 10 + c1 - '0';
+  }
+
+  static int read4(String value, int pos) {
+    int high = read2(value, pos), low = read2(value, pos + 2);
+    return high < 0 || low < 0 ? -1 : high * 100 + low;
+  }
+
+  static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  static int daysInMonth(int year, int month) {
+    if (month == 2) return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+    return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+  }
+}
@@ -16,12 +16,14 @@
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 import com.owlike.genson.*;
 import com.owlike.genson.annotation.*;
 import com.owlike.genson.annotation.HandleBeanView;
 import com.owlike.genson.reflect.BeanProperty;
+import com.owlike.genson.reflect.LoaderAwareCache;
 import com.owlike.genson.reflect.TypeUtil;
 import com.owlike.genson.stream.JsonType;
 import com.owlike.genson.stream.ObjectReader;
@@ -356,6 +358,187 @@ public byte[] deserialize(ObjectReader reader, Context ctx) throws Exception {
     }
   }
 
+  /*
+   * The primitive array converters read and write the elements with the primitive methods of the
+   * readers and writers, without boxing them. The element converter is only used for null elements,
+   * so null is still converted to the default value or fails depending on the configuration.
+   */
+  @HandleClassMetadata
+  public static class IntArrayConverter implements Converter<int[]> {
+    private final Converter<Integer> elementConverter;
+
+    public IntArrayConverter(Converter<Integer> elementConverter) {
+      this.elementConverter = elementConverter;
+    }
+
+    public void serialize(int[] array, ObjectWriter writer, Context ctx) {
+      writer.beginArray();
+      for (int i = 0; i < array.length; i++) writer.writeValue(array[i]);
+      writer.endArray();
+    }
+
+    public int[] deserialize(ObjectReader reader, Context ctx) throws Exception {
+      int[] array = new int[16];
+      int size = 0;
+      reader.beginArray();
+      while (reader.hasNext()) {
+        ValueType type = reader.next();
+        if (size == array.length) array = Arrays.copyOf(array, size * 2);
+        array[size++] = type == ValueType.NULL ? elementConverter.deserialize(reader, ctx) : reader.valueAsInt();
+      }
+      reader.endArray();
+      return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+  }
+
+  @HandleClassMetadata
+  public static class LongArrayConverter implements Converter<long[]> {
+    private final Converter<Long> elementConverter;
+
+    public LongArrayConverter(Converter<Long> elementConverter) {
+      this.elementConverter = elementConverter;
+    }
+
+    public void serialize(long[] array, ObjectWriter writer, Context ctx) {
+      writer.beginArray();
+      for (int i = 0; i < array.length; i++) writer.writeValue(array[i]);
+      writer.endArray();
+    }
+
+    public long[] deserialize(ObjectReader reader, Context ctx) throws Exception {
+      long[] array = new long[16];
+      int size = 0;
+      reader.beginArray();
+      while (reader.hasNext()) {
+        ValueType type = reader.next();
+        if (size == array.length) array = Arrays.copyOf(array, size * 2);
+        array[size++] = type == ValueType.NULL ? elementConverter.deserialize(reader, ctx) : reader.valueAsLong();
+      }
+      reader.endArray();
+      return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+  }
+
+  @HandleClassMetadata
+  public static class DoubleArrayConverter implements Converter<double[]> {
+    private final Converter<Double> elementConverter;
+
+    public DoubleArrayConverter(Converter<Double> elementConverter) {
+      this.elementConverter = elementConverter;
+    }
+
+    public void serialize(double[] array, ObjectWriter writer, Context ctx) {
+      writer.beginArray();
+      for (int i = 0; i < array.length; i++) {
+        double value = array[i];
+        if (Double.isNaN(value) || Double.isInfinite(value)) writer.writeUnsafeValue(Double.toString(value));
+        else writer.writeValue(value);
+      }
+      writer.endArray();
+    }
+
+    public double[] deserialize(ObjectReader reader, Context ctx) throws Exception {
+      double[] array = new double[16];
+      int size = 0;
+      reader.beginArray();
+      while (reader.hasNext()) {
+        ValueType type = reader.next();
+        if (size == array.length) array = Arrays.copyOf(array, size * 2);
+        array[size++] = type == ValueType.NULL ? elementConverter.deserialize(reader, ctx) : reader.valueAsDouble();
+      }
+      reader.endArray();
+      return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+  }
+
+  @HandleClassMetadata
+  public static class FloatArrayConverter implements Converter<float[]> {
+    private final Converter<Float> elementConverter;
+
+    public FloatArrayConverter(Converter<Float> elementConverter) {
+      this.elementConverter = elementConverter;
+    }
+
+    public void serialize(float[] array, ObjectWriter writer, Context ctx) {
+      writer.beginArray();
+      for (int i = 0; i < array.length; i++) {
+        float value = array[i];
+        if (Float.isNaN(value) || Float.isInfinite(value)) writer.writeUnsafeValue(Float.toString(value));
+        else writer.writeValue(value);
+      }
+      writer.endArray();
+    }
+
+    public float[] deserialize(ObjectReader reader, Context ctx) throws Exception {
+      float[] array = new float[16];
+      int size = 0;
+      reader.beginArray();
+      while (reader.hasNext()) {
+        ValueType type = reader.next();
+        if (size == array.length) array = Arrays.copyOf(array, size * 2);
+        array[size++] = type == ValueType.NULL ? elementConverter.deserialize(reader, ctx) : reader.valueAsFloat();
+      }
+      reader.endArray();
+      return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+  }
+
+  @HandleClassMetadata
+  public static class ShortArrayConverter implements Converter<short[]> {
+    private final Converter<Short> elementConverter;
+
+    public ShortArrayConverter(Converter<Short> elementConverter) {
+      this.elementConverter = elementConverter;
+    }
+
+    public void serialize(short[] array, ObjectWriter writer, Context ctx) {
+      writer.beginArray();
+      for (int i = 0; i < array.length; i++) writer.writeValue(array[i]);
+      writer.endArray();
+    }
+
+    public short[] deserialize(ObjectReader reader, Context ctx) throws Exception {
+      short[] array = new short[16];
+      int size = 0;
+      reader.beginArray();
+      while (reader.hasNext()) {
+        ValueType type = reader.next();
+        if (size == array.length) array = Arrays.copyOf(array, size * 2);
+        array[size++] = type == ValueType.NULL ? elementConverter.deserialize(reader, ctx) : reader.valueAsShort();
+      }
+      reader.endArray();
+      return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+  }
+
+  @HandleClassMetadata
+  public static class BooleanArrayConverter implements Converter<boolean[]> {
+    private final Converter<Boolean> elementConverter;
+
+    public BooleanArrayConverter(Converter<Boolean> elementConverter) {
+      this.elementConverter = elementConverter;
+    }
+
+    public void serialize(boolean[] array, ObjectWriter writer, Context ctx) {
+      writer.beginArray();
+      for (int i = 0; i < array.length; i++) writer.writeValue(array[i]);
+      writer.endArray();
+    }
+
+    public boolean[] deserialize(ObjectReader reader, Context ctx) throws Exception {
+      boolean[] array = new boolean[16];
+      int size = 0;
+      reader.beginArray();
+      while (reader.hasNext()) {
+        ValueType type = reader.next();
+        if (size == array.length) array = Arrays.copyOf(array, size * 2);
+        array[size++] = type == ValueType.NULL ? elementConverter.deserialize(reader, ctx) : reader.valueAsBoolean();
+      }
+      reader.endArray();
+      return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+  }
+
   public final static class ArrayConverterFactory implements Factory<Converter<Object>> {
     public final static ArrayConverterFactory instance = new ArrayConverterFactory();
 
@@ -366,17 +549,37 @@ private ArrayConverterFactory() {
     public Converter<Object> create(Type forType, Genson genson) {
       if (forType instanceof GenericArrayType
         || (forType instanceof Class<?> && ((Class<?>) forType).isArray())) {
-        if (byte.class.equals(getCollectionType(forType))) {
+        Type componentType = getCollectionType(forType);
+        if (byte.class.equals(componentType)) {
           return (Converter) ByteArrayConverter.instance;
         } else {
-          Converter<?> elementConverter = genson.provideConverter(TypeUtil
-            .getCollectionType(forType));
-          return new ArrayConverter(TypeUtil.getRawClass(TypeUtil
-            .getCollectionType(forType)), elementConverter);
+          Converter<?> elementConverter = genson.provideConverter(componentType);
+          Converter<?> primitiveArrayConverter = createPrimitiveArrayConverter(componentType, elementConverter);
+          if (primitiveArrayConverter != null) return (Converter) primitiveArrayConverter;
+          return new ArrayConverter(TypeUtil.getRawClass(componentType), elementConverter);
         }
       }
       return null;
     }
+
+    // the primitive array converters are used only when the elements use the default converter
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private Converter<?> createPrimitiveArrayConverter(Type componentType, Converter elementConverter) {
+      Object converter = Wrapper.unwrapDecorators(elementConverter);
+      if (int.class.equals(componentType) && converter == IntegerConverter.instance)
+        return new IntArrayConverter(elementConverter);
+      if (long.class.equals(componentType) && converter == LongConverter.instance)
+        return new LongArrayConverter(elementConverter);
+      if (double.class.equals(componentType) && converter == DoubleConverter.instance)
+        return new DoubleArrayConverter(elementConverter);
+      if (float.class.equals(componentType) && converter == FloatConverter.instance)
+        return new FloatArrayConverter(elementConverter);
+      if (short.class.equals(componentType) && converter == ShortConverter.instance)
+        return new ShortArrayConverter(elementConverter);
+      if (boolean.class.equals(componentType) && converter == BooleanConverter.instance)
+        return new BooleanArrayConverter(elementConverter);
+      return null;
+    }
   }
 
   @HandleClassMetadata
@@ -936,16 +1139,31 @@ public Converter create(BeanProperty property, Genson genson) {
   @HandleClassMetadata
   @HandleBeanView
   public static class DateConverter implements Converter<Date> {
-    private DateFormat dateFormat;
+    private final DateCodec codec;
     private final boolean asTimeInMillis;
 
     public DateConverter() {
       this(SimpleDateFormat.getDateTimeInstance(), true);
     }
 
+    /**
+     * The date format is not used directly, each thread formats and parses the dates with its own
+     * copy of it. The usual ISO 8601 and RFC 1123 SimpleDateFormat patterns are handled without
+     * SimpleDateFormat.
+     */
     public DateConverter(DateFormat dateFormat, boolean asTimeInMillis) {
       if (dateFormat == null) dateFormat = SimpleDateFormat.getDateTimeInstance();
-      this.dateFormat = dateFormat;
+      this.codec = DateCodec.of(dateFormat);
+      this.asTimeInMillis = asTimeInMillis;
+    }
+
+    /**
+     * Formats and parses the dates with a java.time formatter, the dates are in UTC when the
+     * formatter has no zone.
+     */
+    public DateConverter(DateTimeFormatter formatter, boolean asTimeInMillis) {
+      if (formatter == null) throw new IllegalArgumentException("The formatter must not be null.");
+      this.codec = DateCodec.of(formatter);
       this.asTimeInMillis = asTimeInMillis;
     }
 
@@ -956,8 +1174,8 @@ public void serialize(Date obj, ObjectWriter writer, Context ctx) {
         writer.writeUnsafeValue(format(obj));
     }
 
-    protected synchronized String format(Date date) {
-      return dateFormat.format(date);
+    protected String format(Date date) {
+      return codec.format(date);
     }
 
     public Date deserialize(ObjectReader reader, Context ctx) {
@@ -975,40 +1193,287 @@ else throw new JsonBindingException(String.format("Can not deserialize type %s t
       }
     }
 
-    protected synchronized Date read(String dateString) throws ParseException {
-      return dateFormat.parse(dateString);
+    protected Date read(String dateString) throws ParseException {
+      return codec.parse(dateString);
     }
   }
 
   public final static class UntypedConverterFactory implements Factory<Converter<Object>> {
-    public final static UntypedConverterFactory instance = new UntypedConverterFactory();
+    public final static UntypedConverterFactory instance = new UntypedConverterFactory(false);
+
+    private final boolean compactCollections;
 
-    private UntypedConverterFactory() {
+    /**
+     * @param compactCollections true if the objects and arrays must be read as the read only compact
+     *                           maps and lists, see
+     *                           {@link com.owlike.genson.GensonBuilder#useCompactUntypedCollections(boolean)}.
+     */
+    public UntypedConverterFactory(boolean compactCollections) {
+      this.compactCollections = compactCollections;
     }
 
+    /**
+     * Converts the values whose type is only known at runtime. The strings, numbers, booleans, maps
+     * and lists are read and written directly when the Genson instance uses the default converters
+     * for them, the maps and lists contents included. The other values are converted with the
+     * converter of their class.
+     */
     @HandleClassMetadata(serialization = true, deserialization = false)
     public final static class UntypedConverter implements Converter<Object> {
-      final static UntypedConverter instance = new UntypedConverter();
+      final static int MAX_CACHED_CLASSES = 32;
+
+      private final static int OTHER = 0, STRING = 1, LONG = 2, INTEGER = 3, DOUBLE = 4, BOOLEAN = 5, MAP = 6,
+        LIST = 7;
 
-      private UntypedConverter() {
+      private final boolean compactCollections;
+      private volatile Dispatch _dispatch;
+
+      UntypedConverter(boolean compactCollections) {
+        this.compactCollections = compactCollections;
       }
 
-      public Object deserialize(ObjectReader reader, Context ctx) {
-        return ctx.genson.deserialize(GenericType.of(reader.getValueType().toClass()),
-          reader, ctx);
+      public Object deserialize(ObjectReader reader, Context ctx) throws Exception {
+        return read(reader.getValueType(), reader, ctx, dispatch(ctx.genson));
       }
 
-      public void serialize(Object obj, ObjectWriter writer, Context ctx) {
+      public void serialize(Object obj, ObjectWriter writer, Context ctx) throws Exception {
         if (Object.class.equals(obj.getClass()))
           throw new UnsupportedOperationException(
             "Serialization of type Object is not supported by default serializers.");
-        ctx.genson.serialize(obj, obj.getClass(), writer, ctx);
+        write(obj, writer, ctx, dispatch(ctx.genson));
+      }
+
+      private Object read(ValueType valueType, ObjectReader reader, Context ctx, Dispatch dispatch) throws Exception {
+        switch (valueType) {
+          case STRING:
+            if (dispatch.readStrings) return reader.valueAsString();
+            break;
+          case INTEGER:
+            if (dispatch.readLongs) return reader.valueAsLong();
+            break;
+          case DOUBLE:
+            if (dispatch.readDoubles) return reader.valueAsDouble();
+            break;
+          case BOOLEAN:
+            if (dispatch.readBooleans) return reader.valueAsBoolean();
+            break;
+          case OBJECT:
+            if (dispatch.readMaps && !ctx.hasViews()) return readMap(reader, ctx, dispatch);
+            break;
+          case ARRAY:
+            if (dispatch.readLists && !ctx.hasViews()) return readList(reader, ctx, dispatch);
+            break;
+          case NULL:
+            return dispatch.nullValue;
+        }
+        return ctx.genson.provideConverter(valueType.toClass()).deserialize(reader, ctx);
+      }
+
+      // nested objects may contain class metadata, ClassMetadataConverter handles them
+      private Object readNested(ValueType valueType, ObjectReader reader, Context ctx, Dispatch dispatch)
+        throws Exception {
+        if (valueType == ValueType.OBJECT && dispatch.classMetadata)
+          return dispatch.objectConverter.deserialize(reader, ctx);
+        return read(valueType, reader, ctx, dispatch);
+      }
+
+      private Map<?, Object> readMap(ObjectReader reader, Context ctx, Dispatch dispatch) throws Exception {
+        if (compactCollections) return readCompactMap(reader, ctx, dispatch);
+        Map<Object, Object> map = new HashMap<Object, Object>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+          ValueType valueType = reader.next();
+          map.put(reader.name(), readNested(valueType, reader, ctx, dispatch));
+        }
+        reader.endObject();
+        return map;
+      }
+
+      private List<Object> readList(ObjectReader reader, Context ctx, Dispatch dispatch) throws Exception {
+        if (compactCollections) return readCompactList(reader, ctx, dispatch);
+        List<Object> list = new ArrayList<Object>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+          ValueType valueType = reader.next();
+          list.add(readNested(valueType, reader, ctx, dispatch));
+        }
+        reader.endArray();
+        return list;
+      }
+
+      private Map<String, Object> readCompactMap(ObjectReader reader, Context ctx, Dispatch dispatch)
+        throws Exception {
+        Object[] keysAndValues = new Object[16];
+        int size = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+          ValueType valueType = reader.next();
+          if (size * 2 == keysAndValues.length) keysAndValues = Arrays.copyOf(keysAndValues, size * 4);
+          keysAndValues[size * 2] = reader.name();
+          keysAndValues[size * 2 + 1] = readNested(valueType, reader, ctx, dispatch);
+          size++;
+        }
+        reader.endObject();
+        return CompactMap.of(keysAndValues, size);
+      }
+
+      private List<Object> readCompactList(ObjectReader reader, Context ctx, Dispatch dispatch) throws Exception {
+        Object[] values = new Object[8];
+        int size = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+          ValueType valueType = reader.next();
+          if (size == values.length) values = Arrays.copyOf(values, size * 2);
+          values[size++] = readNested(valueType, reader, ctx, dispatch);
+        }
+        reader.endArray();
+        return new CompactList(size == values.length ? values : Arrays.copyOf(values, size));
+      }
+
+      @SuppressWarnings("unchecked")
+      private void write(Object value, ObjectWriter writer, Context ctx, Dispatch dispatch) throws Exception {
+        if (value == null) {
+          writer.writeNull();
+          return;
+        }
+
+        Class<?> clazz = value.getClass();
+        Object[] classes = dispatch.classes;
+        int i = 0;
+        for (; i < classes.length && classes[i] != clazz; i += 3) ;
+        if (i == classes.length) {
+          Converter<Object> converter = ctx.genson.provideConverter(clazz);
+          // this converter is shared, it must not keep the classes of other class loaders alive
+          if (classes.length < MAX_CACHED_CLASSES * 3 && LoaderAwareCache.isVisible(clazz))
+            dispatch.add(clazz, converter, this);
+          converter.serialize(value, writer, ctx);
+          return;
+        }
+
+        switch ((Integer) classes[i + 1]) {
+          case STRING:
+            writer.writeValue((String) value);
+            break;
+          case LONG:
+            writer.writeValue(((Long) value).longValue());
+            break;
+          case INTEGER:
+            writer.writeValue(((Integer) value).intValue());
+            break;
+          case DOUBLE:
+            double d = (Double) value;
+            if (Double.isNaN(d) || Double.isInfinite(d)) writer.writeUnsafeValue(value.toString());
+            else writer.writeValue(d);
+            break;
+          case BOOLEAN:
+            writer.writeValue(((Boolean) value).booleanValue());
+            break;
+          case MAP:
+            if (ctx.hasViews()) ((Converter<Object>) classes[i + 2]).serialize(value, writer, ctx);
+            else writeMap((Map<?, ?>) value, writer, ctx, dispatch);
+            break;
+          case LIST:
+            if (ctx.hasViews()) ((Converter<Object>) classes[i + 2]).serialize(value, writer, ctx);
+            else writeCollection((Collection<?>) value, writer, ctx, dispatch);
+            break;
+          default:
+            ((Converter<Object>) classes[i + 2]).serialize(value, writer, ctx);
+        }
+      }
+
+      private void writeMap(Map<?, ?> map, ObjectWriter writer, Context ctx, Dispatch dispatch) throws Exception {
+        writer.beginObject();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+          writer.writeName(entry.getKey().toString());
+          write(entry.getValue(), writer, ctx, dispatch);
+        }
+        writer.endObject();
+      }
+
+      private void writeCollection(Collection<?> collection, ObjectWriter writer, Context ctx, Dispatch dispatch)
+        throws Exception {
+        writer.beginArray();
+        for (Object value : collection) write(value, writer, ctx, dispatch);
+        writer.endArray();
+      }
+
+      private Dispatch dispatch(Genson genson) {
+        Dispatch dispatch = _dispatch;
+        if (dispatch == null || dispatch.genson != genson) {
+          dispatch = new Dispatch(genson, this);
+          _dispatch = dispatch;
+        }
+        return dispatch;
+      }
+
+      /*
+       * What can be converted directly for a Genson instance. The converters provided by Genson are
+       * decorated by the converters of this package (null handling, class metadata, etc), they don't
+       * change how non null values are converted when the class of the value is the converted class.
+       */
+      private final static class Dispatch {
+        final Genson genson;
+        final Object nullValue;
+        final boolean classMetadata;
+        final Converter<Object> objectConverter;
+        final boolean readStrings, readLongs, readDoubles, readBooleans, readMaps, readLists;
+        // the classes met during serialization followed by their kind and converter
+        volatile Object[] classes = new Object[0];
+
+        Dispatch(Genson genson, UntypedConverter untypedConverter) {
+          this.genson = genson;
+          nullValue = genson.defaultValue(Object.class);
+          classMetadata = genson.isWithClassMetadata();
+          objectConverter = genson.provideConverter(Object.class);
+          readStrings = kind(String.class, untypedConverter) == STRING;
+          readLongs = kind(Long.class, untypedConverter) == LONG;
+          readDoubles = kind(Double.class, untypedConverter) == DOUBLE;
+          readBooleans = kind(Boolean.class, untypedConverter) == BOOLEAN;
+          readMaps = kind(Map.class, untypedConverter) == MAP
+            && Wrapper.unwrapDecorators(genson.provideConverter(Map.class)).getClass() == HashMapConverter.class;
+          readLists = kind(List.class, untypedConverter) == LIST;
+          for (Class<?> clazz : Arrays.<Class<?>>asList(String.class, Long.class, Integer.class, Double.class,
+            Boolean.class, HashMap.class, LinkedHashMap.class, ArrayList.class))
+            add(clazz, genson.<Object>provideConverter(clazz), untypedConverter);
+        }
+
+        synchronized void add(Class<?> clazz, Converter<Object> converter, UntypedConverter untypedConverter) {
+          for (int i = 0; i < classes.length; i += 3) if (classes[i] == clazz) return;
+          Object[] newClasses = Arrays.copyOf(classes, classes.length + 3);
+          newClasses[classes.length] = clazz;
+          newClasses[classes.length + 1] = kind(converter, untypedConverter);
+          newClasses[classes.length + 2] = converter;
+          classes = newClasses;
+        }
+
+        private int kind(Class<?> clazz, UntypedConverter untypedConverter) {
+          return kind(genson.<Object>provideConverter(clazz), untypedConverter);
+        }
+
+        private static int kind(Converter<?> converter, UntypedConverter untypedConverter) {
+          Object unwrapped = Wrapper.unwrapDecorators(converter);
+          if (unwrapped == StringConverter.instance) return STRING;
+          if (unwrapped == LongConverter.instance) return LONG;
+          if (unwrapped == IntegerConverter.instance) return INTEGER;
+          if (unwrapped == DoubleConverter.instance) return DOUBLE;
+          if (unwrapped == BooleanConverter.instance) return BOOLEAN;
+          if ((unwrapped instanceof HashMapConverter || unwrapped instanceof LinkedHashMapConverter)
+            && (((MapConverter<?, ?>) unwrapped).keyAdapter == KeyAdapter.runtimeAdapter
+              || ((MapConverter<?, ?>) unwrapped).keyAdapter == KeyAdapter.strAdapter)
+            && Wrapper.unwrapDecorators(((MapConverter<?, ?>) unwrapped).valueConverter) instanceof UntypedConverter)
+            return MAP;
+          if (unwrapped != null && unwrapped.getClass() == CollectionConverter.class
+            && Wrapper.unwrapDecorators(((CollectionConverter<?>) unwrapped).getElementConverter())
+              instanceof UntypedConverter)
+            return LIST;
+          return OTHER;
+        }
       }
     }
 
     public Converter<Object> create(Type type, Genson genson) {
       if (TypeUtil.match(type, Object.class, true)) {
-        return UntypedConverter.instance;
+        return new UntypedConverter(compactCollections);
       }
       return null;
     }
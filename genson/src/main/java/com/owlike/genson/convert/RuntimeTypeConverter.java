@@ -1,17 +1,23 @@
 package com.owlike.genson.convert;
 
 import java.lang.reflect.Type;
+import java.util.Arrays;
 
 import com.owlike.genson.Context;
 import com.owlike.genson.Converter;
 import com.owlike.genson.Genson;
 import com.owlike.genson.Wrapper;
+import com.owlike.genson.reflect.LoaderAwareCache;
 import com.owlike.genson.reflect.TypeUtil;
 import com.owlike.genson.stream.ObjectReader;
 import com.owlike.genson.stream.ObjectWriter;
 
 /**
  * This converter will use the runtime type of objects during serialization.
+ * <p/>
+ * The converters of the runtime classes met by a converter are kept in a small inline cache, most
+ * properties and collections contain only a few different classes. Once the cache is full the
+ * other classes are looked up in the converters cache of Genson.
  *
  * @param <T> the type this converter is handling.
  * @author eugen
@@ -29,7 +35,11 @@ protected Converter<?> create(Type type, Genson genson, Converter<?> nextConvert
     }
   }
 
+  final static int MAX_CACHED_CLASSES = 8;
+
   private final Class<T> tClass;
+  // the runtime classes at even indexes followed by their converter, a new array is published on each addition
+  private volatile Object[] _cache = new Object[0];
 
   public RuntimeTypeConverter(Class<T> tClass, Converter<T> next) {
     super(next);
@@ -37,8 +47,8 @@ public RuntimeTypeConverter(Class<T> tClass, Converter<T> next) {
   }
 
   public void serialize(T obj, ObjectWriter writer, Context ctx) throws Exception {
-    if (obj != null && !tClass.equals(obj.getClass()))
-      ctx.genson.serialize(obj, obj.getClass(), writer, ctx);
+    if (obj != null && tClass != obj.getClass())
+      runtimeConverter(obj.getClass(), ctx.genson).serialize(obj, writer, ctx);
     else
       wrapped.serialize(obj, writer, ctx);
   }
@@ -47,4 +57,27 @@ public T deserialize(ObjectReader reader, Context ctx) throws Exception {
     return wrapped.deserialize(reader, ctx);
   }
 
+  @SuppressWarnings("unchecked")
+  private Converter<Object> runtimeConverter(Class<?> clazz, Genson genson) {
+    final Object[] cache = _cache;
+    for (int i = 0; i < cache.length; i += 2) {
+      if (cache[i] == clazz) return (Converter<Object>) cache[i + 1];
+    }
+
+    Converter<Object> converter = genson.provideConverter(clazz);
+    // concurrent additions may be lost, the class will just be added again later. The classes of
+    // other class loaders are not kept, this converter could keep their class loader alive
+    if (cache.length < MAX_CACHED_CLASSES * 2
+      && (LoaderAwareCache.isVisible(clazz) || clazz.getClassLoader() == tClass.getClassLoader())) {
+      Object[] newCache = Arrays.copyOf(cache, cache.length + 2);
+      newCache[cache.length] = clazz;
+      newCache[cache.length + 1] = converter;
+      _cache = newCache;
+    }
+    return converter;
+  }
+
+  int cachedClasses() {
+    return _cache.length / 2;
+  }
 }
@@ -3,6 +3,7 @@
 import java.io.*;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
 import java.util.Arrays;
 
 import javax.ws.rs.Consumes;
@@ -19,6 +20,7 @@
 import com.owlike.genson.*;
 import com.owlike.genson.annotation.WithBeanView;
 import com.owlike.genson.ext.jaxb.JAXBBundle;
+import com.owlike.genson.reflect.LoaderAwareCache;
 import com.owlike.genson.stream.JsonStreamException;
 import com.owlike.genson.stream.ObjectReader;
 import com.owlike.genson.stream.ObjectWriter;
@@ -27,8 +29,12 @@
 @Consumes({MediaType.APPLICATION_JSON, "text/json", "application/*+json"})
 @Produces({MediaType.APPLICATION_JSON, "text/json", "application/*+json"})
 public class GensonJsonConverter implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+  private final static int MAX_CACHED_CODECS = 1024;
 
   private final ContextResolver<GensonJaxRSFeature> _gensonResolver;
+  // the codecs of the entity types, bound once to the Genson instance resolved for them
+  private final LoaderAwareCache<Type, Codec<Object>> _codecs =
+    LoaderAwareCache.ofTypes("jaxrsCodecs", MAX_CACHED_CODECS);
 
   public GensonJsonConverter() {
     this(new GensonJaxRSFeature());
@@ -62,6 +68,13 @@ private Genson getInstance(Class<?> type) {
     return genson;
   }
 
+  private Codec<Object> codecFor(Genson genson, Type type) {
+    Codec<Object> codec = _codecs.get(type);
+    if (codec == null) return _codecs.putIfAbsent(type, genson.codecFor(GenericType.of(type)));
+    // the resolver is not required to always return the same instance
+    return codec.getGenson() == genson ? codec : genson.codecFor(GenericType.of(type));
+  }
+
   public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations,
                              MediaType mediaType) {
 
@@ -80,10 +93,10 @@ public void writeTo(Object t, Class<?> type, Type genericType, Annotation[] anno
       && !charset.equalsIgnoreCase("UTF-32BE") && !charset.equalsIgnoreCase("UTF-32LE"))
       throw new UnsupportedEncodingException("JSON spec allows only UTF-8/16/32 encodings.");
 
-    ObjectWriter writer = genson.createWriter(new OutputStreamWriter(entityStream, charset));
+    Codec<Object> codec = codecFor(genson, rawIfNullGenericType(type, genericType));
+    ObjectWriter writer = genson.createWriter(entityStream, Charset.forName(charset));
     try {
-      genson.serialize(t, rawIfNullGenericType(type, genericType), writer, createContext(annotations, genson));
-      writer.flush();
+      codec.write(t, writer, createContext(annotations, genson));
     } catch (JsonBindingException e) {
       throw new WebApplicationException(e);
     } catch (JsonStreamException jse) {
@@ -121,8 +134,9 @@ public Object readFrom(Class<Object> type, Type genericType, Annotation[] annota
                          InputStream entityStream) throws IOException, WebApplicationException {
     try {
       Genson genson = getInstance(type);
+      Codec<Object> codec = codecFor(genson, rawIfNullGenericType(type, genericType));
       ObjectReader reader = genson.createReader(entityStream);
-      return genson.deserialize(GenericType.of(rawIfNullGenericType(type, genericType)), reader, createContext(annotations, genson));
+      return codec.read(reader, createContext(annotations, genson));
     } catch (JsonBindingException e) {
       throw new WebApplicationException(e);
     } catch (JsonStreamException jse) {
@@ -3,34 +3,72 @@
 import java.io.IOException;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerRequestFilter;
 
 import com.owlike.genson.Context;
 import com.owlike.genson.ThreadLocalHolder;
+import com.owlike.genson.reflect.BeanDescriptor;
 import com.owlike.genson.reflect.BeanProperty;
+import com.owlike.genson.reflect.LoaderAwareCache;
+import com.owlike.genson.reflect.PropertyMask;
 import com.owlike.genson.reflect.RuntimePropertyFilter;
 
 /**
  * This class will include or exclude (depending on how it is configured) the properties during ser/de based on the
- * content of the query string.
+ * content of the query string. The masks of the properties are compiled once per set of filtered properties and
+ * BeanDescriptor, the masks of the last used query param values are kept in a bounded LRU cache.
  */
-public class UrlQueryParamFilter implements RuntimePropertyFilter, ContainerRequestFilter {
-  private String paramName = "filter";
+public class UrlQueryParamFilter implements RuntimePropertyFilter.Compilable, ContainerRequestFilter {
+  private final static int MAX_CACHED_DESCRIPTORS = 1024;
+  private final static int MAX_STRIPES = 16;
+  private final static int MIN_STRIPE_SIZE = 16;
+
+  private volatile String paramName = "filter";
   // By default we exclude all and include only what is present in the query params
-  private boolean inclusionFilter = true;
-  private String splitBy;
+  private volatile boolean inclusionFilter = true;
+  private volatile String splitBy;
+  private volatile int maxCachedMasks = 256;
+  // the masks by set of properties to filter, replaced when the configuration changes
+  private volatile MasksCache _masks = new MasksCache(maxCachedMasks);
 
   @Override
   public boolean shouldInclude(BeanProperty property, Context ctx) {
-    Set<String> properties = ThreadLocalHolder.get("_jaxrs_params_to_filter", Set.class);
+    Set<String> properties = propertiesToFilter();
 
     if (inclusionFilter) return properties.contains(property.getName());
     else return !properties.contains(property.getName());
   }
 
+  @Override
+  public PropertyMask compile(BeanDescriptor<?> descriptor, Context ctx) {
+    LoaderAwareCache<BeanDescriptor<?>, PropertyMask> masks = _masks.get(propertiesToFilter());
+
+    PropertyMask mask = masks.get(descriptor);
+    if (mask == null) mask = masks.putIfAbsent(descriptor, PropertyMask.compile(descriptor, this, ctx));
+    return mask;
+  }
+
+  // when the request did not go through this filter nothing was given in the query params
+  private Set<String> propertiesToFilter() {
+    Set<String> properties = ThreadLocalHolder.get("_jaxrs_params_to_filter", Set.class);
+    return properties != null ? properties : Collections.<String>emptySet();
+  }
+
+  // the masks of the descriptors of other class loaders are released with them
+  private static LoaderAwareCache<BeanDescriptor<?>, PropertyMask> createDescriptorsCache() {
+    return new LoaderAwareCache<BeanDescriptor<?>, PropertyMask>("queryParamDescriptorMasks", MAX_CACHED_DESCRIPTORS) {
+      @Override
+      protected Class<?> ownerOfKey(BeanDescriptor<?> key) {
+        return LoaderAwareCache.ownerOf(key.getOfClass());
+      }
+    };
+  }
+
   @Override
   public void filter(ContainerRequestContext containerRequestContext) throws IOException {
     List<String> properties = containerRequestContext.getUriInfo().getQueryParameters().get(paramName);
@@ -51,6 +89,7 @@ public void filter(ContainerRequestContext containerRequestContext) throws IOExc
    */
   public UrlQueryParamFilter inclusionFilter(boolean yes) {
     inclusionFilter = yes;
+    _masks = new MasksCache(maxCachedMasks);
     return this;
   }
 
@@ -70,4 +109,74 @@ public UrlQueryParamFilter splitBy(String pattern) {
     splitBy = pattern;
     return this;
   }
+
+  /**
+   * The number of distinct sets of filtered properties for which the compiled masks are kept, the least recently used
+   * ones are evicted first. 256 by default.
+   */
+  public UrlQueryParamFilter maxCachedMasks(int max) {
+    maxCachedMasks = max;
+    _masks = new MasksCache(max);
+    return this;
+  }
+
+  int cachedMasks() {
+    return _masks.size();
+  }
+
+  /*
+   * The sets of filtered properties are spread over access ordered maps of at least MIN_STRIPE_SIZE entries, each
+   * evicting its least recently used set. A request only locks the stripe of its set, a few popular filters don't
+   * contend on a single lock. The sets only hold strings, they can't keep a class loader alive.
+   */
+  private final static class MasksCache {
+    private final Stripe[] stripes;
+
+    MasksCache(int maxSize) {
+      if (maxSize < 1) throw new IllegalArgumentException("maxCachedMasks must be greater than 0");
+      stripes = new Stripe[Math.max(1, Math.min(MAX_STRIPES, maxSize / MIN_STRIPE_SIZE))];
+      for (int i = 0; i < stripes.length; i++) {
+        stripes[i] = new Stripe(maxSize / stripes.length + (i < maxSize % stripes.length ? 1 : 0));
+      }
+    }
+
+    LoaderAwareCache<BeanDescriptor<?>, PropertyMask> get(Set<String> properties) {
+      int h = properties.hashCode() * 0x9E3779B9;
+      Stripe stripe = stripes[((h ^ (h >>> 16)) & 0x7fffffff) % stripes.length];
+      synchronized (stripe) {
+        LoaderAwareCache<BeanDescriptor<?>, PropertyMask> masks = stripe.get(properties);
+        if (masks == null) {
+          masks = createDescriptorsCache();
+          stripe.put(properties, masks);
+        }
+        return masks;
+      }
+    }
+
+    int size() {
+      int size = 0;
+      for (Stripe stripe : stripes) {
+        synchronized (stripe) {
+          size += stripe.size();
+        }
+      }
+      return size;
+    }
+  }
+
+  private final static class Stripe
+    extends LinkedHashMap<Set<String>, LoaderAwareCache<BeanDescriptor<?>, PropertyMask>> {
+    private final int maxSize;
+
+    Stripe(int maxSize) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(
+      Map.Entry<Set<String>, LoaderAwareCache<BeanDescriptor<?>, PropertyMask>> eldest) {
+      return size() > maxSize;
+    }
+  }
 }
@@ -15,11 +15,16 @@
 import org.springframework.http.converter.HttpMessageNotWritableException;
 
 import com.owlike.genson.annotation.WithBeanView;
+import com.owlike.genson.reflect.LoaderAwareCache;
 import com.owlike.genson.stream.ObjectWriter;
 
 public class GensonMessageConverter extends AbstractHttpMessageConverter<Object> {
+  private final static int MAX_CACHED_CODECS = 1024;
 
   private final Genson genson;
+  // the codecs of the parameter types and of the runtime types of the returned values
+  private final LoaderAwareCache<Type, Codec<Object>> codecs =
+    LoaderAwareCache.ofTypes("springCodecs", MAX_CACHED_CODECS);
 
   public static final Charset DEFAULT_CHARSET = Charset.forName("UTF-8");
 
@@ -44,14 +49,13 @@ protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
       type = mp.getGenericParameterType();
     }
 
-    GenericType<?> genericType = GenericType.of(type);
+    Codec<Object> codec = codecFor(type);
 
     if (ann != null)
-      return genson.deserialize(genericType,
-        genson.createReader(inputMessage.getBody()),
+      return codec.read(genson.createReader(inputMessage.getBody()),
         new Context(genson, Arrays.asList(ann.views())));
     else
-      return genson.deserialize(genericType, genson.createReader(inputMessage.getBody()), new Context(genson));
+      return codec.read(genson.createReader(inputMessage.getBody()), new Context(genson));
   }
 
   @Override
@@ -59,17 +63,22 @@ protected boolean supports(Class<?> clazz) {
     return true;
   }
 
-  @SuppressWarnings("unchecked")
   @Override
   protected void writeInternal(Object t, HttpOutputMessage outputMessage) throws IOException,
     HttpMessageNotWritableException {
     ObjectWriter writer = genson.createWriter(outputMessage.getBody());
     MethodParameter mp = ThreadLocalHolder.get("__GENSON$return_param", MethodParameter.class);
     WithBeanView ann = mp != null ? mp.getMethodAnnotation(WithBeanView.class) : null;
+    // the values are serialized using their runtime type
+    Codec<Object> codec = codecFor(t != null ? t.getClass() : Object.class);
     if (ann != null)
-      genson.serialize(t, writer, new Context(genson, Arrays.asList(ann.views())));
+      codec.write(t, writer, new Context(genson, Arrays.asList(ann.views())));
     else
-      genson.serialize(t, writer, new Context(genson));
-    writer.flush();
+      codec.write(t, writer, new Context(genson));
+  }
+
+  private Codec<Object> codecFor(Type type) {
+    Codec<Object> codec = codecs.get(type);
+    return codec != null ? codec : codecs.putIfAbsent(type, genson.codecFor(GenericType.of(type)));
   }
 }
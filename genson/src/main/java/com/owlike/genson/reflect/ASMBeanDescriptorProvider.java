@@ -0,0 +1,347 @@
+package com.owlike.genson.reflect;
+
+import static com.owlike.genson.reflect.TypeUtil.getRawClass;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.owlike.genson.Context;
+import com.owlike.genson.Genson;
+import com.owlike.genson.Wrapper;
+import com.owlike.genson.convert.DefaultConverters;
+import com.owlike.genson.stream.ObjectReader;
+import com.owlike.genson.stream.ObjectWriter;
+import com.owlike.genson.stream.PropertyNameMatcher;
+import com.owlike.genson.stream.ValueType;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * A BeanDescriptorProvider that generates with ASM a BeanDescriptor class for each bean, extending
+ * {@link GeneratedBeanDescriptor}. The generated serialization writes the properties one after the
+ * other and the deserialization uses a switch on the ordinal of the matched property name, instead of
+ * iterating over the properties.
+ * <p/>
+ * The properties of type String or of a primitive type other than byte and char, that are public
+ * fields or use public getters and setters of public classes and that use the default converters, are
+ * read and written directly without boxing. The other ones are serialized and deserialized with their
+ * PropertyAccessor and PropertyMutator, as done by {@link BeanDescriptor}. If the class can not be
+ * generated a standard BeanDescriptor is used.
+ * <p/>
+ * It is disabled by default, to enable it:
+ * <p/>
+ * <pre>
+ * new GensonBuilder().useGeneratedBeanCodecs(true).create();
+ * </pre>
+ * <p/>
+ * Like {@link ASMBeanPropertyFactory} it requires ASM to be on the classpath, both can be used together.
+ */
+public class ASMBeanDescriptorProvider extends BaseBeanDescriptorProvider {
+  private final static String PACKAGE = GeneratedClassLoader.PACKAGE.replace('.', '/');
+  private final static AtomicInteger counter = new AtomicInteger();
+
+  private final static String OBJECT_WRITER = internalName(ObjectWriter.class);
+  private final static String OBJECT_READER = internalName(ObjectReader.class);
+  private final static String BASE_CLASS = internalName(GeneratedBeanDescriptor.class);
+  private final static String WRITE_METHOD = "(Ljava/lang/Object;" + desc(ObjectWriter.class) + desc(Context.class) + ")V";
+  private final static String READ_METHOD = "(Ljava/lang/Object;" + desc(ObjectReader.class) + desc(Context.class) + ")V";
+
+  public ASMBeanDescriptorProvider(ContextualConverterFactory ctxConverterFactory, BeanPropertyFactory propertyFactory,
+                                   BeanMutatorAccessorResolver mutatorAccessorResolver, PropertyNameResolver nameResolver,
+                                   boolean useGettersAndSetters, boolean useFields, boolean favorEmptyCreators) {
+    super(ctxConverterFactory, propertyFactory, mutatorAccessorResolver, nameResolver, useGettersAndSetters,
+      useFields, favorEmptyCreators);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  protected <T> BeanDescriptor<T> create(Class<T> forClass, Type ofType, BeanCreator creator,
+                                         List<PropertyAccessor> accessors, Map<String, PropertyMutator> mutators,
+                                         Genson genson) {
+    try {
+      // the same order as the one used by the BeanDescriptor for the ordinals and the serialization
+      List<PropertyAccessor> sortedAccessors = new ArrayList<PropertyAccessor>(accessors);
+      Collections.sort(sortedAccessors, BeanDescriptor._readablePropsComparator);
+      PropertyNameMatcher matcher = new PropertyNameMatcher(mutators.keySet());
+      PropertyMutator[] mutatorsByOrdinal = new PropertyMutator[matcher.size()];
+      for (int ordinal = 0; ordinal < mutatorsByOrdinal.length; ordinal++)
+        mutatorsByOrdinal[ordinal] = mutators.get(matcher.name(ordinal));
+
+      String className = PACKAGE + forClass.getSimpleName() + "_Descriptor" + counter.incrementAndGet();
+      byte[] bytes = generate(className, sortedAccessors, mutatorsByOrdinal);
+      Class<?> clazz = GeneratedClassLoader.of(forClass).define(className, bytes);
+      return (BeanDescriptor<T>) clazz
+        .getConstructor(Class.class, Class.class, List.class, Map.class, BeanCreator.class, boolean.class)
+        .newInstance(forClass, getRawClass(ofType), accessors, mutators, creator, genson.failOnMissingProperty());
+    } catch (Exception e) {
+      return super.create(forClass, ofType, creator, accessors, mutators, genson);
+    } catch (LinkageError e) {
+      return super.create(forClass, ofType, creator, accessors, mutators, genson);
+    }
+  }
+
+  private byte[] generate(String className, List<PropertyAccessor> accessors, PropertyMutator[] mutators) {
+    ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+      // the stack map frames never need to merge two different classes, avoid loading them
+      @Override
+      protected String getCommonSuperClass(String type1, String type2) {
+        return "java/lang/Object";
+      }
+    };
+    cw.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, className, null,
+      BASE_CLASS, null);
+
+    String ctrDescriptor = "(Ljava/lang/Class;Ljava/lang/Class;Ljava/util/List;Ljava/util/Map;"
+      + desc(BeanCreator.class) + "Z)V";
+    MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", ctrDescriptor, null, null);
+    mv.visitCode();
+    for (int i = 0; i < 6; i++) mv.visitVarInsn(Opcodes.ALOAD, i);
+    mv.visitVarInsn(Opcodes.ILOAD, 6);
+    mv.visitMethodInsn(Opcodes.INVOKESPECIAL, BASE_CLASS, "<init>", ctrDescriptor, false);
+    mv.visitInsn(Opcodes.RETURN);
+    end(mv);
+
+    generateWriteProperties(cw, accessors);
+    generateReadProperties(cw, mutators);
+
+    cw.visitEnd();
+    return cw.toByteArray();
+  }
+
+  private void generateWriteProperties(ClassWriter cw, List<PropertyAccessor> accessors) {
+    MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PROTECTED, "writeProperties", WRITE_METHOD, null, null);
+    mv.visitCode();
+    for (int i = 0; i < accessors.size(); i++) {
+      PropertyAccessor accessor = accessors.get(i);
+      Member member = directMember(accessor);
+      Class<?> type = member != null ? accessor.getRawClass() : null;
+      if (member != null && isDirectType(type) && usesDefaultConverter(accessor.propertySerializer, type)) {
+        Label start = new Label(), end = new Label(), handler = new Label(), next = new Label();
+        mv.visitTryCatchBlock(start, end, handler, "java/lang/Throwable");
+        mv.visitLabel(start);
+        // value = ((DeclaringClass) bean).property
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitTypeInsn(Opcodes.CHECKCAST, internalName(accessor.getDeclaringClass()));
+        if (member instanceof Field) {
+          Field field = (Field) member;
+          mv.visitFieldInsn(Opcodes.GETFIELD, internalName(field.getDeclaringClass()), field.getName(), desc(type));
+        } else {
+          ASMBeanPropertyFactory.invoke(mv, (Method) member);
+        }
+        mv.visitVarInsn(org.objectweb.asm.Type.getType(type).getOpcode(Opcodes.ISTORE), 4);
+        // writer.writeEscapedName(escapedNames[i])
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, BASE_CLASS, "escapedNames", "[[C");
+        push(mv, i);
+        mv.visitInsn(Opcodes.AALOAD);
+        mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, OBJECT_WRITER, "writeEscapedName", "([C)L" + OBJECT_WRITER + ";",
+          true);
+        mv.visitInsn(Opcodes.POP);
+        // writer.writeValue(value)
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitVarInsn(org.objectweb.asm.Type.getType(type).getOpcode(Opcodes.ILOAD), 4);
+        if (type == double.class || type == float.class || type == String.class) {
+          mv.visitMethodInsn(Opcodes.INVOKESTATIC, BASE_CLASS, "writeValue",
+            "(L" + OBJECT_WRITER + ";" + desc(type) + ")V", false);
+        } else {
+          mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, OBJECT_WRITER, "writeValue",
+            "(" + desc(type) + ")L" + OBJECT_WRITER + ";", true);
+          mv.visitInsn(Opcodes.POP);
+        }
+        mv.visitLabel(end);
+        mv.visitJumpInsn(Opcodes.GOTO, next);
+        // throw couldNotSerialize(accessors[i], th)
+        mv.visitLabel(handler);
+        mv.visitVarInsn(Opcodes.ASTORE, 4);
+        loadArrayElement(mv, "accessors", PropertyAccessor.class, i);
+        mv.visitVarInsn(Opcodes.ALOAD, 4);
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC, BASE_CLASS, "couldNotSerialize",
+          "(" + desc(PropertyAccessor.class) + "Ljava/lang/Throwable;)Lcom/owlike/genson/JsonBindingException;", false);
+        mv.visitInsn(Opcodes.ATHROW);
+        mv.visitLabel(next);
+      } else {
+        // accessors[i].serialize(bean, writer, ctx)
+        loadArrayElement(mv, "accessors", PropertyAccessor.class, i);
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitVarInsn(Opcodes.ALOAD, 3);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, internalName(PropertyAccessor.class), "serialize", WRITE_METHOD,
+          false);
+      }
+    }
+    mv.visitInsn(Opcodes.RETURN);
+    end(mv);
+  }
+
+  private void generateReadProperties(ClassWriter cw, PropertyMutator[] mutators) {
+    MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PROTECTED, "readProperties", READ_METHOD, null, null);
+    mv.visitCode();
+    Label loop = new Label(), done = new Label(), unknown = new Label();
+    Label[] cases = new Label[mutators.length];
+    for (int ordinal = 0; ordinal < cases.length; ordinal++) cases[ordinal] = new Label();
+
+    // while (reader.hasNext())
+    mv.visitLabel(loop);
+    mv.visitVarInsn(Opcodes.ALOAD, 2);
+    mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, OBJECT_READER, "hasNext", "()Z", true);
+    mv.visitJumpInsn(Opcodes.IFEQ, done);
+    // switch (reader.nextAndMatch(nameMatcher))
+    mv.visitVarInsn(Opcodes.ALOAD, 2);
+    mv.visitVarInsn(Opcodes.ALOAD, 0);
+    mv.visitFieldInsn(Opcodes.GETFIELD, BASE_CLASS, "nameMatcher", desc(PropertyNameMatcher.class));
+    mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, OBJECT_READER, "nextAndMatch",
+      "(" + desc(PropertyNameMatcher.class) + ")I", true);
+    if (cases.length > 0) mv.visitTableSwitchInsn(0, cases.length - 1, unknown, cases);
+    else mv.visitInsn(Opcodes.POP);
+
+    for (int ordinal = 0; ordinal < cases.length; ordinal++) {
+      PropertyMutator mutator = mutators[ordinal];
+      mv.visitLabel(cases[ordinal]);
+      Member member = directMember(mutator);
+      Class<?> type = member != null ? mutator.getRawClass() : null;
+      if (member != null && isDirectType(type) && usesDefaultConverter(mutator.propertyDeserializer, type)) {
+        Label start = new Label(), end = new Label(), handler = new Label(), nullValue = new Label();
+        // nulls are handled by the converters
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, OBJECT_READER, "getValueType", "()" + desc(ValueType.class), true);
+        mv.visitFieldInsn(Opcodes.GETSTATIC, internalName(ValueType.class), "NULL", desc(ValueType.class));
+        mv.visitJumpInsn(Opcodes.IF_ACMPEQ, nullValue);
+
+        mv.visitTryCatchBlock(start, end, handler, "java/lang/Throwable");
+        mv.visitLabel(start);
+        // ((DeclaringClass) bean).property = reader.valueAsXXX()
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitTypeInsn(Opcodes.CHECKCAST, internalName(mutator.getDeclaringClass()));
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, OBJECT_READER, readMethod(type), "()" + desc(type), true);
+        if (member instanceof Field) {
+          Field field = (Field) member;
+          mv.visitFieldInsn(Opcodes.PUTFIELD, internalName(field.getDeclaringClass()), field.getName(), desc(type));
+        } else {
+          ASMBeanPropertyFactory.invoke(mv, (Method) member);
+          ASMBeanPropertyFactory.pop(mv, ((Method) member).getReturnType());
+        }
+        mv.visitLabel(end);
+        mv.visitJumpInsn(Opcodes.GOTO, loop);
+        // throw couldNotDeserialize(mutators[ordinal], th)
+        mv.visitLabel(handler);
+        mv.visitVarInsn(Opcodes.ASTORE, 4);
+        loadArrayElement(mv, "mutators", PropertyMutator.class, ordinal);
+        mv.visitVarInsn(Opcodes.ALOAD, 4);
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC, BASE_CLASS, "couldNotDeserialize",
+          "(" + desc(PropertyMutator.class) + "Ljava/lang/Throwable;)Lcom/owlike/genson/JsonBindingException;", false);
+        mv.visitInsn(Opcodes.ATHROW);
+        mv.visitLabel(nullValue);
+      }
+      // mutators[ordinal].deserialize(bean, reader, ctx)
+      loadArrayElement(mv, "mutators", PropertyMutator.class, ordinal);
+      mv.visitVarInsn(Opcodes.ALOAD, 1);
+      mv.visitVarInsn(Opcodes.ALOAD, 2);
+      mv.visitVarInsn(Opcodes.ALOAD, 3);
+      mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, internalName(PropertyMutator.class), "deserialize", READ_METHOD, false);
+      mv.visitJumpInsn(Opcodes.GOTO, loop);
+    }
+
+    // unknownProperty(reader)
+    mv.visitLabel(unknown);
+    mv.visitVarInsn(Opcodes.ALOAD, 0);
+    mv.visitVarInsn(Opcodes.ALOAD, 2);
+    mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, BASE_CLASS, "unknownProperty", "(" + desc(ObjectReader.class) + ")V",
+      false);
+    mv.visitJumpInsn(Opcodes.GOTO, loop);
+
+    mv.visitLabel(done);
+    mv.visitInsn(Opcodes.RETURN);
+    end(mv);
+  }
+
+  /*
+   * Returns the field or method used by property if the generated code can use it directly, the
+   * properties are either the reflection based ones or the ones generated by ASMBeanPropertyFactory.
+   */
+  private static Member directMember(BeanProperty property) {
+    Member member = null;
+    Class<?> memberType = null;
+    if (property.getClass() == PropertyAccessor.FieldAccessor.class
+      || property instanceof ASMBeanPropertyFactory.GeneratedFieldAccessor) {
+      Field field = ((PropertyAccessor.FieldAccessor) property)._field;
+      member = field;
+      memberType = field.getType();
+    } else if (property.getClass() == PropertyAccessor.MethodAccessor.class
+      || property instanceof ASMBeanPropertyFactory.GeneratedMethodAccessor) {
+      Method getter = ((PropertyAccessor.MethodAccessor) property)._getter;
+      member = getter;
+      memberType = getter.getReturnType();
+    } else if (property.getClass() == PropertyMutator.FieldMutator.class
+      || property instanceof ASMBeanPropertyFactory.GeneratedFieldMutator) {
+      Field field = ((PropertyMutator.FieldMutator) property)._field;
+      if (Modifier.isFinal(field.getModifiers())) return null;
+      member = field;
+      memberType = field.getType();
+    } else if (property.getClass() == PropertyMutator.MethodMutator.class
+      || property instanceof ASMBeanPropertyFactory.GeneratedMethodMutator) {
+      Method setter = ((PropertyMutator.MethodMutator) property)._setter;
+      member = setter;
+      memberType = setter.getParameterTypes()[0];
+    }
+
+    if (member == null || memberType != property.getRawClass()
+      || !ASMBeanPropertyFactory.isAccessible(member) || Modifier.isStatic(member.getModifiers()))
+      return null;
+    return member;
+  }
+
+  private static boolean isDirectType(Class<?> type) {
+    return type == int.class || type == long.class || type == double.class || type == boolean.class
+      || type == float.class || type == short.class || type == String.class;
+  }
+
+  private static boolean usesDefaultConverter(Object converter, Class<?> type) {
+    if (type == String.class) return Wrapper.unwrapDecorators(converter) == DefaultConverters.StringConverter.instance;
+    return PrimitiveType.of(type, converter) != null;
+  }
+
+  private static String readMethod(Class<?> type) {
+    if (type == String.class) return "valueAsString";
+    String name = type.getName();
+    return "valueAs" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+  }
+
+  private static void loadArrayElement(MethodVisitor mv, String field, Class<?> elementType, int index) {
+    mv.visitVarInsn(Opcodes.ALOAD, 0);
+    mv.visitFieldInsn(Opcodes.GETFIELD, BASE_CLASS, field, "[" + desc(elementType));
+    push(mv, index);
+    mv.visitInsn(Opcodes.AALOAD);
+  }
+
+  private static void push(MethodVisitor mv, int value) {
+    if (value <= 5) mv.visitInsn(Opcodes.ICONST_0 + value);
+    else if (value <= Byte.MAX_VALUE) mv.visitIntInsn(Opcodes.BIPUSH, value);
+    else if (value <= Short.MAX_VALUE) mv.visitIntInsn(Opcodes.SIPUSH, value);
+    else mv.visitLdcInsn(value);
+  }
+
+  private static void end(MethodVisitor mv) {
+    mv.visitMaxs(0, 0);
+    mv.visitEnd();
+  }
+
+  private static String internalName(Class<?> clazz) {
+    return ASMBeanPropertyFactory.internalName(clazz);
+  }
+
+  private static String desc(Class<?> clazz) {
+    return org.objectweb.asm.Type.getDescriptor(clazz);
+  }
+}
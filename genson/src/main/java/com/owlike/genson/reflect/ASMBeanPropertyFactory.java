@@ -0,0 +1,505 @@
+package com.owlike.genson.reflect;
+
+import static com.owlike.genson.reflect.TypeUtil.getRawClass;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.owlike.genson.Genson;
+import com.owlike.genson.stream.ObjectReader;
+import com.owlike.genson.stream.ObjectWriter;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * A BeanPropertyFactory that uses ASM library to generate, for each property, a class that reads or
+ * writes it with a direct field access or method call instead of using reflection. The generated
+ * classes extend the standard reflection based accessors, mutators and creators, so they behave
+ * exactly the same (name, type, annotations, priority, exceptions), only faster.
+ * <p/>
+ * The generated classes are defined in their own class loader, so they can use only public members of
+ * public classes. For other members this factory returns null and the next factory in the chain
+ * (usually the {@link com.owlike.genson.reflect.BeanPropertyFactory.StandardFactory StandardFactory})
+ * creates a reflection based property. It is disabled by default, to enable it:
+ * <p/>
+ * <pre>
+ * new GensonBuilder().useGeneratedAccessors(true).create();
+ * </pre>
+ * <p/>
+ * ASM must be on the classpath, it is included in the genson jar but is an optional dependency in the
+ * maven pom.
+ */
+public class ASMBeanPropertyFactory implements BeanPropertyFactory {
+  private final static String PACKAGE = GeneratedClassLoader.PACKAGE.replace('.', '/');
+  private final static AtomicInteger counter = new AtomicInteger();
+
+  public PropertyAccessor createAccessor(String name, Field field, Type ofType, Genson genson) {
+    if (!isAccessible(field) || Modifier.isStatic(field.getModifiers())) return null;
+
+    String className = className(field, "Accessor");
+    ClassWriter cw = begin(className, GeneratedFieldAccessor.class, String.class, Field.class, Type.class,
+      Class.class);
+    MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PROTECTED, "get", "(Ljava/lang/Object;)Ljava/lang/Object;",
+      null, null);
+    mv.visitCode();
+    mv.visitVarInsn(Opcodes.ALOAD, 1);
+    mv.visitTypeInsn(Opcodes.CHECKCAST, internalName(field.getDeclaringClass()));
+    mv.visitFieldInsn(Opcodes.GETFIELD, internalName(field.getDeclaringClass()), field.getName(),
+      org.objectweb.asm.Type.getDescriptor(field.getType()));
+    box(mv, field.getType());
+    mv.visitInsn(Opcodes.ARETURN);
+    end(mv);
+    if (field.getType().isPrimitive()) writePrimitive(cw, field);
+
+    Type expandedType = TypeUtil.expandType(field.getGenericType(), ofType);
+    return newInstance(field, className, cw, new Class<?>[]{String.class, Field.class, Type.class, Class.class},
+      name, field, expandedType, getRawClass(ofType));
+  }
+
+  public PropertyAccessor createAccessor(String name, Method method, Type ofType, Genson genson) {
+    if (!isAccessible(method) || Modifier.isStatic(method.getModifiers())) return null;
+
+    String className = className(method, "Accessor");
+    ClassWriter cw = begin(className, GeneratedMethodAccessor.class, String.class, Method.class, Type.class,
+      Class.class);
+    MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PROTECTED, "get", "(Ljava/lang/Object;)Ljava/lang/Object;",
+      null, null);
+    mv.visitCode();
+    mv.visitVarInsn(Opcodes.ALOAD, 1);
+    mv.visitTypeInsn(Opcodes.CHECKCAST, internalName(method.getDeclaringClass()));
+    invoke(mv, method);
+    box(mv, method.getReturnType());
+    mv.visitInsn(Opcodes.ARETURN);
+    end(mv);
+
+    Type expandedType = TypeUtil.expandType(method.getGenericReturnType(), ofType);
+    return newInstance(method, className, cw, new Class<?>[]{String.class, Method.class, Type.class, Class.class},
+      name, method, expandedType, getRawClass(ofType));
+  }
+
+  public PropertyMutator createMutator(String name, Field field, Type ofType, Genson genson) {
+    if (!isAccessible(field) || Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())
+      || !isAccessible(field.getType())) return null;
+
+    String className = className(field, "Mutator");
+    ClassWriter cw = begin(className, GeneratedFieldMutator.class, String.class, Field.class, Type.class,
+      Class.class);
+    MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PROTECTED, "set", "(Ljava/lang/Object;Ljava/lang/Object;)V",
+      null, null);
+    mv.visitCode();
+    mv.visitVarInsn(Opcodes.ALOAD, 1);
+    mv.visitTypeInsn(Opcodes.CHECKCAST, internalName(field.getDeclaringClass()));
+    mv.visitVarInsn(Opcodes.ALOAD, 2);
+    unbox(mv, field.getType());
+    mv.visitFieldInsn(Opcodes.PUTFIELD, internalName(field.getDeclaringClass()), field.getName(),
+      org.objectweb.asm.Type.getDescriptor(field.getType()));
+    mv.visitInsn(Opcodes.RETURN);
+    end(mv);
+    if (field.getType().isPrimitive()) readPrimitive(cw, field);
+
+    Type expandedType = TypeUtil.expandType(field.getGenericType(), ofType);
+    return newInstance(field, className, cw, new Class<?>[]{String.class, Field.class, Type.class, Class.class},
+      name, field, expandedType, getRawClass(ofType));
+  }
+
+  public PropertyMutator createMutator(String name, Method method, Type ofType, Genson genson) {
+    if (!isAccessible(method) || Modifier.isStatic(method.getModifiers())
+      || !areAccessible(method.getParameterTypes())) return null;
+
+    String className = className(method, "Mutator");
+    ClassWriter cw = begin(className, GeneratedMethodMutator.class, String.class, Method.class, Type.class,
+      Class.class);
+    MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PROTECTED, "set", "(Ljava/lang/Object;Ljava/lang/Object;)V",
+      null, null);
+    mv.visitCode();
+    mv.visitVarInsn(Opcodes.ALOAD, 1);
+    mv.visitTypeInsn(Opcodes.CHECKCAST, internalName(method.getDeclaringClass()));
+    mv.visitVarInsn(Opcodes.ALOAD, 2);
+    unbox(mv, method.getParameterTypes()[0]);
+    invoke(mv, method);
+    // some setters return this or the previous value
+    pop(mv, method.getReturnType());
+    mv.visitInsn(Opcodes.RETURN);
+    end(mv);
+
+    Type expandedType = TypeUtil.expandType(method.getGenericParameterTypes()[0], ofType);
+    return newInstance(method, className, cw, new Class<?>[]{String.class, Method.class, Type.class, Class.class},
+      name, method, expandedType, getRawClass(ofType));
+  }
+
+  public BeanCreator createCreator(Type ofType, Constructor<?> ctr, String[] resolvedNames, Genson genson) {
+    if (!isAccessible(ctr) || Modifier.isAbstract(ctr.getDeclaringClass().getModifiers())
+      || !areAccessible(ctr.getParameterTypes())) return null;
+
+    String className = className(ctr, "Creator");
+    ClassWriter cw = begin(className, GeneratedConstructorCreator.class, Class.class, Constructor.class,
+      String[].class, Type[].class);
+    MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PROTECTED, "newInstance", "([Ljava/lang/Object;)Ljava/lang/Object;",
+      null, null);
+    mv.visitCode();
+    mv.visitTypeInsn(Opcodes.NEW, internalName(ctr.getDeclaringClass()));
+    mv.visitInsn(Opcodes.DUP);
+    loadArguments(mv, ctr.getParameterTypes());
+    mv.visitMethodInsn(Opcodes.INVOKESPECIAL, internalName(ctr.getDeclaringClass()), "<init>",
+      org.objectweb.asm.Type.getConstructorDescriptor(ctr), false);
+    mv.visitInsn(Opcodes.ARETURN);
+    end(mv);
+
+    return newInstance(ctr, className, cw, new Class<?>[]{Class.class, Constructor.class, String[].class, Type[].class},
+      getRawClass(ofType), ctr, resolvedNames, expandTypes(ctr.getGenericParameterTypes(), ofType));
+  }
+
+  public BeanCreator createCreator(Type ofType, Method method, String[] resolvedNames, Genson genson) {
+    if (!isAccessible(method) || !Modifier.isStatic(method.getModifiers())
+      || !areAccessible(method.getParameterTypes())) return null;
+
+    String className = className(method, "Creator");
+    ClassWriter cw = begin(className, GeneratedMethodCreator.class, Method.class, String[].class, Type[].class,
+      Class.class);
+    MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PROTECTED, "invoke", "([Ljava/lang/Object;)Ljava/lang/Object;",
+      null, null);
+    mv.visitCode();
+    loadArguments(mv, method.getParameterTypes());
+    invoke(mv, method);
+    box(mv, method.getReturnType());
+    mv.visitInsn(Opcodes.ARETURN);
+    end(mv);
+
+    return newInstance(method, className, cw, new Class<?>[]{Method.class, String[].class, Type[].class, Class.class},
+      method, resolvedNames, expandTypes(method.getGenericParameterTypes(), ofType), getRawClass(ofType));
+  }
+
+  private Type[] expandTypes(Type[] typesToExpand, Type inContext) {
+    Type[] expandedTypes = new Type[typesToExpand.length];
+    for (int i = 0; i < typesToExpand.length; i++) {
+      expandedTypes[i] = TypeUtil.expandType(typesToExpand[i], inContext);
+    }
+    return expandedTypes;
+  }
+
+  static boolean isAccessible(Member member) {
+    return Modifier.isPublic(member.getModifiers()) && isAccessible(member.getDeclaringClass());
+  }
+
+  static boolean isAccessible(Class<?> clazz) {
+    while (clazz.isArray()) clazz = clazz.getComponentType();
+    return clazz.isPrimitive() || Modifier.isPublic(clazz.getModifiers());
+  }
+
+  private static boolean areAccessible(Class<?>[] classes) {
+    for (Class<?> clazz : classes) {
+      if (!isAccessible(clazz)) return false;
+    }
+    return true;
+  }
+
+  private static String className(Member member, String kind) {
+    String name = member instanceof Constructor ? "new" : member.getName();
+    return PACKAGE + member.getDeclaringClass().getSimpleName() + "_" + name + "_" + kind + counter.incrementAndGet();
+  }
+
+  static String internalName(Class<?> clazz) {
+    return org.objectweb.asm.Type.getInternalName(clazz);
+  }
+
+  // implements GeneratedFieldAccessor.write, the value of the field is written without being boxed
+  private static void writePrimitive(ClassWriter cw, Field field) {
+    Class<?> type = field.getType();
+    MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PROTECTED, "write",
+      "(Ljava/lang/Object;" + org.objectweb.asm.Type.getDescriptor(ObjectWriter.class) + ")V", null, null);
+    mv.visitCode();
+    mv.visitVarInsn(Opcodes.ALOAD, 2);
+    mv.visitVarInsn(Opcodes.ALOAD, 1);
+    mv.visitTypeInsn(Opcodes.CHECKCAST, internalName(field.getDeclaringClass()));
+    mv.visitFieldInsn(Opcodes.GETFIELD, internalName(field.getDeclaringClass()), field.getName(),
+      org.objectweb.asm.Type.getDescriptor(type));
+    // same conversions as PrimitiveType.write
+    Method write;
+    if (type == float.class || type == double.class) {
+      write = method(GeneratedFieldAccessor.class, "writeValue", ObjectWriter.class, type);
+    } else if (type == char.class) {
+      invoke(mv, method(String.class, "valueOf", char.class));
+      write = method(ObjectWriter.class, "writeValue", String.class);
+    } else {
+      write = method(ObjectWriter.class, "writeValue", type == byte.class ? short.class : type);
+    }
+    invoke(mv, write);
+    pop(mv, write.getReturnType());
+    mv.visitInsn(Opcodes.RETURN);
+    end(mv);
+  }
+
+  // implements GeneratedFieldMutator.read, the value is set without being boxed
+  private static void readPrimitive(ClassWriter cw, Field field) {
+    Class<?> type = field.getType();
+    MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PROTECTED, "read",
+      "(Ljava/lang/Object;" + org.objectweb.asm.Type.getDescriptor(ObjectReader.class) + ")V", null, null);
+    mv.visitCode();
+    mv.visitVarInsn(Opcodes.ALOAD, 1);
+    mv.visitTypeInsn(Opcodes.CHECKCAST, internalName(field.getDeclaringClass()));
+    mv.visitVarInsn(Opcodes.ALOAD, 2);
+    // same conversions as PrimitiveType.read
+    if (type == char.class) {
+      invoke(mv, method(GeneratedFieldMutator.class, "valueAsChar", ObjectReader.class));
+    } else if (type == byte.class) {
+      invoke(mv, method(ObjectReader.class, "valueAsInt"));
+      mv.visitInsn(Opcodes.I2B);
+    } else {
+      String name = type.getName();
+      invoke(mv, method(ObjectReader.class, "valueAs" + Character.toUpperCase(name.charAt(0)) + name.substring(1)));
+    }
+    mv.visitFieldInsn(Opcodes.PUTFIELD, internalName(field.getDeclaringClass()), field.getName(),
+      org.objectweb.asm.Type.getDescriptor(type));
+    mv.visitInsn(Opcodes.RETURN);
+    end(mv);
+  }
+
+  private static Method method(Class<?> clazz, String name, Class<?>... parameterTypes) {
+    try {
+      return clazz.getDeclaredMethod(name, parameterTypes);
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  // starts a class extending superClass with a constructor calling the super constructor with the same arguments
+  private static ClassWriter begin(String className, Class<?> superClass, Class<?>... ctrParameterTypes) {
+    ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+    cw.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, className, null,
+      internalName(superClass), null);
+
+    org.objectweb.asm.Type[] argTypes = new org.objectweb.asm.Type[ctrParameterTypes.length];
+    for (int i = 0; i < argTypes.length; i++) argTypes[i] = org.objectweb.asm.Type.getType(ctrParameterTypes[i]);
+    String descriptor = org.objectweb.asm.Type.getMethodDescriptor(org.objectweb.asm.Type.VOID_TYPE, argTypes);
+
+    MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", descriptor, null, null);
+    mv.visitCode();
+    mv.visitVarInsn(Opcodes.ALOAD, 0);
+    for (int i = 0; i < argTypes.length; i++) mv.visitVarInsn(Opcodes.ALOAD, i + 1);
+    mv.visitMethodInsn(Opcodes.INVOKESPECIAL, internalName(superClass), "<init>", descriptor, false);
+    mv.visitInsn(Opcodes.RETURN);
+    end(mv);
+    return cw;
+  }
+
+  private static void end(MethodVisitor mv) {
+    mv.visitMaxs(0, 0);
+    mv.visitEnd();
+  }
+
+  static void invoke(MethodVisitor mv, Method method) {
+    Class<?> declaringClass = method.getDeclaringClass();
+    int opcode;
+    if (Modifier.isStatic(method.getModifiers())) opcode = Opcodes.INVOKESTATIC;
+    else if (declaringClass.isInterface()) opcode = Opcodes.INVOKEINTERFACE;
+    else opcode = Opcodes.INVOKEVIRTUAL;
+    mv.visitMethodInsn(opcode, internalName(declaringClass), method.getName(),
+      org.objectweb.asm.Type.getMethodDescriptor(method), declaringClass.isInterface());
+  }
+
+  // pushes each element of the Object[] argument, converted to the parameter type
+  private static void loadArguments(MethodVisitor mv, Class<?>[] parameterTypes) {
+    for (int i = 0; i < parameterTypes.length; i++) {
+      mv.visitVarInsn(Opcodes.ALOAD, 1);
+      if (i <= 5) mv.visitInsn(Opcodes.ICONST_0 + i);
+      else if (i <= Byte.MAX_VALUE) mv.visitIntInsn(Opcodes.BIPUSH, i);
+      else mv.visitIntInsn(Opcodes.SIPUSH, i);
+      mv.visitInsn(Opcodes.AALOAD);
+      unbox(mv, parameterTypes[i]);
+    }
+  }
+
+  static void box(MethodVisitor mv, Class<?> type) {
+    if (!type.isPrimitive()) return;
+    if (type == void.class) {
+      mv.visitInsn(Opcodes.ACONST_NULL);
+      return;
+    }
+    Class<?> wrapper = TypeUtil.wrap(type);
+    mv.visitMethodInsn(Opcodes.INVOKESTATIC, internalName(wrapper), "valueOf",
+      "(" + org.objectweb.asm.Type.getDescriptor(type) + ")" + org.objectweb.asm.Type.getDescriptor(wrapper), false);
+  }
+
+  // casts the value on the stack to type, primitives must be given as their exact wrapper: a value of another
+  // type fails with a ClassCastException instead of being silently narrowed
+  static void unbox(MethodVisitor mv, Class<?> type) {
+    if (!type.isPrimitive()) {
+      if (type != Object.class) mv.visitTypeInsn(Opcodes.CHECKCAST, internalName(type));
+      return;
+    }
+    String wrapper = internalName(TypeUtil.wrap(type));
+    mv.visitTypeInsn(Opcodes.CHECKCAST, wrapper);
+    mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, wrapper, type.getName() + "Value",
+      "()" + org.objectweb.asm.Type.getDescriptor(type), false);
+  }
+
+  static void pop(MethodVisitor mv, Class<?> type) {
+    if (type == void.class) return;
+    if (type == long.class || type == double.class) mv.visitInsn(Opcodes.POP2);
+    else mv.visitInsn(Opcodes.POP);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T newInstance(Member member, String className, ClassWriter cw, Class<?>[] ctrParameterTypes,
+                           Object... args) {
+    cw.visitEnd();
+    try {
+      Class<?> clazz = GeneratedClassLoader.of(member.getDeclaringClass()).define(className, cw.toByteArray());
+      return (T) clazz.getConstructor(ctrParameterTypes).newInstance(args);
+    } catch (Exception e) {
+      // let the next factory create a reflection based property
+      return null;
+    } catch (LinkageError e) {
+      return null;
+    }
+  }
+
+  /*
+   * The base classes of the generated code, they wrap the exceptions the same way as the reflection
+   * based implementations.
+   */
+
+  public abstract static class GeneratedFieldAccessor extends PropertyAccessor.FieldAccessor {
+    protected GeneratedFieldAccessor(String name, Field field, Type type, Class<?> concreteClass) {
+      super(name, field, type, concreteClass);
+    }
+
+    @Override
+    public Object access(final Object target) {
+      try {
+        return get(target);
+      } catch (Exception e) {
+        throw couldNotAccess(e);
+      }
+    }
+
+    protected abstract Object get(Object target) throws Exception;
+
+    @Override
+    void writePrimitive(Object target, ObjectWriter writer, PrimitiveType primitiveType)
+      throws IllegalAccessException {
+      write(target, writer);
+    }
+
+    // generated for the fields of a primitive type, the other subclasses read the field through reflection
+    protected void write(Object target, ObjectWriter writer) throws IllegalAccessException {
+      PrimitiveType.forType(_field.getType()).write(_field, target, writer);
+    }
+
+    protected static void writeValue(ObjectWriter writer, double value) {
+      PrimitiveType.writeValue(writer, value);
+    }
+
+    protected static void writeValue(ObjectWriter writer, float value) {
+      PrimitiveType.writeValue(writer, value);
+    }
+  }
+
+  public abstract static class GeneratedMethodAccessor extends PropertyAccessor.MethodAccessor {
+    protected GeneratedMethodAccessor(String name, Method getter, Type type, Class<?> concreteClass) {
+      super(name, getter, type, concreteClass);
+    }
+
+    @Override
+    public Object access(final Object target) {
+      try {
+        return get(target);
+      } catch (Exception e) {
+        throw couldNotAccess(e);
+      }
+    }
+
+    protected abstract Object get(Object target) throws Exception;
+  }
+
+  public abstract static class GeneratedFieldMutator extends PropertyMutator.FieldMutator {
+    protected GeneratedFieldMutator(String name, Field field, Type type, Class<?> concreteClass) {
+      super(name, field, type, concreteClass);
+    }
+
+    @Override
+    public void mutate(Object target, Object value) {
+      try {
+        set(target, value);
+      } catch (Exception e) {
+        throw couldNotMutate(e);
+      }
+    }
+
+    protected abstract void set(Object target, Object value) throws Exception;
+
+    @Override
+    void readPrimitive(Object target, ObjectReader reader, PrimitiveType primitiveType)
+      throws IllegalAccessException {
+      read(target, reader);
+    }
+
+    // generated for the fields of a primitive type, the other subclasses set the field through reflection
+    protected void read(Object target, ObjectReader reader) throws IllegalAccessException {
+      PrimitiveType.forType(_field.getType()).read(_field, target, reader);
+    }
+
+    protected static char valueAsChar(ObjectReader reader) {
+      return PrimitiveType.valueAsChar(reader);
+    }
+  }
+
+  public abstract static class GeneratedMethodMutator extends PropertyMutator.MethodMutator {
+    protected GeneratedMethodMutator(String name, Method setter, Type type, Class<?> concreteClass) {
+      super(name, setter, type, concreteClass);
+    }
+
+    @Override
+    public void mutate(Object target, Object value) {
+      try {
+        set(target, value);
+      } catch (Exception e) {
+        throw couldNotMutate(e);
+      }
+    }
+
+    protected abstract void set(Object target, Object value) throws Exception;
+  }
+
+  public abstract static class GeneratedConstructorCreator extends BeanCreator.ConstructorBeanCreator {
+    protected GeneratedConstructorCreator(Class<?> ofClass, Constructor<?> constructor, String[] parameterNames,
+                                          Type[] expandedParameterTypes) {
+      super(ofClass, constructor, parameterNames, expandedParameterTypes);
+    }
+
+    @Override
+    public Object create(Object... args) {
+      try {
+        return newInstance(args);
+      } catch (Exception e) {
+        throw couldNotCreate(e);
+      }
+    }
+
+    protected abstract Object newInstance(Object[] args) throws Exception;
+  }
+
+  public abstract static class GeneratedMethodCreator extends BeanCreator.MethodBeanCreator {
+    protected GeneratedMethodCreator(Method method, String[] parameterNames, Type[] expandedParameterTypes,
+                                     Class<?> concreteClass) {
+      super(method, parameterNames, expandedParameterTypes, concreteClass);
+    }
+
+    @Override
+    public Object create(Object... args) {
+      try {
+        return ofClass.cast(invoke(args));
+      } catch (Exception e) {
+        throw couldNotCreate(e);
+      }
+    }
+
+    protected abstract Object invoke(Object[] args) throws Exception;
+  }
+}
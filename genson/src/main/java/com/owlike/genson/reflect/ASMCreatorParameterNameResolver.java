@@ -8,9 +8,10 @@
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Arrays;
+import java.util.List;
 
+import com.owlike.genson.CacheStats;
 import com.owlike.genson.JsonBindingException;
 import org.objectweb.asm.*;
 
@@ -42,8 +43,12 @@ public final class ASMCreatorParameterNameResolver implements PropertyNameResolv
    * information.
    */
   private final boolean doThrowException;
-  private final Map<Constructor<?>, String[]> constructorParameterNames = new ConcurrentHashMap<Constructor<?>, String[]>();
-  private final Map<Method, String[]> methodParameterNames = new ConcurrentHashMap<Method, String[]>();
+  private final static int MAX_CACHED_MEMBERS = 4096;
+  // the names only depend on the class files, they are shared by all the resolvers
+  private final static LoaderAwareCache<Constructor<?>, String[]> constructorParameterNames =
+    LoaderAwareCache.ofMembers("constructorParameterNames", MAX_CACHED_MEMBERS);
+  private final static LoaderAwareCache<Method, String[]> methodParameterNames =
+    LoaderAwareCache.ofMembers("methodParameterNames", MAX_CACHED_MEMBERS);
 
   public ASMCreatorParameterNameResolver(boolean doThrowException) {
     this.doThrowException = doThrowException;
@@ -115,6 +120,13 @@ public String resolve(int parameterIdx, Method fromMethod) {
     return names[parameterIdx];
   }
 
+  /**
+   * @return the state of the caches of the constructor and method parameter names.
+   */
+  public static List<CacheStats> cacheStats() {
+    return Arrays.asList(constructorParameterNames.stats(), methodParameterNames.stats());
+  }
+
   private void _throwNoDebugInfo(String className) {
     throw new JsonBindingException(
       "Class "
@@ -126,12 +138,12 @@ private class ClassConstructorsVisitor extends ClassVisitor {
     private final static String CONSTRUCTOR_METHOD_NAME = "<init>";
 
     private final Class<?> forClass;
-    final Map<Constructor<?>, String[]> ctrParameterNames;
-    final Map<Method, String[]> methodParameterNames;
+    final LoaderAwareCache<Constructor<?>, String[]> ctrParameterNames;
+    final LoaderAwareCache<Method, String[]> methodParameterNames;
 
     public ClassConstructorsVisitor(Class<?> forClass,
-                                    Map<Constructor<?>, String[]> ctrParameterNames,
-                                    Map<Method, String[]> methodParameterNames) {
+                                    LoaderAwareCache<Constructor<?>, String[]> ctrParameterNames,
+                                    LoaderAwareCache<Method, String[]> methodParameterNames) {
       super(Opcodes.ASM5);
       this.forClass = forClass;
       this.ctrParameterNames = ctrParameterNames;
@@ -160,7 +172,7 @@ private abstract class BaseMethodVisitor extends MethodVisitor {
     protected boolean ztatic;
 
     public BaseMethodVisitor(Class<?> forClass, boolean ztatic, String desc,
-                             Map<Method, String[]> parameterNamesMap) {
+                             LoaderAwareCache<Method, String[]> parameterNamesMap) {
       super(Opcodes.ASM5);
       this.forClass = forClass;
       this.ztatic = ztatic;
@@ -225,11 +237,11 @@ protected Class<?> resolveClass(Type type) {
   }
 
   private class NameMethodVisitor extends BaseMethodVisitor {
-    private final Map<Method, String[]> parameterNamesMap;
+    private final LoaderAwareCache<Method, String[]> parameterNamesMap;
     private String name;
 
     public NameMethodVisitor(String name, Class<?> forClass, boolean ztatic, String desc,
-                             Map<Method, String[]> parameterNamesMap) {
+                             LoaderAwareCache<Method, String[]> parameterNamesMap) {
       super(forClass, ztatic, desc, parameterNamesMap);
       this.parameterNamesMap = parameterNamesMap;
       this.name = name;
@@ -246,7 +258,7 @@ public void visitEnd() {
         try {
           method = forClass.getMethod(name, javaTypes);
           parameterNamesMap
-            .put(method, paramNames.toArray(new String[paramNames.size()]));
+            .putIfAbsent(method, paramNames.toArray(new String[paramNames.size()]));
         } catch (SecurityException e) {
           throw new JsonBindingException(
             "Unable to locate method with signature " + signature(), e);
@@ -273,10 +285,10 @@ public String signature() {
   }
 
   private class ConstructorVisitor extends BaseMethodVisitor {
-    private final Map<Constructor<?>, String[]> parameterNamesMap;
+    private final LoaderAwareCache<Constructor<?>, String[]> parameterNamesMap;
 
     public ConstructorVisitor(Class<?> forClass, boolean ztatic, String desc,
-                              Map<Constructor<?>, String[]> parameterNamesMap) {
+                              LoaderAwareCache<Constructor<?>, String[]> parameterNamesMap) {
       super(forClass, ztatic, desc, methodParameterNames);
       this.parameterNamesMap = parameterNamesMap;
     }
@@ -291,7 +303,7 @@ public void visitEnd() {
 
         try {
           constructor = forClass.getDeclaredConstructor(javaTypes);
-          parameterNamesMap.put(constructor,
+          parameterNamesMap.putIfAbsent(constructor,
             paramNames.toArray(new String[paramNames.size()]));
         } catch (SecurityException e) {
           throw new JsonBindingException(
@@ -12,6 +12,7 @@
 import com.owlike.genson.Converter;
 import com.owlike.genson.Factory;
 import com.owlike.genson.Genson;
+import com.owlike.genson.GensonMetrics;
 import com.owlike.genson.ThreadLocalHolder;
 import com.owlike.genson.convert.ContextualFactory;
 
@@ -29,7 +30,6 @@
  */
 public abstract class AbstractBeanDescriptorProvider implements BeanDescriptorProvider {
   final static String CONTEXT_KEY = "__GENSON$CREATION_CONTEXT";
-  final static String DO_NOT_CACHE_CONVERTER_KEY = "__GENSON$DO_NOT_CACHE_CONVERTER";
 
   public final static class ContextualConverterFactory {
     private final List<? extends ContextualFactory<?>> contextualFactories;
@@ -70,12 +70,23 @@ public ContextualFactoryDecorator(Factory<Converter<?>> delegatedFactory) {
 
     @Override
     public Converter<?> create(Type type, Genson genson) {
-      Converter<?> converter = ThreadLocalHolder.get(CONTEXT_KEY, Converter.class);
-      if (converter != null) return converter;
+      ContextualConverter contextual = ThreadLocalHolder.get(CONTEXT_KEY, ContextualConverter.class);
+      if (contextual != null && contextual.type.equals(type)) return contextual.converter;
       return delegatedFactory.create(type, genson);
     }
   }
 
+  // the contextual converter of the property whose converter is being created
+  private final static class ContextualConverter {
+    final Type type;
+    final Converter<?> converter;
+
+    ContextualConverter(Type type, Converter<?> converter) {
+      this.type = type;
+      this.converter = converter;
+    }
+  }
+
   private final ContextualConverterFactory contextualConverterFactory;
 
   protected AbstractBeanDescriptorProvider(ContextualConverterFactory contextualConverterFactory) {
@@ -89,6 +100,8 @@ public <T> BeanDescriptor<T> provide(Class<T> type, Genson genson) {
 
   @Override
   public <T> BeanDescriptor<T> provide(Class<T> ofClass, Type ofType, Genson genson) {
+    final GensonMetrics metrics = genson.metrics();
+    final long start = metrics != GensonMetrics.NONE ? System.nanoTime() : 0;
     Map<String, LinkedList<PropertyMutator>> mutatorsMap = new LinkedHashMap<String, LinkedList<PropertyMutator>>();
     Map<String, LinkedList<PropertyAccessor>> accessorsMap = new LinkedHashMap<String, LinkedList<PropertyAccessor>>();
 
@@ -116,18 +129,18 @@ public <T> BeanDescriptor<T> provide(Class<T> ofClass, Type ofType, Genson genso
 
     // 1 - prepare the converters for the accessors
     for (PropertyAccessor accessor : accessors) {
-      accessor.propertySerializer = provide(accessor, genson);
+      accessor.setPropertySerializer(provide(accessor, genson));
     }
 
     // 2 - prepare the mutators
     for (PropertyMutator mutator : mutators.values()) {
-      mutator.propertyDeserializer = provide(mutator, genson);
+      mutator.setPropertyDeserializer(provide(mutator, genson));
     }
 
     // 3 - prepare the converters for creator parameters
     if (ctr != null) {
       for (PropertyMutator mutator : ctr.parameters.values()) {
-        mutator.propertyDeserializer = provide(mutator, genson);
+        mutator.setPropertyDeserializer(provide(mutator, genson));
       }
     }
 
@@ -141,6 +154,9 @@ public <T> BeanDescriptor<T> provide(Class<T> ofClass, Type ofType, Genson genso
 
     if (aliasToMutator != null) mutators.putAll(aliasToMutator);
 
+    // so the readers return those names without allocating new strings
+    genson.propertyNameTable().addAll(mutators.keySet());
+
     // lets fail fast if the BeanDescriptor has been built for the wrong type.
     // another option could be to pass in all the methods an additional parameter Class<T> that
     // would not necessarily correspond to the rawClass of ofType. In fact we authorize that
@@ -151,30 +167,25 @@ public <T> BeanDescriptor<T> provide(Class<T> ofClass, Type ofType, Genson genso
         + getClass()
         + " seems to do something wrong. Expected BeanDescriptor for type " + ofClass
         + " but provided BeanDescriptor for type " + descriptor.getOfClass());
+    if (metrics != GensonMetrics.NONE) metrics.descriptorCreated(ofType, System.nanoTime() - start);
     return descriptor;
   }
 
   private Converter<Object> provide(BeanProperty property, Genson genson) {
-    // contextual converters must not be retrieved from cache nor stored in cache, by first
-    // trying to create it and reusing it during the
-    // call to genson.provideConverter we avoid retrieving it from cache, and by setting
-    // DO_NOT_CACHE_CONVERTER to true we tell genson not to store
-    // this converter in cache
+    // contextual converters must not be retrieved from cache nor stored in cache, the converter
+    // chain is created without the cache and ContextualFactoryDecorator uses the contextual
+    // converter for the property type instead of creating a new one
 
     @SuppressWarnings("unchecked")
     Converter<Object> converter = (Converter<Object>) contextualConverterFactory.provide(
       property, genson);
-    if (converter != null) {
-      ThreadLocalHolder.store(DO_NOT_CACHE_CONVERTER_KEY, true);
-      ThreadLocalHolder.store(CONTEXT_KEY, converter);
-    }
+    if (converter == null) return genson.provideConverter(property.type);
+
+    ThreadLocalHolder.store(CONTEXT_KEY, new ContextualConverter(property.type, converter));
     try {
-      return genson.provideConverter(property.type);
+      return genson.createConverter(property.type);
     } finally {
-      if (converter != null) {
-        ThreadLocalHolder.remove(DO_NOT_CACHE_CONVERTER_KEY, Boolean.class);
-        ThreadLocalHolder.remove(CONTEXT_KEY, Converter.class);
-      }
+      ThreadLocalHolder.remove(CONTEXT_KEY, ContextualConverter.class);
     }
   }
 
@@ -1,9 +1,9 @@
 package com.owlike.genson.reflect;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -12,6 +12,7 @@
 import com.owlike.genson.reflect.BeanCreator.BeanCreatorProperty;
 import com.owlike.genson.stream.ObjectReader;
 import com.owlike.genson.stream.ObjectWriter;
+import com.owlike.genson.stream.PropertyNameMatcher;
 
 /**
  * BeanDescriptors are used to serialize/deserialize objects based on their fields, methods and
@@ -45,11 +46,24 @@
   final BeanCreator creator;
   private final boolean _noArgCtr;
 
+  // names and aliases of the mutable properties, the ordinals are indexes in the arrays below
+  final PropertyNameMatcher _nameMatcher;
+  final PropertyMutator[] _mutators;
+  // index of the creator argument for each ordinal or -1 if it is not a creator property
+  private final int[] _creatorArgIndexes;
+  // for the other ordinals, index of the slot holding the value until the bean is created
+  private final int[] _propertySlots;
+  private final PropertyMutator[] _slotMutators;
+
   private static final Object MISSING = new Object();
-  // Used as a cache so we just copy it instead of recreating and assigning the default values
-  private Object[] globalCreatorArgs;
+  // key of the masks compiled for a Context, by descriptor
+  private static final String PROPERTY_MASKS = "_genson_property_masks";
+  // copied for each bean created with arguments, the property slots are set to MISSING
+  private final Object[] _propertySlotsTemplate;
+  // the default values of the creator arguments for the last Genson instance that used this descriptor
+  private volatile DefaultCreatorArgs _defaultCreatorArgs;
 
-  private final static Comparator<BeanProperty> _readablePropsComparator = new Comparator<BeanProperty>() {
+  final static Comparator<BeanProperty> _readablePropsComparator = new Comparator<BeanProperty>() {
     public int compare(BeanProperty o1, BeanProperty o2) {
       return o1.name.compareToIgnoreCase(o2.name);
     }
@@ -68,13 +82,34 @@ public BeanDescriptor(Class<T> forClass, Class<?> fromDeclaringClass,
     Collections.sort(readableBps, _readablePropsComparator);
 
     accessibleProperties = Collections.unmodifiableList(readableBps);
-    if (this.creator != null) {
-      _noArgCtr = this.creator.parameters.size() == 0;
-      globalCreatorArgs = new Object[creator.parameters.size()];
-      Arrays.fill(globalCreatorArgs, MISSING);
-    } else {
-      _noArgCtr = false;
+
+    _nameMatcher = new PropertyNameMatcher(mutableProperties.keySet());
+    _mutators = new PropertyMutator[_nameMatcher.size()];
+    _creatorArgIndexes = new int[_nameMatcher.size()];
+    _propertySlots = new int[_nameMatcher.size()];
+    // the aliases of a property use the same slot
+    Map<PropertyMutator, Integer> slots = new IdentityHashMap<PropertyMutator, Integer>();
+    for (int ordinal = 0; ordinal < _mutators.length; ordinal++) {
+      String name = _nameMatcher.name(ordinal);
+      _mutators[ordinal] = mutableProperties.get(name);
+      BeanCreatorProperty creatorProperty = creator != null ? creator.paramsAndAliases.get(name) : null;
+      _creatorArgIndexes[ordinal] = creatorProperty != null ? creatorProperty.index : -1;
+      _propertySlots[ordinal] = -1;
+      if (creatorProperty == null) {
+        Integer slot = slots.get(_mutators[ordinal]);
+        if (slot == null) {
+          slot = slots.size();
+          slots.put(_mutators[ordinal], slot);
+        }
+        _propertySlots[ordinal] = slot;
+      }
     }
+    _slotMutators = new PropertyMutator[slots.size()];
+    for (Map.Entry<PropertyMutator, Integer> entry : slots.entrySet()) _slotMutators[entry.getValue()] = entry.getKey();
+    _propertySlotsTemplate = new Object[slots.size()];
+    Arrays.fill(_propertySlotsTemplate, MISSING);
+
+    _noArgCtr = this.creator != null && this.creator.parameters.size() == 0;
   }
 
   public boolean isReadable() {
@@ -87,9 +122,18 @@ public boolean isWritable() {
 
   public void serialize(T obj, ObjectWriter writer, Context ctx) {
     writer.beginObject();
-    RuntimePropertyFilter runtimePropertyFilter = ctx.genson.runtimePropertyFilter();
-    for (PropertyAccessor accessor : accessibleProperties) {
-      if (runtimePropertyFilter.shouldInclude(accessor, ctx)) accessor.serialize(obj, writer, ctx);
+    PropertyMask mask = propertyMask(ctx);
+    if (mask == PropertyMask.ALL) {
+      for (PropertyAccessor accessor : accessibleProperties) accessor.serialize(obj, writer, ctx);
+    } else if (mask != null) {
+      for (int i = 0; i < accessibleProperties.size(); i++) {
+        if (mask.includesAccessor(i)) accessibleProperties.get(i).serialize(obj, writer, ctx);
+      }
+    } else {
+      RuntimePropertyFilter runtimePropertyFilter = ctx.genson.runtimePropertyFilter();
+      for (PropertyAccessor accessor : accessibleProperties) {
+        if (runtimePropertyFilter.shouldInclude(accessor, ctx)) accessor.serialize(obj, writer, ctx);
+      }
     }
     writer.endObject();
   }
@@ -112,17 +156,17 @@ public T deserialize(ObjectReader reader, Context ctx) {
   public void deserialize(T into, ObjectReader reader, Context ctx) {
     reader.beginObject();
     RuntimePropertyFilter runtimePropertyFilter = ctx.genson.runtimePropertyFilter();
+    PropertyMask mask = propertyMask(ctx);
     for (; reader.hasNext(); ) {
-      reader.next();
-      String propName = reader.name();
-      PropertyMutator mutator = mutableProperties.get(propName);
-      if (mutator != null) {
-        if (runtimePropertyFilter.shouldInclude(mutator, ctx)) {
+      int ordinal = reader.nextAndMatch(_nameMatcher);
+      if (ordinal > -1) {
+        PropertyMutator mutator = _mutators[ordinal];
+        if (includes(mask, ordinal, runtimePropertyFilter, ctx)) {
           mutator.deserialize(into, reader, ctx);
         } else {
           reader.skipValue();
         }
-      } else if (failOnMissingProperty) throw missingPropertyException(propName);
+      } else if (failOnMissingProperty) throw missingPropertyException(reader.name());
       else reader.skipValue();
     }
     reader.endObject();
@@ -130,67 +174,99 @@ public void deserialize(T into, ObjectReader reader, Context ctx) {
 
 
   protected T _deserWithCtrArgs(ObjectReader reader, Context ctx) {
-    List<String> names = new ArrayList<String>();
-    List<Object> values = new ArrayList<Object>();
     RuntimePropertyFilter runtimePropertyFilter = ctx.genson.runtimePropertyFilter();
+    PropertyMask mask = propertyMask(ctx);
+    Object[] creatorArgs = defaultCreatorArgs(ctx.genson).clone();
+    // the values of the other properties, set once the bean is created
+    Object[] propertyValues = null;
+    // the slots in the order of the document, so the setters are called in that order
+    int[] slotOrder = null;
+    int slotCount = 0;
 
     reader.beginObject();
     for (; reader.hasNext(); ) {
-      reader.next();
-      String propName = reader.name();
-      PropertyMutator muta = mutableProperties.get(propName);
-
-      if (muta != null) {
-        if (runtimePropertyFilter.shouldInclude(muta, ctx)) {
-          Object param = muta.deserialize(reader, ctx);
-          names.add(propName);
-          values.add(param);
+      int ordinal = reader.nextAndMatch(_nameMatcher);
+
+      if (ordinal > -1) {
+        PropertyMutator muta = _mutators[ordinal];
+        if (includes(mask, ordinal, runtimePropertyFilter, ctx)) {
+          Object value = muta.deserialize(reader, ctx);
+          int argIndex = _creatorArgIndexes[ordinal];
+          if (argIndex > -1) {
+            creatorArgs[argIndex] = value;
+          } else {
+            if (propertyValues == null) {
+              propertyValues = _propertySlotsTemplate.clone();
+              slotOrder = new int[propertyValues.length];
+            }
+            int slot = _propertySlots[ordinal];
+            if (propertyValues[slot] == MISSING) slotOrder[slotCount++] = slot;
+            propertyValues[slot] = value;
+          }
         } else {
           reader.skipValue();
         }
-      } else if (failOnMissingProperty) throw missingPropertyException(propName);
+      } else if (failOnMissingProperty) throw missingPropertyException(reader.name());
       else reader.skipValue();
     }
 
-    int size = names.size();
-    int foundCtrParameters = 0;
-    Object[] creatorArgs = globalCreatorArgs.clone();
-    String[] newNames = new String[size];
-    Object[] newValues = new Object[size];
-
-    for (int i = 0, j = 0; i < size; i++) {
-      BeanCreatorProperty mp = creator.paramsAndAliases.get(names.get(i));
-      if (mp != null) {
-        creatorArgs[mp.index] = values.get(i);
-        foundCtrParameters++;
-      } else {
-        newNames[j] = names.get(i);
-        newValues[j] = values.get(i);
-        j++;
-      }
-    }
-
-    if (foundCtrParameters < creator.parameters.size()) updateWithDefaultValues(creatorArgs, ctx.genson);
-
     T bean = ofClass.cast(creator.create(creatorArgs));
-    for (int i = 0; i < size; i++) {
-      PropertyMutator property = mutableProperties.get(newNames[i]);
-      if (property != null) property.mutate(bean, newValues[i]);
+    for (int i = 0; i < slotCount; i++) {
+      int slot = slotOrder[i];
+      _slotMutators[slot].mutate(bean, propertyValues[slot]);
     }
     reader.endObject();
     return bean;
   }
 
-  private void updateWithDefaultValues(Object[] creatorArgs, Genson genson) {
-    for (int i = 0; i < creatorArgs.length; i++) {
-      if (creatorArgs[i] == MISSING) {
-        for (BeanCreatorProperty property : creator.parameters.values()) {
-          if (property.index == i) {
-            creatorArgs[i] = genson.defaultValue(property.getRawClass());
-            break;
-          }
-        }
+  /**
+   * Returns the mask compiled by the runtime property filter for this descriptor and ctx, or null if
+   * the filter is not {@link RuntimePropertyFilter.Compilable} and must be called for each property.
+   * The masks are compiled once per Context.
+   */
+  @SuppressWarnings("unchecked")
+  protected final PropertyMask propertyMask(Context ctx) {
+    RuntimePropertyFilter filter = ctx.genson.runtimePropertyFilter();
+    if (filter == RuntimePropertyFilter.noFilter) return PropertyMask.ALL;
+    if (!(filter instanceof RuntimePropertyFilter.Compilable)) return null;
+
+    Map<BeanDescriptor<?>, PropertyMask> masks = ctx.get(PROPERTY_MASKS, Map.class);
+    if (masks == null) {
+      masks = new IdentityHashMap<BeanDescriptor<?>, PropertyMask>();
+      ctx.store(PROPERTY_MASKS, masks);
+    }
+    PropertyMask mask = masks.get(this);
+    if (mask == null) {
+      mask = ((RuntimePropertyFilter.Compilable) filter).compile(this, ctx);
+      masks.put(this, mask);
+    }
+    return mask;
+  }
+
+  private boolean includes(PropertyMask mask, int ordinal, RuntimePropertyFilter filter, Context ctx) {
+    return mask != null ? mask.includesMutator(ordinal) : filter.shouldInclude(_mutators[ordinal], ctx);
+  }
+
+  private Object[] defaultCreatorArgs(Genson genson) {
+    DefaultCreatorArgs defaultArgs = _defaultCreatorArgs;
+    if (defaultArgs == null || defaultArgs.genson != genson) {
+      Object[] values = new Object[creator.parameters.size()];
+      for (BeanCreatorProperty property : creator.parameters.values()) {
+        values[property.index] = genson.defaultValue(property.getRawClass());
       }
+      defaultArgs = new DefaultCreatorArgs(genson, values);
+      _defaultCreatorArgs = defaultArgs;
+    }
+    return defaultArgs.values;
+  }
+
+  private static final class DefaultCreatorArgs {
+    final Genson genson;
+    final Object[] values;
+
+    DefaultCreatorArgs(Genson genson, Object[] values) {
+      this.genson = genson;
+      this.values = values;
     }
   }
 
@@ -198,7 +274,7 @@ public Class<T> getOfClass() {
     return ofClass;
   }
 
-  private JsonBindingException missingPropertyException(String name) {
+  JsonBindingException missingPropertyException(String name) {
    return new JsonBindingException("No matching property in " + getOfClass() + " for key " + name);
   }
 }
\ No newline at end of file
@@ -3,8 +3,8 @@
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
 
+import com.owlike.genson.CacheStats;
 import com.owlike.genson.Genson;
 
 /**
@@ -41,7 +41,9 @@ public interface BeanDescriptorProvider {
   public static class CompositeBeanDescriptorProvider implements BeanDescriptorProvider {
     private final List<BeanDescriptorProvider> providers;
 
-    private final ConcurrentHashMap<Type, BeanDescriptor<?>> cache = new ConcurrentHashMap<Type, BeanDescriptor<?>>();
+    private final static int MAX_CACHED_DESCRIPTORS = 4096;
+    private final LoaderAwareCache<Type, BeanDescriptor<?>> cache =
+      LoaderAwareCache.ofTypes("beanDescriptors", MAX_CACHED_DESCRIPTORS);
 
     public CompositeBeanDescriptorProvider(List<BeanDescriptorProvider> providers) {
       this.providers = new ArrayList<BeanDescriptorProvider>(providers);
@@ -66,5 +68,12 @@ public <T> BeanDescriptor<T> provide(Class<T> ofClass, Type type, Genson genson)
 
       return desc;
     }
+
+    /**
+     * @return the state of the cache of the BeanDescriptors.
+     */
+    public CacheStats cacheStats() {
+      return cache.stats();
+    }
   }
 }
@@ -0,0 +1,100 @@
+package com.owlike.genson.reflect;
+
+import java.util.List;
+import java.util.Map;
+
+import com.owlike.genson.Context;
+import com.owlike.genson.JsonBindingException;
+import com.owlike.genson.stream.JsonWriter;
+import com.owlike.genson.stream.ObjectReader;
+import com.owlike.genson.stream.ObjectWriter;
+import com.owlike.genson.stream.PropertyNameMatcher;
+
+/**
+ * Base class of the BeanDescriptors generated by {@link ASMBeanDescriptorProvider}. The generated
+ * subclasses implement {@link #writeProperties(Object, ObjectWriter, Context)} as an unrolled sequence
+ * of properties and {@link #readProperties(Object, ObjectReader, Context)} as a switch on the ordinal
+ * of the matched name. Both use the properties directly when possible and delegate to the
+ * PropertyAccessors and PropertyMutators otherwise.
+ * <p/>
+ * When a {@link RuntimePropertyFilter} excludes some properties, the properties go through the
+ * filter or its {@link PropertyMask} and the generated code is not used.
+ *
+ * @param <T> type that this BeanDescriptor can serialize and deserialize.
+ */
+public abstract class GeneratedBeanDescriptor<T> extends BeanDescriptor<T> {
+  protected final PropertyAccessor[] accessors;
+  protected final char[][] escapedNames;
+  protected final PropertyMutator[] mutators;
+  protected final PropertyNameMatcher nameMatcher;
+
+  protected GeneratedBeanDescriptor(Class<T> forClass, Class<?> fromDeclaringClass,
+                                    List<PropertyAccessor> readableBps,
+                                    Map<String, PropertyMutator> writableBps, BeanCreator creator,
+                                    boolean failOnMissingProperty) {
+    super(forClass, fromDeclaringClass, readableBps, writableBps, creator, failOnMissingProperty);
+    accessors = accessibleProperties.toArray(new PropertyAccessor[accessibleProperties.size()]);
+    escapedNames = new char[accessors.length][];
+    for (int i = 0; i < accessors.length; i++) escapedNames[i] = JsonWriter.escapeString(accessors[i].name);
+    mutators = _mutators;
+    nameMatcher = _nameMatcher;
+  }
+
+  @Override
+  public void serialize(T obj, ObjectWriter writer, Context ctx) {
+    if (propertyMask(ctx) != PropertyMask.ALL) {
+      super.serialize(obj, writer, ctx);
+    } else {
+      writer.beginObject();
+      writeProperties(obj, writer, ctx);
+      writer.endObject();
+    }
+  }
+
+  @Override
+  public void deserialize(T into, ObjectReader reader, Context ctx) {
+    if (propertyMask(ctx) != PropertyMask.ALL) {
+      super.deserialize(into, reader, ctx);
+    } else {
+      reader.beginObject();
+      readProperties(into, reader, ctx);
+      reader.endObject();
+    }
+  }
+
+  /**
+   * Writes the names and values of all the accessible properties of bean.
+   */
+  protected abstract void writeProperties(Object bean, ObjectWriter writer, Context ctx);
+
+  /**
+   * Reads all the properties of the current object into bean.
+   */
+  protected abstract void readProperties(Object bean, ObjectReader reader, Context ctx);
+
+  protected void unknownProperty(ObjectReader reader) {
+    if (failOnMissingProperty) throw missingPropertyException(reader.name());
+    reader.skipValue();
+  }
+
+  protected static void writeValue(ObjectWriter writer, double value) {
+    PrimitiveType.writeValue(writer, value);
+  }
+
+  protected static void writeValue(ObjectWriter writer, float value) {
+    PrimitiveType.writeValue(writer, value);
+  }
+
+  protected static void writeValue(ObjectWriter writer, String value) {
+    if (value == null) writer.writeNull();
+    else writer.writeValue(value);
+  }
+
+  protected static JsonBindingException couldNotSerialize(PropertyAccessor accessor, Throwable th) {
+    return accessor.couldNotSerialize(th);
+  }
+
+  protected static JsonBindingException couldNotDeserialize(PropertyMutator mutator, Throwable th) {
+    return mutator.couldNotDeserialize(th);
+  }
+}
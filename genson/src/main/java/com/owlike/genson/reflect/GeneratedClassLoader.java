@@ -0,0 +1,49 @@
+package com.owlike.genson.reflect;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Defines the classes generated at runtime by Genson. There is one loader per class loader of the
+ * beans, the classes used by the generated code are loaded from it except Genson classes that are
+ * always loaded from the class loader of Genson, so the generated classes extend the right base classes
+ * even if the beans class loader can see another copy of Genson.
+ */
+final class GeneratedClassLoader extends ClassLoader {
+  final static String PACKAGE = "com.owlike.genson.reflect.generated.";
+
+  private final static ClassLoader GENSON_LOADER = GeneratedClassLoader.class.getClassLoader();
+  private final static Map<ClassLoader, WeakReference<GeneratedClassLoader>> loaders =
+    new WeakHashMap<ClassLoader, WeakReference<GeneratedClassLoader>>();
+
+  private GeneratedClassLoader(ClassLoader parent) {
+    super(parent);
+  }
+
+  /**
+   * @return the loader to use for classes generated for clazz.
+   */
+  static synchronized GeneratedClassLoader of(Class<?> clazz) {
+    ClassLoader parent = clazz.getClassLoader();
+    WeakReference<GeneratedClassLoader> ref = loaders.get(parent);
+    GeneratedClassLoader loader = ref != null ? ref.get() : null;
+    if (loader == null) {
+      loader = new GeneratedClassLoader(parent);
+      loaders.put(parent, new WeakReference<GeneratedClassLoader>(loader));
+    }
+    return loader;
+  }
+
+  @Override
+  protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+    if (name.startsWith("com.owlike.genson.") && !name.startsWith(PACKAGE)) {
+      return Class.forName(name, false, GENSON_LOADER);
+    }
+    return super.loadClass(name, resolve);
+  }
+
+  Class<?> define(String internalName, byte[] bytes) {
+    return defineClass(internalName.replace('/', '.'), bytes, 0, bytes.length);
+  }
+}
@@ -0,0 +1,238 @@
+package com.owlike.genson.reflect;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.GenericDeclaration;
+import java.lang.reflect.Member;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.owlike.genson.CacheStats;
+
+/**
+ * Concurrent cache whose keys are types, or reflection objects, that must not keep their class
+ * loader alive. This is meant to be used internally by Genson.
+ * <p/>
+ * The entries whose key only references classes visible to the class loader of Genson (the JDK,
+ * the application) are kept in a shared map bounded to maxSize entries, the oldest entries are
+ * evicted first. The entries referencing a class loaded by another class loader (a plugin, a
+ * redeployed web application, a generated class) are attached to that class with a
+ * {@link ClassValue}: they are only reachable from the class and are released with its class
+ * loader. Each of those classes also keeps at most maxSize entries.
+ * <p/>
+ * A key referencing classes of several foreign class loaders is attached to the class of the most
+ * specific one, the loaders it delegates to outlive it.
+ */
+public abstract class LoaderAwareCache<K, V> {
+  private final static ClassLoader[] VISIBLE_LOADERS = visibleLoaders();
+
+  private final String name;
+  private final int maxSize;
+  private final Segment<K, V> shared = new Segment<K, V>();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder releasedClasses = new LongAdder();
+  private final ReferenceQueue<Segment<K, V>> releasedSegments = new ReferenceQueue<Segment<K, V>>();
+  private final Set<Reference<Segment<K, V>>> foreignSegments =
+    Collections.newSetFromMap(new ConcurrentHashMap<Reference<Segment<K, V>>, Boolean>());
+  // until a foreign class is met the lookups only check the shared segment
+  private volatile boolean hasForeignSegments = false;
+  private final ClassValue<Segment<K, V>> segments = new ClassValue<Segment<K, V>>() {
+    @Override
+    protected Segment<K, V> computeValue(Class<?> type) {
+      expungeReleasedSegments();
+      // the segment must not reference this ClassValue, or the class would keep it alive
+      Segment<K, V> segment = new Segment<K, V>();
+      foreignSegments.add(new WeakReference<Segment<K, V>>(segment, releasedSegments));
+      hasForeignSegments = true;
+      return segment;
+    }
+  };
+
+  protected LoaderAwareCache(String name, int maxSize) {
+    if (maxSize < 1) throw new IllegalArgumentException("maxSize must be greater than 0");
+    this.name = name;
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * @return a cache whose keys are types, see {@link #ownerOf(Type)}.
+   */
+  public static <K extends Type, V> LoaderAwareCache<K, V> ofTypes(String name, int maxSize) {
+    return new LoaderAwareCache<K, V>(name, maxSize) {
+      @Override
+      protected Class<?> ownerOfKey(K key) {
+        return LoaderAwareCache.ownerOf(key);
+      }
+    };
+  }
+
+  /**
+   * @return a cache whose keys are constructors, methods or fields, the entries are attached to
+   * their declaring class if it is not visible to Genson.
+   */
+  public static <K extends Member, V> LoaderAwareCache<K, V> ofMembers(String name, int maxSize) {
+    return new LoaderAwareCache<K, V>(name, maxSize) {
+      @Override
+      protected Class<?> ownerOfKey(K key) {
+        return LoaderAwareCache.ownerOf(key.getDeclaringClass());
+      }
+    };
+  }
+
+  /**
+   * @return the class whose class loader must stay reachable as long as the entry of this key, or
+   * null if the key only references classes visible to Genson.
+   */
+  protected abstract Class<?> ownerOfKey(K key);
+
+  public V get(K key) {
+    V value = shared.map.get(key);
+    if (value != null || !hasForeignSegments) return value;
+
+    Class<?> owner = ownerOfKey(key);
+    return owner != null ? segments.get(owner).map.get(key) : null;
+  }
+
+  /**
+   * @return the value already associated to this key or value if there was none.
+   */
+  public V putIfAbsent(K key, V value) {
+    Class<?> owner = ownerOfKey(key);
+    Segment<K, V> segment = owner != null ? segments.get(owner) : shared;
+    return segment.putIfAbsent(key, value, maxSize, evictions);
+  }
+
+  public CacheStats stats() {
+    expungeReleasedSegments();
+    long size = shared.size.get();
+    long foreignClasses = 0;
+    for (Reference<Segment<K, V>> reference : foreignSegments) {
+      Segment<K, V> segment = reference.get();
+      if (segment != null) {
+        size += segment.size.get();
+        foreignClasses++;
+      }
+    }
+    return new CacheStats(name, size, maxSize, evictions.sum(), foreignClasses, releasedClasses.sum());
+  }
+
+  private void expungeReleasedSegments() {
+    for (Reference<?> reference = releasedSegments.poll(); reference != null; reference = releasedSegments.poll()) {
+      if (foreignSegments.remove(reference)) releasedClasses.increment();
+    }
+  }
+
+  /**
+   * @return true if the class is loaded by the class loader of Genson or one of its parents. Such a
+   * class lives at least as long as Genson, referencing it can not leak a class loader.
+   */
+  public static boolean isVisible(Class<?> clazz) {
+    ClassLoader loader = clazz.getClassLoader();
+    if (loader == null) return true;
+    for (ClassLoader visible : VISIBLE_LOADERS) {
+      if (visible == loader) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Looks for the classes referenced by type that are not visible to Genson: the raw class, the
+   * type arguments, the component type, the bounds of the wildcards, the declaration of the type
+   * variables and the root class of the types expanded by {@link TypeUtil}.
+   *
+   * @return the class of the most specific foreign class loader or null if all are visible.
+   */
+  public static Class<?> ownerOf(Type type) {
+    return ownerOf(type, null);
+  }
+
+  private static Class<?> ownerOf(Type type, Class<?> owner) {
+    if (type instanceof Class) {
+      Class<?> clazz = (Class<?>) type;
+      while (clazz.isArray()) clazz = clazz.getComponentType();
+      return isVisible(clazz) ? owner : mostSpecific(owner, clazz);
+    } else if (type instanceof ParameterizedType) {
+      ParameterizedType pType = (ParameterizedType) type;
+      owner = ownerOf(pType.getRawType(), owner);
+      if (pType.getOwnerType() != null) owner = ownerOf(pType.getOwnerType(), owner);
+      for (Type arg : pType.getActualTypeArguments()) owner = ownerOf(arg, owner);
+      Class<?> rootClass = TypeUtil.expandedRootClass(type);
+      return rootClass != null ? ownerOf(rootClass, owner) : owner;
+    } else if (type instanceof GenericArrayType) {
+      owner = ownerOf(((GenericArrayType) type).getGenericComponentType(), owner);
+      Class<?> rootClass = TypeUtil.expandedRootClass(type);
+      return rootClass != null ? ownerOf(rootClass, owner) : owner;
+    } else if (type instanceof WildcardType) {
+      WildcardType wType = (WildcardType) type;
+      for (Type bound : wType.getUpperBounds()) owner = ownerOf(bound, owner);
+      for (Type bound : wType.getLowerBounds()) owner = ownerOf(bound, owner);
+      return owner;
+    } else if (type instanceof TypeVariable) {
+      // the bounds are not walked, they can refer to the variable itself
+      GenericDeclaration declaration = ((TypeVariable<?>) type).getGenericDeclaration();
+      Class<?> declaringClass = declaration instanceof Class ? (Class<?>) declaration
+        : ((Member) declaration).getDeclaringClass();
+      return ownerOf(declaringClass, owner);
+    }
+    return owner;
+  }
+
+  /**
+   * @return the class among clazz and other whose class loader delegates to the class loader of
+   * the other one, clazz if they are not related.
+   */
+  public static Class<?> mostSpecific(Class<?> clazz, Class<?> other) {
+    if (clazz == null) return other;
+    if (other == null || clazz == other) return clazz;
+    ClassLoader loader = clazz.getClassLoader();
+    for (ClassLoader l = other.getClassLoader(); l != null; l = l.getParent()) {
+      if (l == loader) return other;
+    }
+    return clazz;
+  }
+
+  private static ClassLoader[] visibleLoaders() {
+    List<ClassLoader> loaders = new ArrayList<ClassLoader>();
+    for (ClassLoader l = LoaderAwareCache.class.getClassLoader(); l != null; l = l.getParent()) {
+      loaders.add(l);
+    }
+    return loaders.toArray(new ClassLoader[loaders.size()]);
+  }
+
+  /*
+   * The keys are evicted in insertion order, there is no need for an LRU: the values are cheap to
+   * build compared to a leak and the caches are sized to hold all the types of most applications.
+   */
+  private final static class Segment<K, V> {
+    final ConcurrentHashMap<K, V> map = new ConcurrentHashMap<K, V>();
+    final ConcurrentLinkedQueue<K> keys = new ConcurrentLinkedQueue<K>();
+    final AtomicInteger size = new AtomicInteger();
+
+    V putIfAbsent(K key, V value, int maxSize, LongAdder evictions) {
+      V existing = map.putIfAbsent(key, value);
+      if (existing != null) return existing;
+
+      keys.add(key);
+      if (size.incrementAndGet() > maxSize) {
+        K eldest = keys.poll();
+        if (eldest != null && map.remove(eldest) != null) {
+          size.decrementAndGet();
+          evictions.increment();
+        }
+      }
+      return value;
+    }
+  }
+}
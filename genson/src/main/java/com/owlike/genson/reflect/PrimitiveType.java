@@ -0,0 +1,132 @@
+package com.owlike.genson.reflect;
+
+import java.lang.reflect.Field;
+
+import com.owlike.genson.JsonBindingException;
+import com.owlike.genson.Wrapper;
+import com.owlike.genson.convert.DefaultConverters;
+import com.owlike.genson.stream.ObjectReader;
+import com.owlike.genson.stream.ObjectWriter;
+
+/**
+ * The primitive types and their default converters. Fields of a primitive type that use the default
+ * converter are read and written with the primitive methods of Field and of the readers and writers,
+ * so the values are not boxed. The behaviour is the same as the one of the default converters.
+ */
+enum PrimitiveType {
+  BOOLEAN(boolean.class, DefaultConverters.BooleanConverter.instance),
+  BYTE(byte.class, DefaultConverters.ByteConverter.instance),
+  CHAR(char.class, DefaultConverters.CharConverter.instance),
+  SHORT(short.class, DefaultConverters.ShortConverter.instance),
+  INT(int.class, DefaultConverters.IntegerConverter.instance),
+  LONG(long.class, DefaultConverters.LongConverter.instance),
+  FLOAT(float.class, DefaultConverters.FloatConverter.instance),
+  DOUBLE(double.class, DefaultConverters.DoubleConverter.instance);
+
+  private final Class<?> type;
+  private final Object defaultConverter;
+
+  PrimitiveType(Class<?> type, Object defaultConverter) {
+    this.type = type;
+    this.defaultConverter = defaultConverter;
+  }
+
+  /**
+   * @return the PrimitiveType of type if converter is the default converter of type, null otherwise.
+   */
+  static PrimitiveType of(Class<?> type, Object converter) {
+    if (!type.isPrimitive()) return null;
+    Object unwrapped = Wrapper.unwrapDecorators(converter);
+    for (PrimitiveType primitiveType : values()) {
+      if (primitiveType.type == type) return primitiveType.defaultConverter == unwrapped ? primitiveType : null;
+    }
+    return null;
+  }
+
+  /**
+   * @return the PrimitiveType of type, or null if type is not a primitive type.
+   */
+  static PrimitiveType forType(Class<?> type) {
+    for (PrimitiveType primitiveType : values()) {
+      if (primitiveType.type == type) return primitiveType;
+    }
+    return null;
+  }
+
+  void write(Field field, Object target, ObjectWriter writer) throws IllegalAccessException {
+    switch (this) {
+      case BOOLEAN:
+        writer.writeValue(field.getBoolean(target));
+        break;
+      case BYTE:
+        writer.writeValue(field.getByte(target));
+        break;
+      case CHAR:
+        writer.writeValue(String.valueOf(field.getChar(target)));
+        break;
+      case SHORT:
+        writer.writeValue(field.getShort(target));
+        break;
+      case INT:
+        writer.writeValue(field.getInt(target));
+        break;
+      case LONG:
+        writer.writeValue(field.getLong(target));
+        break;
+      case FLOAT:
+        writeValue(writer, field.getFloat(target));
+        break;
+      case DOUBLE:
+        writeValue(writer, field.getDouble(target));
+        break;
+    }
+  }
+
+  void read(Field field, Object target, ObjectReader reader) throws IllegalAccessException {
+    switch (this) {
+      case BOOLEAN:
+        field.setBoolean(target, reader.valueAsBoolean());
+        break;
+      case BYTE:
+        field.setByte(target, (byte) reader.valueAsInt());
+        break;
+      case CHAR:
+        field.setChar(target, valueAsChar(reader));
+        break;
+      case SHORT:
+        field.setShort(target, reader.valueAsShort());
+        break;
+      case INT:
+        field.setInt(target, reader.valueAsInt());
+        break;
+      case LONG:
+        field.setLong(target, reader.valueAsLong());
+        break;
+      case FLOAT:
+        field.setFloat(target, reader.valueAsFloat());
+        break;
+      case DOUBLE:
+        field.setDouble(target, reader.valueAsDouble());
+        break;
+    }
+  }
+
+  static char valueAsChar(ObjectReader reader) {
+    String str = reader.valueAsString();
+    if (str.length() > 1) throw new JsonBindingException(
+      "Could not convert a string with length greater than 1 to a single char."
+    );
+    return str.charAt(0);
+  }
+
+  // NaN and infinity are not valid json numbers, they are written as strings like the default converters
+  static void writeValue(ObjectWriter writer, double value) {
+    if (Double.isNaN(value) || Double.isInfinite(value)) writer.writeUnsafeValue(Double.toString(value));
+    else writer.writeValue(value);
+  }
+
+  static void writeValue(ObjectWriter writer, float value) {
+    if (Float.isNaN(value) || Float.isInfinite(value)) writer.writeUnsafeValue(Float.toString(value));
+    else writer.writeValue(value);
+  }
+}
@@ -12,7 +12,7 @@
 
 public abstract class PropertyAccessor extends BeanProperty implements Comparable<PropertyAccessor> {
   Serializer<Object> propertySerializer;
-  private final char[] escapedName;
+  final char[] escapedName;
 
   protected PropertyAccessor(String name, Type type, Class<?> declaringClass, Class<?> concreteClass,
                              Annotation[] annotations, int modifiers) {
@@ -32,6 +32,10 @@ public void serialize(Object propertySource, ObjectWriter writer, Context ctx) {
 
   public abstract Object access(final Object target);
 
+  void setPropertySerializer(Serializer<Object> propertySerializer) {
+    this.propertySerializer = propertySerializer;
+  }
+
   public int compareTo(PropertyAccessor o) {
     return o.priority() - priority();
   }
@@ -93,6 +97,38 @@ public FieldAccessor(String name, Field field, Type type, Class<?> concreteClass
       }
     }
 
+    // set when the field is serialized with the default converter of its primitive type
+    private PrimitiveType _primitiveType;
+
+    @Override
+    void setPropertySerializer(Serializer<Object> propertySerializer) {
+      super.setPropertySerializer(propertySerializer);
+      _primitiveType = _field.getType() == getRawClass() ? PrimitiveType.of(_field.getType(), propertySerializer) : null;
+    }
+
+    @Override
+    public void serialize(Object propertySource, ObjectWriter writer, Context ctx) {
+      if (_primitiveType == null) {
+        super.serialize(propertySource, writer, ctx);
+        return;
+      }
+      // the value is written without being boxed
+      writer.writeEscapedName(escapedName);
+      try {
+        writePrimitive(propertySource, writer, _primitiveType);
+      } catch (IllegalAccessException e) {
+        throw couldNotAccess(e);
+      } catch (RuntimeException e) {
+        throw couldNotSerialize(e);
+      }
+    }
+
+    // the generated accessors override it to read the field directly
+    void writePrimitive(Object target, ObjectWriter writer, PrimitiveType primitiveType)
+      throws IllegalAccessException {
+      primitiveType.write(_field, target, writer);
+    }
+
     @Override
     public Object access(final Object target) {
       try {
@@ -0,0 +1,57 @@
+package com.owlike.genson.reflect;
+
+import java.util.BitSet;
+import java.util.List;
+
+import com.owlike.genson.Context;
+
+/**
+ * The properties of a {@link BeanDescriptor} included by a {@link RuntimePropertyFilter.Compilable}
+ * filter. The accessors are indexed in the order they are serialized and the mutators by the ordinal
+ * of their name or alias, masks are immutable and can be shared by several threads.
+ *
+ * @see RuntimePropertyFilter.Compilable
+ */
+public final class PropertyMask {
+  /**
+   * Includes all the properties, the BeanDescriptors serialize and deserialize them without any check.
+   */
+  public final static PropertyMask ALL = new PropertyMask(null, null);
+
+  private final BitSet _accessors;
+  private final BitSet _mutators;
+
+  private PropertyMask(BitSet accessors, BitSet mutators) {
+    this._accessors = accessors;
+    this._mutators = mutators;
+  }
+
+  /**
+   * Compiles the mask of descriptor by calling filter once for each of its properties.
+   */
+  public static PropertyMask compile(BeanDescriptor<?> descriptor, RuntimePropertyFilter filter, Context ctx) {
+    List<PropertyAccessor> accessors = descriptor.accessibleProperties;
+    BitSet includedAccessors = new BitSet(accessors.size());
+    for (int i = 0; i < accessors.size(); i++) {
+      if (filter.shouldInclude(accessors.get(i), ctx)) includedAccessors.set(i);
+    }
+
+    PropertyMutator[] mutators = descriptor._mutators;
+    BitSet includedMutators = new BitSet(mutators.length);
+    for (int ordinal = 0; ordinal < mutators.length; ordinal++) {
+      if (filter.shouldInclude(mutators[ordinal], ctx)) includedMutators.set(ordinal);
+    }
+
+    if (includedAccessors.cardinality() == accessors.size() && includedMutators.cardinality() == mutators.length)
+      return ALL;
+    return new PropertyMask(includedAccessors, includedMutators);
+  }
+
+  boolean includesAccessor(int index) {
+    return _accessors == null || _accessors.get(index);
+  }
+
+  boolean includesMutator(int ordinal) {
+    return _mutators == null || _mutators.get(ordinal);
+  }
+}
@@ -8,6 +8,7 @@
 
 import com.owlike.genson.*;
 import com.owlike.genson.stream.ObjectReader;
+import com.owlike.genson.stream.ValueType;
 
 public abstract class PropertyMutator extends BeanProperty implements Comparable<PropertyMutator> {
   Deserializer<Object> propertyDeserializer;
@@ -37,6 +38,10 @@ public void deserialize(Object into, ObjectReader reader, Context ctx) {
 
   public abstract void mutate(Object target, Object value);
 
+  void setPropertyDeserializer(Deserializer<Object> propertyDeserializer) {
+    this.propertyDeserializer = propertyDeserializer;
+  }
+
   public int compareTo(PropertyMutator o) {
     return o.priority() - priority();
   }
@@ -96,6 +101,38 @@ public FieldMutator(String name, Field field, Type type, Class<?> concreteClass)
       }
     }
 
+    // set when the field is deserialized with the default converter of its primitive type
+    private PrimitiveType _primitiveType;
+
+    @Override
+    void setPropertyDeserializer(Deserializer<Object> propertyDeserializer) {
+      super.setPropertyDeserializer(propertyDeserializer);
+      _primitiveType = _field.getType() == getRawClass() ? PrimitiveType.of(_field.getType(), propertyDeserializer) : null;
+    }
+
+    @Override
+    public void deserialize(Object into, ObjectReader reader, Context ctx) {
+      // null values are handled by the converters (default value or failOnNullPrimitive)
+      if (_primitiveType == null || reader.getValueType() == ValueType.NULL) {
+        super.deserialize(into, reader, ctx);
+        return;
+      }
+      // the value is read and set without being boxed
+      try {
+        readPrimitive(into, reader, _primitiveType);
+      } catch (IllegalAccessException e) {
+        throw couldNotMutate(e);
+      } catch (RuntimeException e) {
+        throw couldNotDeserialize(e);
+      }
+    }
+
+    // the generated mutators override it to set the field directly
+    void readPrimitive(Object target, ObjectReader reader, PrimitiveType primitiveType)
+      throws IllegalAccessException {
+      primitiveType.read(_field, target, reader);
+    }
+
     @Override
     public void mutate(Object target, Object value) {
       try {
@@ -3,13 +3,31 @@
 import com.owlike.genson.Context;
 
 public interface RuntimePropertyFilter {
-  RuntimePropertyFilter noFilter = new RuntimePropertyFilter() {
+  RuntimePropertyFilter noFilter = new Compilable() {
     @Override
     public boolean shouldInclude(BeanProperty property, Context ctx) {
       return true;
     }
+
+    @Override
+    public PropertyMask compile(BeanDescriptor<?> descriptor, Context ctx) {
+      return PropertyMask.ALL;
+    }
   };
 
   boolean shouldInclude(BeanProperty property, Context ctx);
-}
 
+  /**
+   * A filter whose decisions don't change during the ser/de done with a Context. Instead of being
+   * called for each property of each object, it is asked once per Context for the mask of the
+   * properties of each BeanDescriptor, the BeanDescriptors then only test the bits of the mask.
+   */
+  interface Compilable extends RuntimePropertyFilter {
+    /**
+     * Returns the properties of descriptor that are included in this context, usually by calling
+     * {@link PropertyMask#compile(BeanDescriptor, RuntimePropertyFilter, Context)}. The returned mask
+     * is used for all the objects handled by descriptor with ctx.
+     */
+    PropertyMask compile(BeanDescriptor<?> descriptor, Context ctx);
+  }
+}
@@ -13,8 +13,8 @@
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
+import com.owlike.genson.CacheStats;
 import com.owlike.genson.Operations;
 
 /**
@@ -42,8 +42,14 @@ public final class TypeUtil {
     _wrappedPrimitives.put(void.class, Void.class);
   }
 
-  private final static Map<TypeAndRootClassKey, Type> _cache = new ConcurrentHashMap<TypeUtil.TypeAndRootClassKey, Type>(
-    32);
+  private final static int MAX_CACHED_TYPES = 4096;
+  private final static LoaderAwareCache<TypeAndRootClassKey, Type> _cache =
+    new LoaderAwareCache<TypeAndRootClassKey, Type>("expandedTypes", MAX_CACHED_TYPES) {
+      @Override
+      protected Class<?> ownerOfKey(TypeAndRootClassKey key) {
+        return mostSpecific(ownerOf(key.type), ownerOf(key.rootType));
+      }
+    };
 
   public final static Class<?> wrap(Class<?> clazz) {
     Class<?> wrappedClass = _wrappedPrimitives.get(clazz);
@@ -130,7 +136,7 @@ public final static Type expandType(final Type type, final Type rootType) {
           if (expandedType == null)
             throw new IllegalArgumentException("Type " + type + " not supported for expansion!");
 
-          _cache.put(key, expandedType);
+          _cache.putIfAbsent(key, expandedType);
         }
 
         return expandedType;
@@ -364,6 +370,20 @@ public final static Type typeOf(int parameterIdx, Type fromType) {
       + " , you should first locate the parameterized type, expand it and then use typeOf.");
   }
 
+  /**
+   * @return the state of the cache of the expanded types.
+   */
+  public static CacheStats cacheStats() {
+    return _cache.stats();
+  }
+
+  /**
+   * @return the class in which type has been expanded if it is an expanded type, null otherwise.
+   */
+  static Class<?> expandedRootClass(Type type) {
+    return type instanceof ExpandedType ? ((ExpandedType<?>) type).rootClass : null;
+  }
+
   private static Class<?> genericDeclarationToClass(GenericDeclaration declaration) {
     if (declaration instanceof Class)
       return (Class<?>) declaration;
@@ -0,0 +1,142 @@
+package com.owlike.genson.stream;
+
+import java.math.BigInteger;
+
+/**
+ * Converts a decimal significand and a power of ten to the closest double, using the Eisel-Lemire
+ * algorithm (Daniel Lemire, "Number Parsing at a Gigabyte per Second"). The readers scan the digits
+ * directly in their buffer and call this class, the result is the same as the one of
+ * {@link Double#parseDouble(String)}.
+ * <p/>
+ * The algorithm can not decide a few rare cases (values very close to the middle of two doubles,
+ * subnormals and values out of the range of a double), it then returns NaN and the reader falls back
+ * to Double.parseDouble on the text of the number. NaN can never be the result of parsing a json
+ * number, so it is used as a marker.
+ */
+final class DoubleParser {
+  private final static int MIN_EXP10 = -348;
+  private final static int MAX_EXP10 = 347;
+
+  // the 128 bits mantissa of each power of ten between MIN_EXP10 and MAX_EXP10, rounded down
+  private final static long[] POW10_HIGH = new long[MAX_EXP10 - MIN_EXP10 + 1];
+  private final static long[] POW10_LOW = new long[MAX_EXP10 - MIN_EXP10 + 1];
+
+  // the powers of ten that are exactly represented by a double
+  private final static double[] EXACT_POW10 = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+    1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  static {
+    final BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+    for (int e = MIN_EXP10; e <= MAX_EXP10; e++) {
+      BigInteger mantissa;
+      if (e < 0) {
+        BigInteger divisor = BigInteger.TEN.pow(-e);
+        mantissa = BigInteger.ONE.shiftLeft(127 + divisor.bitLength()).divide(divisor);
+      } else {
+        mantissa = BigInteger.TEN.pow(e);
+        int shift = mantissa.bitLength() - 128;
+        mantissa = shift > 0 ? mantissa.shiftRight(shift) : mantissa.shiftLeft(-shift);
+      }
+      POW10_HIGH[e - MIN_EXP10] = mantissa.shiftRight(64).longValue();
+      POW10_LOW[e - MIN_EXP10] = mantissa.and(mask).longValue();
+    }
+  }
+
+  private DoubleParser() {
+  }
+
+  /**
+   * @param significand the first 19 significant digits of the number, as an unsigned long.
+   * @param exp10       the power of ten to apply to significand.
+   * @param negative    whether the number is negative.
+   * @param truncated   true if there were more non zero digits that did not fit in significand.
+   * @return the closest double or NaN if it could not be computed, in that case the caller must use
+   * a slower but exact method.
+   */
+  static double toDouble(long significand, int exp10, boolean negative, boolean truncated) {
+    if (!truncated) return toDouble(significand, exp10, negative);
+
+    // the exact value is between significand and significand + 1, if both round to the same double
+    // it is the result
+    double value = toDouble(significand, exp10, negative);
+    if (value == toDouble(significand + 1, exp10, negative)) return value;
+    return Double.NaN;
+  }
+
+  static double toDouble(long significand, int exp10, boolean negative) {
+    if (significand == 0) return negative ? -0d : 0d;
+
+    // Clinger's fast path, both the significand and the power of ten are exact doubles so the result
+    // of the operation is correctly rounded
+    if (exp10 >= -22 && exp10 <= 22 && significand >= 0 && significand <= (1L << 53)) {
+      double value = significand;
+      value = exp10 < 0 ? value / EXACT_POW10[-exp10] : value * EXACT_POW10[exp10];
+      return negative ? -value : value;
+    }
+
+    if (exp10 < MIN_EXP10 || exp10 > MAX_EXP10) return Double.NaN;
+
+    // normalize the significand so its most significant bit is set
+    final int lz = Long.numberOfLeadingZeros(significand);
+    final long normalized = significand << lz;
+    long exp2 = ((217706L * exp10) >> 16) + 64 + 1023 - lz;
+
+    // multiply by the 64 high bits of the power of ten
+    final int index = exp10 - MIN_EXP10;
+    long high = unsignedMultiplyHigh(normalized, POW10_HIGH[index]);
+    long low = normalized * POW10_HIGH[index];
+
+    // the truncated low bits of the power of ten may change the result, use the full 128 bits
+    if ((high & 0x1FF) == 0x1FF && Long.compareUnsigned(low + normalized, normalized) < 0) {
+      final long secondHigh = unsignedMultiplyHigh(normalized, POW10_LOW[index]);
+      final long secondLow = normalized * POW10_LOW[index];
+      long mergedHigh = high;
+      final long mergedLow = low + secondHigh;
+      if (Long.compareUnsigned(mergedLow, low) < 0) mergedHigh++;
+      if ((mergedHigh & 0x1FF) == 0x1FF && mergedLow + 1 == 0
+        && Long.compareUnsigned(secondLow + normalized, normalized) < 0) {
+        return Double.NaN;
+      }
+      high = mergedHigh;
+      low = mergedLow;
+    }
+
+    // keep 54 bits, the additional one is used for rounding
+    final long msb = high >>> 63;
+    long mantissa = high >>> (msb + 9);
+    exp2 -= 1 ^ msb;
+
+    // exactly in the middle of two doubles, we don't know in which direction to round
+    if (low == 0 && (high & 0x1FF) == 0 && (mantissa & 3) == 1) return Double.NaN;
+
+    mantissa += mantissa & 1;
+    mantissa >>>= 1;
+    if ((mantissa >>> 53) > 0) {
+      mantissa >>>= 1;
+      exp2++;
+    }
+
+    // subnormals, infinity and zero are left to the slow path
+    if (exp2 <= 0 || exp2 >= 0x7FF) return Double.NaN;
+
+    long bits = (exp2 << 52) | (mantissa & 0x000FFFFFFFFFFFFFL);
+    if (negative) bits |= 0x8000000000000000L;
+    return Double.longBitsToDouble(bits);
+  }
+
+  // the 64 high bits of the unsigned 128 bits product of x and y
+  static long unsignedMultiplyHigh(long x, long y) {
+    final long x0 = x & 0xFFFFFFFFL;
+    final long x1 = x >>> 32;
+    final long y0 = y & 0xFFFFFFFFL;
+    final long y1 = y >>> 32;
+    final long p11 = x1 * y1;
+    final long p01 = x0 * y1;
+    final long p10 = x1 * y0;
+    final long p00 = x0 * y0;
+    final long middle = p10 + (p00 >>> 32) + (p01 & 0xFFFFFFFFL);
+    return p11 + (middle >>> 32) + (p01 >>> 32);
+  }
+}
@@ -25,7 +25,7 @@ public class JsonReader implements ObjectReader {
     SKIPPED_TOKENS[' '] = 1;
   }
 
-  private final static boolean[] _NEXT_TOKEN = new boolean[128];
+  final static boolean[] _NEXT_TOKEN = new boolean[128];
 
   static {
     _NEXT_TOKEN[','] = true;
@@ -44,13 +44,13 @@ public class JsonReader implements ObjectReader {
       _NEXT_TOKEN[i] = true;
   }
 
-  private final static char[] _END_OF_LINE = new char[]{'\n'};
-  private final static char[] _END_OF_BLOCK_COMMENT = new char[]{'*', '/'};
+  final static char[] _END_OF_LINE = new char[]{'\n'};
+  final static char[] _END_OF_BLOCK_COMMENT = new char[]{'*', '/'};
 
   /*
    * Recupere dans Jackson
    */
-  private final static int[] sHexValues = new int[128];
+  final static int[] sHexValues = new int[128];
 
   static {
     Arrays.fill(sHexValues, -1);
@@ -63,21 +63,16 @@ public class JsonReader implements ObjectReader {
     }
   }
 
-  private final static double[] _POWS = new double[309];
-
-  static {
-    for (int i = 0; i < _POWS.length; i++)
-      _POWS[i] = Math.pow(10, i);
-  }
-
   private final Reader reader;
-  private final boolean strictDoubleParse;
   private final boolean readMetadata;
   private final char[] _buffer = new char[2048];
+  private final NameCache _names;
   private int _col;
   private int _row;
   private int _cursor;
   private int _buflen;
+  // chars consumed by the previous fills of the buffer
+  private long _consumed;
 
   private char[] _stringBuffer = new char[16];
   private int _stringBufferTail = 0;
@@ -105,9 +100,18 @@ public JsonReader(String source) {
   }
 
   public JsonReader(Reader reader, boolean strictDoubleParse, boolean readMetadata) {
+    this(reader, strictDoubleParse, readMetadata, null);
+  }
+
+  /**
+   * @param strictDoubleParse has no effect, doubles are always parsed exactly. Kept for compatibility.
+   * @param names             a table of known property names, the keys present in it are returned without
+   *                          creating a new String. Can be null.
+   */
+  public JsonReader(Reader reader, boolean strictDoubleParse, boolean readMetadata, PropertyNameTable names) {
     this.reader = reader;
-    this.strictDoubleParse = strictDoubleParse;
     this.readMetadata = readMetadata;
+    this._names = new NameCache(names);
 
     char token = (char) readNextToken(false);
     if ('[' == token) valueType = ARRAY;
@@ -359,7 +363,7 @@ public ValueType next() {
     }
 
     if (JsonType.OBJECT == _ctx.peek()) {
-      currentName = consumeString(ctoken);
+      currentName = consumeName(ctoken);
       if (readNextToken(true) != ':') newWrongTokenException(":", _cursor - 1);
     }
 
@@ -367,6 +371,29 @@ public ValueType next() {
     return valueType;
   }
 
+  @Override
+  public int nextAndMatch(PropertyNameMatcher matcher) {
+    if (JsonType.OBJECT != _ctx.peek()) {
+      next();
+      return -1;
+    }
+
+    _metadata_readen = false;
+    _first = false;
+
+    int ctoken = readNextToken(false);
+    if (ctoken == ',') {
+      _cursor++;
+      ctoken = readNextToken(false);
+    }
+
+    int ordinal = consumeAndMatchName(ctoken, matcher);
+    if (readNextToken(true) != ':') newWrongTokenException(":", _cursor - 1);
+
+    valueType = consumeValue();
+    return ordinal;
+  }
+
   @Override
   public JsonType enclosingType() {
     return _ctx.peek();
@@ -425,6 +452,43 @@ protected final void end(int character, JsonType type) {
     _first = false;
   }
 
+  /**
+   * Same as {@link #consumeString(int)} but names that are fully available in the buffer and don't
+   * contain escaped characters are canonicalized, so reading a known name does not create a String.
+   */
+  protected final String consumeName(int token) {
+    if (token != '"') newMisplacedTokenException(_cursor);
+    final int start = _cursor + 1;
+    int hash = 0;
+    for (int i = start; i < _buflen; i++) {
+      final char c = _buffer[i];
+      if (c == '"') {
+        _cursor = i + 1;
+        return _names.name(_buffer, start, i - start, hash);
+      } else if (c == '\\') break;
+      hash = 31 * hash + c;
+    }
+    return consumeString(token);
+  }
+
+  private int consumeAndMatchName(int token, PropertyNameMatcher matcher) {
+    if (token != '"') newMisplacedTokenException(_cursor);
+    final int start = _cursor + 1;
+    int hash = 0;
+    for (int i = start; i < _buflen; i++) {
+      final char c = _buffer[i];
+      if (c == '"') {
+        _cursor = i + 1;
+        int ordinal = matcher.match(_buffer, start, i - start, hash);
+        currentName = ordinal > -1 ? matcher.name(ordinal) : _names.name(_buffer, start, i - start, hash);
+        return ordinal;
+      } else if (c == '\\') break;
+      hash = 31 * hash + c;
+    }
+    currentName = consumeString(token);
+    return matcher.match(currentName);
+  }
+
   protected final String consumeString(int token) {
     if (token != '"') newMisplacedTokenException(_cursor);
     _cursor++;
@@ -569,10 +633,7 @@ private ValueType consumeNumber() {
       if (cur < _buflen
         && ((token = _buffer[cur]) == 46 || token == 101 || token == 69 || (token > 47 && token < 58))) {
 
-        if (strictDoubleParse) {
-          _cursor = begin;
-          return consumeStrictNumber(cur);
-        } else return consumeDouble(cur, longValue, negative);
+        return consumeDouble(begin, cur, longValue, negative);
       }
     }
 
@@ -582,174 +643,73 @@ private ValueType consumeNumber() {
     return INTEGER;
   }
 
-  // a custom implementation based on fast path principles
-  private ValueType consumeDouble(int cur, long longValue, boolean negative) {
+  /*
+   * Continues reading a number that is not an integer, cur is positioned after the digits already
+   * accumulated in longValue. We keep the 19 first significant digits and the power of ten to apply
+   * to them, DoubleParser then computes the closest double. In the rare cases where it can't,
+   * we fall back to Double.parseDouble.
+   */
+  private ValueType consumeDouble(final int begin, int cur, long longValue, boolean negative) {
     int token;
+    int digits = cur - _cursor;
+    int exp10 = 0;
+    boolean truncated = false;
 
-    // TODO a verifier : on ne veut compter dans les intDigit que ce qui n'est pas pris dans le
-    // longValue, idem pour les decimales??
-    int intDigits = cur - _cursor;
-    int valueDigits = longValue > 0 ? cur - _cursor : 0;
-
-    // ok we have readen as many characters as a long can contain
-    // the next readen characters will serve for the digit count for large integer numbers
-    if (intDigits > 17) {
-      for (; cur < _buflen; cur++) {
-        if (_buffer[cur] < 48 || _buffer[cur] > 57) {
-          break;
-        }
+    // the remaining digits of the integer part that did not fit in the long
+    for (; cur < _buflen; cur++) {
+      token = _buffer[cur];
+      if (token < 48 || token > 57) break;
+      if (digits < 19) {
+        longValue = 10L * longValue + (token - 48);
+        digits++;
+      } else {
+        exp10++;
+        if (token != 48) truncated = true;
       }
-      // only if we advanced
-      if (intDigits != (cur - _cursor)) intDigits = (cur - _cursor) - intDigits;
-    } else
-      // TODO check ça m'a l'air bizarre comme cas...
-      intDigits = 0;
-
-    int decimalDigits = 0;
+    }
 
-    // next possible case is a dot
     if (cur < _buflen && _buffer[cur] == 46) {
-      cur++;
-      int start = cur;
-      // if integer part value is zero we could use scientific notation and win in precision
-      if (longValue == 0) {
-        // reset the counter as we don't care of the leading zeros
-        intDigits = 0;
-        // now lets try to read as many consecutive zeros as available
-        for (; cur < _buflen && _buffer[cur] == 48; cur++) ;
-      }
-      // ok now we must read again into the longValue
-      int len = Math.min(_buflen, cur + (18 - valueDigits));
-
-      for (; cur < len; cur++) {
+      for (cur++; cur < _buflen; cur++) {
         token = _buffer[cur];
-        if (token < 48 || token > 57) {
-          break;
-        }
-        longValue = 10L * longValue + (token - 48);
-      }
-      decimalDigits = cur - start;
-
-      start = cur;
-      // no need to count digits after the precision we support for decimals
-      // continue reading digits and just ignore the values, we will truncate
-      for (; cur < _buflen; cur++) {
-        if (_buffer[cur] < 48 || _buffer[cur] > 57) {
-          break;
-        }
+        if (token < 48 || token > 57) break;
+        if (digits < 19) {
+          // the leading zeros of the decimals are not significant
+          if (digits > 0 || token != 48) {
+            longValue = 10L * longValue + (token - 48);
+            digits++;
+          }
+          exp10--;
+        } else if (token != 48) truncated = true;
       }
     }
 
-    // now try to read exponent E/e
-    if ((cur + 1) < _buflen && (_buffer[cur] == 101 || _buffer[cur] == 69)) {
-      token = _buffer[++cur];
-      boolean negativeExp;
-      // check the sign
-      if (token == 45) {
-        negativeExp = true;
+    if (cur < _buflen && (_buffer[cur] == 101 || _buffer[cur] == 69)) {
+      cur++;
+      boolean negativeExp = false;
+      if (cur < _buflen && (_buffer[cur] == 45 || _buffer[cur] == 43)) {
+        negativeExp = _buffer[cur] == 45;
         cur++;
-      } else {
-        if (token == 43) cur++;
-        negativeExp = false;
       }
-      // read the power of ten
+      int start = cur;
       int powValue = 0;
       for (; cur < _buflen; cur++) {
         token = _buffer[cur];
-        if (token < 48 || token > 57) {
-          break;
-        }
-        powValue = 10 * powValue + (token - 48);
-      }
-
-      // depending on the sign put it in the decimal digit counter or integer digit counter
-      if (negativeExp) decimalDigits += powValue;
-      else intDigits += powValue;
-    }
-
-    // and now make the difference so it balances well
-    decimalDigits = intDigits - decimalDigits;
-
-    if (decimalDigits < 0) {
-            /*
-             * This allows to handle also Double.MIN_VALUE and Double.MIN_NORMAL as
-             * Double.MIN_NORMAL has 16 decimal digits, 308+16=324, but 10^324 overflows the double
-             * capacity, its Infinity. So we use this little trick.
-             */
-      if (decimalDigits < -308) {
-        if (decimalDigits < -325) {
-          _doubleValue = 0;
-        } else {
-          _doubleValue = longValue / _POWS[-decimalDigits - 308];
-          _doubleValue = _doubleValue / _POWS[308];
-        }
-      } else {
-        // better precision than multiplication
-        _doubleValue = longValue / _POWS[-decimalDigits];
-      }
-    } else {
-      if (decimalDigits > 308) {
-        _doubleValue = Double.POSITIVE_INFINITY;
-      } else {
-        // we don't need to apply same technique as before as
-        // 308-16=292 so it's okay :)
-        _doubleValue = longValue * _POWS[decimalDigits];
+        if (token < 48 || token > 57) break;
+        // larger exponents are out of the double range anyway
+        if (powValue < 100000) powValue = 10 * powValue + (token - 48);
       }
+      if (cur == start) newWrongTokenException("the exponent digits", cur < _buflen ? cur : cur - 1);
+      exp10 += negativeExp ? -powValue : powValue;
     }
 
-    _doubleValue = negative ? -_doubleValue : _doubleValue;
+    _doubleValue = DoubleParser.toDouble(longValue, exp10, negative, truncated);
+    if (Double.isNaN(_doubleValue)) _doubleValue = Double.parseDouble(new String(_buffer, begin, cur - begin));
+
     _numberLen = cur - _cursor;
     _cursor = cur;
     return DOUBLE;
   }
 
-  private final ValueType consumeStrictNumber(int localCursor) {
-    if (localCursor < _buflen) {
-      // consider all the remaining integer values as part of the double
-      for (; localCursor < _buflen; localCursor++) {
-        if (_buffer[localCursor] < 48 || _buffer[localCursor] > 57) {
-          break;
-        }
-      }
-    }
-
-    if (localCursor < _buflen) {
-      if (_buffer[localCursor] == '.') {
-        localCursor = advanceWhileNumeric(++localCursor);
-      }
-    }
-
-    if (localCursor + 1 < _buflen) {
-      char ctoken = _buffer[localCursor];
-      if (ctoken == 'e' || ctoken == 'E') {
-        ctoken = _buffer[++localCursor];
-        if (ctoken == '-' || ctoken == '+' || (ctoken > 47 && ctoken < 58)) {
-          localCursor = advanceWhileNumeric(++localCursor);
-        } else newWrongTokenException("'-' or '+' or '' (same as +)");
-      }
-    }
-
-    // it may overflow of the max numeric value we accept to read, it should
-    if (localCursor >= _buflen) {
-
-    }
-
-    _numberLen = localCursor - _cursor;
-    _stringValue = new String(_buffer, _cursor, _numberLen);
-    _doubleValue = Double.parseDouble(_stringValue);
-    _cursor = localCursor;
-    return DOUBLE;
-  }
-
-  private int advanceWhileNumeric(int cursor) {
-    for (; cursor < _buflen; cursor++) {
-      if ((_buffer[cursor] < 48 || _buffer[cursor] > 57)) {
-        return cursor;
-      }
-    }
-    return cursor;
-  }
-
   protected final int readNextToken(boolean consume) {
     while (true) {
       if (_cursor >= _buflen) fillBuffer(true);
@@ -867,6 +827,7 @@ private final void expandStringBuffer(int length) {
 
   private final int fillBuffer(boolean doThrow) {
     if (_cursor < _buflen) return _buflen;
+    if (_buflen > 0) _consumed += _buflen;
     try {
       _buflen = reader.read(_buffer);
     } catch (IOException ioe) {
@@ -885,6 +846,7 @@ private final int ensureBufferHas(int minLength, boolean doThrow) {
         return actualLen;
       }
 
+      _consumed += _cursor;
       System.arraycopy(_buffer, _cursor, _buffer, 0, actualLen);
       for (; actualLen < minLength; ) {
         int len = reader.read(_buffer, actualLen, _buffer.length - actualLen);
@@ -926,6 +888,13 @@ public int row() {
     return _row;
   }
 
+  /**
+   * @return the number of chars consumed so far from the underlying reader.
+   */
+  public long charsRead() {
+    return _consumed + _cursor;
+  }
+
   private final void newWrongTokenException(String awaited, int cursor) {
     // otherwise it fails when an error occurs on first character
     if (cursor < 0) cursor = 0;
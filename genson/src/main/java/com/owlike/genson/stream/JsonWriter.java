@@ -11,8 +11,8 @@ public class JsonWriter implements ObjectWriter {
   /*
    * TODO try to do something different and faster, optimize writeValue(String)
    */
-  private final static char[][] REPLACEMENT_CHARS;
-  private final static char[][] HTML_SAFE_REPLACEMENT_CHARS;
+  final static char[][] REPLACEMENT_CHARS;
+  final static char[][] HTML_SAFE_REPLACEMENT_CHARS;
 
   static {
     REPLACEMENT_CHARS = new char[128][];
@@ -34,14 +34,6 @@ public class JsonWriter implements ObjectWriter {
     HTML_SAFE_REPLACEMENT_CHARS['='] = "\\u003d".toCharArray();
   }
 
-  private final static char[] _INT_TO_CHARARRAY = new char[10];
-
-  static {
-    for (int i = 0; i < 10; i++) {
-      _INT_TO_CHARARRAY[i] = (char) (i + 48);
-    }
-  }
-
   private final static char[] NULL_VALUE = {'n', 'u', 'l', 'l'};
   private final static char[] TRUE_VALUE = {'t', 'r', 'u', 'e'};
   private final static char[] FALSE_VALUE = {'f', 'a', 'l', 's', 'e'};
@@ -61,6 +53,8 @@ public class JsonWriter implements ObjectWriter {
   private final char[] _buffer = new char[1024];
   private final int _bufferSize = _buffer.length;
   private int _len = 0;
+  // chars already written to the underlying writer
+  private long _written = 0;
 
   List<MetadataPair> _metadata = new ArrayList<MetadataPair>();
 
@@ -241,10 +235,7 @@ public JsonWriter writeValue(int value) {
     beforeValue();
     // ok so the buffer must always be bigger than the max length of a long
     if ((_len + 11) >= _bufferSize) flushBuffer();
-    if (value < 0) {
-      _buffer[_len++] = '-';
-      writeInt(-((long) value));
-    } else writeInt(value);
+    _len = NumberFormatter.writeLong(value, _buffer, _len);
     _hasPrevious = true;
     return this;
   }
@@ -253,7 +244,8 @@ public JsonWriter writeValue(final double value) {
     checkValidJsonDouble(value);
     clearMetadata();
     beforeValue();
-    writeToBuffer(Double.toString(value), 0);
+    if ((_len + NumberFormatter.MAX_DOUBLE_LENGTH) >= _bufferSize) flushBuffer();
+    _len = NumberFormatter.writeDouble(value, _buffer, _len);
     _hasPrevious = true;
     return this;
   }
@@ -262,16 +254,8 @@ public JsonWriter writeValue(long value) {
     clearMetadata();
     beforeValue();
     // ok so the buffer must always be bigger than the max length of a long
-    if ((_len + 21) >= _bufferSize) flushBuffer();
-
-
-    if (value < 0) {
-      if (value != Long.MIN_VALUE) {
-        _buffer[_len++] = '-';
-        writeInt(-1 * value);
-      } else writeToBuffer(Long.toString(value), 0);
-    } else writeInt(value);
-
+    if ((_len + NumberFormatter.MAX_LONG_LENGTH) >= _bufferSize) flushBuffer();
+    _len = NumberFormatter.writeLong(value, _buffer, _len);
     _hasPrevious = true;
     return this;
   }
@@ -280,12 +264,8 @@ public ObjectWriter writeValue(short value) {
     clearMetadata();
     beforeValue();
     // ok so the buffer must always be bigger than the max length of a short
-    if ((_len + 5) >= _bufferSize) flushBuffer();
-    if (value < 0) {
-      _buffer[_len++] = '-';
-      value *= -1;
-    }
-    writeInt(value);
+    if ((_len + 6) >= _bufferSize) flushBuffer();
+    _len = NumberFormatter.writeLong(value, _buffer, _len);
     _hasPrevious = true;
     return this;
   }
@@ -294,7 +274,8 @@ public ObjectWriter writeValue(float value) {
     checkValidJsonFloat(value);
     clearMetadata();
     beforeValue();
-    writeToBuffer(Float.toString(value), 0);
+    if ((_len + NumberFormatter.MAX_DOUBLE_LENGTH) >= _bufferSize) flushBuffer();
+    _len = NumberFormatter.writeFloat(value, _buffer, _len);
     _hasPrevious = true;
     return this;
   }
@@ -309,22 +290,9 @@ public JsonWriter writeValue(final boolean value) {
   }
 
   protected final int writeInt(long value) {
-    final int len = (int) Math.log10(value) + 1;
-    if (value == 0) {
-      _buffer[_len++] = '0';
-      return 1;
-    }
-
-    int pos = _len + len - 1;
-    long intPart;
-    for (; value > 0; ) {
-      intPart = value / 10;
-      _buffer[pos--] = _INT_TO_CHARARRAY[(int) (value - (intPart * 10))];
-      value = intPart;
-    }
-
-    _len += len;
-    return len;
+    final int start = _len;
+    _len = NumberFormatter.writeLong(value, _buffer, _len);
+    return _len - start;
   }
 
   public JsonWriter writeValue(final Number value) {
@@ -537,6 +505,7 @@ private final void writeToBuffer(final char[] data, final int offset, final int
       flushBuffer();
       try {
         writer.write(data, offset, length);
+        _written += length;
       } catch (IOException e) {
         throw new JsonStreamException(e);
       }
@@ -555,6 +524,7 @@ private final void writeToBuffer(final String data, final int offset, final int
       flushBuffer();
       try {
         writer.write(data, offset, length);
+        _written += length;
       } catch (IOException e) {
         throw new JsonStreamException(e);
       }
@@ -565,6 +535,7 @@ private final void flushBuffer() {
     try {
       if (_len > 0) {
         writer.write(_buffer, 0, _len);
+        _written += _len;
         _len = 0;
       }
     } catch (IOException ioe) {
@@ -572,6 +543,13 @@ private final void flushBuffer() {
     }
   }
 
+  /**
+   * @return the number of chars written so far, including the ones still buffered.
+   */
+  public long charsWritten() {
+    return _written + _len;
+  }
+
   public Writer unwrap() {
     return writer;
   }
@@ -0,0 +1,50 @@
+package com.owlike.genson.stream;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Used by a single reader to canonicalize the names it reads. Names are first looked up in the shared
+ * {@link PropertyNameTable}, then in a small direct mapped cache of the names this reader has already
+ * created. The cache has a fixed size and entries are simply replaced on collision, so keys chosen by
+ * the sender (for example the keys of a large map) can not make it grow.
+ */
+final class NameCache {
+  private final static int SIZE = 128;
+
+  // may be null when the reader has been created without a table
+  private final PropertyNameTable table;
+  private String[] _cache;
+
+  NameCache(PropertyNameTable table) {
+    this.table = table;
+  }
+
+  String name(final char[] buffer, final int offset, final int length, final int hash) {
+    String name = table != null ? table.find(buffer, offset, length, hash) : null;
+    if (name != null) return name;
+
+    if (_cache == null) _cache = new String[SIZE];
+    final int index = PropertyNameTable.index(hash, SIZE - 1);
+    name = _cache[index];
+    if (name == null || !PropertyNameTable.equals(name, buffer, offset, length)) {
+      name = new String(buffer, offset, length);
+      _cache[index] = name;
+    }
+    return name;
+  }
+
+  // the bytes must all be ASCII chars
+  String name(final byte[] buffer, final int offset, final int length, final int hash) {
+    String name = table != null ? table.find(buffer, offset, length, hash) : null;
+    if (name != null) return name;
+
+    if (_cache == null) _cache = new String[SIZE];
+    final int index = PropertyNameTable.index(hash, SIZE - 1);
+    name = _cache[index];
+    if (name == null || !PropertyNameTable.equals(name, buffer, offset, length)) {
+      name = new String(buffer, offset, length, StandardCharsets.ISO_8859_1);
+      _cache[index] = name;
+    }
+    return name;
+  }
+}
@@ -0,0 +1,573 @@
+package com.owlike.genson.stream;
+
+import java.math.BigInteger;
+
+import static com.owlike.genson.stream.DoubleParser.unsignedMultiplyHigh;
+
+/**
+ * Writes numbers as ASCII chars directly in the writers buffer, without creating intermediate Strings.
+ * <p/>
+ * Doubles and floats are written with the shortest decimal that reads back to the same value, using
+ * the Schubfach algorithm (Raffaello Giulietti, "The Schubfach way to render doubles"). The format is
+ * the one of {@link Double#toString(double)} and {@link Float#toString(float)}: plain notation between
+ * 10^-3 and 10^7, computerized scientific notation otherwise. Note that before Java 19 Double.toString
+ * did not always produce the shortest decimal, so in rare cases the output has less digits than what
+ * Double.toString returns on older JVMs, it is still read back to the same double.
+ * <p/>
+ * Integers are written two digits at a time using lookup tables.
+ */
+final class NumberFormatter {
+  // the longest double is -2.2250738585072014E-308
+  final static int MAX_DOUBLE_LENGTH = 24;
+  // the longest long is -9223372036854775808
+  final static int MAX_LONG_LENGTH = 20;
+
+  private final static byte[] DIGIT_TENS = new byte[100];
+  private final static byte[] DIGIT_ONES = new byte[100];
+  private final static byte[] MIN_LONG = "-9223372036854775808".getBytes();
+
+  private final static long[] POW10 = new long[19];
+
+  // Schubfach constants for doubles
+  private final static int D_P = 53;
+  private final static int D_Q_MIN = -1074;
+  private final static long D_C_MIN = 1L << (D_P - 1);
+  private final static int D_BQ_MASK = (1 << 11) - 1;
+  private final static long D_T_MASK = (1L << (D_P - 1)) - 1;
+  private final static long D_C_TINY = 3;
+  private final static int D_H = 17;
+
+  // Schubfach constants for floats
+  private final static int F_P = 24;
+  private final static int F_Q_MIN = -149;
+  private final static int F_C_MIN = 1 << (F_P - 1);
+  private final static int F_BQ_MASK = (1 << 8) - 1;
+  private final static int F_T_MASK = (1 << (F_P - 1)) - 1;
+  private final static int F_C_TINY = 8;
+  private final static int F_H = 9;
+
+  private final static long MASK_63 = (1L << 63) - 1;
+  private final static long MASK_32 = (1L << 32) - 1;
+  private final static int MASK_28 = (1 << 28) - 1;
+
+  /*
+   * For each k between K_MIN and K_MAX, g = floor(10^-k * 2^-r) + 1 where r is chosen so that
+   * 2^125 <= g < 2^126, split in its 63 high bits (G1) and 63 low bits (G0).
+   */
+  private final static int K_MIN = -324;
+  private final static int K_MAX = 292;
+  private final static long[] G1 = new long[K_MAX - K_MIN + 1];
+  private final static long[] G0 = new long[K_MAX - K_MIN + 1];
+
+  static {
+    for (int i = 0; i < 100; i++) {
+      DIGIT_TENS[i] = (byte) ('0' + i / 10);
+      DIGIT_ONES[i] = (byte) ('0' + i % 10);
+    }
+
+    POW10[0] = 1;
+    for (int i = 1; i < POW10.length; i++) POW10[i] = 10 * POW10[i - 1];
+
+    final BigInteger mask63 = BigInteger.valueOf(MASK_63);
+    for (int k = K_MIN; k <= K_MAX; k++) {
+      BigInteger g;
+      if (k <= 0) {
+        BigInteger pow = BigInteger.TEN.pow(-k);
+        int r = pow.bitLength() - 126;
+        g = r >= 0 ? pow.shiftRight(r) : pow.shiftLeft(-r);
+      } else {
+        BigInteger pow = BigInteger.TEN.pow(k);
+        g = BigInteger.ONE.shiftLeft(125 + pow.bitLength()).divide(pow);
+      }
+      g = g.add(BigInteger.ONE);
+      G1[k - K_MIN] = g.shiftRight(63).longValue();
+      G0[k - K_MIN] = g.and(mask63).longValue();
+    }
+  }
+
+  private NumberFormatter() {
+  }
+
+  /**
+   * Writes value in buffer starting at pos, value can be negative.
+   *
+   * @return the position following the last written char.
+   */
+  static int writeLong(long value, final byte[] buffer, int pos) {
+    if (value < 0) {
+      if (value == Long.MIN_VALUE) {
+        System.arraycopy(MIN_LONG, 0, buffer, pos, MIN_LONG.length);
+        return pos + MIN_LONG.length;
+      }
+      buffer[pos++] = '-';
+      value = -value;
+    }
+
+    final int end = pos + digitCount(value);
+    int i = end;
+    while (value > Integer.MAX_VALUE) {
+      final long q = value / 100;
+      final int r = (int) (value - q * 100);
+      value = q;
+      buffer[--i] = DIGIT_ONES[r];
+      buffer[--i] = DIGIT_TENS[r];
+    }
+    int intValue = (int) value;
+    while (intValue >= 100) {
+      final int q = intValue / 100;
+      final int r = intValue - q * 100;
+      intValue = q;
+      buffer[--i] = DIGIT_ONES[r];
+      buffer[--i] = DIGIT_TENS[r];
+    }
+    if (intValue >= 10) {
+      buffer[--i] = DIGIT_ONES[intValue];
+      buffer[--i] = DIGIT_TENS[intValue];
+    } else buffer[--i] = (byte) ('0' + intValue);
+    return end;
+  }
+
+  /**
+   * Same as {@link #writeLong(long, byte[], int)} but for char buffers.
+   */
+  static int writeLong(long value, final char[] buffer, int pos) {
+    if (value < 0) {
+      if (value == Long.MIN_VALUE) {
+        for (byte b : MIN_LONG) buffer[pos++] = (char) b;
+        return pos;
+      }
+      buffer[pos++] = '-';
+      value = -value;
+    }
+
+    final int end = pos + digitCount(value);
+    int i = end;
+    while (value > Integer.MAX_VALUE) {
+      final long q = value / 100;
+      final int r = (int) (value - q * 100);
+      value = q;
+      buffer[--i] = (char) DIGIT_ONES[r];
+      buffer[--i] = (char) DIGIT_TENS[r];
+    }
+    int intValue = (int) value;
+    while (intValue >= 100) {
+      final int q = intValue / 100;
+      final int r = intValue - q * 100;
+      intValue = q;
+      buffer[--i] = (char) DIGIT_ONES[r];
+      buffer[--i] = (char) DIGIT_TENS[r];
+    }
+    if (intValue >= 10) {
+      buffer[--i] = (char) DIGIT_ONES[intValue];
+      buffer[--i] = (char) DIGIT_TENS[intValue];
+    } else buffer[--i] = (char) ('0' + intValue);
+    return end;
+  }
+
+  // value must be positive
+  private static int digitCount(long value) {
+    int count = 1;
+    while (count < 19 && value >= POW10[count]) count++;
+    return count;
+  }
+
+  /**
+   * Writes the shortest decimal representation of value in buffer starting at pos, value must be finite.
+   * The buffer must have at least MAX_DOUBLE_LENGTH bytes available.
+   *
+   * @return the position following the last written char.
+   */
+  static int writeDouble(final double value, final byte[] buffer, int pos) {
+    final long bits = Double.doubleToRawLongBits(value);
+    if (bits < 0) buffer[pos++] = '-';
+    if ((bits & MASK_63) == 0) return writeZero(buffer, pos);
+    return writeDecimal(doubleSignificand(bits), doubleExponent(bits), buffer, pos);
+  }
+
+  /**
+   * Same as {@link #writeDouble(double, byte[], int)} but for char buffers.
+   */
+  static int writeDouble(final double value, final char[] buffer, int pos) {
+    final long bits = Double.doubleToRawLongBits(value);
+    if (bits < 0) buffer[pos++] = '-';
+    if ((bits & MASK_63) == 0) return writeZero(buffer, pos);
+    return writeDecimal(doubleSignificand(bits), doubleExponent(bits), buffer, pos);
+  }
+
+  /**
+   * Same as {@link #writeDouble(double, byte[], int)} but for floats.
+   */
+  static int writeFloat(final float value, final byte[] buffer, int pos) {
+    final int bits = Float.floatToRawIntBits(value);
+    if (bits < 0) buffer[pos++] = '-';
+    if ((bits & Integer.MAX_VALUE) == 0) return writeZero(buffer, pos);
+    return writeDecimal(floatSignificand(bits), floatExponent(bits), buffer, pos);
+  }
+
+  /**
+   * Same as {@link #writeFloat(float, byte[], int)} but for char buffers.
+   */
+  static int writeFloat(final float value, final char[] buffer, int pos) {
+    final int bits = Float.floatToRawIntBits(value);
+    if (bits < 0) buffer[pos++] = '-';
+    if ((bits & Integer.MAX_VALUE) == 0) return writeZero(buffer, pos);
+    return writeDecimal(floatSignificand(bits), floatExponent(bits), buffer, pos);
+  }
+
+  /*
+   * The shortest decimal f * 10^e of a finite and non zero value is computed as its significand f
+   * and its exponent e, only the writing of the digits depends on the type of the buffer.
+   */
+
+  private static long doubleSignificand(final long bits) {
+    final long t = bits & D_T_MASK;
+    final int bq = (int) (bits >>> (D_P - 1)) & D_BQ_MASK;
+    if (bq != 0) {
+      // normal value
+      final int mq = -D_Q_MIN + 1 - bq;
+      final long c = D_C_MIN | t;
+      // integers are written as is
+      if (0 < mq && mq < D_P && (c >> mq) << mq == c) return c >> mq;
+      return doubleSignificand(-mq, c);
+    }
+    // subnormal value
+    return t < D_C_TINY ? doubleSignificand(D_Q_MIN, 10 * t) : doubleSignificand(D_Q_MIN, t);
+  }
+
+  private static int doubleExponent(final long bits) {
+    final long t = bits & D_T_MASK;
+    final int bq = (int) (bits >>> (D_P - 1)) & D_BQ_MASK;
+    if (bq != 0) {
+      final int mq = -D_Q_MIN + 1 - bq;
+      final long c = D_C_MIN | t;
+      if (0 < mq && mq < D_P && (c >> mq) << mq == c) return 0;
+      return doubleK(-mq, c);
+    }
+    // the tiny subnormals are scaled by 10
+    return t < D_C_TINY ? doubleK(D_Q_MIN, 10 * t) - 1 : doubleK(D_Q_MIN, t);
+  }
+
+  private static int doubleK(final int q, final long c) {
+    return c != D_C_MIN || q == D_Q_MIN ? flog10pow2(q) : flog10threeQuartersPow2(q);
+  }
+
+  // the double value is c * 2^q, finds the shortest decimal in its rounding interval
+  private static long doubleSignificand(final int q, final long c) {
+    final int out = (int) c & 0x1;
+    final long cb = c << 2;
+    final long cbr = cb + 2;
+    final long cbl = c != D_C_MIN || q == D_Q_MIN ? cb - 2 : cb - 1;
+    final int k = doubleK(q, c);
+    final int h = q + flog2pow10(-k) + 2;
+
+    final long g1 = G1[k - K_MIN];
+    final long g0 = G0[k - K_MIN];
+    final long vb = rop(g1, g0, cb << h);
+    final long vbl = rop(g1, g0, cbl << h);
+    final long vbr = rop(g1, g0, cbr << h);
+
+    final long s = vb >> 2;
+    if (s >= 100) {
+      // s' = floor(s / 10), try first with one digit less
+      final long sp10 = 10 * unsignedMultiplyHigh(s, 115292150460684698L << 4);
+      final long tp10 = sp10 + 10;
+      final boolean upin = vbl + out <= sp10 << 2;
+      final boolean wpin = (tp10 << 2) + out <= vbr;
+      if (upin != wpin) return upin ? sp10 : tp10;
+    }
+
+    final long t = s + 1;
+    final boolean uin = vbl + out <= s << 2;
+    final boolean win = (t << 2) + out <= vbr;
+    if (uin != win) return uin ? s : t;
+
+    // both are in the rounding interval, use the closest one
+    final long cmp = vb - ((s + t) << 1);
+    return cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t;
+  }
+
+  private static long rop(final long g1, final long g0, final long cp) {
+    final long x1 = unsignedMultiplyHigh(g0, cp);
+    final long y0 = g1 * cp;
+    final long y1 = unsignedMultiplyHigh(g1, cp);
+    final long z = (y0 >>> 1) + x1;
+    final long vbp = y1 + (z >>> 63);
+    return vbp | ((z & MASK_63) + MASK_63) >>> 63;
+  }
+
+  private static int floatSignificand(final int bits) {
+    final int t = bits & F_T_MASK;
+    final int bq = (bits >>> (F_P - 1)) & F_BQ_MASK;
+    if (bq != 0) {
+      final int mq = -F_Q_MIN + 1 - bq;
+      final int c = F_C_MIN | t;
+      if (0 < mq && mq < F_P && (c >> mq) << mq == c) return c >> mq;
+      return floatSignificand(-mq, c);
+    }
+    return t < F_C_TINY ? floatSignificand(F_Q_MIN, 10 * t) : floatSignificand(F_Q_MIN, t);
+  }
+
+  private static int floatExponent(final int bits) {
+    final int t = bits & F_T_MASK;
+    final int bq = (bits >>> (F_P - 1)) & F_BQ_MASK;
+    if (bq != 0) {
+      final int mq = -F_Q_MIN + 1 - bq;
+      final int c = F_C_MIN | t;
+      if (0 < mq && mq < F_P && (c >> mq) << mq == c) return 0;
+      return floatK(-mq, c);
+    }
+    return t < F_C_TINY ? floatK(F_Q_MIN, 10 * t) - 1 : floatK(F_Q_MIN, t);
+  }
+
+  private static int floatK(final int q, final int c) {
+    return c != F_C_MIN || q == F_Q_MIN ? flog10pow2(q) : flog10threeQuartersPow2(q);
+  }
+
+  private static int floatSignificand(final int q, final int c) {
+    final int out = c & 0x1;
+    final long cb = (long) c << 2;
+    final long cbr = cb + 2;
+    final long cbl = c != F_C_MIN || q == F_Q_MIN ? cb - 2 : cb - 1;
+    final int k = floatK(q, c);
+    final int h = q + flog2pow10(-k) + 33;
+
+    final long g = G1[k - K_MIN] + 1;
+    final int vb = rop(g, cb << h);
+    final int vbl = rop(g, cbl << h);
+    final int vbr = rop(g, cbr << h);
+
+    final int s = vb >> 2;
+    if (s >= 100) {
+      final int sp10 = 10 * (int) (s * 1717986919L >>> 34);
+      final int tp10 = sp10 + 10;
+      final boolean upin = vbl + out <= sp10 << 2;
+      final boolean wpin = (tp10 << 2) + out <= vbr;
+      if (upin != wpin) return upin ? sp10 : tp10;
+    }
+
+    final int t = s + 1;
+    final boolean uin = vbl + out <= s << 2;
+    final boolean win = (t << 2) + out <= vbr;
+    if (uin != win) return uin ? s : t;
+
+    final int cmp = vb - ((s + t) << 1);
+    return cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t;
+  }
+
+  private static int rop(final long g, final long cp) {
+    final long x1 = unsignedMultiplyHigh(g, cp);
+    final long vbp = x1 >>> 31;
+    return (int) (vbp | ((x1 & MASK_32) + MASK_32) >>> 32);
+  }
+
+  /*
+   * The digits are written by the methods below, each has a byte and a char version. f has at most
+   * 17 digits, the value of a float has at most 9.
+   */
+
+  // writes f * 10^e
+  private static int writeDecimal(long f, int e, final byte[] buffer, int pos) {
+    int len = flog10pow2(64 - Long.numberOfLeadingZeros(f));
+    if (f >= POW10[len]) len++;
+
+    // now f has exactly 17 digits and the value is 0.f * 10^e
+    f *= POW10[D_H - len];
+    e += len;
+
+    // split f in its first digit, the 8 next ones and the 8 last ones
+    final long hm = unsignedMultiplyHigh(f, 193428131138340668L) >>> 20;
+    final int l = (int) (f - 100000000L * hm);
+    final int h = (int) (hm * 1441151881L >>> 57);
+    final int m = (int) (hm - 100000000 * h);
+
+    if (0 < e && e <= 7) {
+      // plain notation without leading zeros
+      buffer[pos++] = (byte) ('0' + h);
+      int y = y(m);
+      int i = 1;
+      for (; i < e; i++) {
+        final int d = 10 * y;
+        buffer[pos++] = (byte) ('0' + (d >>> 28));
+        y = d & MASK_28;
+      }
+      buffer[pos++] = '.';
+      for (; i <= 8; i++) {
+        final int d = 10 * y;
+        buffer[pos++] = (byte) ('0' + (d >>> 28));
+        y = d & MASK_28;
+      }
+      if (l != 0) pos = write8Digits(l, buffer, pos);
+      return removeTrailingZeros(buffer, pos);
+    } else if (-3 < e && e <= 0) {
+      // plain notation with leading zeros
+      buffer[pos++] = '0';
+      buffer[pos++] = '.';
+      for (; e < 0; e++) buffer[pos++] = '0';
+      buffer[pos++] = (byte) ('0' + h);
+      pos = write8Digits(m, buffer, pos);
+      if (l != 0) pos = write8Digits(l, buffer, pos);
+      return removeTrailingZeros(buffer, pos);
+    } else {
+      // scientific notation
+      buffer[pos++] = (byte) ('0' + h);
+      buffer[pos++] = '.';
+      pos = write8Digits(m, buffer, pos);
+      if (l != 0) pos = write8Digits(l, buffer, pos);
+      pos = removeTrailingZeros(buffer, pos);
+      return writeExponent(e - 1, buffer, pos);
+    }
+  }
+
+  private static int writeDecimal(long f, int e, final char[] buffer, int pos) {
+    int len = flog10pow2(64 - Long.numberOfLeadingZeros(f));
+    if (f >= POW10[len]) len++;
+
+    f *= POW10[D_H - len];
+    e += len;
+
+    final long hm = unsignedMultiplyHigh(f, 193428131138340668L) >>> 20;
+    final int l = (int) (f - 100000000L * hm);
+    final int h = (int) (hm * 1441151881L >>> 57);
+    final int m = (int) (hm - 100000000 * h);
+
+    if (0 < e && e <= 7) {
+      buffer[pos++] = (char) ('0' + h);
+      int y = y(m);
+      int i = 1;
+      for (; i < e; i++) {
+        final int d = 10 * y;
+        buffer[pos++] = (char) ('0' + (d >>> 28));
+        y = d & MASK_28;
+      }
+      buffer[pos++] = '.';
+      for (; i <= 8; i++) {
+        final int d = 10 * y;
+        buffer[pos++] = (char) ('0' + (d >>> 28));
+        y = d & MASK_28;
+      }
+      if (l != 0) pos = write8Digits(l, buffer, pos);
+      return removeTrailingZeros(buffer, pos);
+    } else if (-3 < e && e <= 0) {
+      buffer[pos++] = '0';
+      buffer[pos++] = '.';
+      for (; e < 0; e++) buffer[pos++] = '0';
+      buffer[pos++] = (char) ('0' + h);
+      pos = write8Digits(m, buffer, pos);
+      if (l != 0) pos = write8Digits(l, buffer, pos);
+      return removeTrailingZeros(buffer, pos);
+    } else {
+      buffer[pos++] = (char) ('0' + h);
+      buffer[pos++] = '.';
+      pos = write8Digits(m, buffer, pos);
+      if (l != 0) pos = write8Digits(l, buffer, pos);
+      pos = removeTrailingZeros(buffer, pos);
+      return writeExponent(e - 1, buffer, pos);
+    }
+  }
+
+  // writes the 8 digits of value, including its leading zeros
+  private static int write8Digits(final int value, final byte[] buffer, int pos) {
+    int y = y(value);
+    for (int i = 0; i < 8; i++) {
+      final int d = 10 * y;
+      buffer[pos++] = (byte) ('0' + (d >>> 28));
+      y = d & MASK_28;
+    }
+    return pos;
+  }
+
+  private static int write8Digits(final int value, final char[] buffer, int pos) {
+    int y = y(value);
+    for (int i = 0; i < 8; i++) {
+      final int d = 10 * y;
+      buffer[pos++] = (char) ('0' + (d >>> 28));
+      y = d & MASK_28;
+    }
+    return pos;
+  }
+
+  // value * 2^28 / 10^8, used to extract the digits from left to right
+  private static int y(final int value) {
+    return (int) (unsignedMultiplyHigh((long) (value + 1) << 28, 193428131138340668L) >>> 20) - 1;
+  }
+
+  // removes the trailing zeros but keeps one after the dot
+  private static int removeTrailingZeros(final byte[] buffer, int pos) {
+    while (buffer[pos - 1] == '0') pos--;
+    if (buffer[pos - 1] == '.') pos++;
+    return pos;
+  }
+
+  private static int removeTrailingZeros(final char[] buffer, int pos) {
+    while (buffer[pos - 1] == '0') pos--;
+    if (buffer[pos - 1] == '.') pos++;
+    return pos;
+  }
+
+  private static int writeExponent(int e, final byte[] buffer, int pos) {
+    buffer[pos++] = 'E';
+    if (e < 0) {
+      buffer[pos++] = '-';
+      e = -e;
+    }
+    if (e >= 100) {
+      final int d = e * 1311 >>> 17;
+      buffer[pos++] = (byte) ('0' + d);
+      e -= 100 * d;
+      buffer[pos++] = DIGIT_TENS[e];
+      buffer[pos++] = DIGIT_ONES[e];
+    } else if (e >= 10) {
+      buffer[pos++] = DIGIT_TENS[e];
+      buffer[pos++] = DIGIT_ONES[e];
+    } else buffer[pos++] = (byte) ('0' + e);
+    return pos;
+  }
+
+  private static int writeExponent(int e, final char[] buffer, int pos) {
+    buffer[pos++] = 'E';
+    if (e < 0) {
+      buffer[pos++] = '-';
+      e = -e;
+    }
+    if (e >= 100) {
+      final int d = e * 1311 >>> 17;
+      buffer[pos++] = (char) ('0' + d);
+      e -= 100 * d;
+      buffer[pos++] = (char) DIGIT_TENS[e];
+      buffer[pos++] = (char) DIGIT_ONES[e];
+    } else if (e >= 10) {
+      buffer[pos++] = (char) DIGIT_TENS[e];
+      buffer[pos++] = (char) DIGIT_ONES[e];
+    } else buffer[pos++] = (char) ('0' + e);
+    return pos;
+  }
+
+  private static int writeZero(final byte[] buffer, int pos) {
+    buffer[pos++] = '0';
+    buffer[pos++] = '.';
+    buffer[pos++] = '0';
+    return pos;
+  }
+
+  private static int writeZero(final char[] buffer, int pos) {
+    buffer[pos++] = '0';
+    buffer[pos++] = '.';
+    buffer[pos++] = '0';
+    return pos;
+  }
+
+  // floor(e * log10(2))
+  private static int flog10pow2(final int e) {
+    return (int) (e * 661971961083L >> 41);
+  }
+
+  // floor(e * log10(2) + log10(3/4))
+  private static int flog10threeQuartersPow2(final int e) {
+    return (int) (e * 661971961083L + (-274743187321L) >> 41);
+  }
+
+  // floor(e * log2(10))
+  private static int flog2pow10(final int e) {
+    return (int) (e * 913124641741L >> 38);
+  }
+}
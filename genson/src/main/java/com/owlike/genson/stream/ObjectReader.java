@@ -140,6 +140,19 @@ public interface ObjectReader extends Closeable {
    */
   ValueType next();
 
+  /**
+   * Same as {@link #next()} but when inside an object the name of the property is also matched
+   * against matcher. Implementations can do the matching directly on their buffer so that no String
+   * is created for the names known by the matcher. {@link #name()} is still available after this call.
+   *
+   * @return the ordinal of the name in matcher, or -1 if it is not part of it or if we are not in an object.
+   * @throws JsonStreamException
+   */
+  default int nextAndMatch(PropertyNameMatcher matcher) {
+    next();
+    return enclosingType() == JsonType.OBJECT ? matcher.match(name()) : -1;
+  }
+
   /**
    * @return true if there is a next property or value, false otherwise.
    * @throws JsonStreamException
@@ -0,0 +1,101 @@
+package com.owlike.genson.stream;
+
+import java.util.Collection;
+
+/**
+ * Associates a fixed set of property names to ordinals (their position in the list used to build the
+ * matcher). Readers can match a name directly from the characters in their buffer, using the hash
+ * computed while scanning it, so no String is created for the names being matched.
+ * <p/>
+ * The matcher is built once, for example by a BeanDescriptor, and is immutable so it can be shared.
+ * When building it we look for a table size where all the names have a different slot, so most lookups
+ * need a single comparison. If none is found in a reasonable size it falls back to linear probing.
+ *
+ * @see ObjectReader#nextAndMatch(PropertyNameMatcher)
+ */
+public final class PropertyNameMatcher {
+  private final static int MAX_LOAD_FACTOR_INVERSE = 16;
+
+  private final String[] _names;
+  private final String[] _slots;
+  private final int[] _ordinals;
+  private final int _mask;
+
+  public PropertyNameMatcher(Collection<String> names) {
+    this(names.toArray(new String[names.size()]));
+  }
+
+  public PropertyNameMatcher(String... names) {
+    _names = names.clone();
+
+    int size = 2;
+    while (size < 2 * _names.length) size <<= 1;
+    while (hasCollisions(_names, size - 1) && size < MAX_LOAD_FACTOR_INVERSE * _names.length) size <<= 1;
+
+    _mask = size - 1;
+    _slots = new String[size];
+    _ordinals = new int[size];
+    for (int ordinal = 0; ordinal < _names.length; ordinal++) {
+      String name = _names[ordinal];
+      int i = PropertyNameTable.index(name.hashCode(), _mask);
+      while (_slots[i] != null) {
+        if (_slots[i].equals(name))
+          throw new IllegalArgumentException("Duplicate name " + name + " in PropertyNameMatcher.");
+        i = (i + 1) & _mask;
+      }
+      _slots[i] = name;
+      _ordinals[i] = ordinal;
+    }
+  }
+
+  private static boolean hasCollisions(String[] names, int mask) {
+    boolean[] used = new boolean[mask + 1];
+    for (String name : names) {
+      int i = PropertyNameTable.index(name.hashCode(), mask);
+      if (used[i]) return true;
+      used[i] = true;
+    }
+    return false;
+  }
+
+  /**
+   * @return the number of names in this matcher.
+   */
+  public int size() {
+    return _names.length;
+  }
+
+  /**
+   * @return the name having this ordinal.
+   */
+  public String name(int ordinal) {
+    return _names[ordinal];
+  }
+
+  /**
+   * @return the ordinal of name or -1 if it is not part of this matcher.
+   */
+  public int match(String name) {
+    for (int i = PropertyNameTable.index(name.hashCode(), _mask); ; i = (i + 1) & _mask) {
+      String candidate = _slots[i];
+      if (candidate == null) return -1;
+      if (candidate.equals(name)) return _ordinals[i];
+    }
+  }
+
+  int match(final char[] buffer, final int offset, final int length, final int hash) {
+    for (int i = PropertyNameTable.index(hash, _mask); ; i = (i + 1) & _mask) {
+      String candidate = _slots[i];
+      if (candidate == null) return -1;
+      if (PropertyNameTable.equals(candidate, buffer, offset, length)) return _ordinals[i];
+    }
+  }
+
+  int match(final byte[] buffer, final int offset, final int length, final int hash) {
+    for (int i = PropertyNameTable.index(hash, _mask); ; i = (i + 1) & _mask) {
+      String candidate = _slots[i];
+      if (candidate == null) return -1;
+      if (PropertyNameTable.equals(candidate, buffer, offset, length)) return _ordinals[i];
+    }
+  }
+}
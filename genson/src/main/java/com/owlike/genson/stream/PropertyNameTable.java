@@ -0,0 +1,138 @@
+package com.owlike.genson.stream;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A table of canonical property names. Readers use it to return an existing String instance when
+ * they read a known key, instead of creating a new one for each key. Lookups are done on the
+ * characters (or the ASCII bytes) directly in the reader buffer, using the same hash as
+ * {@link String#hashCode()} computed while scanning the key.
+ * <p/>
+ * Genson fills its table with the property names (and aliases) of the BeanDescriptors it creates,
+ * the table never contains names coming from the parsed content. It can be shared between threads:
+ * additions are rare and publish a new array, so lookups don't need any synchronization. All the
+ * names added together are inserted in a single copy of the table, published with a compare and set
+ * that is retried if another thread published its names first.
+ */
+public final class PropertyNameTable {
+  private final static AtomicReferenceFieldUpdater<PropertyNameTable, String[]> NAMES =
+    AtomicReferenceFieldUpdater.newUpdater(PropertyNameTable.class, String[].class, "_names");
+
+  private volatile String[] _names = new String[64];
+
+  public PropertyNameTable() {
+  }
+
+  public PropertyNameTable(Collection<String> names) {
+    addAll(names);
+  }
+
+  public void addAll(Collection<String> names) {
+    for (; ; ) {
+      final String[] current = _names;
+      List<String> missing = null;
+      for (String name : names) {
+        if (find(current, name) == null) {
+          if (missing == null) missing = new ArrayList<String>();
+          missing.add(name);
+        }
+      }
+      if (missing == null) return;
+
+      final int size = count(current) + missing.size();
+      int length = current.length;
+      while (size * 2 > length) length *= 2;
+      final String[] updated = length == current.length ? current.clone() : rehash(current, length);
+      // the collection can contain the same name several times
+      for (String name : missing) {
+        if (find(updated, name) == null) insert(updated, name);
+      }
+      if (NAMES.compareAndSet(this, current, updated)) return;
+    }
+  }
+
+  public void add(String name) {
+    addAll(Collections.singleton(name));
+  }
+
+  public int size() {
+    return count(_names);
+  }
+
+  String find(String name) {
+    return find(_names, name);
+  }
+
+  private static String find(final String[] names, final String name) {
+    final int mask = names.length - 1;
+    for (int i = index(name.hashCode(), mask); ; i = (i + 1) & mask) {
+      String candidate = names[i];
+      if (candidate == null || candidate.equals(name)) return candidate;
+    }
+  }
+
+  String find(final char[] buffer, final int offset, final int length, final int hash) {
+    final String[] names = _names;
+    final int mask = names.length - 1;
+    for (int i = index(hash, mask); ; i = (i + 1) & mask) {
+      String candidate = names[i];
+      if (candidate == null || equals(candidate, buffer, offset, length)) return candidate;
+    }
+  }
+
+  String find(final byte[] buffer, final int offset, final int length, final int hash) {
+    final String[] names = _names;
+    final int mask = names.length - 1;
+    for (int i = index(hash, mask); ; i = (i + 1) & mask) {
+      String candidate = names[i];
+      if (candidate == null || equals(candidate, buffer, offset, length)) return candidate;
+    }
+  }
+
+  static boolean equals(String name, char[] buffer, int offset, int length) {
+    if (name.length() != length) return false;
+    for (int i = 0; i < length; i++) {
+      if (name.charAt(i) != buffer[offset + i]) return false;
+    }
+    return true;
+  }
+
+  static boolean equals(String name, byte[] buffer, int offset, int length) {
+    if (name.length() != length) return false;
+    for (int i = 0; i < length; i++) {
+      if (name.charAt(i) != buffer[offset + i]) return false;
+    }
+    return true;
+  }
+
+  static int index(int hash, int mask) {
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  private static int count(String[] names) {
+    int count = 0;
+    for (String name : names) {
+      if (name != null) count++;
+    }
+    return count;
+  }
+
+  private static String[] rehash(String[] names, int newLength) {
+    String[] newNames = new String[newLength];
+    for (String name : names) {
+      if (name != null) insert(newNames, name);
+    }
+    return newNames;
+  }
+
+  private static void insert(String[] names, String name) {
+    final int mask = names.length - 1;
+    int i = index(name.hashCode(), mask);
+    while (names[i] != null) i = (i + 1) & mask;
+    names[i] = name;
+  }
+}
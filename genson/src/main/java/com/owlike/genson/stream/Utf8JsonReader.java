@@ -0,0 +1,969 @@
+package com.owlike.genson.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.owlike.genson.stream.JsonReader.*;
+import static com.owlike.genson.stream.ValueType.*;
+
+/**
+ * A JsonReader working directly on UTF-8 encoded bytes. The structure of the document is tokenized
+ * on the raw bytes and only the strings that are actually returned (names and string values) are
+ * decoded, so the input is never converted as a whole to UTF-16 like it is done when using
+ * {@link JsonReader} with an InputStreamReader.
+ * <p/>
+ * When reading from a byte array the array is used as is, without any copy. When reading from an
+ * InputStream the bytes are read in chunks into an internal buffer.
+ * <p/>
+ * Except the encoding, this reader behaves exactly as {@link JsonReader}.
+ *
+ * @see JsonReader
+ */
+public class Utf8JsonReader implements ObjectReader {
+  private final static Charset ASCII_CHARSET = Charset.forName("ISO-8859-1");
+  private final static char REPLACEMENT_CHAR = '\uFFFD';
+
+  private final InputStream input;
+  private final boolean readMetadata;
+  private final byte[] _buffer;
+  private final NameCache _names;
+  // where the content starts in the buffer, is different from 0 only when reading from a byte array
+  private final int _offset;
+  private int _col;
+  private int _row;
+  private int _cursor;
+  private int _buflen;
+  // bytes consumed by the previous fills of the buffer, starts at -offset when reading from a byte array
+  private long _consumed;
+
+  private char[] _stringBuffer = new char[16];
+  private int _stringBufferTail = 0;
+  private int _stringBufferLength = _stringBuffer.length;
+
+  private String currentName;
+  private String _stringValue;
+  protected long _intValue;
+  protected double _doubleValue;
+  private int _numberLen = 0;
+  private Boolean _booleanValue;
+  private ValueType valueType;
+  private boolean _first = true;
+  private boolean _metadata_readen = false;
+  private Map<String, String> _metadata = new HashMap<String, String>(5);
+
+  private final Deque<JsonType> _ctx = new ArrayDeque<JsonType>(10);
+
+  {
+    _ctx.push(JsonType.EMPTY);
+  }
+
+  public Utf8JsonReader(byte[] source) {
+    this(source, 0, source.length, false, false);
+  }
+
+  /**
+   * Reads the json document contained in source between offset and offset + length. The array is
+   * used directly as the reader buffer, so it must not be modified while reading.
+   */
+  public Utf8JsonReader(byte[] source, int offset, int length, boolean strictDoubleParse, boolean readMetadata) {
+    this(source, offset, length, strictDoubleParse, readMetadata, null);
+  }
+
+  /**
+   * @param strictDoubleParse has no effect, doubles are always parsed exactly. Kept for compatibility.
+   * @param names             a table of known property names, the keys present in it are returned without
+   *                          creating a new String. Can be null.
+   */
+  public Utf8JsonReader(byte[] source, int offset, int length, boolean strictDoubleParse, boolean readMetadata,
+                        PropertyNameTable names) {
+    this(null, source, offset, offset + length, strictDoubleParse, readMetadata, names);
+  }
+
+  public Utf8JsonReader(InputStream input, boolean strictDoubleParse, boolean readMetadata) {
+    this(input, strictDoubleParse, readMetadata, null);
+  }
+
+  public Utf8JsonReader(InputStream input, boolean strictDoubleParse, boolean readMetadata,
+                        PropertyNameTable names) {
+    this(input, new byte[8192], 0, 0, strictDoubleParse, readMetadata, names);
+  }
+
+  private Utf8JsonReader(InputStream input, byte[] buffer, int offset, int buflen,
+                         boolean strictDoubleParse, boolean readMetadata, PropertyNameTable names) {
+    this._names = new NameCache(names);
+    this.input = input;
+    this._buffer = buffer;
+    this._offset = offset;
+    this._cursor = offset;
+    this._consumed = -offset;
+    this._col = offset;
+    this._buflen = buflen;
+    this.readMetadata = readMetadata;
+
+    char token = (char) readNextToken(false);
+    if ('[' == token) valueType = ARRAY;
+    else if ('{' == token) valueType = OBJECT;
+    else {
+      // ok lets try to read next
+      if (_buflen > 0) {
+        try {
+          valueType = consumeValue();
+        } catch (JsonStreamException jse) {
+          // we must cheat because consumeString attends the current token to be "
+          // and will increment the cursor
+          _cursor = _offset - 1;
+          _col = _offset - 1;
+          _stringValue = consumeString('"');
+          valueType = STRING;
+        }
+        if (valueOf(valueType.name()) == null)
+          throw new JsonStreamException(
+            "Failed to instanciate reader, first character was " + token
+              + " when possible characters are [ and {");
+      } else valueType = NULL;
+    }
+  }
+
+  public void close() {
+    if (input == null) return;
+    try {
+      input.close();
+    } catch (IOException e) {
+      throw new JsonStreamException(e);
+    }
+  }
+
+  public ObjectReader beginArray() {
+    begin('[', JsonType.ARRAY);
+    valueType = ARRAY;
+    if (_metadata_readen) _metadata.clear();
+    return this;
+  }
+
+  public ObjectReader beginObject() {
+    if (!_metadata_readen) {
+      begin('{', JsonType.OBJECT);
+      valueType = OBJECT;
+      if (readMetadata) {
+        _metadata.clear();
+        readMetadata();
+      }
+    }
+    return this;
+  }
+
+  public ObjectReader nextObjectMetadata() {
+    return beginObject();
+  }
+
+  public ObjectReader endArray() {
+    end(']', JsonType.ARRAY);
+    return this;
+  }
+
+  public ObjectReader endObject() {
+    end('}', JsonType.OBJECT);
+    _metadata.clear();
+    _metadata_readen = false;
+    return this;
+  }
+
+  public String name() {
+    if (enclosingType() != JsonType.OBJECT)
+      throw new JsonStreamException("Only json objects have names, actual type is "
+        + valueType);
+    return currentName;
+  }
+
+  public String valueAsString() {
+    if (STRING == valueType) return _stringValue;
+    if (INTEGER == valueType) return "" + _intValue;
+    if (DOUBLE == valueType) return "" + _doubleValue;
+    if (NULL == valueType) return null;
+    if (BOOLEAN == valueType) {
+      return _booleanValue.toString();
+    }
+    throw new JsonStreamException("Readen value can not be converted to String");
+  }
+
+  public int valueAsInt() {
+    if (INTEGER == valueType) {
+      int value = (int) _intValue;
+      if (value != _intValue) throwNumberFormatException("an int", "overflowing long value " + _intValue);
+      return value;
+    } else if (DOUBLE == valueType) {
+      int value = (int) _doubleValue;
+      long longValue = (long) _doubleValue;
+      // lets accept only if the integer part is the same and ignore the decimals
+      if (value != longValue) {
+        throwNumberFormatException("an int", "overflowing double value " + _doubleValue);
+      }
+      return value;
+    } else if (STRING == valueType) return Integer.parseInt(_stringValue);
+
+    throw new JsonStreamException("Expected a int but value is of type " + valueType);
+  }
+
+  public long valueAsLong() {
+    if (INTEGER == valueType) {
+      return _intValue;
+    } else if (DOUBLE == valueType) {
+      if (Long.MIN_VALUE > _doubleValue || _doubleValue > Long.MAX_VALUE) {
+        throwNumberFormatException("a long", "overflowing double value " + _doubleValue);
+      }
+      return (long) _doubleValue;
+    } else if (STRING == valueType) return Long.parseLong(_stringValue);
+
+    throw new JsonStreamException("Expected a long but value is of type " + valueType);
+  }
+
+  public double valueAsDouble() {
+    if (DOUBLE == valueType) {
+      return _doubleValue;
+    } else if (INTEGER == valueType) {
+      // for the moment lets do that even if there is some precision loss...
+      return Long.valueOf(_intValue).doubleValue();
+    } else if (STRING == valueType) return Double.parseDouble(_stringValue);
+
+    throw new JsonStreamException("Expected a double but value is of type " + valueType);
+  }
+
+  public short valueAsShort() {
+    if (INTEGER == valueType) {
+      short value = (short) _intValue;
+      if (value != _intValue) throwNumberFormatException("a short", "overflowing long value " + _intValue);
+      return value;
+    } else if (DOUBLE == valueType) {
+      short value = (short) _doubleValue;
+      long longValue = (long) _doubleValue;
+      // lets accept only if the integer part is the same and ignore the decimals
+      if (value != longValue) {
+        throwNumberFormatException("a short", "overflowing double value " + _doubleValue);
+      }
+      return value;
+    } else if (STRING == valueType) return Short.parseShort(_stringValue);
+
+    throw new JsonStreamException("Expected a short but value is of type " + valueType);
+  }
+
+  public float valueAsFloat() {
+    if (DOUBLE == valueType) {
+      return (float) _doubleValue;
+    } else if (INTEGER == valueType) {
+      // same as for doubles, for the moment lets do that even if there is some precision
+      // loss...
+      return Long.valueOf(_intValue).floatValue();
+    } else if (STRING == valueType) return Float.parseFloat(_stringValue);
+
+    throw new JsonStreamException("Expected a float but value is of type " + valueType);
+  }
+
+  public boolean valueAsBoolean() {
+    if (BOOLEAN == valueType) {
+      return _booleanValue;
+    }
+    if (STRING == valueType) return Boolean.parseBoolean(_stringValue);
+
+    throw new JsonStreamException("Readen value is not of type boolean");
+  }
+
+  public byte[] valueAsByteArray() {
+    if (STRING == valueType) return Base64.decodeFast(_stringValue);
+    if (NULL == valueType) return null;
+    throw new JsonStreamException("Expected a String to convert to byte array found "
+      + valueType);
+  }
+
+  public String metadata(String name) {
+    if (!_metadata_readen) nextObjectMetadata();
+    return _metadata.get(name);
+  }
+
+  public ValueType getValueType() {
+    return valueType;
+  }
+
+  public ObjectReader skipValue() {
+
+    if (ARRAY == valueType || OBJECT == valueType) {
+      int balance = 0;
+      do {
+        if (ARRAY == valueType) {
+          beginArray();
+          balance++;
+        } else if (OBJECT == valueType) {
+          beginObject();
+          balance++;
+        }
+
+        while (hasNext()) {
+          next();
+          skipValue();
+        }
+
+        JsonType type = _ctx.peek();
+        if (JsonType.ARRAY == type) {
+          endArray();
+          balance--;
+        } else if (JsonType.OBJECT == type) {
+          endObject();
+          balance--;
+        }
+      } while (balance > 0);
+    }
+
+    return this;
+  }
+
+  public boolean hasNext() {
+    int token = readNextToken(false);
+    if (token == -1) return false;
+    if (token < 128) {
+      if (_first || _ctx.size() == 1) return _NEXT_TOKEN[token];
+      else if (token == ',') return true;
+    }
+
+    return false;
+  }
+
+  public ValueType next() {
+    _metadata_readen = false;
+    _first = false;
+
+    char ctoken = (char) readNextToken(false);
+
+    if (ctoken == ',') {
+      _cursor++;
+      ctoken = (char) readNextToken(false);
+    } else if (JsonType.ARRAY == _ctx.peek()) {
+      if (ctoken == '[') {
+        valueType = ARRAY;
+        return valueType;
+      }
+      if (ctoken == '{') {
+        valueType = OBJECT;
+        return valueType;
+      }
+    }
+
+    if (JsonType.OBJECT == _ctx.peek()) {
+      currentName = consumeName(ctoken);
+      if (readNextToken(true) != ':') newWrongTokenException(":", _cursor - 1);
+    }
+
+    valueType = consumeValue();
+    return valueType;
+  }
+
+  @Override
+  public int nextAndMatch(PropertyNameMatcher matcher) {
+    if (JsonType.OBJECT != _ctx.peek()) {
+      next();
+      return -1;
+    }
+
+    _metadata_readen = false;
+    _first = false;
+
+    int ctoken = readNextToken(false);
+    if (ctoken == ',') {
+      _cursor++;
+      ctoken = readNextToken(false);
+    }
+
+    int ordinal = consumeAndMatchName(ctoken, matcher);
+    if (readNextToken(true) != ':') newWrongTokenException(":", _cursor - 1);
+
+    valueType = consumeValue();
+    return ordinal;
+  }
+
+  @Override
+  public JsonType enclosingType() {
+    return _ctx.peek();
+  }
+
+  protected final ValueType consumeValue() {
+    char ctoken = (char) readNextToken(false);
+    if (ctoken == '"') {
+      _stringValue = consumeString(ctoken);
+      return STRING;
+    } else if (ctoken == '[') return ARRAY;
+    else if (ctoken == '{') return OBJECT;
+    else return consumeLiteral();
+  }
+
+  protected final void readMetadata() {
+    _metadata_readen = true;
+    while (true) {
+      char ctoken = (char) readNextToken(false);
+      if ('"' != ctoken) return;
+      ensureBufferHas(2, true);
+
+      if ('@' == _buffer[_cursor + 1]) {
+        _cursor++;
+        // we cheat here...
+        String key = consumeString(ctoken);
+
+        if (readNextToken(true) != ':') newWrongTokenException(":", _cursor - 1);
+
+        String value = consumeString((char) readNextToken(false));
+        _metadata.put(key, value);
+        if (readNextToken(false) == ',') {
+          _cursor++;
+        }
+      } else return;
+    }
+  }
+
+  protected final void begin(int character, JsonType type) {
+    int token = readNextToken(true);
+    if (character == token) {
+      _ctx.push(type);
+    } else newWrongTokenException("" + (char) character, _cursor - 1);
+    _first = true;
+  }
+
+  protected final void end(int character, JsonType type) {
+    int token = readNextToken(true);
+    if (character == token && type == _ctx.peek()) {
+      _ctx.pop();
+    } else newWrongTokenException("" + (char) character, _cursor - 1);
+    _first = false;
+  }
+
+  /**
+   * Same as {@link #consumeString(int)} but ASCII names that are fully available in the buffer and
+   * don't contain escaped characters are canonicalized, so reading a known name does not create a String.
+   */
+  protected final String consumeName(int token) {
+    if (token != '"') newMisplacedTokenException(_cursor);
+    final int start = _cursor + 1;
+    int hash = 0;
+    for (int i = start; i < _buflen; i++) {
+      final byte b = _buffer[i];
+      if (b == '"') {
+        _cursor = i + 1;
+        return _names.name(_buffer, start, i - start, hash);
+      } else if (b == '\\' || b < 0) break;
+      hash = 31 * hash + b;
+    }
+    return consumeString(token);
+  }
+
+  private int consumeAndMatchName(int token, PropertyNameMatcher matcher) {
+    if (token != '"') newMisplacedTokenException(_cursor);
+    final int start = _cursor + 1;
+    int hash = 0;
+    for (int i = start; i < _buflen; i++) {
+      final byte c = _buffer[i];
+      if (c == '"') {
+        _cursor = i + 1;
+        int ordinal = matcher.match(_buffer, start, i - start, hash);
+        currentName = ordinal > -1 ? matcher.name(ordinal) : _names.name(_buffer, start, i - start, hash);
+        return ordinal;
+      } else if (c == '\\' || c < 0) break;
+      hash = 31 * hash + c;
+    }
+    currentName = consumeString(token);
+    return matcher.match(currentName);
+  }
+
+  protected final String consumeString(int token) {
+    if (token != '"') newMisplacedTokenException(_cursor);
+    _cursor++;
+
+    // fast path, most strings are only ascii without any escaped character and fit in the buffer
+    for (int i = _cursor; i < _buflen; i++) {
+      int b = _buffer[i];
+      if (b == '"') {
+        // all bytes are < 128 so latin1 decoding is the same as utf-8 but cheaper
+        String value = new String(_buffer, _cursor, i - _cursor, ASCII_CHARSET);
+        _cursor = i + 1;
+        return value;
+      } else if (b == '\\' || b < 0) break;
+    }
+
+    return decodeString();
+  }
+
+  /**
+   * Decodes the string starting at the cursor into the string buffer, handles escaped characters,
+   * multi bytes sequences and strings overflowing the buffer.
+   */
+  private String decodeString() {
+    while (true) {
+      if (_cursor >= _buflen && fillBuffer(true) < 0) {
+        return flushStringBuffer();
+      }
+
+      int i = _cursor;
+      final int len = _buflen;
+      // the ascii run can not produce more chars than the available bytes, +2 for a surrogate pair
+      if (_stringBufferLength <= (_stringBufferTail + len - i + 2)) expandStringBuffer(len - i + 2);
+
+      for (; i < len; i++) {
+        int b = _buffer[i];
+        if (b == '"') {
+          _cursor = i + 1;
+          return flushStringBuffer();
+        } else if (b == '\\' || b < 0) break;
+        _stringBuffer[_stringBufferTail++] = (char) b;
+      }
+
+      _cursor = i;
+      if (i < len) {
+        int b = _buffer[_cursor++];
+        if (b == '\\') _stringBuffer[_stringBufferTail++] = readEscaped();
+        else readMultiByteChar(b);
+      }
+    }
+  }
+
+  private String flushStringBuffer() {
+    String value = new String(_stringBuffer, 0, _stringBufferTail);
+    _stringBufferTail = 0;
+    return value;
+  }
+
+  /**
+   * Decodes the code point starting with lead byte into the string buffer. Malformed sequences are
+   * replaced by U+FFFD as it would be done by an InputStreamReader.
+   */
+  private void readMultiByteChar(int lead) {
+    int codePoint = lead & 0xFF;
+    int needed;
+    if ((codePoint & 0xE0) == 0xC0) {
+      needed = 1;
+      codePoint &= 0x1F;
+    } else if ((codePoint & 0xF0) == 0xE0) {
+      needed = 2;
+      codePoint &= 0x0F;
+    } else if ((codePoint & 0xF8) == 0xF0) {
+      needed = 3;
+      codePoint &= 0x07;
+    } else {
+      _stringBuffer[_stringBufferTail++] = REPLACEMENT_CHAR;
+      return;
+    }
+
+    if (_buflen - _cursor < needed) ensureBufferHas(needed, false);
+
+    for (int i = 0; i < needed; i++) {
+      if (_cursor >= _buflen || (_buffer[_cursor] & 0xC0) != 0x80) {
+        _stringBuffer[_stringBufferTail++] = REPLACEMENT_CHAR;
+        return;
+      }
+      codePoint = (codePoint << 6) | (_buffer[_cursor++] & 0x3F);
+    }
+
+    if (codePoint >= 0x10000) {
+      codePoint -= 0x10000;
+      _stringBuffer[_stringBufferTail++] = (char) (0xD800 | (codePoint >> 10));
+      _stringBuffer[_stringBufferTail++] = (char) (0xDC00 | (codePoint & 0x3FF));
+    } else _stringBuffer[_stringBufferTail++] = (char) codePoint;
+  }
+
+  /**
+   * Reads the next literal value into _booleanValue, _doubleValue or _intValue and returns the
+   * type of the readed literal, possible values are : INTEGER, DOUBLE, BOOLEAN, NULL. When
+   * calling this method the _cursor must be positioned on the first byte of the value in the
+   * _buffer, you can ensure that by calling {@link #readNextToken(boolean)}.
+   */
+  protected final ValueType consumeLiteral() {
+    int token = _buffer[_cursor];
+
+    if ((token > 47 && token < 58) || token == 45) {
+      return consumeNumber();
+    } else {
+      ensureBufferHas(4, true);
+
+      if ((_buffer[_cursor] == 'N' || _buffer[_cursor] == 'n')
+        && (_buffer[_cursor + 1] == 'U' || _buffer[_cursor + 1] == 'u')
+        && (_buffer[_cursor + 2] == 'L' || _buffer[_cursor + 2] == 'l')
+        && (_buffer[_cursor + 3] == 'L' || _buffer[_cursor + 3] == 'l')) {
+        _cursor += 4;
+        return NULL;
+      }
+
+      if ((_buffer[_cursor] == 'T' || _buffer[_cursor] == 't')
+        && (_buffer[_cursor + 1] == 'R' || _buffer[_cursor + 1] == 'r')
+        && (_buffer[_cursor + 2] == 'U' || _buffer[_cursor + 2] == 'u')
+        && (_buffer[_cursor + 3] == 'E' || _buffer[_cursor + 3] == 'e')) {
+        _booleanValue = true;
+        _cursor += 4;
+        return BOOLEAN;
+      }
+      ensureBufferHas(5, true);
+
+      if ((_buffer[_cursor] == 'F' || _buffer[_cursor] == 'f')
+        && (_buffer[_cursor + 1] == 'A' || _buffer[_cursor + 1] == 'a')
+        && (_buffer[_cursor + 2] == 'L' || _buffer[_cursor + 2] == 'l')
+        && (_buffer[_cursor + 3] == 'S' || _buffer[_cursor + 3] == 's')
+        && (_buffer[_cursor + 4] == 'E' || _buffer[_cursor + 4] == 'e')) {
+        _booleanValue = false;
+        _cursor += 5;
+        return BOOLEAN;
+      } else {
+        throw new JsonStreamException.Builder().message(
+          "Illegal character around row " + _row + " and column " + (_cursor - _col)
+            + " awaited for literal (number, boolean or null) but read '"
+            + (char) _buffer[_cursor] + "'!").create();
+      }
+    }
+  }
+
+  private ValueType consumeNumber() {
+    // lets fill the buffer and handle differently overflowing values, input streams can return
+    // less bytes than requested so we ask explicitly for the longest number we can parse
+    if ((_buflen - _cursor) < 378) ensureBufferHas(378, false);
+
+    int begin = _cursor;
+    int cur;
+    boolean negative;
+    // check the sign
+    if (_buffer[_cursor] == 45) {
+      negative = true;
+      _cursor++;
+      cur = _cursor;
+    } else {
+      negative = false;
+      cur = _cursor;
+    }
+    // just to handle invalid leading 0000
+    for (; cur < _buflen && _buffer[cur] == 48; cur++) ;
+    // Careful we consume the '-' here, but also all the leading 0, even if it is of form 0.xxx
+    _cursor = cur;
+
+    int len = Math.min(_buflen, cur + 18);
+    int token;
+
+    long longValue = 0;
+    for (; cur < len; cur++) {
+      token = _buffer[cur];
+      if (token < 48 || token > 57) {
+        break;
+      }
+      longValue = 10L * longValue + (token - 48);
+    }
+
+    if (cur < _buflen) {
+      // read the maximum we can to fill the long capacity, at max we can read 1 additional
+      // digit
+      token = _buffer[cur];
+      if (token > 47 && token < 58) {
+        long newLongValue = 10L * longValue + (token - 48);
+        if (newLongValue > longValue) {
+          longValue = newLongValue;
+          cur++;
+        }
+        // else we exceed long capacity, just continue and parse it as a double
+      }
+
+      if (cur < _buflen
+        && ((token = _buffer[cur]) == 46 || token == 101 || token == 69 || (token > 47 && token < 58))) {
+
+        return consumeDouble(begin, cur, longValue, negative);
+      }
+    }
+
+    _intValue = negative ? -longValue : longValue;
+    _numberLen = cur - _cursor;
+    _cursor = cur;
+    return INTEGER;
+  }
+
+  // same algorithm as JsonReader.consumeDouble
+  private ValueType consumeDouble(final int begin, int cur, long longValue, boolean negative) {
+    int token;
+    int digits = cur - _cursor;
+    int exp10 = 0;
+    boolean truncated = false;
+
+    // the remaining digits of the integer part that did not fit in the long
+    for (; cur < _buflen; cur++) {
+      token = _buffer[cur];
+      if (token < 48 || token > 57) break;
+      if (digits < 19) {
+        longValue = 10L * longValue + (token - 48);
+        digits++;
+      } else {
+        exp10++;
+        if (token != 48) truncated = true;
+      }
+    }
+
+    if (cur < _buflen && _buffer[cur] == 46) {
+      for (cur++; cur < _buflen; cur++) {
+        token = _buffer[cur];
+        if (token < 48 || token > 57) break;
+        if (digits < 19) {
+          // the leading zeros of the decimals are not significant
+          if (digits > 0 || token != 48) {
+            longValue = 10L * longValue + (token - 48);
+            digits++;
+          }
+          exp10--;
+        } else if (token != 48) truncated = true;
+      }
+    }
+
+    if (cur < _buflen && (_buffer[cur] == 101 || _buffer[cur] == 69)) {
+      cur++;
+      boolean negativeExp = false;
+      if (cur < _buflen && (_buffer[cur] == 45 || _buffer[cur] == 43)) {
+        negativeExp = _buffer[cur] == 45;
+        cur++;
+      }
+      int start = cur;
+      int powValue = 0;
+      for (; cur < _buflen; cur++) {
+        token = _buffer[cur];
+        if (token < 48 || token > 57) break;
+        // larger exponents are out of the double range anyway
+        if (powValue < 100000) powValue = 10 * powValue + (token - 48);
+      }
+      if (cur == start) newWrongTokenException("the exponent digits", cur < _buflen ? cur : cur - 1);
+      exp10 += negativeExp ? -powValue : powValue;
+    }
+
+    _doubleValue = DoubleParser.toDouble(longValue, exp10, negative, truncated);
+    if (Double.isNaN(_doubleValue)) _doubleValue = Double.parseDouble(new String(_buffer, begin, cur - begin, ASCII_CHARSET));
+
+    _numberLen = cur - _cursor;
+    _cursor = cur;
+    return DOUBLE;
+  }
+
+  protected final int readNextToken(boolean consume) {
+    while (true) {
+      if (_cursor >= _buflen) fillBuffer(true);
+
+      for (; _cursor < _buflen; _cursor++) {
+        int token = _buffer[_cursor];
+        // bytes of multi bytes sequences are negative and are skipped as the non ascii chars in JsonReader
+        if (token >= 0 && SKIPPED_TOKENS[token] == 0) {
+          if (token == '/') {
+            ensureBufferHas(2, true);
+            if (_buffer[_cursor + 1] == '*') {
+              _cursor += 2;
+              advanceAfter(_END_OF_BLOCK_COMMENT);
+            } else if (_buffer[_cursor + 1] == '/') {
+              _cursor += 2;
+              advanceAfter(_END_OF_LINE);
+              _row++;
+              _col = _cursor;
+            } else newWrongTokenException("start comment // or /*", _cursor);
+            // don't consume the token
+            _cursor--;
+          } else if (consume) {
+            return _buffer[_cursor++];
+          } else return token;
+        } else if (_buffer[_cursor] == '\n') {
+          _row++;
+          _col = _cursor;
+        }
+      }
+
+      if (_buflen == -1) break;
+    }
+
+    return _cursor < _buflen ? _buffer[_cursor] : -1;
+  }
+
+  private void advanceAfter(char[] str) {
+    int strPos = 0;
+    while (true) {
+      if (_cursor >= _buflen) fillBuffer(true);
+
+      for (; _cursor < _buflen && strPos < str.length; _cursor++) {
+        if (_buffer[_cursor] == str[strPos]) {
+          strPos++;
+        } else strPos = 0;
+      }
+
+      if (strPos == str.length) {
+        return;
+      }
+      if (_buflen == -1) break;
+    }
+  }
+
+  protected final char readEscaped() {
+    fillBuffer(true);
+
+    int token = _buffer[_cursor++];
+    switch (token) {
+      case 'b':
+        return '\b';
+      case 't':
+        return '\t';
+      case 'n':
+        return '\n';
+      case 'f':
+        return '\f';
+      case 'r':
+        return '\r';
+      case '"':
+      case '/':
+      case '\\':
+        return (char) token;
+
+      case 'u':
+        break;
+
+      default:
+        newMisplacedTokenException(_cursor - 1);
+    }
+
+    int value = 0;
+    if (ensureBufferHas(4, false) < 0) {
+      throw new JsonStreamException("Expected 4 hex-digit for character escape sequence!");
+    }
+    for (int i = 0; i < 4; ++i) {
+      int ch = _buffer[_cursor++];
+      int digit = (ch < 0) ? -1 : sHexValues[ch];
+      if (digit < 0) {
+        throw new JsonStreamException("Wrong character '" + ch
+          + "' expected a hex-digit for character escape sequence!");
+      }
+      value = (value << 4) | digit;
+    }
+
+    return (char) value;
+  }
+
+  private void expandStringBuffer(int length) {
+    char[] extendedStringBuffer = new char[_stringBufferLength * 2 + length];
+    System.arraycopy(_stringBuffer, 0, extendedStringBuffer, 0, _stringBufferTail);
+    _stringBuffer = extendedStringBuffer;
+    _stringBufferLength = extendedStringBuffer.length;
+  }
+
+  private int fillBuffer(boolean doThrow) {
+    if (_cursor < _buflen) return _buflen;
+    if (_buflen > 0) _consumed += _buflen;
+    if (input == null) _buflen = -1;
+    else {
+      try {
+        _buflen = input.read(_buffer);
+      } catch (IOException ioe) {
+        throw new JsonStreamException(ioe);
+      }
+    }
+    checkIllegalEnd(_buflen);
+    _cursor = 0;
+    _col = 0;
+    return _buflen;
+  }
+
+  private int ensureBufferHas(int minLength, boolean doThrow) {
+    int actualLen = _buflen - _cursor;
+    if (actualLen >= minLength) {
+      return actualLen;
+    }
+
+    // when reading from a byte array all the content is already available
+    if (input == null || actualLen < 0) {
+      if (doThrow) throw new JsonStreamException("Encountered end of stream, incomplete json!");
+      return -1;
+    }
+
+    try {
+      _consumed += _cursor;
+      System.arraycopy(_buffer, _cursor, _buffer, 0, actualLen);
+      for (; actualLen < minLength; ) {
+        int len = input.read(_buffer, actualLen, _buffer.length - actualLen);
+        if (len < 0) {
+          if (doThrow) throw new JsonStreamException(
+            "Encountered end of stream, incomplete json!");
+          else {
+            _buflen = actualLen;
+            _col = 0;
+            _cursor = 0;
+            return len;
+          }
+        }
+        actualLen += len;
+      }
+      _buflen = actualLen;
+      _col = 0;
+      _cursor = 0;
+      return actualLen;
+    } catch (IOException ioe) {
+      throw new JsonStreamException(ioe);
+    }
+  }
+
+  protected final boolean isEOF() {
+    return _buflen < 0 || fillBuffer(false) < 0;
+  }
+
+  private void newWrongTokenException(String awaited) {
+    newWrongTokenException(awaited, _cursor);
+  }
+
+  public int column() {
+    int col = _cursor - _col;
+    return col < 0 ? 0 : col;
+  }
+
+  public int row() {
+    return _row;
+  }
+
+  /**
+   * @return the number of bytes consumed so far from the underlying input.
+   */
+  public long bytesRead() {
+    return _consumed + _cursor;
+  }
+
+  private void newWrongTokenException(String awaited, int cursor) {
+    // otherwise it fails when an error occurs on first character
+    if (cursor < 0) cursor = 0;
+    int pos = cursor - _col;
+    if (pos < 0) pos = 0;
+
+    if (_buflen < 0) throw new JsonStreamException(
+      "Incomplete data or malformed json : encoutered end of stream but expected "
+        + awaited).niceTrace();
+    else throw new JsonStreamException.Builder()
+      .message(
+        "Illegal character at row " + _row + " and column " + pos + " expected "
+          + awaited + " but read '" + (char) _buffer[cursor] + "' !")
+      .locate(_row, pos).create().niceTrace();
+  }
+
+  private void newMisplacedTokenException(int cursor) {
+    if (_buflen < 0)
+      throw JsonStreamException.niceTrace(new JsonStreamException(
+        "Incomplete data or malformed json : encoutered end of stream."));
+
+    if (cursor < 0) cursor = 0;
+    int pos = cursor - _col;
+    if (pos < 0) pos = 0;
+
+    throw new JsonStreamException.Builder()
+      .message(
+        "Encountred misplaced character '" + (char) _buffer[cursor] + "' around row "
+          + _row + " and column " + pos).locate(_row, pos).create().niceTrace();
+  }
+
+  private void checkIllegalEnd(int token) {
+    if (token == -1 && JsonType.EMPTY != _ctx.peek())
+      throw new JsonStreamException(
+        "Incomplete data or malformed json : encoutered end of stream!").niceTrace();
+  }
+
+  private void throwNumberFormatException(String expected, String encoutered) {
+    int pos = _cursor - _col - _numberLen;
+    throw JsonStreamException.niceTrace(new NumberFormatException("Wrong numeric type at row " + _row + " and column " + pos
+      + ", expected " + expected + " but encoutered " + encoutered));
+  }
+}
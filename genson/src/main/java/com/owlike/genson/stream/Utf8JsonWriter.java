@@ -0,0 +1,619 @@
+package com.owlike.genson.stream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * An ObjectWriter producing UTF-8 encoded json directly into a byte buffer. It behaves as {@link JsonWriter} but
+ * avoids the intermediate char buffer and the second encoding pass of an OutputStreamWriter: strings are escaped
+ * and encoded at the same time, ASCII characters being copied as is.
+ * <p/>
+ * The output is the same, byte for byte, as a JsonWriter writing to an OutputStreamWriter encoding in UTF-8: U+2028
+ * and U+2029 are escaped in the values and names as JsonWriter does, and the unpaired surrogates, that can't be
+ * encoded, are replaced by '?' as the UTF-8 encoder does.
+ * <p/>
+ * When no OutputStream is provided, the content is accumulated in a growing buffer that can be retrieved
+ * using {@link #toByteArray()}.
+ *
+ * @see JsonWriter
+ */
+public class Utf8JsonWriter implements ObjectWriter {
+  private final static byte[][] REPLACEMENT_BYTES = toBytes(JsonWriter.REPLACEMENT_CHARS);
+  private final static byte[][] HTML_SAFE_REPLACEMENT_BYTES = toBytes(JsonWriter.HTML_SAFE_REPLACEMENT_CHARS);
+  private final static byte[] LINE_SEPARATOR = {'\\', 'u', '2', '0', '2', '8'};
+  private final static byte[] PARAGRAPH_SEPARATOR = {'\\', 'u', '2', '0', '2', '9'};
+
+  private final static byte[] NULL_VALUE = {'n', 'u', 'l', 'l'};
+  private final static byte[] TRUE_VALUE = {'t', 'r', 'u', 'e'};
+  private final static byte[] FALSE_VALUE = {'f', 'a', 'l', 's', 'e'};
+  private final static byte[] _indentation = new byte[]{' ', ' '};
+  // strings longer than this are encoded from a char array instead of being read char by char
+  private final static int _LIMIT_WRITE_ASCII = 64;
+
+  private final boolean htmlSafe;
+  private final boolean skipNull;
+  private final boolean indentation;
+
+  private final OutputStream output;
+  final Deque<JsonType> _ctx = new ArrayDeque<JsonType>(10);
+  private boolean _hasPrevious;
+  private char[] _name;
+
+  private byte[] _buffer;
+  private int _len = 0;
+  // bytes already written to the output stream
+  private long _written = 0;
+
+  List<MetadataPair> _metadata = new ArrayList<MetadataPair>();
+
+  private class MetadataPair {
+    final String name;
+    final String value;
+
+    public MetadataPair(String name, String value) {
+      super();
+      this.name = name;
+      this.value = value;
+    }
+  }
+
+  public Utf8JsonWriter(OutputStream output) {
+    this(output, false, false, false);
+  }
+
+  public Utf8JsonWriter(OutputStream output, final boolean skipNull, final boolean htmlSafe,
+                        boolean indentation) {
+    this(output, new byte[8192], skipNull, htmlSafe, indentation);
+  }
+
+  /**
+   * Creates a writer accumulating the produced json in memory, use {@link #toByteArray()} to retrieve it.
+   */
+  public Utf8JsonWriter(final boolean skipNull, final boolean htmlSafe, boolean indentation) {
+    this(null, new byte[1024], skipNull, htmlSafe, indentation);
+  }
+
+  /**
+   * Creates a writer using buffer to accumulate the json before writing it to output, so the same buffer
+   * can be reused by consecutive writers. If output is null the json is accumulated in memory and the buffer
+   * is grown as needed, use {@link #toByteArray()} to retrieve it.
+   */
+  public Utf8JsonWriter(OutputStream output, byte[] buffer, final boolean skipNull, final boolean htmlSafe,
+                        boolean indentation) {
+    this.output = output;
+    this._buffer = buffer;
+    this.skipNull = skipNull;
+    this.htmlSafe = htmlSafe;
+    this.indentation = indentation;
+    _ctx.push(JsonType.EMPTY);
+  }
+
+  private static byte[][] toBytes(char[][] replacements) {
+    byte[][] bytes = new byte[replacements.length][];
+    for (int i = 0; i < replacements.length; i++) {
+      if (replacements[i] != null) {
+        bytes[i] = new byte[replacements[i].length];
+        for (int j = 0; j < replacements[i].length; j++) bytes[i][j] = (byte) replacements[i][j];
+      }
+    }
+    return bytes;
+  }
+
+  public JsonType enclosingType() {
+    return _ctx.peek();
+  }
+
+  public void close() {
+    flush();
+    if (output != null) {
+      try {
+        output.close();
+      } catch (IOException e) {
+        throw new JsonStreamException(e);
+      }
+    }
+  }
+
+  public void flush() {
+    if (output != null) {
+      flushBuffer();
+      try {
+        output.flush();
+      } catch (IOException e) {
+        throw new JsonStreamException(e);
+      }
+    }
+  }
+
+  /**
+   * @return a copy of the json written so far. Only available when this writer has been created without
+   * an OutputStream.
+   */
+  public byte[] toByteArray() {
+    if (output != null)
+      throw new IllegalStateException("The content of this writer is written to an OutputStream.");
+    return Arrays.copyOf(_buffer, _len);
+  }
+
+  public Utf8JsonWriter beginArray() {
+    clearMetadata();
+    if (_ctx.peek() == JsonType.OBJECT && _name == null)
+      throw new JsonStreamException(
+        "Englobing scope is OBJECT before begining a new value call writeName.");
+    return begin(JsonType.ARRAY, (byte) '[');
+  }
+
+  public Utf8JsonWriter beginObject() {
+    if (_ctx.peek() == JsonType.METADATA) {
+      _ctx.pop();
+      begin(JsonType.OBJECT, (byte) '{');
+      for (MetadataPair pair : _metadata) {
+        writeName('@' + pair.name);
+        beforeValue();
+        writeInternalString(pair.value);
+      }
+    } else begin(JsonType.OBJECT, (byte) '{');
+    return this;
+  }
+
+  protected final Utf8JsonWriter begin(final JsonType jsonType, final byte token) {
+    beforeValue();
+    _ctx.push(jsonType);
+    ensureCapacity(1);
+    _buffer[_len++] = token;
+    _hasPrevious = false;
+    return this;
+  }
+
+  public Utf8JsonWriter endArray() {
+    return end(JsonType.ARRAY, (byte) ']');
+  }
+
+  public Utf8JsonWriter endObject() {
+    return end(JsonType.OBJECT, (byte) '}');
+  }
+
+  private final Utf8JsonWriter end(final JsonType jsonType, final byte token) {
+    JsonType jt = _ctx.pop();
+    if (jt != jsonType)
+      throw new JsonStreamException("Expect type " + jsonType.name() + " but was written "
+        + jt.name() + ", you must call the adequate beginXXX method before endXXX.");
+
+    if (indentation) {
+      ensureCapacity(1);
+      _buffer[_len++] = '\n';
+      for (int i = 0; i < _ctx.size() - 1; i++)
+        writeToBuffer(_indentation, 0, 2);
+    }
+
+    ensureCapacity(1);
+    _buffer[_len++] = token;
+    _hasPrevious = true;
+    return this;
+  }
+
+  private final Utf8JsonWriter beforeValue() {
+    final JsonType enclosingType = _ctx.peek();
+    if (enclosingType == JsonType.ARRAY) {
+      if (_name != null) throw newIllegalKeyValuePairInJsonArray(new String(_name));
+      if (_hasPrevious) {
+        ensureCapacity(1);
+        _buffer[_len++] = ',';
+      }
+      indent();
+    } else if (_name != null) {
+      ensureCapacity(1);
+      if (_hasPrevious) _buffer[_len++] = ',';
+      indent();
+
+      ensureCapacity(1);
+      _buffer[_len++] = '"';
+      writeChars(_name, 0, _name.length);
+      ensureCapacity(2);
+      _buffer[_len++] = '"';
+      _buffer[_len++] = ':';
+      _name = null;
+    } else if (enclosingType == JsonType.OBJECT) throw newIllegalSingleValueInJsonObject();
+
+    return this;
+  }
+
+  private JsonStreamException newIllegalKeyValuePairInJsonArray(String name) {
+    return JsonStreamException
+      .niceTrace(new JsonStreamException(
+        "Tried to write key/value pair with key="
+          + name
+          + ", Json format does not allow key/value pairs inside arrays, only allowed for Json Objects."));
+  }
+
+  private JsonStreamException newIllegalSingleValueInJsonObject() {
+    return JsonStreamException.niceTrace(new JsonStreamException(
+      "Tried to write value with no key in a JsonObject, Json format does not allow "
+        + "values without keys in JsonObjects, authorized only for arrays."));
+  }
+
+  private final void clearMetadata() {
+    if (_ctx.peek() == JsonType.METADATA) {
+      _metadata.clear();
+      _ctx.pop();
+    }
+  }
+
+  protected void indent() {
+    if (indentation) {
+      ensureCapacity(1);
+      if (_ctx.peek() != JsonType.EMPTY) _buffer[_len++] = '\n';
+      int len = _ctx.peek() == JsonType.METADATA ? _ctx.size() - 2 : _ctx.size() - 1;
+      for (int i = 0; i < len; i++)
+        writeToBuffer(_indentation, 0, 2);
+    }
+  }
+
+  public Utf8JsonWriter writeName(final String name) {
+    _name = JsonWriter.escapeString(name);
+    return this;
+  }
+
+  public ObjectWriter writeEscapedName(char[] name) {
+    _name = name;
+    return this;
+  }
+
+  public Utf8JsonWriter writeValue(int value) {
+    clearMetadata();
+    beforeValue();
+    // ok so the buffer must always be bigger than the max length of an int
+    ensureCapacity(11);
+    _len = NumberFormatter.writeLong(value, _buffer, _len);
+    _hasPrevious = true;
+    return this;
+  }
+
+  public Utf8JsonWriter writeValue(final double value) {
+    checkValidJsonDouble(value);
+    clearMetadata();
+    beforeValue();
+    ensureCapacity(NumberFormatter.MAX_DOUBLE_LENGTH);
+    _len = NumberFormatter.writeDouble(value, _buffer, _len);
+    _hasPrevious = true;
+    return this;
+  }
+
+  public Utf8JsonWriter writeValue(long value) {
+    clearMetadata();
+    beforeValue();
+    ensureCapacity(NumberFormatter.MAX_LONG_LENGTH);
+    _len = NumberFormatter.writeLong(value, _buffer, _len);
+    _hasPrevious = true;
+    return this;
+  }
+
+  public ObjectWriter writeValue(short value) {
+    clearMetadata();
+    beforeValue();
+    // ok so the buffer must always be bigger than the max length of a short
+    ensureCapacity(6);
+    _len = NumberFormatter.writeLong(value, _buffer, _len);
+    _hasPrevious = true;
+    return this;
+  }
+
+  public ObjectWriter writeValue(float value) {
+    checkValidJsonFloat(value);
+    clearMetadata();
+    beforeValue();
+    ensureCapacity(NumberFormatter.MAX_DOUBLE_LENGTH);
+    _len = NumberFormatter.writeFloat(value, _buffer, _len);
+    _hasPrevious = true;
+    return this;
+  }
+
+  public Utf8JsonWriter writeValue(final boolean value) {
+    clearMetadata();
+    beforeValue();
+    if (value) writeToBuffer(TRUE_VALUE, 0, 4);
+    else writeToBuffer(FALSE_VALUE, 0, 5);
+    _hasPrevious = true;
+    return this;
+  }
+
+  protected final int writeInt(long value) {
+    final int start = _len;
+    _len = NumberFormatter.writeLong(value, _buffer, _len);
+    return _len - start;
+  }
+
+  public Utf8JsonWriter writeValue(final Number value) {
+    checkValidJsonDouble(value);
+    checkValidJsonFloat(value);
+    clearMetadata();
+    beforeValue();
+    writeAscii(value.toString());
+    _hasPrevious = true;
+    return this;
+  }
+
+  public ObjectWriter writeBoolean(final Boolean value) {
+    if (value == null) return writeNull();
+    else return writeValue(value);
+  }
+
+  public ObjectWriter writeNumber(final Number value) {
+    if (value == null) return writeNull();
+    else return writeValue(value);
+  }
+
+  public ObjectWriter writeString(String value) {
+    if (value == null) return writeNull();
+    else return writeValue(value);
+  }
+
+  public ObjectWriter writeBytes(byte[] value) {
+    if (value == null) return writeNull();
+    else return writeValue(value);
+  }
+
+  private void checkValidJsonDouble(Number num) {
+    if (num.equals(Double.NaN))
+      throw new NumberFormatException("NaN is not a valid json number.");
+    if (num.equals(Double.NEGATIVE_INFINITY) || num.equals(Double.POSITIVE_INFINITY))
+      throw new NumberFormatException("Infinity is not a valid json number.");
+  }
+
+  private void checkValidJsonFloat(Number num) {
+    if (num.equals(Float.NaN))
+      throw new NumberFormatException("NaN is not a valid json number.");
+    if (num.equals(Float.NEGATIVE_INFINITY) || num.equals(Float.POSITIVE_INFINITY))
+      throw new NumberFormatException("Infinity is not a valid json number.");
+  }
+
+  public ObjectWriter writeValue(byte[] value) {
+    clearMetadata();
+    beforeValue();
+
+    ensureCapacity(1);
+    _buffer[_len++] = '"';
+    final byte[] encoded = Base64.encodeToByte(value, false);
+
+    writeToBuffer(encoded, 0, encoded.length);
+
+    ensureCapacity(1);
+    _buffer[_len++] = '"';
+    _hasPrevious = true;
+    return this;
+  }
+
+  public Utf8JsonWriter writeUnsafeValue(final String value) {
+    clearMetadata();
+    beforeValue();
+    ensureCapacity(1);
+    _buffer[_len++] = '"';
+    final char[] carray = value.toCharArray();
+    writeChars(carray, 0, carray.length);
+    ensureCapacity(1);
+    _buffer[_len++] = '"';
+    _hasPrevious = true;
+    return this;
+  }
+
+  public Utf8JsonWriter writeValue(final String value) {
+    clearMetadata();
+    beforeValue();
+    writeInternalString(value);
+    return this;
+  }
+
+  /*
+   * Escapes and encodes the string in a single pass. We work by chunks for which we are sure there is enough
+   * space left in the buffer: a char needs at most 6 bytes once escaped and surrogate pairs need 4 bytes.
+   */
+  private final void writeInternalString(final String value) {
+    final byte[][] replacements = htmlSafe ? HTML_SAFE_REPLACEMENT_BYTES : REPLACEMENT_BYTES;
+    ensureCapacity(1);
+    _buffer[_len++] = '"';
+    final int length = value.length();
+    for (int i = 0; i < length; ) {
+      final int end = Math.min(length, i + (_buffer.length - _len) / 6);
+      if (end == i) {
+        makeRoom(6);
+        continue;
+      }
+
+      for (; i < end; i++) {
+        final char c = value.charAt(i);
+        if (c < 128) {
+          final byte[] replacement = replacements[c];
+          if (replacement == null) _buffer[_len++] = (byte) c;
+          else {
+            System.arraycopy(replacement, 0, _buffer, _len, replacement.length);
+            _len += replacement.length;
+          }
+        } else if (c < 0x800) {
+          _buffer[_len++] = (byte) (0xc0 | (c >> 6));
+          _buffer[_len++] = (byte) (0x80 | (c & 0x3f));
+        } else if (c == '\u2028') {
+          System.arraycopy(LINE_SEPARATOR, 0, _buffer, _len, 6);
+          _len += 6;
+        } else if (c == '\u2029') {
+          System.arraycopy(PARAGRAPH_SEPARATOR, 0, _buffer, _len, 6);
+          _len += 6;
+        } else if (Character.isSurrogate(c)) {
+          if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+            writeCodePoint(Character.toCodePoint(c, value.charAt(++i)));
+          } else _buffer[_len++] = '?'; // the replacement of the UTF-8 encoder for malformed input
+        } else {
+          _buffer[_len++] = (byte) (0xe0 | (c >> 12));
+          _buffer[_len++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+          _buffer[_len++] = (byte) (0x80 | (c & 0x3f));
+        }
+      }
+    }
+    ensureCapacity(1);
+    _buffer[_len++] = '"';
+
+    _hasPrevious = true;
+  }
+
+  /*
+   * Encodes chars that don't need to be escaped (already escaped names, unsafe values), at most 4 bytes
+   * are needed per char.
+   */
+  private final void writeChars(final char[] data, final int offset, final int length) {
+    final int limit = offset + length;
+    for (int i = offset; i < limit; ) {
+      final int end = Math.min(limit, i + (_buffer.length - _len) / 4);
+      if (end == i) {
+        makeRoom(4);
+        continue;
+      }
+
+      for (; i < end; i++) {
+        final char c = data[i];
+        if (c < 128) {
+          _buffer[_len++] = (byte) c;
+        } else if (c < 0x800) {
+          _buffer[_len++] = (byte) (0xc0 | (c >> 6));
+          _buffer[_len++] = (byte) (0x80 | (c & 0x3f));
+        } else if (Character.isSurrogate(c)) {
+          if (Character.isHighSurrogate(c) && i + 1 < limit && Character.isLowSurrogate(data[i + 1])) {
+            writeCodePoint(Character.toCodePoint(c, data[++i]));
+          } else _buffer[_len++] = '?'; // the replacement of the UTF-8 encoder for malformed input
+        } else {
+          _buffer[_len++] = (byte) (0xe0 | (c >> 12));
+          _buffer[_len++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+          _buffer[_len++] = (byte) (0x80 | (c & 0x3f));
+        }
+      }
+    }
+  }
+
+  private final void writeCodePoint(final int codePoint) {
+    _buffer[_len++] = (byte) (0xf0 | (codePoint >> 18));
+    _buffer[_len++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+    _buffer[_len++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+    _buffer[_len++] = (byte) (0x80 | (codePoint & 0x3f));
+  }
+
+  // used for numbers, they contain only ascii chars
+  private final void writeAscii(final String data) {
+    final int length = data.length();
+    if (length < _LIMIT_WRITE_ASCII) {
+      ensureCapacity(length);
+      for (int i = 0; i < length; i++) _buffer[_len++] = (byte) data.charAt(i);
+    } else {
+      final char[] carray = data.toCharArray();
+      writeChars(carray, 0, length);
+    }
+  }
+
+  public ObjectWriter writeNull() {
+    if (skipNull) {
+      _name = null;
+    } else {
+      beforeValue();
+      writeToBuffer(NULL_VALUE, 0, 4);
+      _hasPrevious = true;
+    }
+    return this;
+  }
+
+  public ObjectWriter beginNextObjectMetadata() {
+    // this way we can use this method multiple times in different converters before calling beginObject
+    if (_ctx.peek() != JsonType.METADATA) {
+      _ctx.push(JsonType.METADATA);
+      _metadata.clear();
+    }
+    return this;
+  }
+
+  public ObjectWriter writeMetadata(String name, String value) {
+    if (_ctx.peek() == JsonType.METADATA) _metadata.add(new MetadataPair(name, value));
+    else if (_ctx.peek() == JsonType.OBJECT) {
+      writeName('@' + name);
+      writeValue(value);
+    }
+    // else do nothing so we silently don't write metadata for literals and arrays
+    return this;
+  }
+
+  public ObjectWriter writeBoolean(String name, Boolean value) {
+    writeName(name);
+    return writeBoolean(value);
+  }
+
+  public ObjectWriter writeNumber(String name, Number value) {
+    writeName(name);
+    return writeNumber(value);
+  }
+
+  public ObjectWriter writeString(String name, String value) {
+    writeName(name);
+    return writeString(value);
+  }
+
+  public ObjectWriter writeBytes(String name, byte[] value) {
+    writeName(name);
+    return writeBytes(value);
+  }
+
+  private final void writeToBuffer(final byte[] data, final int offset, final int length) {
+    if (length <= (_buffer.length - _len)) {
+      System.arraycopy(data, offset, _buffer, _len, length);
+      _len += length;
+    } else if (output != null) {
+      flushBuffer();
+      try {
+        output.write(data, offset, length);
+        _written += length;
+      } catch (IOException e) {
+        throw new JsonStreamException(e);
+      }
+    } else {
+      makeRoom(length);
+      System.arraycopy(data, offset, _buffer, _len, length);
+      _len += length;
+    }
+  }
+
+  private final void ensureCapacity(final int length) {
+    if ((_len + length) > _buffer.length) makeRoom(length);
+  }
+
+  /*
+   * Flushes the buffer to the output stream or grows it when writing to memory, so it can hold length more bytes.
+   */
+  private final void makeRoom(final int length) {
+    if (output != null) flushBuffer();
+    if ((_len + length) > _buffer.length) {
+      _buffer = Arrays.copyOf(_buffer, Math.max(_buffer.length * 2, _len + length));
+    }
+  }
+
+  private final void flushBuffer() {
+    try {
+      if (_len > 0) {
+        output.write(_buffer, 0, _len);
+        _written += _len;
+        _len = 0;
+      }
+    } catch (IOException ioe) {
+      throw new JsonStreamException(ioe);
+    }
+  }
+
+  /**
+   * @return the number of bytes written so far, including the ones still buffered.
+   */
+  public long bytesWritten() {
+    return _written + _len;
+  }
+
+  public OutputStream unwrap() {
+    return output;
+  }
+}
@@ -0,0 +1,42 @@
+package com.owlike.genson;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.owlike.genson.convert.DefaultConverters;
+
+import static org.junit.Assert.*;
+
+public class ClassConverterCacheTest {
+  private final ClassConverterCache cache = new ClassConverterCache();
+
+  @Test public void testPutIfAbsentKeepsTheFirstConverter() {
+    Converter<?> first = DefaultConverters.IntegerConverter.instance;
+    assertNull(cache.get(Integer.class));
+    assertSame(first, cache.putIfAbsent(Integer.class, first));
+    assertSame(first, cache.putIfAbsent(Integer.class, DefaultConverters.LongConverter.instance));
+    assertSame(first, cache.get(Integer.class));
+    assertNull(cache.get(Long.class));
+  }
+
+  @Test public void testGrowKeepsAllClasses() {
+    List<Class<?>> classes = new ArrayList<Class<?>>(Arrays.<Class<?>>asList(String.class, Integer.class,
+      Long.class, Double.class, Date.class, Object.class, List.class, ArrayList.class, Genson.class));
+    for (Class<?> clazz : new ArrayList<Class<?>>(classes)) {
+      for (Class<?> inner : clazz.getDeclaredClasses()) classes.add(inner);
+      classes.add(java.lang.reflect.Array.newInstance(clazz, 0).getClass());
+    }
+    for (Class<?> clazz : classes) cache.putIfAbsent(clazz, DefaultConverters.StringConverter.instance);
+    for (Class<?> clazz : classes) assertSame(DefaultConverters.StringConverter.instance, cache.get(clazz));
+  }
+
+  @Test public void testGensonUsesTheSameConverterForAClass() {
+    Genson genson = new Genson();
+    assertSame(genson.provideConverter(Date.class), genson.provideConverter(Date.class));
+    assertNotSame(genson.provideConverter(Date.class), genson.createConverter(Date.class));
+  }
+}
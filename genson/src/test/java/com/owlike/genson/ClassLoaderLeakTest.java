@@ -0,0 +1,202 @@
+package com.owlike.genson;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.owlike.genson.reflect.LoaderAwareCache;
+
+import static org.junit.Assert.*;
+
+/**
+ * Deploys the Plugin classes in their own class loader again and again, like a plugin host or an
+ * application server would, and checks that a Genson instance shared by all the deployments does
+ * not keep the old class loaders alive.
+ */
+public class ClassLoaderLeakTest {
+  private final static int DEPLOYMENTS = 5;
+  private final static String PLUGIN_JSON = "{\"items\":[{\"value\":1},{\"value\":2}],\"main\":{\"value\":3},"
+    + "\"name\":\"plugin\",\"page\":{\"content\":[{\"value\":4}]}}";
+
+  private final Genson genson = new GensonBuilder().useConstructorWithArguments(true).create();
+
+  @Test public void testRedeployedClassLoadersAreCollected() throws Exception {
+    List<WeakReference<ClassLoader>> loaders = new ArrayList<WeakReference<ClassLoader>>();
+    for (int i = 0; i < DEPLOYMENTS; i++) loaders.add(new WeakReference<ClassLoader>(deploy(genson)));
+
+    assertCollected(loaders);
+    assertEquals(0, stats("converters").foreignClasses());
+    assertEquals(0, stats("expandedTypes").foreignClasses());
+    // the released entries are counted once the reference handler has enqueued them
+    for (int i = 0; i < 50 && stats("converters").releasedClasses() == 0; i++) Thread.sleep(20);
+    assertTrue(stats("converters").releasedClasses() > 0);
+  }
+
+  @Test public void testRedeployedClassLoadersAreCollectedWithMetrics() throws Exception {
+    DefaultGensonMetrics metrics = new DefaultGensonMetrics();
+    Genson measured = new GensonBuilder().useConstructorWithArguments(true).useMetrics(metrics).create();
+    List<WeakReference<ClassLoader>> loaders = new ArrayList<WeakReference<ClassLoader>>();
+    for (int i = 0; i < DEPLOYMENTS; i++) loaders.add(new WeakReference<ClassLoader>(deploy(measured)));
+
+    assertCollected(loaders);
+    // the stats of the successive deployments are merged
+    assertEquals(DEPLOYMENTS, metrics.serializations().get(PluginBean.class.getName()).count());
+    assertEquals(DEPLOYMENTS, metrics.deserializations().get(PluginBean.class.getName()).count());
+  }
+
+  @Test public void testForeignClassesAreCachedUntilTheirLoaderIsCollected() throws Exception {
+    ClassLoader loader = new PluginClassLoader();
+    Class<?> pluginClass = loader.loadClass(PluginBean.class.getName());
+    assertFalse(LoaderAwareCache.isVisible(pluginClass));
+    assertSame(genson.provideConverter(pluginClass), genson.provideConverter(pluginClass));
+
+    CacheStats converters = stats("converters");
+    assertTrue(converters.foreignClasses() > 0);
+    assertTrue(converters.size() > 0);
+  }
+
+  @Test public void testCacheStatsListsAllTheCaches() {
+    genson.serialize(new Object[]{1, "a"});
+    List<String> names = new ArrayList<String>();
+    for (CacheStats stats : genson.cacheStats()) names.add(stats.name());
+    assertEquals(Arrays.asList("converters", "classConverters", "beanDescriptors", "expandedTypes",
+      "constructorParameterNames", "methodParameterNames"), names);
+    assertTrue(stats("classConverters").size() > 0);
+  }
+
+  // the returned loader must be the only reference left to the deployment
+  private ClassLoader deploy(Genson genson) throws Exception {
+    ClassLoader loader = new PluginClassLoader();
+    Class<?> pluginClass = loader.loadClass(PluginBean.class.getName());
+    assertNotSame(PluginBean.class, pluginClass);
+
+    Object plugin = genson.deserialize(PLUGIN_JSON, pluginClass);
+    assertSame(pluginClass, plugin.getClass());
+    assertEquals(PLUGIN_JSON, genson.serialize(plugin));
+
+    Type itemsType = pluginClass.getDeclaredField("items").getGenericType();
+    List<?> items = (List<?>) genson.deserialize("[{\"value\":5}]", GenericType.of(itemsType));
+    assertSame(loader, items.get(0).getClass().getClassLoader());
+
+    // runtime types met by the converters of visible types
+    Map<String, Object> map = new HashMap<String, Object>();
+    map.put("plugin", plugin);
+    assertEquals("{\"plugin\":" + PLUGIN_JSON + "}", genson.serialize(map));
+    assertEquals("[" + PLUGIN_JSON + "]", genson.serialize(Arrays.asList(plugin)));
+    assertEquals("[" + PLUGIN_JSON + "]", genson.serialize(new Object[]{plugin}));
+    return loader;
+  }
+
+  private void assertCollected(List<WeakReference<ClassLoader>> loaders) throws InterruptedException {
+    for (int i = 0; i < 50 && !allCleared(loaders); i++) {
+      System.gc();
+      Thread.sleep(20);
+    }
+    for (int i = 0; i < loaders.size(); i++) {
+      assertNull("Deployment " + i + " has not been collected", loaders.get(i).get());
+    }
+  }
+
+  private boolean allCleared(List<WeakReference<ClassLoader>> loaders) {
+    for (WeakReference<ClassLoader> loader : loaders) {
+      if (loader.get() != null) return false;
+    }
+    return true;
+  }
+
+  private CacheStats stats(String name) {
+    for (CacheStats stats : genson.cacheStats()) {
+      if (stats.name().equals(name)) return stats;
+    }
+    throw new AssertionError("No cache named " + name);
+  }
+
+  /**
+   * Defines its own version of the Plugin* classes, the other classes are loaded by its parent.
+   */
+  private static class PluginClassLoader extends ClassLoader {
+    PluginClassLoader() {
+      super(ClassLoaderLeakTest.class.getClassLoader());
+    }
+
+    @Override
+    protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      if (!name.startsWith("com.owlike.genson.Plugin")) return super.loadClass(name, resolve);
+
+      Class<?> clazz = findLoadedClass(name);
+      if (clazz == null) {
+        byte[] bytes = read(name.replace('.', '/') + ".class");
+        clazz = defineClass(name, bytes, 0, bytes.length);
+      }
+      if (resolve) resolveClass(clazz);
+      return clazz;
+    }
+
+    private byte[] read(String resource) throws ClassNotFoundException {
+      InputStream is = getParent().getResourceAsStream(resource);
+      if (is == null) throw new ClassNotFoundException(resource);
+      try {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        for (int len = is.read(buffer); len != -1; len = is.read(buffer)) out.write(buffer, 0, len);
+        return out.toByteArray();
+      } catch (IOException e) {
+        throw new ClassNotFoundException(resource, e);
+      } finally {
+        try {
+          is.close();
+        } catch (IOException e) {
+        }
+      }
+    }
+  }
+}
+
+// top level classes, the isolated copies of nested classes would not match the InnerClasses attribute
+// of their enclosing class
+class PluginBean {
+  private final String name;
+  private final List<PluginItem> items;
+  private final PluginItem main;
+  private final PluginPage<PluginItem> page;
+
+  public PluginBean(String name, List<PluginItem> items, PluginItem main, PluginPage<PluginItem> page) {
+    this.name = name;
+    this.items = items;
+    this.main = main;
+    this.page = page;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public List<PluginItem> getItems() {
+    return items;
+  }
+
+  public PluginItem getMain() {
+    return main;
+  }
+
+  public PluginPage<PluginItem> getPage() {
+    return page;
+  }
+}
+
+class PluginItem {
+  public int value;
+}
+
+class PluginPage<T> {
+  public List<T> content;
+}
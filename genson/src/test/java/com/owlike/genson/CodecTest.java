@@ -0,0 +1,71 @@
+package com.owlike.genson;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.owlike.genson.bean.Primitives;
+
+import static org.junit.Assert.*;
+
+public class CodecTest {
+  private final Genson genson = new Genson();
+  private final Codec<Primitives> codec = genson.codecFor(Primitives.class);
+  private final Primitives primitives = new Primitives(1, 2, 3.5, 4.25, "\u00e9t\u00e9", true, false);
+
+  @Test public void testSameOutputAsGenson() throws Exception {
+    String expected = genson.serialize(primitives);
+    assertEquals(expected, codec.writeString(primitives));
+    assertEquals(expected, new String(codec.writeBytes(primitives), "UTF-8"));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    codec.write(primitives, out);
+    assertEquals(expected, out.toString("UTF-8"));
+
+    StringWriter sw = new StringWriter();
+    codec.write(primitives, sw);
+    assertEquals(expected, sw.toString());
+  }
+
+  @Test public void testReadAllSources() throws Exception {
+    String json = genson.serialize(primitives);
+    byte[] bytes = json.getBytes("UTF-8");
+    assertEquals(json, genson.serialize(codec.read(json)));
+    assertEquals(json, genson.serialize(codec.read(bytes)));
+    assertEquals(json, genson.serialize(codec.read(new ByteArrayInputStream(bytes))));
+    assertEquals(json, genson.serialize(codec.read(new StringReader(json))));
+  }
+
+  @Test public void testReusedBuffers() throws Exception {
+    byte[] buffer = new byte[16];
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    codec.write(primitives, out, buffer);
+    out.write(' ');
+    codec.write(primitives, out, buffer);
+
+    byte[] bytes = out.toByteArray();
+    int length = (bytes.length - 1) / 2;
+    Primitives first = codec.read(bytes, 0, length);
+    Primitives second = codec.read(bytes, length + 1, length);
+    assertEquals(genson.serialize(primitives), genson.serialize(first));
+    assertEquals(genson.serialize(first), genson.serialize(second));
+  }
+
+  @Test public void testGenericTypesAndNulls() {
+    Codec<List<Integer>> listCodec = genson.codecFor(new GenericType<List<Integer>>() {});
+    assertEquals("[1,2]", listCodec.writeString(Arrays.asList(1, 2)));
+    assertEquals(Arrays.asList(3, 4), listCodec.read("[3,4]"));
+    assertEquals("null", listCodec.writeString(null));
+    assertNull(listCodec.read("null"));
+  }
+
+  @Test(expected = JsonBindingException.class)
+  public void testErrorsAreWrapped() {
+    codec.read("{\"intPrimitive\":\"abc\"}");
+  }
+}
@@ -0,0 +1,132 @@
+package com.owlike.genson;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.owlike.genson.bean.Primitives;
+
+import static org.junit.Assert.*;
+
+public class GensonMetricsTest {
+  private final DefaultGensonMetrics metrics = new DefaultGensonMetrics();
+  private final Genson genson = new GensonBuilder().useMetrics(metrics).create();
+  private final GenericType<List<Primitives>> listType = new GenericType<List<Primitives>>() {
+  };
+
+  @Test public void testDisabledByDefault() {
+    assertSame(GensonMetrics.NONE, new Genson().metrics());
+    assertSame(GensonMetrics.NONE, new GensonBuilder().create().metrics());
+    assertSame(metrics, genson.metrics());
+  }
+
+  @Test public void testSerializationsAreMeasuredPerRootType() throws Exception {
+    Primitives primitives = primitives(0);
+    String json = genson.serialize(primitives);
+    byte[] bytes = genson.serializeBytes(primitives);
+
+    DefaultGensonMetrics.Stats stats = metrics.serializations().get(Primitives.class.getName());
+    assertEquals(2, stats.count());
+    assertEquals(json.length(), stats.chars());
+    assertEquals(bytes.length, stats.bytes());
+    assertEquals(0, stats.errors());
+    assertTrue(stats.latency().totalNanos() > 0);
+    assertEquals(1, metrics.serializations().size());
+  }
+
+  @Test public void testBytesAndCharsOfLargeDocuments() throws Exception {
+    List<Primitives> values = largeList();
+    Type type = listType.getType();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    genson.serialize(values, type, genson.createWriter(out), new Context(genson));
+    StringWriter sw = new StringWriter();
+    genson.serialize(values, type, genson.createWriter(sw), new Context(genson));
+    assertTrue(out.size() > 3 * 8192);
+    assertEquals(out.size(), metrics.serializations().get(type.getTypeName()).bytes());
+    assertEquals(sw.toString().length(), metrics.serializations().get(type.getTypeName()).chars());
+
+    genson.deserialize(listType, genson.createReader(new ByteArrayInputStream(out.toByteArray())), new Context(genson));
+    genson.deserialize(listType, genson.createReader(new StringReader(sw.toString())), new Context(genson));
+    DefaultGensonMetrics.Stats stats = metrics.deserializations().get(type.getTypeName());
+    assertEquals(2, stats.count());
+    assertEquals(out.size(), stats.bytes());
+    assertEquals(sw.toString().length(), stats.chars());
+  }
+
+  @Test public void testBytesReadFromAnArrayRange() throws Exception {
+    byte[] json = genson.serializeBytes(primitives(1));
+    byte[] padded = new byte[json.length + 10];
+    System.arraycopy(json, 0, padded, 5, json.length);
+    Primitives value = genson.deserialize(GenericType.of(Primitives.class),
+      genson.createReader(padded, 5, json.length), new Context(genson));
+
+    assertEquals(primitives(1).getIntPrimitive(), value.getIntPrimitive());
+    assertEquals(json.length, metrics.deserializations().get(Primitives.class.getName()).bytes());
+  }
+
+  @Test public void testErrorsAreCounted() {
+    try {
+      genson.deserialize("{\"intPrimitive\":}", Primitives.class);
+      fail();
+    } catch (JsonBindingException e) {
+    }
+    DefaultGensonMetrics.Stats stats = metrics.deserializations().get(Primitives.class.getName());
+    assertEquals(1, stats.errors());
+    assertEquals(0, stats.count());
+  }
+
+  @Test public void testConverterAndDescriptorConstruction() {
+    genson.serialize(primitives(0));
+    long misses = metrics.converterCacheMisses();
+    long descriptors = metrics.descriptorBuilds().count();
+    assertTrue(misses > 0);
+    assertTrue(descriptors > 0);
+    assertEquals(misses, metrics.converterBuilds().count());
+
+    long hits = metrics.converterCacheHits();
+    genson.serialize(primitives(0));
+    assertEquals(hits + 1, metrics.converterCacheHits());
+    assertEquals(misses, metrics.converterCacheMisses());
+    assertEquals(descriptors, metrics.descriptorBuilds().count());
+  }
+
+  @Test public void testCodecIsMeasured() throws Exception {
+    Codec<Primitives> codec = genson.codecFor(Primitives.class);
+    byte[] bytes = codec.writeBytes(primitives(2));
+    codec.read(bytes);
+
+    assertEquals(bytes.length, metrics.serializations().get(Primitives.class.getName()).bytes());
+    assertEquals(bytes.length, metrics.deserializations().get(Primitives.class.getName()).bytes());
+  }
+
+  @Test public void testHistogramPercentiles() {
+    DefaultGensonMetrics.Histogram histogram = new DefaultGensonMetrics.Histogram();
+    assertEquals(0, histogram.percentile(0.99));
+    for (int i = 0; i < 99; i++) histogram.record(100);
+    histogram.record(5000);
+
+    assertEquals(100, histogram.count());
+    assertEquals(99 * 100 + 5000, histogram.totalNanos());
+    assertEquals(127, histogram.percentile(0.5));
+    assertEquals(127, histogram.percentile(0.99));
+    assertEquals(8191, histogram.percentile(1));
+    assertEquals(99, histogram.buckets()[7]);
+  }
+
+  private List<Primitives> largeList() {
+    List<Primitives> values = new ArrayList<Primitives>();
+    for (int i = 0; i < 500; i++) values.add(primitives(i));
+    return values;
+  }
+
+  private Primitives primitives(int i) {
+    return new Primitives(i, i * 2, i + 0.5, i + 0.25, "\u00e9t\u00e9 \"" + i + "\"", true, false);
+  }
+}
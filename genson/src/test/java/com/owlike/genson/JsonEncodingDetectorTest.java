@@ -1,6 +1,8 @@
 package com.owlike.genson;
 
 import com.owlike.genson.stream.JsonReader;
+import com.owlike.genson.stream.ObjectReader;
+import com.owlike.genson.stream.Utf8JsonReader;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -38,6 +40,28 @@ public class JsonEncodingDetectorTest {
   }
 
 
+  @Test public void shouldUseUtf8ReaderForUtf8Input() throws IOException {
+    EncodingAwareReaderFactory factory = new EncodingAwareReaderFactory();
+    assertTrue(factory.createReader("\uFEFF[92]".getBytes("UTF-8"), false, false) instanceof Utf8JsonReader);
+    assertTrue(factory.createReader(new ByteArrayInputStream("[92]".getBytes("UTF-8")), false, false)
+      instanceof Utf8JsonReader);
+    assertTrue(factory.createReader("[92]".getBytes("UTF-16LE"), false, false) instanceof JsonReader);
+
+    for (String encoding : encodings) {
+      ObjectReader reader = factory.createReader("\uFEFF[92]".getBytes(encoding), false, false);
+      reader.beginArray();
+      reader.next();
+      assertEquals(92, reader.valueAsLong());
+      reader.endArray();
+    }
+  }
+
+  @Test public void shouldReadSingleByteDocument() throws IOException {
+    Genson genson = new Genson();
+    assertEquals(1, (int) genson.deserialize("1".getBytes("UTF-8"), Integer.class));
+    assertEquals(1, (int) genson.deserialize(new ByteArrayInputStream("1".getBytes("UTF-8")), Integer.class));
+  }
+
   private void checkCorrectRoundTrip(JsonReader reader) {
     reader.beginArray();
     reader.next();
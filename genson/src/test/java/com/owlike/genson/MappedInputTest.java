@@ -0,0 +1,108 @@
+package com.owlike.genson;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.owlike.genson.stream.JsonReader;
+import com.owlike.genson.stream.JsonStreamException;
+import com.owlike.genson.stream.ObjectReader;
+import com.owlike.genson.stream.Utf8JsonReader;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class MappedInputTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final Genson genson = new Genson();
+
+  @Test public void testReadHeapByteBufferInPlace() throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap("xx{\"name\":\"été\",\"value\":1}yy".getBytes("UTF-8"));
+    buffer.position(2);
+    buffer.limit(buffer.capacity() - 2);
+
+    ObjectReader reader = genson.createReader(buffer);
+    assertTrue(reader instanceof Utf8JsonReader);
+    Map<String, Object> map = genson.deserialize(GenericType.of(Map.class), reader, new Context(genson));
+    assertEquals("été", map.get("name"));
+    assertEquals(1L, map.get("value"));
+    assertEquals(2, buffer.position());
+  }
+
+  @Test public void testReadDirectByteBuffer() throws IOException {
+    byte[] bytes = "[1, \"été\", 3]".getBytes("UTF-8");
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+    buffer.put(bytes).flip();
+
+    Iterator<Object> it = genson.deserializeValues(buffer, Object.class);
+    assertEquals(1L, it.next());
+    assertEquals("été", it.next());
+    assertEquals(3L, it.next());
+    assertFalse(it.hasNext());
+    assertEquals(0, buffer.position());
+  }
+
+  @Test public void testReadUtf16ByteBuffer() throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap("[\"été\"]".getBytes("UTF-16LE"));
+    ObjectReader reader = genson.createReader(buffer);
+    assertTrue(reader instanceof JsonReader);
+    assertArrayEquals(new String[]{"été"}, genson.deserialize(GenericType.of(String[].class), reader,
+      new Context(genson)));
+  }
+
+  @Test public void testDeserializeValuesFromMappedFile() throws IOException {
+    Path path = write("{\"v\":\"a\"}\n{\"v\":\"日本\"}\n{\"v\":\"c\"}");
+    Iterator<Map> it = genson.deserializeValues(path, Map.class);
+    assertEquals("a", it.next().get("v"));
+    assertEquals("日本", it.next().get("v"));
+    assertEquals("c", it.next().get("v"));
+    assertFalse(it.hasNext());
+  }
+
+  @Test public void testReadValuesAcrossMappedWindows() throws IOException {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < 1000; i++) {
+      if (i > 0) sb.append(',');
+      sb.append("{\"id\":").append(i).append(",\"name\":\"nàme").append(i).append("\"}");
+    }
+    sb.append(']');
+    Path path = write(sb.toString());
+
+    // use very small windows so values and multi bytes chars are split between mappings
+    ObjectReader reader = new EncodingAwareReaderFactory()
+      .createReader(new MappedFileInputStream(path, 7), false, false);
+    Iterator<Map> it = genson.deserializeValues(reader, GenericType.of(Map.class));
+    for (int i = 0; i < 1000; i++) {
+      Map map = it.next();
+      assertEquals((long) i, map.get("id"));
+      assertEquals("nàme" + i, map.get("name"));
+    }
+    assertFalse(it.hasNext());
+    reader.close();
+  }
+
+  @Test public void testReadEmptyFile() throws IOException {
+    ObjectReader reader = genson.createReader(write(""));
+    assertFalse(reader.hasNext());
+    reader.close();
+  }
+
+  @Test(expected = JsonStreamException.class)
+  public void testMissingFileFails() {
+    genson.createReader(new File(folder.getRoot(), "missing.json").toPath());
+  }
+
+  private Path write(String content) throws IOException {
+    File file = folder.newFile();
+    Files.write(file.toPath(), content.getBytes("UTF-8"));
+    return file.toPath();
+  }
+}
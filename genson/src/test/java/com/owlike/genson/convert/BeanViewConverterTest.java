@@ -0,0 +1,94 @@
+package com.owlike.genson.convert;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.owlike.genson.BeanView;
+import com.owlike.genson.Context;
+import com.owlike.genson.Converter;
+import com.owlike.genson.Genson;
+import com.owlike.genson.GensonBuilder;
+import com.owlike.genson.Wrapper;
+import com.owlike.genson.reflect.BeanViewTest.ConcreteView;
+import com.owlike.genson.reflect.BeanViewTest.ExtendedBeanView2Class;
+import com.owlike.genson.reflect.BeanViewTest.ExtendedView;
+import com.owlike.genson.reflect.BeanViewTest.MyClass;
+import com.owlike.genson.stream.ObjectWriter;
+
+import static org.junit.Assert.*;
+
+public class BeanViewConverterTest {
+  private final Genson genson = new GensonBuilder().useBeanViews(true).create();
+
+  @Test public void testCachedViewsFollowTheContextViews() throws Exception {
+    BeanViewConverter<MyClass> converter = beanViewConverter(MyClass.class);
+    MyClass value = new MyClass();
+    value.name = "foo";
+
+    List<Class<? extends BeanView<?>>> views = new ArrayList<Class<? extends BeanView<?>>>();
+    views.add(OtherView.class);
+    assertEquals("{\"name\":\"foo\"}", serialize(converter, value, views));
+    assertEquals("{\"name\":\"foo\"}", serialize(converter, value, views));
+
+    // the same list instance now contains a view applying to MyClass
+    views.add(ExtendedBeanView2Class.class);
+    assertEquals("{\"value\":2}", serialize(converter, value, views));
+    views.set(1, ConcreteView.class);
+    assertEquals("{\"value\":3}", serialize(converter, value, views));
+    views.add(0, ExtendedBeanView2Class.class);
+    assertEquals("{\"value\":2}", serialize(converter, value, views));
+    assertEquals("{\"value\":2}", serialize(converter, value,
+      new ArrayList<Class<? extends BeanView<?>>>(views)));
+    assertEquals(4, converter.cachedViews());
+
+    assertEquals("{\"name\":\"foo\"}", serialize(converter, value, null));
+    assertEquals(4, converter.cachedViews());
+  }
+
+  @Test public void testCacheIsBounded() throws Exception {
+    BeanViewConverter<MyClass> converter = beanViewConverter(MyClass.class);
+    MyClass value = new MyClass();
+    List<Class<? extends BeanView<?>>> all = Arrays.<Class<? extends BeanView<?>>>asList(ExtendedView.class,
+      ExtendedBeanView2Class.class, ConcreteView.class, OtherView.class);
+
+    for (int i = 0; i < 2; i++) {
+      for (Class<? extends BeanView<?>> first : all) {
+        for (Class<? extends BeanView<?>> second : all) {
+          List<Class<? extends BeanView<?>>> views = new ArrayList<Class<? extends BeanView<?>>>();
+          views.add(first);
+          views.add(second);
+          // the first view passed to Genson is added last
+          String expected = genson.serialize(value, second, first);
+          assertEquals(expected, serialize(converter, value, views));
+        }
+      }
+    }
+    assertEquals(BeanViewConverter.MAX_CACHED_VIEWS, converter.cachedViews());
+  }
+
+  private <T> String serialize(Converter<T> converter, T value, List<Class<? extends BeanView<?>>> views)
+    throws Exception {
+    StringWriter sw = new StringWriter();
+    ObjectWriter writer = genson.createWriter(sw);
+    converter.serialize(value, writer, new Context(genson, views));
+    writer.flush();
+    return sw.toString();
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> BeanViewConverter<T> beanViewConverter(Class<T> type) {
+    Object converter = genson.provideConverter(type);
+    while (!(converter instanceof BeanViewConverter)) converter = ((Wrapper<?>) converter).unwrap();
+    return (BeanViewConverter<T>) converter;
+  }
+
+  public static class OtherView implements BeanView<String> {
+    public int getLength(String s) {
+      return s.length();
+    }
+  }
+}
@@ -0,0 +1,178 @@
+package com.owlike.genson.convert;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.owlike.genson.Genson;
+import com.owlike.genson.GensonBuilder;
+
+import static org.junit.Assert.*;
+
+public class DateCodecTest {
+  private final static String[] ZONES = {"UTC", "Europe/Paris", "America/New_York", "Asia/Kolkata",
+    "Australia/Lord_Howe"};
+  // from year 1000 to 9999
+  private final static long MIN_TIME = -30610224000000L, MAX_TIME = 253402300799999L;
+  private final static long MILLIS_PER_DAY = DateCodec.MILLIS_PER_DAY;
+
+  @Test public void testIsoPatternsMatchSimpleDateFormat() throws ParseException {
+    for (String zone : ZONES) {
+      assertSameAsSimpleDateFormat(DateCodec.ISO_MILLIS_OFFSET, zone, true);
+      assertSameAsSimpleDateFormat(DateCodec.ISO_OFFSET, zone, true);
+    }
+    assertSameAsSimpleDateFormat(DateCodec.ISO_MILLIS_UTC, "UTC", true);
+    assertSameAsSimpleDateFormat(DateCodec.ISO_UTC, "GMT", true);
+    assertSameAsSimpleDateFormat(DateCodec.RFC_1123, "GMT", true);
+    assertSameAsSimpleDateFormat(DateCodec.RFC_1123, "UTC", true);
+  }
+
+  @Test public void testOtherPatternsUseSimpleDateFormat() throws ParseException {
+    assertSameAsSimpleDateFormat(DateCodec.ISO_MILLIS_UTC, "Europe/Paris", false);
+    assertSameAsSimpleDateFormat(DateCodec.RFC_1123, "America/New_York", false);
+    assertSameAsSimpleDateFormat("dd/MM/yyyy HH:mm", "Europe/Paris", false);
+  }
+
+  @Test public void testLenientValuesAreParsedBySimpleDateFormat() throws ParseException {
+    SimpleDateFormat sdf = simpleDateFormat(DateCodec.ISO_MILLIS_OFFSET, "UTC");
+    DateCodec codec = DateCodec.of(sdf);
+    for (String value : new String[]{"2020-1-5T10:00:00.000Z", "2020-02-30T10:00:00.000+01:00",
+      "2020-01-05T10:00:00.000Ztrailing", "2020-01-05T10:00:00.5+01:00"}) {
+      assertEquals(sdf.parse(value), codec.parse(value));
+    }
+    try {
+      codec.parse("not a date");
+      fail();
+    } catch (ParseException e) {
+    }
+  }
+
+  @Test public void testIsoInstantMatchesTheFormatter() throws ParseException {
+    DateCodec codec = DateCodec.of(DateTimeFormatter.ISO_INSTANT);
+    assertTrue(codec instanceof DateCodec.IsoInstantCodec);
+    Random random = new Random(42);
+    for (int i = 0; i < 10000; i++) {
+      Date date = new Date(randomTime(random, i % 2 == 0));
+      String expected = DateTimeFormatter.ISO_INSTANT.format(date.toInstant());
+      assertEquals(expected, codec.format(date));
+      assertEquals(date, codec.parse(expected));
+    }
+    assertEquals(new Date(1500000000123L), codec.parse("2017-07-14T02:40:00.123456789Z"));
+    assertEquals(new Date(1500000000100L), codec.parse("2017-07-14T02:40:00.1Z"));
+    assertEquals(new Date(-62135596800000L), codec.parse("0001-01-01T00:00:00Z"));
+  }
+
+  @Test public void testRfc1123MatchesTheFormatter() throws ParseException {
+    DateCodec codec = DateCodec.of(DateTimeFormatter.RFC_1123_DATE_TIME);
+    assertTrue(codec instanceof DateCodec.Rfc1123Codec);
+    Random random = new Random(42);
+    for (int i = 0; i < 10000; i++) {
+      Date date = new Date(randomTime(random, true) / 1000 * 1000);
+      String expected = DateTimeFormatter.RFC_1123_DATE_TIME.format(date.toInstant().atZone(ZoneId.of("Z")));
+      assertEquals(expected, codec.format(date));
+      assertEquals(date, codec.parse(expected));
+    }
+    assertEquals(new Date(1212491130000L), codec.parse("Tue, 3 Jun 2008 11:05:30 +0000"));
+    try {
+      codec.parse("Wed, 3 Jun 2008 11:05:30 GMT");
+      fail();
+    } catch (ParseException e) {
+    }
+  }
+
+  @Test public void testFormatterWithoutZoneUsesUtc() throws ParseException {
+    DateCodec codec = DateCodec.of(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+    assertEquals("1970-01-02", codec.format(new Date(MILLIS_PER_DAY + 1)));
+    assertEquals(new Date(MILLIS_PER_DAY), codec.parse("1970-01-02"));
+
+    codec = DateCodec.of(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.of("Europe/Paris")));
+    assertEquals("1970-01-01 01:00", codec.format(new Date(0)));
+    assertEquals(new Date(0), codec.parse("1970-01-01 01:00"));
+  }
+
+  @Test public void testGensonUsesTheDateTimeFormatter() {
+    Genson genson = new GensonBuilder().useDateTimeFormatter(DateTimeFormatter.ISO_INSTANT)
+      .useDateAsTimestamp(false).create();
+    Date date = new Date(1500000000123L);
+    assertEquals("\"2017-07-14T02:40:00.123Z\"", genson.serialize(date));
+    assertEquals(date, genson.deserialize("\"2017-07-14T02:40:00.123Z\"", Date.class));
+    Calendar calendar = genson.deserialize("\"2017-07-14T02:40:00.123Z\"", Calendar.class);
+    assertEquals(date, calendar.getTime());
+    assertEquals(date, genson.deserialize("1500000000123", Date.class));
+
+    Genson timestamps = new GensonBuilder().useDateTimeFormatter(DateTimeFormatter.ISO_INSTANT).create();
+    assertEquals("1500000000123", timestamps.serialize(date));
+  }
+
+  @Test public void testDateFormatIsUsableConcurrently() throws Exception {
+    final SimpleDateFormat sdf = new SimpleDateFormat("dd MMMM yyyy HH:mm:ss.SSS", Locale.US);
+    final DateCodec codec = DateCodec.of(sdf);
+    assertTrue(codec instanceof DateCodec.DateFormatCodec);
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+      for (int t = 0; t < 8; t++) {
+        final long seed = t;
+        results.add(executor.submit(new Callable<Boolean>() {
+          @Override
+          public Boolean call() throws Exception {
+            Random random = new Random(seed);
+            for (int i = 0; i < 2000; i++) {
+              Date date = new Date(randomTime(random, true));
+              if (!date.equals(codec.parse(codec.format(date)))) return false;
+            }
+            return true;
+          }
+        }));
+      }
+      for (Future<Boolean> result : results) assertTrue(result.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private void assertSameAsSimpleDateFormat(String pattern, String zone, boolean fastPath)
+    throws ParseException {
+    SimpleDateFormat sdf = simpleDateFormat(pattern, zone);
+    DateCodec codec = DateCodec.of(sdf);
+    assertEquals(pattern + " in " + zone, fastPath, !(codec instanceof DateCodec.DateFormatCodec));
+
+    Random random = new Random(42);
+    for (int i = 0; i < 10000; i++) {
+      Date date = new Date(randomTime(random, i % 2 == 0));
+      String expected = sdf.format(date);
+      assertEquals(expected, codec.format(date));
+      assertEquals(expected, sdf.parse(expected), codec.parse(expected));
+    }
+    // before the gregorian calendar
+    Date old = new Date(-40000000000000L);
+    assertEquals(sdf.format(old), codec.format(old));
+    assertEquals(sdf.parse(sdf.format(old)), codec.parse(sdf.format(old)));
+  }
+
+  private SimpleDateFormat simpleDateFormat(String pattern, String zone) {
+    SimpleDateFormat sdf = new SimpleDateFormat(pattern, Locale.US);
+    sdf.setTimeZone(TimeZone.getTimeZone(zone));
+    return sdf;
+  }
+
+  private static long randomTime(Random random, boolean withMillis) {
+    long time = MIN_TIME + (long) (random.nextDouble() * (MAX_TIME - MIN_TIME));
+    return withMillis ? time : time / 1000 * 1000;
+  }
+}
@@ -63,6 +63,12 @@ public void testBasicConvertersFactory() {
     Converter<Object[]> cao = (Converter<Object[]>) factory.create(Object[].class, genson);
     assertEquals(DefaultConverters.ArrayConverter.class, cao.getClass());
 
+    Converter<int[]> cai = (Converter<int[]>) factory.create(int[].class, genson);
+    assertEquals(DefaultConverters.IntArrayConverter.class, cai.getClass());
+
+    Converter<double[]> cad = (Converter<double[]>) factory.create(double[].class, genson);
+    assertEquals(DefaultConverters.DoubleArrayConverter.class, cad.getClass());
+
     Converter<List<?>> converter = (Converter<List<?>>) factory.create(List.class, genson);
     assertEquals(DefaultConverters.CollectionConverter.class, converter.getClass());
 
@@ -16,6 +16,7 @@
 import com.owlike.genson.bean.Primitives;
 import com.owlike.genson.bean.Media.Player;
 import com.owlike.genson.reflect.BeanDescriptor;
+import com.owlike.genson.reflect.PrimitiveTypeTest;
 import com.owlike.genson.stream.JsonReader;
 
 public class JsonDeserializationTest {
@@ -171,6 +172,37 @@ public void testJsonDoubleArray() {
     assertEquals(array[2], 0.00000000009, 0);
   }
 
+  @Test
+  public void testPrimitiveArrays() {
+    int[] ints = new int[1000];
+    for (int i = 0; i < ints.length; i++) ints[i] = i * 31 - 500;
+    assertArrayEquals(ints, genson.deserialize(genson.serialize(ints), int[].class));
+
+    assertArrayEquals(new long[]{Long.MIN_VALUE, 0, 7}, genson.deserialize("[-9223372036854775808,0,7]", long[].class));
+    assertArrayEquals(new short[]{-2, 3}, genson.deserialize("[-2,3]", short[].class));
+    assertArrayEquals(new float[]{1.5f, Float.NaN}, genson.deserialize("[1.5,\"NaN\"]", float[].class), 0);
+    assertArrayEquals(new double[]{0.25, Double.NEGATIVE_INFINITY}, genson.deserialize(
+      genson.serialize(new double[]{0.25, Double.NEGATIVE_INFINITY}), double[].class), 0);
+    boolean[] booleans = genson.deserialize("[true,false,true]", boolean[].class);
+    assertTrue(booleans[0] && !booleans[1] && booleans[2] && booleans.length == 3);
+
+    Genson custom = new GensonBuilder().withConverter(new PrimitiveTypeTest.QuotedIntConverter(), int.class).create();
+    assertEquals("[\"1\",\"2\"]", custom.serialize(new int[]{1, 2}));
+    assertArrayEquals(new int[]{1, 2}, custom.deserialize("[\"1\",\"2\"]", int[].class));
+  }
+
+  @Test
+  public void testNullsInPrimitiveArraysUseTheElementConverter() {
+    assertArrayEquals(new int[]{1, 0, 2}, genson.deserialize("[1,null,2]", int[].class));
+    assertArrayEquals(new double[]{0}, genson.deserialize("[null]", double[].class), 0);
+    try {
+      new GensonBuilder().failOnNullPrimitive(true).create().deserialize("[1,null]", int[].class);
+      fail();
+    } catch (JsonBindingException e) {
+      // expected
+    }
+  }
+
   @Test
   public void testJsonComplexObject() {
     ComplexObject coo = new ComplexObject(createPrimitives(), Arrays.asList(createPrimitives(),
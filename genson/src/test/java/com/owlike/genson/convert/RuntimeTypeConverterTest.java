@@ -0,0 +1,74 @@
+package com.owlike.genson.convert;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.owlike.genson.Context;
+import com.owlike.genson.Genson;
+import com.owlike.genson.GensonBuilder;
+
+import static org.junit.Assert.*;
+
+public class RuntimeTypeConverterTest {
+  private final Genson genson = new GensonBuilder().useRuntimeType(true).create();
+
+  @Test public void testUsesTheRuntimeTypes() {
+    List<Animal> animals = Arrays.asList(new Dog(), new Cat(), new Animal(), new Dog());
+    assertEquals("[{\"barks\":true,\"name\":\"dog\"},{\"lives\":9,\"name\":\"cat\"},{\"name\":\"animal\"},"
+      + "{\"barks\":true,\"name\":\"dog\"}]", genson.serialize(animals));
+  }
+
+  @Test public void testCacheIsBounded() throws Exception {
+    RuntimeTypeConverter<Object> converter = new RuntimeTypeConverter<Object>(Object.class,
+      genson.<Object>provideConverter(Object.class));
+    List<Object> values = new ArrayList<Object>(Arrays.<Object>asList(1, 2L, 3.5, 4.5f, (short) 5, (byte) 6,
+      "7", true, new Date(0), new Dog(), new Cat(), 'c'));
+    values.addAll(values);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (Object value : values) converter.serialize(value, genson.createWriter(out), new Context(genson));
+    assertEquals(RuntimeTypeConverter.MAX_CACHED_CLASSES, converter.cachedClasses());
+  }
+
+  @Test public void testNestedValuesDontFlush() {
+    CountingOutputStream out = new CountingOutputStream();
+    List<Animal> animals = new ArrayList<Animal>();
+    for (int i = 0; i < 100; i++) animals.add(i % 2 == 0 ? new Dog() : new Cat());
+    genson.serialize(animals, out);
+    assertEquals(1, out.flushes);
+  }
+
+  private static class CountingOutputStream extends ByteArrayOutputStream {
+    int flushes;
+
+    @Override
+    public void flush() {
+      flushes++;
+    }
+  }
+
+  public static class Animal {
+    public String name = "animal";
+  }
+
+  public static class Dog extends Animal {
+    public boolean barks = true;
+
+    public Dog() {
+      name = "dog";
+    }
+  }
+
+  public static class Cat extends Animal {
+    public int lives = 9;
+
+    public Cat() {
+      name = "cat";
+    }
+  }
+}
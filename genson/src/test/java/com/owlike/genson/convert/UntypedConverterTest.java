@@ -0,0 +1,158 @@
+package com.owlike.genson.convert;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.owlike.genson.Context;
+import com.owlike.genson.Converter;
+import com.owlike.genson.GenericType;
+import com.owlike.genson.Genson;
+import com.owlike.genson.GensonBuilder;
+import com.owlike.genson.stream.ObjectReader;
+import com.owlike.genson.stream.ObjectWriter;
+
+import static org.junit.Assert.*;
+
+public class UntypedConverterTest {
+  private final Genson genson = new Genson();
+  private final GenericType<Map<String, Object>> mapType = new GenericType<Map<String, Object>>() {};
+
+  @Test public void testReadsTheDefaultTypes() {
+    Map<String, Object> map = genson.deserialize(
+      "{\"s\":\"a\",\"l\":1,\"d\":1.5,\"b\":true,\"n\":null,\"o\":{\"x\":[1,\"y\",[]]}}", mapType);
+    assertEquals("a", map.get("s"));
+    assertEquals(1L, map.get("l"));
+    assertEquals(1.5, map.get("d"));
+    assertEquals(true, map.get("b"));
+    assertTrue(map.containsKey("n") && map.get("n") == null);
+
+    Map<?, ?> o = (Map<?, ?>) map.get("o");
+    assertEquals(HashMap.class, o.getClass());
+    List<?> x = (List<?>) o.get("x");
+    assertEquals(ArrayList.class, x.getClass());
+    assertEquals(Arrays.asList(1L, "y", new ArrayList<Object>()), x);
+  }
+
+  @Test public void testWritesTheDefaultTypes() {
+    Map<String, Object> map = new LinkedHashMap<String, Object>();
+    map.put("s", "a\"b");
+    map.put("l", 2L);
+    map.put("i", 3);
+    map.put("d", Double.NaN);
+    map.put("b", false);
+    map.put("n", null);
+    map.put("list", Arrays.<Object>asList(1, new Date(0), (short) 4));
+    Map<Integer, Object> nested = new HashMap<Integer, Object>();
+    nested.put(5, 1.5f);
+    map.put("m", nested);
+
+    assertEquals("{\"s\":\"a\\\"b\",\"l\":2,\"i\":3,\"d\":\"NaN\",\"b\":false,\"n\":null,"
+      + "\"list\":[1,0,4],\"m\":{\"5\":1.5}}", genson.serialize(map));
+    assertEquals("{\"s\":\"a\\\"b\",\"l\":2,\"i\":3,\"d\":\"NaN\",\"b\":false,"
+      + "\"list\":[1,0,4],\"m\":{\"5\":1.5}}", new GensonBuilder().setSkipNull(true).create().serialize(map));
+  }
+
+  @Test public void testCustomConvertersAreStillUsed() {
+    Genson custom = new GensonBuilder().withConverter(new UpperCaseConverter(), String.class).create();
+    Map<String, Object> map = new HashMap<String, Object>();
+    map.put("list", Arrays.<Object>asList("a"));
+
+    assertEquals("{\"list\":[\"A\"]}", custom.serialize(map));
+    Map<String, Object> read = custom.deserialize("{\"list\":[\"b\"]}", mapType);
+    assertEquals(Arrays.asList("B"), read.get("list"));
+  }
+
+  @Test public void testNestedClassMetadata() {
+    Genson withMetadata = new GensonBuilder().useClassMetadata(true).addAlias("bean", Bean.class).create();
+    Bean bean = new Bean();
+    bean.value = 7L;
+    Map<String, Object> map = new HashMap<String, Object>();
+    map.put("list", Arrays.<Object>asList(bean));
+
+    String json = withMetadata.serialize(map);
+    assertEquals("{\"list\":[{\"@class\":\"bean\",\"value\":7}]}", json);
+    Map<String, Object> read = withMetadata.deserialize(json, mapType);
+    Bean readBean = (Bean) ((List<?>) read.get("list")).get(0);
+    assertEquals(7L, readBean.value);
+  }
+
+  @Test public void testCompactCollections() {
+    Genson compact = new GensonBuilder().useCompactUntypedCollections(true).create();
+    String json = "{\"s\":\"a\",\"n\":null,\"list\":[1,\"y\",[],{}],\"m\":{\"x\":1.5}}";
+    Map<?, ?> map = (Map<?, ?>) compact.deserialize(json, Object.class);
+
+    assertEquals(CompactMap.class, map.getClass());
+    assertEquals(4, map.size());
+    assertEquals("a", map.get("s"));
+    assertTrue(map.containsKey("n") && map.get("n") == null);
+    assertFalse(map.containsKey("missing"));
+    assertEquals(Arrays.asList("s", "n", "list", "m"), new ArrayList<Object>(map.keySet()));
+    List<?> list = (List<?>) map.get("list");
+    assertEquals(CompactList.class, list.getClass());
+    assertEquals(Arrays.asList(1L, "y", new ArrayList<Object>(), new HashMap<Object, Object>()), list);
+    assertEquals(genson.deserialize(json, Object.class), map);
+    assertEquals(json, compact.serialize(map));
+  }
+
+  @Test public void testLargeCompactMap() {
+    Genson compact = new GensonBuilder().useCompactUntypedCollections(true).create();
+    StringBuilder json = new StringBuilder("{");
+    for (int i = 0; i < 100; i++) json.append("\"k").append(i).append("\":").append(i).append(',');
+    json.append("\"k7\":\"last\"}");
+
+    Map<?, ?> map = (Map<?, ?>) compact.deserialize(json.toString(), Object.class);
+    assertEquals(100, map.size());
+    for (int i = 0; i < 100; i++) assertEquals(i == 7 ? "last" : (Object) (long) i, map.get("k" + i));
+    assertFalse(map.containsKey("k100"));
+    assertNull(map.get(null));
+    assertEquals(genson.deserialize(json.toString(), Object.class), map);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test public void testCompactCollectionsAreReadOnly() {
+    Genson compact = new GensonBuilder().useCompactUntypedCollections(true).create();
+    Map<String, Object> map = (Map<String, Object>) compact.deserialize("{\"a\":1,\"a\":[2]}", Object.class);
+    assertEquals(1, map.size());
+    List<Object> list = (List<Object>) map.get("a");
+    assertEquals(Arrays.asList(2L), list);
+
+    try {
+      map.put("b", 1);
+      fail();
+    } catch (UnsupportedOperationException e) {
+    }
+    try {
+      map.entrySet().iterator().next().setValue(1);
+      fail();
+    } catch (UnsupportedOperationException e) {
+    }
+    try {
+      list.add(3);
+      fail();
+    } catch (UnsupportedOperationException e) {
+    }
+  }
+
+  public static class Bean {
+    public Object value;
+  }
+
+  public static class UpperCaseConverter implements Converter<String> {
+    @Override
+    public void serialize(String object, ObjectWriter writer, Context ctx) {
+      writer.writeValue(object.toUpperCase());
+    }
+
+    @Override
+    public String deserialize(ObjectReader reader, Context ctx) {
+      return reader.valueAsString().toUpperCase();
+    }
+  }
+}
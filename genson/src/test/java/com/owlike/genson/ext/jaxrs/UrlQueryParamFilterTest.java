@@ -0,0 +1,88 @@
+package com.owlike.genson.ext.jaxrs;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.owlike.genson.Context;
+import com.owlike.genson.Genson;
+import com.owlike.genson.GensonBuilder;
+import com.owlike.genson.ThreadLocalHolder;
+import com.owlike.genson.reflect.BeanDescriptor;
+import com.owlike.genson.reflect.PropertyMask;
+
+import static org.junit.Assert.*;
+
+public class UrlQueryParamFilterTest {
+  private final UrlQueryParamFilter filter = new UrlQueryParamFilter().maxCachedMasks(2);
+  private final Genson genson = new GensonBuilder().useRuntimePropertyFilter(filter).create();
+  private final Person person = new Person();
+
+  @After
+  public void tearDown() {
+    ThreadLocalHolder.remove("_jaxrs_params_to_filter", Object.class);
+  }
+
+  @Test public void testMasksAreCachedByFilteredProperties() {
+    assertEquals("{\"name\":\"foo\"}", serialize("name"));
+    assertEquals("{\"age\":32,\"name\":\"foo\"}", serialize("name", "age"));
+    assertEquals("{\"name\":\"foo\"}", serialize("name"));
+    assertEquals(2, filter.cachedMasks());
+
+    assertEquals("{\"email\":\"foo@bar.com\"}", serialize("email"));
+    assertEquals("{\"age\":32}", serialize("age"));
+    assertEquals(2, filter.cachedMasks());
+
+    filter.inclusionFilter(false);
+    assertEquals(0, filter.cachedMasks());
+    assertEquals("{\"email\":\"foo@bar.com\",\"name\":\"foo\"}", serialize("age"));
+
+    ThreadLocalHolder.store("_jaxrs_params_to_filter", new HashSet<String>(Arrays.asList("email")));
+    Person read = genson.deserialize("{\"age\":20,\"email\":\"bar@foo.com\",\"name\":\"bar\"}", Person.class);
+    assertEquals(20, read.age);
+    assertEquals("foo@bar.com", read.email);
+    assertEquals("bar", read.name);
+  }
+
+  @Test public void testRequestsNotFilteredHaveNoPropertiesToFilter() {
+    assertEquals("{}", genson.serialize(person));
+    assertEquals("{\"name\":\"foo\"}", serialize("name"));
+
+    filter.inclusionFilter(false);
+    ThreadLocalHolder.remove("_jaxrs_params_to_filter", Object.class);
+    assertEquals("{\"age\":32,\"email\":\"foo@bar.com\",\"name\":\"foo\"}", genson.serialize(person));
+  }
+
+  @Test public void testFrequentlyUsedMasksSurviveABurstOfNewMasks() {
+    UrlQueryParamFilter filter = new UrlQueryParamFilter().maxCachedMasks(64);
+    Genson genson = new GensonBuilder().useRuntimePropertyFilter(filter).create();
+    BeanDescriptor<Person> descriptor = genson.getBeanDescriptorProvider().provide(Person.class, genson);
+    Context ctx = new Context(genson);
+
+    PropertyMask hot = compile(filter, descriptor, ctx, "name");
+    for (int i = 0; i < 1000; i++) {
+      compile(filter, descriptor, ctx, "property" + i);
+      assertSame(hot, compile(filter, descriptor, ctx, "name"));
+    }
+    assertEquals(64, filter.cachedMasks());
+  }
+
+  private PropertyMask compile(UrlQueryParamFilter filter, BeanDescriptor<?> descriptor, Context ctx,
+                               String... properties) {
+    ThreadLocalHolder.store("_jaxrs_params_to_filter", new HashSet<String>(Arrays.asList(properties)));
+    return filter.compile(descriptor, ctx);
+  }
+
+  private String serialize(String... properties) {
+    ThreadLocalHolder.store("_jaxrs_params_to_filter", new HashSet<String>(Arrays.asList(properties)));
+    return genson.serialize(person);
+  }
+
+  public static class Person {
+    public String name = "foo";
+    public int age = 32;
+    public String email = "foo@bar.com";
+  }
+}
@@ -0,0 +1,181 @@
+package com.owlike.genson.reflect;
+
+import java.io.InputStreamReader;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Test;
+
+import com.owlike.genson.Context;
+import com.owlike.genson.GenericType;
+import com.owlike.genson.Genson;
+import com.owlike.genson.GensonBuilder;
+import com.owlike.genson.JsonBindingException;
+import com.owlike.genson.annotation.JsonIgnore;
+import com.owlike.genson.bean.Feed;
+import com.owlike.genson.bean.MediaContent;
+import com.owlike.genson.bean.Tweet;
+
+import static org.junit.Assert.*;
+
+public class ASMBeanDescriptorProviderTest {
+  private final Genson genson = new GensonBuilder().useGeneratedBeanCodecs(true).create();
+
+  @Test public void testProvidesGeneratedDescriptors() {
+    assertTrue(genson.getBeanDescriptorProvider().provide(Primitives.class, genson) instanceof GeneratedBeanDescriptor);
+    assertTrue(genson.getBeanDescriptorProvider().provide(PackageBean.class, genson) instanceof GeneratedBeanDescriptor);
+  }
+
+  @Test public void testRoundTripAllPropertyKinds() {
+    Primitives p = new Primitives();
+    p.i = -5;
+    p.l = Long.MAX_VALUE;
+    p.d = 1.5;
+    p.f = 2.25f;
+    p.b = true;
+    p.s = 12;
+    p.str = "hey \"you\"";
+    p.c = 'x';
+    p.setValue(42);
+    p.ints = Arrays.asList(1, 2);
+    p.child = new Primitives();
+
+    String json = genson.serialize(p);
+    assertEquals(new Genson().serialize(p), json);
+
+    Primitives read = genson.deserialize(json, Primitives.class);
+    assertEquals(-5, read.i);
+    assertEquals(Long.MAX_VALUE, read.l);
+    assertEquals(1.5, read.d, 0);
+    assertEquals(2.25f, read.f, 0);
+    assertTrue(read.b);
+    assertEquals(12, read.s);
+    assertEquals("hey \"you\"", read.str);
+    assertEquals('x', read.c);
+    assertEquals(42, read.getValue());
+    assertEquals(Arrays.asList(1, 2), read.ints);
+    assertNotNull(read.child);
+    assertNull(read.child.str);
+  }
+
+  @Test public void testSpecialDoublesAndNulls() {
+    Primitives p = new Primitives();
+    p.d = Double.NaN;
+    p.f = Float.POSITIVE_INFINITY;
+    assertEquals(new Genson().serialize(p), genson.serialize(p));
+
+    Primitives read = genson.deserialize("{\"i\":null,\"str\":null,\"value\":null,\"d\":\"NaN\"}", Primitives.class);
+    assertEquals(0, read.i);
+    assertNull(read.str);
+    assertEquals(0, read.getValue());
+    assertTrue(Double.isNaN(read.d));
+  }
+
+  @Test(expected = JsonBindingException.class)
+  public void testFailOnNullPrimitive() {
+    new GensonBuilder().useGeneratedBeanCodecs(true).failOnNullPrimitive(true).create()
+      .deserialize("{\"i\":null}", Primitives.class);
+  }
+
+  @Test public void testUnknownProperties() {
+    assertEquals(3, genson.deserialize("{\"unknown\":[1,{}],\"i\":3}", Primitives.class).i);
+    try {
+      new GensonBuilder().useGeneratedBeanCodecs(true).failOnMissingProperty(true).create()
+        .deserialize("{\"unknown\":1}", Primitives.class);
+      fail();
+    } catch (JsonBindingException e) {
+      assertCausedBy(e, "for key unknown");
+    }
+  }
+
+  @Test public void testExceptionsAreWrapped() {
+    try {
+      genson.serialize(new Failing());
+      fail();
+    } catch (JsonBindingException e) {
+      assertCausedBy(e, "property 'value'");
+    }
+    try {
+      genson.deserialize("{\"i\":\"abc\"}", Primitives.class);
+      fail();
+    } catch (JsonBindingException e) {
+      assertCausedBy(e, "property 'i'");
+    }
+  }
+
+  @Test public void testRuntimePropertyFilterIsApplied() {
+    Genson filtered = new GensonBuilder().useGeneratedBeanCodecs(true).useRuntimePropertyFilter(
+      new RuntimePropertyFilter() {
+        @Override
+        public boolean shouldInclude(BeanProperty property, Context ctx) {
+          return property.getName().equals("i");
+        }
+      }).create();
+    Primitives p = new Primitives();
+    p.i = 1;
+    assertEquals("{\"i\":1}", filtered.serialize(p));
+    assertEquals(0, filtered.deserialize("{\"i\":1,\"l\":2}", Primitives.class).l);
+  }
+
+  @Test public void testSameOutputAsBeanDescriptorOnBenchmarkData() throws Exception {
+    DateFormat dateFormat = new SimpleDateFormat("EEE MMM dd HH:mm:ss Z yyyy", Locale.US);
+    Genson generated = new GensonBuilder().useDateFormat(dateFormat).useGeneratedBeanCodecs(true)
+      .useGeneratedAccessors(true).create();
+    Genson standard = new GensonBuilder().useDateFormat(dateFormat).create();
+    assertSameRoundTrip(standard, generated, "/TWEETS.json", new GenericType<List<Tweet>>() {});
+    assertSameRoundTrip(standard, generated, "/READER_LONG.json", GenericType.of(Feed.class));
+    assertSameRoundTrip(standard, generated, "/MEDIA_CONTENT.json", GenericType.of(MediaContent.class));
+  }
+
+  private void assertCausedBy(Throwable e, String message) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause.getMessage() != null && cause.getMessage().contains(message)) return;
+    }
+    fail("No exception with message " + message);
+  }
+
+  private <T> void assertSameRoundTrip(Genson standard, Genson generated, String resource, GenericType<T> type) {
+    T expected = standard.deserialize(new InputStreamReader(getClass().getResourceAsStream(resource)), type);
+    T actual = generated.deserialize(new InputStreamReader(getClass().getResourceAsStream(resource)), type);
+    assertEquals(standard.serialize(expected), generated.serialize(actual));
+  }
+
+  public static class Primitives {
+    public int i;
+    public long l;
+    public double d;
+    public float f;
+    public boolean b;
+    public short s;
+    public char c;
+    public String str;
+    public List<Integer> ints;
+    public Primitives child;
+    private int value;
+
+    public int getValue() {
+      return value;
+    }
+
+    public void setValue(int value) {
+      this.value = value;
+    }
+  }
+
+  public static class Failing {
+    public int getValue() {
+      throw new IllegalStateException();
+    }
+
+    @JsonIgnore
+    public void setValue(int value) {
+    }
+  }
+
+  static class PackageBean {
+    int value;
+  }
+}
@@ -0,0 +1,271 @@
+package com.owlike.genson.reflect;
+
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.owlike.genson.Genson;
+import com.owlike.genson.GensonBuilder;
+import com.owlike.genson.JsonBindingException;
+import com.owlike.genson.annotation.JsonCreator;
+import com.owlike.genson.annotation.JsonIgnore;
+import com.owlike.genson.annotation.JsonProperty;
+import com.owlike.genson.stream.JsonReader;
+import com.owlike.genson.stream.JsonWriter;
+import com.owlike.genson.stream.ObjectReader;
+import com.owlike.genson.stream.ObjectWriter;
+
+import static org.junit.Assert.*;
+
+public class ASMBeanPropertyFactoryTest {
+  private final Genson genson = new Genson();
+  private final ASMBeanPropertyFactory factory = new ASMBeanPropertyFactory();
+
+  @Test public void testGeneratedFieldAccessorAndMutator() throws Exception {
+    PublicBean bean = new PublicBean();
+    PropertyMutator mutator = factory.createMutator("count", PublicBean.class.getField("count"), PublicBean.class, genson);
+    PropertyAccessor accessor = factory.createAccessor("count", PublicBean.class.getField("count"), PublicBean.class, genson);
+    assertTrue(mutator instanceof ASMBeanPropertyFactory.GeneratedFieldMutator);
+    assertTrue(accessor instanceof ASMBeanPropertyFactory.GeneratedFieldAccessor);
+
+    mutator.mutate(bean, 5);
+    assertEquals(5, bean.count);
+    assertEquals(5, accessor.access(bean));
+    assertEquals(int.class, accessor.getType());
+    assertEquals(PublicBean.class, accessor.getDeclaringClass());
+  }
+
+  @Test public void testGeneratedMethodAccessorAndMutator() throws Exception {
+    PublicBean bean = new PublicBean();
+    PropertyMutator mutator = factory.createMutator("values", PublicBean.class.getMethod("setValues", List.class),
+      PublicBean.class, genson);
+    PropertyAccessor accessor = factory.createAccessor("values", PublicBean.class.getMethod("getValues"),
+      PublicBean.class, genson);
+    assertTrue(mutator instanceof ASMBeanPropertyFactory.GeneratedMethodMutator);
+    assertTrue(accessor instanceof ASMBeanPropertyFactory.GeneratedMethodAccessor);
+
+    mutator.mutate(bean, Arrays.asList("a", "b"));
+    assertEquals(Arrays.asList("a", "b"), accessor.access(bean));
+
+    PropertyMutator longMutator = factory.createMutator("total", PublicBean.class.getMethod("setTotal", long.class),
+      PublicBean.class, genson);
+    longMutator.mutate(bean, 7L);
+    assertEquals(7L, bean.total);
+  }
+
+  @Test public void testGeneratedCreators() throws Exception {
+    BeanCreator ctrCreator = factory.createCreator(PublicBean.class,
+      PublicBean.class.getConstructor(int.class, String.class), new String[]{"count", "name"}, genson);
+    assertTrue(ctrCreator instanceof ASMBeanPropertyFactory.GeneratedConstructorCreator);
+    PublicBean bean = (PublicBean) ctrCreator.create(3, "foo");
+    assertEquals(3, bean.count);
+    assertEquals("foo", bean.name);
+
+    BeanCreator methodCreator = factory.createCreator(PublicBean.class,
+      PublicBean.class.getMethod("of", String.class), new String[]{"name"}, genson);
+    assertTrue(methodCreator instanceof ASMBeanPropertyFactory.GeneratedMethodCreator);
+    assertEquals("bar", ((PublicBean) methodCreator.create("bar")).name);
+  }
+
+  @Test public void testFallbackToReflectionForNonPublicMembers() throws Exception {
+    assertNull(factory.createAccessor("hidden", PublicBean.class.getDeclaredField("hidden"), PublicBean.class, genson));
+    assertNull(factory.createMutator("constant", PublicBean.class.getField("constant"), PublicBean.class, genson));
+    assertNull(factory.createAccessor("value", PackageBean.class.getField("value"), PackageBean.class, genson));
+    assertNull(factory.createCreator(PackageBean.class, PackageBean.class.getDeclaredConstructor(), new String[0], genson));
+  }
+
+  @Test public void testExceptionsAreWrappedAsWithReflection() throws Exception {
+    PropertyMutator mutator = factory.createMutator("count", PublicBean.class.getField("count"), PublicBean.class, genson);
+    try {
+      mutator.mutate(new PublicBean(), "not a number");
+      fail();
+    } catch (JsonBindingException e) {
+      assertTrue(e.getCause() instanceof ClassCastException);
+    }
+
+    PropertyAccessor accessor = factory.createAccessor("failing", PublicBean.class.getMethod("getFailing"),
+      PublicBean.class, genson);
+    try {
+      accessor.access(new PublicBean());
+      fail();
+    } catch (JsonBindingException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+  }
+
+  @Test public void testOtherNumberTypesAreNotNarrowed() throws Exception {
+    PublicBean bean = new PublicBean();
+    PropertyMutator mutator = factory.createMutator("count", PublicBean.class.getField("count"), PublicBean.class, genson);
+    try {
+      mutator.mutate(bean, Long.MAX_VALUE);
+      fail();
+    } catch (JsonBindingException e) {
+      assertTrue(e.getCause() instanceof ClassCastException);
+    }
+    assertEquals(0, bean.count);
+
+    BeanCreator creator = factory.createCreator(PublicBean.class,
+      PublicBean.class.getConstructor(int.class, String.class), new String[]{"count", "name"}, genson);
+    try {
+      creator.create(1.5d, "foo");
+      fail();
+    } catch (JsonBindingException e) {
+      assertTrue(e.getCause() instanceof ClassCastException);
+    }
+  }
+
+  @Test public void testRoundTripWithGeneratedAccessors() {
+    Genson generated = new GensonBuilder().useGeneratedAccessors(true).useConstructorWithArguments(true).create();
+    PublicBean bean = new PublicBean(2, "foo");
+    bean.total = 10;
+    bean.setValues(Arrays.asList("x"));
+    String json = "{\"count\":2,\"name\":\"foo\",\"total\":10,\"values\":[\"x\"]}";
+    assertEquals(json, generated.serialize(bean));
+
+    PublicBean read = generated.deserialize(json, PublicBean.class);
+    assertEquals(2, read.count);
+    assertEquals("foo", read.name);
+    assertEquals(10, read.total);
+    assertEquals(Arrays.asList("x"), read.getValues());
+
+    PackageBean packageBean = generated.deserialize("{\"value\":1}", PackageBean.class);
+    assertEquals(1, packageBean.value);
+    assertEquals("{\"value\":1}", generated.serialize(packageBean));
+  }
+
+  @Test public void testPrimitiveFieldsAreReadAndWrittenByTheGeneratedCode() throws Exception {
+    Genson generated = new GensonBuilder().useGeneratedAccessors(true).create();
+    BeanDescriptor<PrimitiveBean> descriptor = generated.getBeanDescriptorProvider()
+      .provide(PrimitiveBean.class, generated);
+    assertEquals(8, descriptor.accessibleProperties.size());
+    for (PropertyAccessor accessor : descriptor.accessibleProperties) {
+      assertTrue(accessor instanceof ASMBeanPropertyFactory.GeneratedFieldAccessor);
+      accessor.getClass().getDeclaredMethod("write", Object.class, ObjectWriter.class);
+    }
+    assertEquals(8, descriptor.mutableProperties.size());
+    for (PropertyMutator mutator : descriptor.mutableProperties.values()) {
+      assertTrue(mutator instanceof ASMBeanPropertyFactory.GeneratedFieldMutator);
+      mutator.getClass().getDeclaredMethod("read", Object.class, ObjectReader.class);
+    }
+
+    PrimitiveBean bean = new PrimitiveBean();
+    bean.b = true;
+    bean.by = -3;
+    bean.c = 'x';
+    bean.s = 300;
+    bean.i = -5;
+    bean.l = Long.MAX_VALUE;
+    bean.f = Float.NaN;
+    bean.d = 1.5;
+    String json = generated.serialize(bean);
+    assertEquals(genson.serialize(bean), json);
+
+    PrimitiveBean read = generated.deserialize(json, PrimitiveBean.class);
+    assertTrue(read.b);
+    assertEquals(-3, read.by);
+    assertEquals('x', read.c);
+    assertEquals(300, read.s);
+    assertEquals(-5, read.i);
+    assertEquals(Long.MAX_VALUE, read.l);
+    assertTrue(Float.isNaN(read.f));
+    assertEquals(1.5, read.d, 0);
+  }
+
+  @Test public void testPrimitiveFieldsFallbackToReflectionWhenNotGenerated() throws Exception {
+    Field field = PrimitiveBean.class.getField("i");
+    ASMBeanPropertyFactory.GeneratedFieldAccessor accessor =
+      new ASMBeanPropertyFactory.GeneratedFieldAccessor("i", field, int.class, PrimitiveBean.class) {
+        @Override
+        protected Object get(Object target) throws Exception {
+          return ((PrimitiveBean) target).i;
+        }
+      };
+    ASMBeanPropertyFactory.GeneratedFieldMutator mutator =
+      new ASMBeanPropertyFactory.GeneratedFieldMutator("i", field, int.class, PrimitiveBean.class) {
+        @Override
+        protected void set(Object target, Object value) throws Exception {
+          ((PrimitiveBean) target).i = (Integer) value;
+        }
+      };
+
+    PrimitiveBean bean = new PrimitiveBean();
+    bean.i = 12;
+    StringWriter sw = new StringWriter();
+    JsonWriter writer = new JsonWriter(sw);
+    writer.beginObject().writeName("i");
+    accessor.writePrimitive(bean, writer, PrimitiveType.INT);
+    writer.endObject().flush();
+    assertEquals("{\"i\":12}", sw.toString());
+
+    JsonReader reader = new JsonReader("{\"i\":-4}");
+    reader.beginObject();
+    reader.next();
+    mutator.readPrimitive(bean, reader, PrimitiveType.INT);
+    assertEquals(-4, bean.i);
+  }
+
+  @Test(expected = JsonBindingException.class)
+  public void testNullToPrimitiveFailsWithGeneratedAccessors() {
+    new GensonBuilder().useGeneratedAccessors(true).failOnNullPrimitive(true).create()
+      .deserialize("{\"count\":null}", PublicBean.class);
+  }
+
+  public static class PublicBean {
+    public int count;
+    public String name;
+    public long total;
+    @JsonIgnore
+    public final String constant = "c";
+    private List<String> values;
+    private String hidden;
+
+    public PublicBean() {
+    }
+
+    @JsonCreator
+    public PublicBean(@JsonProperty("count") int count, @JsonProperty("name") String name) {
+      this.count = count;
+      this.name = name;
+    }
+
+    public static PublicBean of(String name) {
+      return new PublicBean(0, name);
+    }
+
+    public List<String> getValues() {
+      return values;
+    }
+
+    public void setValues(List<String> values) {
+      this.values = values;
+    }
+
+    public PublicBean setTotal(long total) {
+      this.total = total;
+      return this;
+    }
+
+    @JsonIgnore
+    public String getFailing() {
+      throw new IllegalStateException();
+    }
+  }
+
+  public static class PrimitiveBean {
+    public boolean b;
+    public byte by;
+    public char c;
+    public short s;
+    public int i;
+    public long l;
+    public float f;
+    public double d;
+  }
+
+  static class PackageBean {
+    public int value;
+  }
+}
@@ -5,6 +5,7 @@
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.lang.reflect.GenericArrayType;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashSet;
@@ -242,6 +243,76 @@ private BaseBeanDescriptorProvider createBaseBeanDescriptorProvider() {
     assertNull(actual.getC());
   }
 
+  @Test public void testMissingCreatorArgumentsUseDefaultValues() {
+    Genson genson = new GensonBuilder().useDefaultValue("none", String.class).create();
+    CreatorAndSetters bean = genson.deserialize("{\"x\":1}", CreatorAndSetters.class);
+    assertEquals(1, bean.x);
+    assertEquals("none", bean.name);
+    assertEquals("initial", bean.tag);
+    assertEquals(0, bean.count);
+  }
+
+  @Test public void testCreatorArgumentsAndSettersWithAliases() {
+    CreatorAndSetters bean = genson.deserialize(
+      "{\"n\":5,\"label\":\"t\",\"nom\":\"a\",\"x\":2,\"unknown\":[1]}", CreatorAndSetters.class);
+    assertEquals(2, bean.x);
+    assertEquals("a", bean.name);
+    assertEquals("t", bean.tag);
+    assertEquals(5, bean.count);
+    assertEquals(1, bean.createdWithX);
+
+    // the last value of a property and its aliases wins
+    bean = genson.deserialize("{\"tag\":\"a\",\"label\":\"b\"}", CreatorAndSetters.class);
+    assertEquals("b", bean.tag);
+  }
+
+  @Test public void testPropertiesAreSetAfterCreationInDocumentOrder() {
+    CreatorAndSetters bean = genson.deserialize("{\"n\":1,\"x\":2,\"tag\":\"a\"}", CreatorAndSetters.class);
+    assertEquals(Arrays.asList("count", "tag"), bean.setters);
+
+    bean = genson.deserialize("{\"tag\":\"a\",\"x\":2,\"count\":1,\"label\":\"b\"}", CreatorAndSetters.class);
+    // a property given several times is set once with its last value, at the place of its first occurrence
+    assertEquals(Arrays.asList("tag", "count"), bean.setters);
+    assertEquals("b", bean.tag);
+  }
+
+  @Test public void testExplicitNullIsSetAfterCreation() {
+    CreatorAndSetters bean = genson.deserialize("{\"tag\":null,\"name\":null}", CreatorAndSetters.class);
+    assertNull(bean.name);
+    assertNull(bean.tag);
+    assertTrue(bean.tagSet);
+  }
+
+  public static class CreatorAndSetters {
+    final int x;
+    final String name;
+    final int createdWithX;
+    String tag = "initial";
+    boolean tagSet;
+    int count;
+    final List<String> setters = new ArrayList<String>();
+
+    @JsonCreator
+    public CreatorAndSetters(@JsonProperty(value = "x") int x, @JsonProperty(value = "name", aliases = "nom") String name) {
+      this.x = x;
+      this.name = name;
+      this.createdWithX = x > 0 ? 1 : 0;
+    }
+
+    @JsonProperty(aliases = "label")
+    public void setTag(String tag) {
+      this.tag = tag;
+      this.tagSet = true;
+      setters.add("tag");
+    }
+
+    @JsonProperty(aliases = "n")
+    public void setCount(int count) {
+      this.count = count;
+      setters.add("count");
+    }
+  }
+
   public static class Parent {
     public String a;
     public String b;
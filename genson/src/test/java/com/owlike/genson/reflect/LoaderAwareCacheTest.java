@@ -0,0 +1,106 @@
+package com.owlike.genson.reflect;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.owlike.genson.CacheStats;
+import com.owlike.genson.GenericType;
+
+import static org.junit.Assert.*;
+
+public class LoaderAwareCacheTest {
+  @Test public void testOldestEntriesAreEvicted() {
+    LoaderAwareCache<Type, String> cache = LoaderAwareCache.ofTypes("test", 2);
+    assertEquals("string", cache.putIfAbsent(String.class, "string"));
+    assertEquals("string", cache.putIfAbsent(String.class, "other"));
+    cache.putIfAbsent(Integer.class, "integer");
+    cache.putIfAbsent(Long.class, "long");
+
+    assertNull(cache.get(String.class));
+    assertEquals("integer", cache.get(Integer.class));
+    assertEquals("long", cache.get(Long.class));
+    CacheStats stats = cache.stats();
+    assertEquals("test", stats.name());
+    assertEquals(2, stats.size());
+    assertEquals(2, stats.maxSize());
+    assertEquals(1, stats.evictions());
+    assertEquals(0, stats.foreignClasses());
+  }
+
+  @Test public void testVisibleTypesHaveNoOwner() {
+    assertTrue(LoaderAwareCache.isVisible(String.class));
+    assertTrue(LoaderAwareCache.isVisible(LoaderAwareCacheTest.class));
+    assertNull(LoaderAwareCache.ownerOf(new GenericType<Map<String, List<? extends Number>[]>>() {
+    }.getType()));
+    assertNull(LoaderAwareCache.ownerOf(TypeUtil.expandType(Holder.class.getTypeParameters()[0], Holder.class)));
+  }
+
+  @Test public void testMostSpecificClassLoaderWins() throws Exception {
+    ClassLoader parent = new IsolatingClassLoader(getClass().getClassLoader());
+    ClassLoader child = new IsolatingClassLoader(parent);
+    Class<?> parentHolder = parent.loadClass(Holder.class.getName());
+    Class<?> childHolder = child.loadClass(Holder.class.getName());
+
+    assertFalse(LoaderAwareCache.isVisible(parentHolder));
+    assertSame(childHolder, LoaderAwareCache.mostSpecific(parentHolder, childHolder));
+    assertSame(childHolder, LoaderAwareCache.mostSpecific(childHolder, parentHolder));
+    assertSame(parentHolder, LoaderAwareCache.ownerOf(parentHolder.getDeclaredField("values").getGenericType()));
+    Type names = parentHolder.getDeclaredField("names").getGenericType();
+    assertNull(LoaderAwareCache.ownerOf(names));
+    // only the root class of the expanded type is foreign
+    assertSame(parentHolder, LoaderAwareCache.ownerOf(TypeUtil.expandType(names, parentHolder)));
+  }
+
+  @Test public void testForeignEntriesAreKeptApart() throws Exception {
+    Class<?> foreign = new IsolatingClassLoader(getClass().getClassLoader()).loadClass(Holder.class.getName());
+    LoaderAwareCache<Type, String> cache = LoaderAwareCache.ofTypes("test", 1);
+    cache.putIfAbsent(String.class, "string");
+    cache.putIfAbsent(foreign, "foreign");
+
+    assertEquals("string", cache.get(String.class));
+    assertEquals("foreign", cache.get(foreign));
+    assertNull(cache.get(Holder.class));
+    CacheStats stats = cache.stats();
+    assertEquals(2, stats.size());
+    assertEquals(0, stats.evictions());
+    assertEquals(1, stats.foreignClasses());
+  }
+
+  // defines its own Holder class
+  private static class IsolatingClassLoader extends ClassLoader {
+    IsolatingClassLoader(ClassLoader parent) {
+      super(parent);
+    }
+
+    @Override
+    protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      if (!name.equals(Holder.class.getName())) return super.loadClass(name, resolve);
+      Class<?> clazz = findLoadedClass(name);
+      if (clazz == null) {
+        InputStream is = LoaderAwareCacheTest.class.getClassLoader()
+          .getResourceAsStream(name.replace('.', '/') + ".class");
+        try {
+          ByteArrayOutputStream out = new ByteArrayOutputStream();
+          byte[] buffer = new byte[4096];
+          for (int len = is.read(buffer); len != -1; len = is.read(buffer)) out.write(buffer, 0, len);
+          clazz = defineClass(name, out.toByteArray(), 0, out.size());
+        } catch (IOException e) {
+          throw new ClassNotFoundException(name, e);
+        }
+      }
+      return clazz;
+    }
+  }
+}
+
+// top level so that IsolatingClassLoader can define its own copy of it
+class Holder<T> {
+  public List<Holder<T>> values;
+  public List<String> names;
+}
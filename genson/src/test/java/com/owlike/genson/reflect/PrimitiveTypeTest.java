@@ -0,0 +1,112 @@
+package com.owlike.genson.reflect;
+
+import org.junit.Test;
+
+import com.owlike.genson.Context;
+import com.owlike.genson.Converter;
+import com.owlike.genson.Genson;
+import com.owlike.genson.GensonBuilder;
+import com.owlike.genson.JsonBindingException;
+import com.owlike.genson.stream.ObjectReader;
+import com.owlike.genson.stream.ObjectWriter;
+
+import static org.junit.Assert.*;
+
+public class PrimitiveTypeTest {
+  private final Genson genson = new Genson();
+
+  @Test public void testUsesPrimitiveTypeForDefaultConvertersOnly() {
+    BeanDescriptor<Numbers> descriptor = genson.getBeanDescriptorProvider().provide(Numbers.class, genson);
+    for (PropertyAccessor accessor : descriptor.accessibleProperties) {
+      assertNotNull(PrimitiveType.of(accessor.getRawClass(), accessor.propertySerializer));
+    }
+    assertNull(PrimitiveType.of(Integer.class, genson.provideConverter(Integer.class)));
+
+    Genson custom = new GensonBuilder().withConverter(new QuotedIntConverter(), int.class).create();
+    assertNull(PrimitiveType.of(int.class, custom.provideConverter(int.class)));
+  }
+
+  @Test public void testRoundTripAllPrimitives() {
+    Numbers numbers = new Numbers();
+    numbers.z = true;
+    numbers.b = -7;
+    numbers.c = '\u00e9';
+    numbers.s = Short.MIN_VALUE;
+    numbers.i = Integer.MAX_VALUE;
+    numbers.l = Long.MIN_VALUE;
+    numbers.f = 0.5f;
+    numbers.d = -1e300;
+
+    String json = genson.serialize(numbers);
+    assertEquals("{\"b\":-7,\"c\":\"\u00e9\",\"d\":-1.0E300,\"f\":0.5,\"i\":2147483647,"
+      + "\"l\":-9223372036854775808,\"s\":-32768,\"z\":true}", json);
+
+    Numbers read = genson.deserialize(json, Numbers.class);
+    assertTrue(read.z);
+    assertEquals(-7, read.b);
+    assertEquals('\u00e9', read.c);
+    assertEquals(Short.MIN_VALUE, read.s);
+    assertEquals(Integer.MAX_VALUE, read.i);
+    assertEquals(Long.MIN_VALUE, read.l);
+    assertEquals(0.5f, read.f, 0);
+    assertEquals(-1e300, read.d, 0);
+  }
+
+  @Test public void testSpecialFloatingPointValues() {
+    Numbers numbers = new Numbers();
+    numbers.f = Float.NaN;
+    numbers.d = Double.NEGATIVE_INFINITY;
+    String json = genson.serialize(numbers);
+    assertTrue(json.contains("\"d\":\"-Infinity\"") && json.contains("\"f\":\"NaN\""));
+  }
+
+  @Test public void testNullsUseTheConverters() {
+    Numbers read = genson.deserialize("{\"i\":null,\"d\":null,\"z\":null}", Numbers.class);
+    assertEquals(0, read.i);
+    assertEquals(0, read.d, 0);
+    assertFalse(read.z);
+
+    try {
+      new GensonBuilder().failOnNullPrimitive(true).create().deserialize("{\"i\":null}", Numbers.class);
+      fail();
+    } catch (JsonBindingException e) {
+      // expected
+    }
+  }
+
+  @Test public void testCustomConverterIsStillUsed() {
+    Genson custom = new GensonBuilder().withConverter(new QuotedIntConverter(), int.class).create();
+    Numbers numbers = new Numbers();
+    numbers.i = 3;
+    assertTrue(custom.serialize(numbers).contains("\"i\":\"3\""));
+    assertEquals(4, custom.deserialize("{\"i\":\"4\"}", Numbers.class).i);
+  }
+
+  @Test(expected = JsonBindingException.class)
+  public void testCharLongerThanOneFails() {
+    genson.deserialize("{\"c\":\"ab\"}", Numbers.class);
+  }
+
+  public static class Numbers {
+    boolean z;
+    byte b;
+    char c;
+    short s;
+    int i;
+    long l;
+    float f;
+    double d;
+  }
+
+  public static class QuotedIntConverter implements Converter<Integer> {
+    @Override
+    public void serialize(Integer object, ObjectWriter writer, Context ctx) {
+      writer.writeValue(object.toString());
+    }
+
+    @Override
+    public Integer deserialize(ObjectReader reader, Context ctx) {
+      return Integer.valueOf(reader.valueAsString());
+    }
+  }
+}
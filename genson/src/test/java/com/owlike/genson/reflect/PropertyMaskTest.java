@@ -0,0 +1,127 @@
+package com.owlike.genson.reflect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.owlike.genson.Context;
+import com.owlike.genson.GenericType;
+import com.owlike.genson.Genson;
+import com.owlike.genson.GensonBuilder;
+import com.owlike.genson.annotation.JsonCreator;
+import com.owlike.genson.annotation.JsonProperty;
+
+import static org.junit.Assert.*;
+
+public class PropertyMaskTest {
+  private final GenericType<List<Point>> pointsType = new GenericType<List<Point>>() {
+  };
+  private final GenericType<List<Line>> linesType = new GenericType<List<Line>>() {
+  };
+
+  @Test public void testMasksAreCompiledOncePerContext() {
+    CountingFilter filter = new CountingFilter("x", "from");
+    Genson genson = new GensonBuilder().useRuntimePropertyFilter(filter).create();
+    List<Point> points = new ArrayList<Point>();
+    for (int i = 0; i < 10; i++) points.add(new Point(i, i + 1));
+
+    String json = genson.serialize(points);
+    assertTrue(json.startsWith("[{\"x\":0},{\"x\":1}"));
+    assertEquals(1, filter.compilations);
+    // 2 accessors and 2 mutators
+    assertEquals(4, filter.calls);
+
+    List<Point> read = genson.deserialize(json.replace("}", ",\"y\":5}"), pointsType);
+    assertEquals(2, filter.compilations);
+    assertEquals(9, read.get(9).x);
+    assertEquals(0, read.get(9).y);
+
+    List<Line> lines = genson.deserialize("[{\"from\":{\"x\":1,\"y\":2},\"to\":{\"x\":3}},{\"from\":{\"x\":4}}]",
+      linesType);
+    assertEquals(4, filter.compilations);
+    assertEquals(1, lines.get(0).from.x);
+    assertEquals(0, lines.get(0).from.y);
+    assertNull(lines.get(0).to);
+    assertEquals(4, lines.get(1).from.x);
+  }
+
+  @Test public void testSameResultsAsTheFilter() {
+    final CountingFilter compilable = new CountingFilter("y", "to");
+    RuntimePropertyFilter filter = new RuntimePropertyFilter() {
+      @Override
+      public boolean shouldInclude(BeanProperty property, Context ctx) {
+        return compilable.shouldInclude(property, ctx);
+      }
+    };
+    for (boolean generated : new boolean[]{false, true}) {
+      Genson compiled = new GensonBuilder().useRuntimePropertyFilter(compilable)
+        .useGeneratedBeanCodecs(generated).create();
+      Genson perProperty = new GensonBuilder().useRuntimePropertyFilter(filter)
+        .useGeneratedBeanCodecs(generated).create();
+      Line line = new Line(new Point(1, 2), new Point(3, 4));
+      assertEquals(perProperty.serialize(line), compiled.serialize(line));
+      String json = "{\"from\":{\"x\":1,\"y\":2},\"to\":{\"x\":3,\"y\":4}}";
+      assertEquals(perProperty.serialize(perProperty.deserialize(json, Line.class)),
+        compiled.serialize(compiled.deserialize(json, Line.class)));
+    }
+  }
+
+  @Test public void testFilterIncludingEverythingCompilesToAll() {
+    CountingFilter filter = new CountingFilter("x", "y");
+    Point point = new Point(1, 2);
+    Genson defaultGenson = new Genson();
+    BeanDescriptor<Point> descriptor = defaultGenson.getBeanDescriptorProvider().provide(Point.class, defaultGenson);
+    assertSame(PropertyMask.ALL, PropertyMask.compile(descriptor, filter, new Context(defaultGenson)));
+
+    Genson genson = new GensonBuilder().useRuntimePropertyFilter(filter).useGeneratedBeanCodecs(true).create();
+    assertEquals("{\"x\":1,\"y\":2}", genson.serialize(point));
+    assertEquals(2, genson.deserialize("{\"x\":1,\"y\":2}", Point.class).y);
+  }
+
+  private static class CountingFilter implements RuntimePropertyFilter.Compilable {
+    private final List<String> included = new ArrayList<String>();
+    int compilations;
+    int calls;
+
+    CountingFilter(String... included) {
+      for (String name : included) this.included.add(name);
+    }
+
+    @Override
+    public boolean shouldInclude(BeanProperty property, Context ctx) {
+      calls++;
+      return included.contains(property.getName());
+    }
+
+    @Override
+    public PropertyMask compile(BeanDescriptor<?> descriptor, Context ctx) {
+      compilations++;
+      return PropertyMask.compile(descriptor, this, ctx);
+    }
+  }
+
+  public static class Point {
+    public int x;
+    public int y;
+
+    public Point() {
+    }
+
+    Point(int x, int y) {
+      this.x = x;
+      this.y = y;
+    }
+  }
+
+  public static class Line {
+    public final Point from;
+    public final Point to;
+
+    @JsonCreator
+    public Line(@JsonProperty("from") Point from, @JsonProperty("to") Point to) {
+      this.from = from;
+      this.to = to;
+    }
+  }
+}
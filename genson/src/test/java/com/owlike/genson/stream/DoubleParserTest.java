@@ -0,0 +1,112 @@
+package com.owlike.genson.stream;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DoubleParserTest {
+  private final Random random = new Random(42);
+
+  @Test public void testEdgeValues() {
+    assertParsedLikeDoubleParse(Arrays.asList(
+      "0.0", "-0.0", "0e10", "1.0", "-1.5", "0.1", "0.3", "1e23", "8.41e21", "9007199254740993.0",
+      "4.9e-324", "2.4703282292062328e-324", "2.4703282292062327e-324", "1e-400",
+      "2.2250738585072011e-308", "2.2250738585072014e-308", "1.7976931348623157e308",
+      "1.7976931348623158e308", "1.7976931348623159e308", "1e309", "-1e400", "123456789012345678901234567890",
+      "0.000000000000000000000000000000000000001234567890123456789", "1.00000000000000011102230246251565404",
+      "1.00000000000000011102230246251565405", "7.2057594037927933e16", "1e-22", "1e22", "12345e-27",
+      "9999999999999999999", "99999999999999999999e-5", "1E+2", "2e-0", "00.5", "-00001.25e00003"));
+  }
+
+  @Test public void testShortestRepresentations() {
+    List<String> values = new ArrayList<String>();
+    for (int i = 0; i < 20000; i++) {
+      double d = Double.longBitsToDouble(random.nextLong());
+      if (!Double.isNaN(d) && !Double.isInfinite(d)) values.add(Double.toString(d));
+      values.add(Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(40) - 20)));
+      values.add(Float.toString(random.nextFloat()));
+    }
+    assertParsedLikeDoubleParse(values);
+  }
+
+  @Test public void testLongRepresentations() {
+    List<String> values = new ArrayList<String>();
+    for (int i = 0; i < 20000; i++) {
+      StringBuilder sb = new StringBuilder();
+      int digits = 1 + random.nextInt(30);
+      for (int j = 0; j < digits; j++) sb.append((char) ('0' + random.nextInt(10)));
+      sb.insert(1 + random.nextInt(digits), '.');
+      if (random.nextBoolean()) sb.append('e').append(random.nextInt(700) - 350);
+      values.add(sb.toString());
+    }
+    assertParsedLikeDoubleParse(values);
+  }
+
+  @Test public void testHalfwayValues() {
+    // the exact values in the middle of two consecutive doubles, and the closest values around them,
+    // the exponent is kept small so the exact values are not longer than what the readers accept
+    List<String> values = new ArrayList<String>();
+    for (int i = 0; i < 2000; i++) {
+      long exponent = 1023 + random.nextInt(200) - 100;
+      double d = Double.longBitsToDouble(exponent << 52 | (random.nextLong() & 0x000FFFFFFFFFFFFFL));
+      BigDecimal halfway = new BigDecimal(d).add(new BigDecimal(Math.nextUp(d))).divide(BigDecimal.valueOf(2));
+      values.add(halfway.toString());
+      values.add(halfway.round(new MathContext(19)).toString());
+      values.add(halfway.round(new MathContext(25)).toString());
+    }
+    assertParsedLikeDoubleParse(values);
+  }
+
+  @Test(expected = JsonStreamException.class)
+  public void testMissingExponentDigitsFails() {
+    new JsonReader("[1.5e+]").beginArray().next();
+  }
+
+  @Test public void testStrictAndDefaultModesAreEqual() {
+    String json = "[0.1, 1.7976931348623157e308, 3.141592653589793238462643383279]";
+    ObjectReader strict = new JsonReader(new StringReader(json), true, false);
+    ObjectReader fast = new JsonReader(new StringReader(json), false, false);
+    strict.beginArray();
+    fast.beginArray();
+    while (strict.hasNext()) {
+      strict.next();
+      fast.next();
+      assertEquals(Double.doubleToLongBits(strict.valueAsDouble()), Double.doubleToLongBits(fast.valueAsDouble()));
+    }
+  }
+
+  private void assertParsedLikeDoubleParse(List<String> values) {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < values.size(); i++) {
+      if (i > 0) sb.append(',');
+      sb.append(values.get(i));
+    }
+    String json = sb.append(']').toString();
+
+    byte[] bytes = json.getBytes();
+    assertReadsValues(values, new JsonReader(new StringReader(json), false, false));
+    assertReadsValues(values, new Utf8JsonReader(bytes, 0, bytes.length, false, false));
+    assertReadsValues(values, new Utf8JsonReader(new ByteArrayInputStream(bytes), false, false));
+  }
+
+  private void assertReadsValues(List<String> values, ObjectReader reader) {
+    reader.beginArray();
+    for (String value : values) {
+      assertTrue(reader.hasNext());
+      reader.next();
+      double expected = Double.parseDouble(value);
+      assertEquals(value, Double.doubleToLongBits(expected), Double.doubleToLongBits(reader.valueAsDouble()));
+    }
+    assertFalse(reader.hasNext());
+    reader.endArray();
+  }
+}
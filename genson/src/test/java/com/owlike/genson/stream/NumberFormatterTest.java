@@ -0,0 +1,135 @@
+package com.owlike.genson.stream;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class NumberFormatterTest {
+  private final Random random = new Random(7);
+  private final byte[] bytes = new byte[32];
+  private final char[] chars = new char[32];
+
+  @Test public void testFormatLongs() {
+    long[] values = {0, 1, -1, 9, 10, 99, 100, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE + 1L,
+      Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1};
+    for (long value : values) assertLongFormatted(value);
+
+    for (long pow = 1; pow > 0 && pow < Long.MAX_VALUE / 10; pow *= 10) {
+      assertLongFormatted(pow);
+      assertLongFormatted(pow - 1);
+      assertLongFormatted(-pow);
+    }
+    for (int i = 0; i < 100000; i++) {
+      assertLongFormatted(random.nextLong() >> random.nextInt(64));
+    }
+  }
+
+  @Test public void testFormatDoubles() {
+    assertDoubleFormatted("0.0", 0d);
+    assertDoubleFormatted("-0.0", -0d);
+    assertDoubleFormatted("1.0", 1d);
+    assertDoubleFormatted("0.1", 0.1);
+    assertDoubleFormatted("0.001", 0.001);
+    assertDoubleFormatted("1.0E-4", 0.0001);
+    assertDoubleFormatted("9999999.0", 9999999d);
+    assertDoubleFormatted("1.0E7", 1e7);
+    assertDoubleFormatted("123.456", 123.456);
+    assertDoubleFormatted("-1.5E300", -1.5e300);
+    assertDoubleFormatted("1.0E23", 1e23);
+    assertDoubleFormatted("4.9E-324", Double.MIN_VALUE);
+    assertDoubleFormatted("2.2250738585072014E-308", Double.MIN_NORMAL);
+    assertDoubleFormatted("1.7976931348623157E308", Double.MAX_VALUE);
+    assertDoubleFormatted("9.007199254740992E15", 9007199254740992d);
+    // Double.toString returns 2.0000000000000004E23 on older JVMs, but 2.0E23 reads to the same value
+    assertDoubleFormatted("2.0E23", 2e23);
+
+    for (int i = 0; i < 200000; i++) {
+      assertDoubleRoundTrips(Double.longBitsToDouble(random.nextLong()));
+      assertDoubleRoundTrips(random.nextDouble() * Math.pow(10, random.nextInt(30) - 15));
+      assertDoubleRoundTrips(random.nextInt(1000000) / 100d);
+    }
+  }
+
+  @Test public void testFormatFloats() {
+    assertFloatFormatted("0.0", 0f);
+    assertFloatFormatted("-0.0", -0f);
+    assertFloatFormatted("0.1", 0.1f);
+    assertFloatFormatted("1.0E7", 1e7f);
+    assertFloatFormatted("3.4028235E38", Float.MAX_VALUE);
+    assertFloatFormatted("1.4E-45", Float.MIN_VALUE);
+    // Float.toString returns 1.17549435E-38 on older JVMs
+    assertFloatFormatted("1.1754944E-38", Float.MIN_NORMAL);
+
+    for (int i = 0; i < 200000; i++) {
+      assertFloatRoundTrips(Float.intBitsToFloat(random.nextInt()));
+      assertFloatRoundTrips(random.nextFloat() * 1000);
+    }
+  }
+
+  @Test public void testWritersUseFormatter() {
+    StringWriter sw = new StringWriter();
+    JsonWriter writer = new JsonWriter(sw);
+    Utf8JsonWriter utf8Writer = new Utf8JsonWriter(false, false, false);
+    for (ObjectWriter w : new ObjectWriter[]{writer, utf8Writer}) {
+      w.beginArray().writeValue(1.5).writeValue(2e-5f).writeValue(Long.MIN_VALUE).writeValue(-42)
+        .writeValue((short) -32768).endArray().flush();
+    }
+    String expected = "[1.5,2.0E-5,-9223372036854775808,-42,-32768]";
+    assertEquals(expected, sw.toString());
+    assertEquals(expected, new String(utf8Writer.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  private void assertLongFormatted(long value) {
+    assertEquals(Long.toString(value), new String(bytes, 0, NumberFormatter.writeLong(value, bytes, 0), StandardCharsets.ISO_8859_1));
+    assertEquals(Long.toString(value), new String(chars, 0, NumberFormatter.writeLong(value, chars, 0)));
+  }
+
+  private void assertDoubleFormatted(String expected, double value) {
+    assertEquals(expected, formatDouble(value));
+  }
+
+  private void assertFloatFormatted(String expected, float value) {
+    assertEquals(expected, formatFloat(value));
+  }
+
+  private void assertDoubleRoundTrips(double value) {
+    if (Double.isNaN(value) || Double.isInfinite(value)) return;
+    assertRoundTrips(Double.toString(value), formatDouble(value),
+      Double.doubleToLongBits(value) == Double.doubleToLongBits(Double.parseDouble(formatDouble(value))));
+  }
+
+  private void assertFloatRoundTrips(float value) {
+    if (Float.isNaN(value) || Float.isInfinite(value)) return;
+    assertRoundTrips(Float.toString(value), formatFloat(value),
+      Float.floatToIntBits(value) == Float.floatToIntBits(Float.parseFloat(formatFloat(value))));
+  }
+
+  /*
+   * The output must read back to the same value and have the format of toString. It is the same
+   * string, except when toString did not find the shortest or the closest decimal (before Java 19).
+   */
+  private void assertRoundTrips(String expected, String actual, boolean sameValue) {
+    assertTrue(actual + " instead of " + expected, sameValue);
+    if (!expected.equals(actual)) {
+      assertTrue(actual + " instead of " + expected, actual.length() <= expected.length());
+      assertEquals(expected.contains("E"), actual.contains("E"));
+    }
+  }
+
+  // the byte and char versions must write the same chars
+  private String formatDouble(double value) {
+    String formatted = new String(bytes, 0, NumberFormatter.writeDouble(value, bytes, 0), StandardCharsets.ISO_8859_1);
+    assertEquals(formatted, new String(chars, 0, NumberFormatter.writeDouble(value, chars, 0)));
+    return formatted;
+  }
+
+  private String formatFloat(float value) {
+    String formatted = new String(bytes, 0, NumberFormatter.writeFloat(value, bytes, 0), StandardCharsets.ISO_8859_1);
+    assertEquals(formatted, new String(chars, 0, NumberFormatter.writeFloat(value, chars, 0)));
+    return formatted;
+  }
+}
@@ -0,0 +1,72 @@
+package com.owlike.genson.stream;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PropertyNameMatcherTest {
+  private final PropertyNameMatcher matcher = new PropertyNameMatcher("name", "value", "été");
+
+  @Test public void testMatchNames() {
+    assertEquals(3, matcher.size());
+    assertEquals(0, matcher.match("name"));
+    assertEquals(1, matcher.match("value"));
+    assertEquals(2, matcher.match("été"));
+    assertEquals(-1, matcher.match("other"));
+    assertEquals("value", matcher.name(1));
+  }
+
+  @Test public void testMatchManyNames() {
+    List<String> names = new ArrayList<String>();
+    for (int i = 0; i < 500; i++) names.add("property" + i);
+    PropertyNameMatcher many = new PropertyNameMatcher(names);
+    for (int i = 0; i < 500; i++) {
+      char[] chars = (" property" + i).toCharArray();
+      assertEquals(i, many.match(chars, 1, chars.length - 1, names.get(i).hashCode()));
+    }
+    assertEquals(-1, many.match("property500"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDuplicateNamesAreRejected() {
+    new PropertyNameMatcher("a", "b", "a");
+  }
+
+  @Test public void testJsonReaderMatchesNames() {
+    assertNamesAreMatched(new JsonReader(new StringReader(json()), false, false));
+  }
+
+  @Test public void testUtf8JsonReaderMatchesNames() throws Exception {
+    assertNamesAreMatched(new Utf8JsonReader(json().getBytes("UTF-8")));
+  }
+
+  private String json() {
+    return "{\"name\":1, \"other\":{\"value\":2}, \"va\\u006cue\":[3], \"été\":4}";
+  }
+
+  private void assertNamesAreMatched(ObjectReader reader) {
+    reader.beginObject();
+    assertEquals(0, reader.nextAndMatch(matcher));
+    assertSame(matcher.name(0), reader.name());
+    assertEquals(1, reader.valueAsInt());
+    assertEquals(-1, reader.nextAndMatch(matcher));
+    assertEquals("other", reader.name());
+    assertEquals(ValueType.OBJECT, reader.getValueType());
+    reader.skipValue();
+    assertEquals(1, reader.nextAndMatch(matcher));
+    assertEquals(ValueType.ARRAY, reader.getValueType());
+    reader.beginArray();
+    // in an array there is no name to match
+    assertEquals(-1, reader.nextAndMatch(matcher));
+    assertEquals(3, reader.valueAsInt());
+    reader.endArray();
+    assertEquals(2, reader.nextAndMatch(matcher));
+    assertEquals(4, reader.valueAsInt());
+    assertFalse(reader.hasNext());
+    reader.endObject();
+  }
+}
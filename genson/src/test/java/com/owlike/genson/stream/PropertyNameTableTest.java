@@ -0,0 +1,122 @@
+package com.owlike.genson.stream;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.owlike.genson.Genson;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PropertyNameTableTest {
+  private final String name = new String("name");
+  private final String value = new String("value");
+  private final PropertyNameTable table = new PropertyNameTable(Arrays.asList(name, value));
+
+  @Test public void testAddAndFind() {
+    assertSame(name, table.find("name"));
+    assertSame(value, table.find(new String("value")));
+    assertNull(table.find("other"));
+
+    table.add(new String("name"));
+    assertEquals(2, table.size());
+    assertSame(name, table.find("name"));
+  }
+
+  @Test public void testGrowKeepsAllNames() {
+    List<String> names = new ArrayList<String>();
+    for (int i = 0; i < 1000; i++) names.add("property" + i);
+    table.addAll(names);
+    assertEquals(1002, table.size());
+    for (String n : names) {
+      char[] chars = ("{" + n + "}").toCharArray();
+      assertSame(n, table.find(chars, 1, n.length(), n.hashCode()));
+    }
+  }
+
+  @Test public void testAddAllKeepsTheFirstOfDuplicatedNames() {
+    String other = new String("other");
+    table.addAll(Arrays.asList(other, new String("other"), new String("name")));
+    assertEquals(3, table.size());
+    assertSame(other, table.find("other"));
+    assertSame(name, table.find("name"));
+  }
+
+  @Test public void testConcurrentAdditionsKeepAllNames() throws InterruptedException {
+    Thread[] threads = new Thread[8];
+    for (int t = 0; t < threads.length; t++) {
+      final int thread = t;
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          for (int i = 0; i < 200; i++) {
+            table.addAll(Arrays.asList("shared" + i, "thread" + thread + "_" + i));
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (Thread thread : threads) thread.join();
+
+    assertEquals(2 + 200 + threads.length * 200, table.size());
+    for (int i = 0; i < 200; i++) {
+      assertNotNull(table.find("shared" + i));
+      for (int t = 0; t < threads.length; t++) assertNotNull(table.find("thread" + t + "_" + i));
+    }
+  }
+
+  @Test public void testJsonReaderReturnsCanonicalNames() {
+    ObjectReader reader = new JsonReader(new StringReader("{\"name\":1,\"value\":2,\"other\":3,\"na\\u006de\":4}"),
+      false, false, table);
+    assertNamesAreCanonical(reader);
+  }
+
+  @Test public void testUtf8JsonReaderReturnsCanonicalNames() throws Exception {
+    byte[] bytes = "{\"name\":1,\"value\":2,\"other\":3,\"na\\u006de\":4}".getBytes("UTF-8");
+    assertNamesAreCanonical(new Utf8JsonReader(bytes, 0, bytes.length, false, false, table));
+  }
+
+  @Test public void testUnknownNamesAreReusedWithinAReader() throws Exception {
+    byte[] bytes = "[{\"other\":1,\"été\":2},{\"other\":3,\"été\":4}]".getBytes("UTF-8");
+    ObjectReader reader = new Utf8JsonReader(bytes, 0, bytes.length, false, false, table);
+    reader.beginArray().next();
+    reader.beginObject().next();
+    String other = reader.name();
+    reader.next();
+    assertEquals("été", reader.name());
+    reader.endObject().next();
+    reader.beginObject().next();
+    assertSame(other, reader.name());
+    reader.next();
+    assertEquals("été", reader.name());
+    reader.endObject().endArray();
+  }
+
+  @Test public void testGensonRegistersBeanPropertyNames() {
+    Genson genson = new Genson();
+    genson.deserialize("{\"firstName\":\"a\"}", Bean.class);
+    assertNotNull(genson.propertyNameTable().find("firstName"));
+    assertNotNull(genson.propertyNameTable().find("age"));
+    assertNull(genson.propertyNameTable().find("unknown"));
+  }
+
+  private void assertNamesAreCanonical(ObjectReader reader) {
+    reader.beginObject();
+    reader.next();
+    assertSame(name, reader.name());
+    reader.next();
+    assertSame(value, reader.name());
+    reader.next();
+    assertEquals("other", reader.name());
+    reader.next();
+    assertEquals("name", reader.name());
+    reader.endObject();
+  }
+
+  public static class Bean {
+    public String firstName;
+    public int age;
+  }
+}
@@ -0,0 +1,223 @@
+package com.owlike.genson.stream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized.Parameters;
+
+import static org.junit.Assert.*;
+
+@RunWith(value = org.junit.runners.Parameterized.class)
+public class Utf8JsonReaderTest {
+  private final boolean strictDoubleParse;
+  private final boolean fromStream;
+
+  public Utf8JsonReaderTest(boolean strictDoubleParse, boolean fromStream) {
+    this.strictDoubleParse = strictDoubleParse;
+    this.fromStream = fromStream;
+  }
+
+  // run the tests when reading from a byte array and from a stream returning the data byte per byte
+  @Parameters
+  public static Collection<Boolean[]> data() {
+    return Arrays.asList(new Boolean[]{true, true}, new Boolean[]{true, false},
+      new Boolean[]{false, true}, new Boolean[]{false, false});
+  }
+
+  @Test public void testReadAsciiAndMultiBytesStrings() throws IOException {
+    ObjectReader reader = createReader("[\"hello\", \"héllo\", \"日本語\", \"smile 😀!\"]");
+    reader.beginArray();
+    reader.next();
+    assertEquals("hello", reader.valueAsString());
+    reader.next();
+    assertEquals("héllo", reader.valueAsString());
+    reader.next();
+    assertEquals("日本語", reader.valueAsString());
+    reader.next();
+    assertEquals("smile 😀!", reader.valueAsString());
+    assertFalse(reader.hasNext());
+    reader.endArray();
+  }
+
+  @Test public void testReadEscapedCharacters() throws IOException {
+    ObjectReader reader = createReader("{\"k\\\"ey\":\"a\\\\b\\/c\\n\\u00e9\\u65e5é\\t\"}");
+    reader.beginObject();
+    reader.next();
+    assertEquals("k\"ey", reader.name());
+    assertEquals("a\\b/c\né日é\t", reader.valueAsString());
+    reader.endObject();
+  }
+
+  @Test public void testReadLongStringOverflowingTheBuffer() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 5000; i++) sb.append(i % 3 == 0 ? "é" : i % 3 == 1 ? "日" : "a");
+    String value = sb.toString();
+
+    ObjectReader reader = createReader("[\"" + value + "\", 1]");
+    reader.beginArray();
+    reader.next();
+    assertEquals(value, reader.valueAsString());
+    reader.next();
+    assertEquals(1, reader.valueAsInt());
+    reader.endArray();
+  }
+
+  @Test public void testMalformedSequencesAreReplaced() throws IOException {
+    byte[] bytes = new byte[]{'[', '"', 'a', (byte) 0xC3, 'b', (byte) 0xFF, '"', ']'};
+    ObjectReader reader = createReader(bytes);
+    reader.beginArray();
+    reader.next();
+    assertEquals("a\uFFFDb\uFFFD", reader.valueAsString());
+    reader.endArray();
+  }
+
+  @Test public void testReadPrimitives() throws IOException {
+    ObjectReader reader = createReader("[1, -22.5, 1e-32, 12345678901234567890, true, false, null]");
+    reader.beginArray();
+    reader.next();
+    assertEquals(1, reader.valueAsInt());
+    reader.next();
+    assertEquals(-22.5, reader.valueAsDouble(), 0);
+    reader.next();
+    assertEquals(1e-32, reader.valueAsDouble(), 1e-45);
+    reader.next();
+    assertEquals(12345678901234567890d, reader.valueAsDouble(), 0);
+    reader.next();
+    assertTrue(reader.valueAsBoolean());
+    reader.next();
+    assertFalse(reader.valueAsBoolean());
+    assertEquals(ValueType.NULL, reader.next());
+    reader.endArray();
+  }
+
+  @Test public void testReadRootLiterals() throws IOException {
+    assertEquals("été", createReader("\"été\"").valueAsString());
+    assertEquals(123, createReader("123").valueAsInt());
+    assertEquals(ValueType.NULL, createReader("").getValueType());
+  }
+
+  @Test public void testReadMetadataAndComments() throws IOException {
+    ObjectReader reader = new Utf8JsonReader(toStream(bytes(
+      "// comment\n{\"@class\": \"café\", /* other */ \"name\": \"é\"}")), strictDoubleParse, true);
+    reader.beginObject();
+    assertEquals("café", reader.metadata("class"));
+    reader.next();
+    assertEquals("name", reader.name());
+    assertEquals("é", reader.valueAsString());
+    reader.endObject();
+  }
+
+  @Test public void testReadOnlyTheSpecifiedRegionOfTheArray() throws IOException {
+    byte[] bytes = bytes("xx[1,2]yy");
+    ObjectReader reader = new Utf8JsonReader(bytes, 2, 5, strictDoubleParse, false);
+    reader.beginArray();
+    reader.next();
+    assertEquals(1, reader.valueAsInt());
+    reader.next();
+    assertEquals(2, reader.valueAsInt());
+    assertFalse(reader.hasNext());
+    reader.endArray();
+    assertFalse(reader.hasNext());
+  }
+
+  @Test public void testParsingErrorPositionDifferentRowWithContent() throws IOException {
+    // as with JsonReader the reported position depends on how the buffer was filled, so read from an array
+    ObjectReader reader = new Utf8JsonReader(bytes("  [1, 2\n, \"éé vb\",\n4330833    \n}"));
+    try {
+      reader.beginArray().endArray();
+      fail();
+    } catch (JsonStreamException e) {
+      assertEquals(0, e.getRow());
+      assertEquals(3, e.getColumn());
+    }
+  }
+
+  @Test public void testIncompleteJsonFails() throws IOException {
+    ObjectReader reader = createReader("[\"abc");
+    reader.beginArray();
+    try {
+      reader.next();
+      fail();
+    } catch (JsonStreamException e) {
+    }
+  }
+
+  @Test public void testReadSameTokensAsJsonReader() throws IOException {
+    for (String resource : Arrays.asList("/TWEETS.json", "/READER_SHORT.json", "/READER_LONG.json",
+      "/MEDIA_CONTENT.json", "/MEDIA_CONTENT_STREAM.json")) {
+      byte[] bytes = readResource(resource);
+      ObjectReader expected = new JsonReader(new InputStreamReader(new ByteArrayInputStream(bytes), "UTF-8"),
+        strictDoubleParse, false);
+      assertSameTokens(expected, createReader(bytes));
+    }
+  }
+
+  private void assertSameTokens(ObjectReader expected, ObjectReader actual) {
+    ValueType type = expected.getValueType();
+    assertEquals(type, actual.getValueType());
+    if (type == ValueType.ARRAY || type == ValueType.OBJECT) {
+      if (type == ValueType.ARRAY) {
+        expected.beginArray();
+        actual.beginArray();
+      } else {
+        expected.beginObject();
+        actual.beginObject();
+      }
+      while (expected.hasNext()) {
+        assertTrue(actual.hasNext());
+        assertEquals(expected.next(), actual.next());
+        if (type == ValueType.OBJECT) assertEquals(expected.name(), actual.name());
+        assertSameTokens(expected, actual);
+      }
+      assertFalse(actual.hasNext());
+      if (type == ValueType.ARRAY) {
+        expected.endArray();
+        actual.endArray();
+      } else {
+        expected.endObject();
+        actual.endObject();
+      }
+    } else {
+      assertEquals(expected.valueAsString(), actual.valueAsString());
+    }
+  }
+
+  private ObjectReader createReader(String json) throws IOException {
+    return createReader(bytes(json));
+  }
+
+  private ObjectReader createReader(byte[] bytes) {
+    if (fromStream) return new Utf8JsonReader(toStream(bytes), strictDoubleParse, false);
+    else return new Utf8JsonReader(bytes, 0, bytes.length, strictDoubleParse, false);
+  }
+
+  private byte[] bytes(String json) throws IOException {
+    return json.getBytes("UTF-8");
+  }
+
+  // returns at most one byte per read, so all the values are split across reads
+  private InputStream toStream(byte[] bytes) {
+    return new ByteArrayInputStream(bytes) {
+      @Override
+      public synchronized int read(byte[] b, int off, int len) {
+        return super.read(b, off, Math.min(len, 1));
+      }
+    };
+  }
+
+  private byte[] readResource(String path) throws IOException {
+    InputStream is = getClass().getResourceAsStream(path);
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    byte[] buffer = new byte[4096];
+    for (int len; (len = is.read(buffer)) > -1; ) baos.write(buffer, 0, len);
+    is.close();
+    return baos.toByteArray();
+  }
+}
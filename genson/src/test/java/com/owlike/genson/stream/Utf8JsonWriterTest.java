@@ -0,0 +1,155 @@
+package com.owlike.genson.stream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class Utf8JsonWriterTest {
+
+  @Test
+  public void testWriteAsciiAndMultiBytesStrings() throws IOException {
+    assertSameAsJsonWriter(new Scenario() {
+      void write(ObjectWriter w) {
+        w.beginArray().writeValue("hello").writeValue("héllo").writeValue("日本語").writeValue("smile 😀!")
+          .writeValue("").endArray();
+      }
+    }, false, false);
+  }
+
+  @Test
+  public void testEscapeSpecialCharacters() throws IOException {
+    final String value = "\"\\/\b\f\n\r\t\u0001\u001f  <>&='é";
+    Scenario scenario = new Scenario() {
+      void write(ObjectWriter w) {
+        w.beginObject().writeName("k\"é\n").writeValue(value).writeName("v").writeUnsafeValue("été").endObject();
+      }
+    };
+    assertSameAsJsonWriter(scenario, false, false);
+    assertSameAsJsonWriter(scenario, true, false);
+  }
+
+  @Test
+  public void testWriteLongStringsOverflowingTheBuffer() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 20000; i++) sb.append(i % 4 == 0 ? "é" : i % 4 == 1 ? "日" : i % 4 == 2 ? "\n" : "😀");
+    final String value = sb.toString();
+    assertSameAsJsonWriter(new Scenario() {
+      void write(ObjectWriter w) {
+        w.beginObject().writeName(value).writeValue(value).writeName("unsafe").writeUnsafeValue(value)
+          .writeName("bytes").writeValue(value.getBytes()).endObject();
+      }
+    }, false, false);
+  }
+
+  @Test
+  public void testWriteNumbers() throws IOException {
+    assertSameAsJsonWriter(new Scenario() {
+      void write(ObjectWriter w) {
+        w.beginArray().writeValue(0).writeValue(-1).writeValue(Integer.MIN_VALUE).writeValue(Integer.MAX_VALUE)
+          .writeValue(Long.MIN_VALUE).writeValue(Long.MAX_VALUE).writeValue((short) -12).writeValue(0.0009)
+          .writeValue(-51.07f).writeValue(new java.math.BigDecimal("123456789.123456789e-5")).endArray();
+      }
+    }, false, false);
+  }
+
+  @Test
+  public void testPrettyPrintAndSkipNull() throws IOException {
+    Scenario scenario = new Scenario() {
+      void write(ObjectWriter w) {
+        w.beginObject().writeName("a").writeNull().writeName("b").beginArray().writeValue(true).writeNull()
+          .beginObject().endObject().endArray().writeName("c").beginObject().writeName("d").writeValue(1)
+          .endObject().endObject();
+      }
+    };
+    assertSameAsJsonWriter(scenario, false, true);
+    assertSameAsJsonWriter(scenario, true, true);
+  }
+
+  @Test
+  public void testWriteMetadata() throws IOException {
+    assertSameAsJsonWriter(new Scenario() {
+      void write(ObjectWriter w) {
+        w.beginArray().beginNextObjectMetadata().writeMetadata("class", "Été").beginObject()
+          .writeMetadata("other", "value").writeName("name").writeValue("x").endObject()
+          .beginNextObjectMetadata().writeMetadata("skipped", "true").writeValue(1).endArray();
+      }
+    }, false, false);
+  }
+
+  @Test
+  public void testUnpairedSurrogatesAreReplaced() throws IOException {
+    Utf8JsonWriter w = new Utf8JsonWriter(false, false, false);
+    w.beginArray().writeValue("a\uD83Db").writeValue("\uDE00").endArray();
+    assertEquals("[\"a?b\",\"?\"]", new String(w.toByteArray(), "UTF-8"));
+  }
+
+  @Test
+  public void testWriteLineSeparatorsAndUnpairedSurrogates() throws IOException {
+    final String[] values = {"a\u2028b\u2029c", "\u2028", "a\uD83Db", "\uDE00", "end \uD83D", "\uDE00\uD83D",
+      "\uD83D\uD83D\uDE00"};
+    assertSameAsJsonWriter(new Scenario() {
+      void write(ObjectWriter w) {
+        w.beginArray();
+        for (String value : values) {
+          w.beginNextObjectMetadata().writeMetadata("class", value).beginObject().writeName(value).writeValue(value)
+            .writeName("unsafe").writeUnsafeValue(value).endObject();
+        }
+        w.endArray();
+      }
+    }, false, false);
+  }
+
+  @Test(expected = JsonStreamException.class)
+  public void testPreventInvalidJsonOutputInObject() {
+    new Utf8JsonWriter(false, false, false).beginObject().writeValue("must fail");
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testToByteArrayIsNotAvailableWhenWritingToAStream() {
+    new Utf8JsonWriter(new ByteArrayOutputStream()).toByteArray();
+  }
+
+  private void assertSameAsJsonWriter(Scenario scenario, boolean skipNull, boolean indent) throws IOException {
+    StringWriter sw = new StringWriter();
+    JsonWriter expectedWriter = new JsonWriter(sw, skipNull, false, indent);
+    scenario.write(expectedWriter);
+    expectedWriter.flush();
+    byte[] expected = sw.toString().getBytes("UTF-8");
+
+    // the writer used by Genson for output streams before Utf8JsonWriter
+    ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+    expectedWriter = new JsonWriter(new OutputStreamWriter(encoded, "UTF-8"), skipNull, false, indent);
+    scenario.write(expectedWriter);
+    expectedWriter.flush();
+    assertArrayEquals(expected, encoded.toByteArray());
+
+    Utf8JsonWriter memoryWriter = new Utf8JsonWriter(skipNull, false, indent);
+    scenario.write(memoryWriter);
+    memoryWriter.flush();
+    assertArrayEquals(expected, memoryWriter.toByteArray());
+
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    Utf8JsonWriter streamWriter = new Utf8JsonWriter(baos, skipNull, false, indent);
+    scenario.write(streamWriter);
+    streamWriter.flush();
+    assertArrayEquals(expected, baos.toByteArray());
+
+    // and with html safe option
+    sw = new StringWriter();
+    expectedWriter = new JsonWriter(sw, skipNull, true, indent);
+    scenario.write(expectedWriter);
+    expectedWriter.flush();
+    memoryWriter = new Utf8JsonWriter(skipNull, true, indent);
+    scenario.write(memoryWriter);
+    assertArrayEquals(sw.toString().getBytes("UTF-8"), memoryWriter.toByteArray());
+  }
+
+  private static abstract class Scenario {
+    abstract void write(ObjectWriter writer);
+  }
+}